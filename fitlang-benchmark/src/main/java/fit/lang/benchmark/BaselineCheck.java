@@ -0,0 +1,150 @@
+package fit.lang.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比JMH结果（-rf json）和基线，任一基准退化超过阈值时返回1，便于在CI中检查性能回退
+ * <p>
+ * 退化需要同时满足：变化超过阈值，且两次结果的误差范围（score ± scoreError）不重叠，避免误差大的基准误报；
+ * 基线或结果的相对误差超过阈值时误差范围无法判断退化，标记为UNUSABLE，没有退化但有UNUSABLE时返回3
+ * <p>
+ * 用法：java -cp benchmarks.jar fit.lang.benchmark.BaselineCheck baseline/baseline.json result.json [阈值百分比，默认20]
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("usage: BaselineCheck <baseline.json> <result.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+
+        Map<String, JSONObject> baseline = load(args[0]);
+        Map<String, JSONObject> result = load(args[1]);
+
+        int regressionCount = 0;
+        int unusableCount = 0;
+        for (Map.Entry<String, JSONObject> entry : result.entrySet()) {
+            JSONObject baseMetric = baseline.get(entry.getKey());
+            if (baseMetric == null) {
+                System.out.println("NEW   " + entry.getKey() + ": " + format(entry.getValue()));
+                continue;
+            }
+            double change = getChangePercent(baseMetric, entry.getValue());
+            boolean regression = change > threshold && isWorseBeyondError(baseMetric, entry.getValue());
+            boolean unusable = !regression && (getErrorPercent(baseMetric) > threshold || getErrorPercent(entry.getValue()) > threshold);
+            if (regression) {
+                regressionCount++;
+            } else if (unusable) {
+                unusableCount++;
+            }
+            String status = regression ? "WORSE " : unusable ? "UNUSABLE " : change > threshold ? "NOISE " : "OK    ";
+            System.out.println(status + entry.getKey() + ": " + format(baseMetric) + " -> " + format(entry.getValue()) + String.format(" (%+.1f%%)", change));
+        }
+        System.out.println("regression: " + regressionCount + ", unusable: " + unusableCount + ", threshold: " + threshold + "%");
+        if (regressionCount > 0) {
+            System.exit(1);
+        }
+        if (unusableCount > 0) {
+            System.exit(3);
+        }
+    }
+
+    /**
+     * 退化百分比：正数表示变慢；吞吐量模式越大越好，其他模式越小越好
+     *
+     * @param base
+     * @param current
+     * @return
+     */
+    static double getChangePercent(JSONObject base, JSONObject current) {
+        double baseScore = base.getDoubleValue("score");
+        double currentScore = current.getDoubleValue("score");
+        if (baseScore == 0 || currentScore == 0) {
+            return 0;
+        }
+        if ("thrpt".equals(current.getString("mode"))) {
+            return (baseScore / currentScore - 1) * 100;
+        }
+        return (currentScore / baseScore - 1) * 100;
+    }
+
+    /**
+     * 当前结果是否在误差范围之外变差：吞吐量模式当前上界低于基线下界，其他模式当前下界高于基线上界
+     *
+     * @param base
+     * @param current
+     * @return
+     */
+    static boolean isWorseBeyondError(JSONObject base, JSONObject current) {
+        double baseScore = base.getDoubleValue("score");
+        double currentScore = current.getDoubleValue("score");
+        double baseError = getScoreError(base);
+        double currentError = getScoreError(current);
+        if ("thrpt".equals(current.getString("mode"))) {
+            return currentScore + currentError < baseScore - baseError;
+        }
+        return currentScore - currentError > baseScore + baseError;
+    }
+
+    /**
+     * 误差：只有一次迭代时JMH输出NaN，按0处理
+     *
+     * @param metric
+     * @return
+     */
+    static double getScoreError(JSONObject metric) {
+        Object error = metric.get("scoreError");
+        if (!(error instanceof Number) || Double.isNaN(((Number) error).doubleValue())) {
+            return 0;
+        }
+        return ((Number) error).doubleValue();
+    }
+
+    /**
+     * 相对误差百分比：scoreError / score
+     *
+     * @param metric
+     * @return
+     */
+    static double getErrorPercent(JSONObject metric) {
+        double score = metric.getDoubleValue("score");
+        if (score == 0) {
+            return 0;
+        }
+        return getScoreError(metric) / Math.abs(score) * 100;
+    }
+
+    /**
+     * 按“基准方法+参数”索引主指标
+     *
+     * @param path
+     * @return
+     */
+    static Map<String, JSONObject> load(String path) {
+        JSONArray list = JSONArray.parseArray(FileUtil.readString(path, StandardCharsets.UTF_8));
+        Map<String, JSONObject> map = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            JSONObject item = list.getJSONObject(i);
+            String key = item.getString("benchmark");
+            JSONObject params = item.getJSONObject("params");
+            if (params != null && !params.isEmpty()) {
+                key = key + params.toJSONString();
+            }
+            JSONObject metric = item.getJSONObject("primaryMetric");
+            metric.put("mode", item.getString("mode"));
+            map.put(key, metric);
+        }
+        return map;
+    }
+
+    static String format(JSONObject metric) {
+        return String.format("%.3f +- %.3f %s (%.1f%%)", metric.getDoubleValue("score"), getScoreError(metric), metric.getString("scoreUnit"), getErrorPercent(metric));
+    }
+}
@@ -0,0 +1,80 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+/**
+ * 基准测试数据：按规模生成输入，固定随机种子保证每次结果可比
+ */
+public class BenchmarkData {
+
+    /**
+     * 生成嵌套数组：{f:[{a,b,c:[{c1,c2}]}]}
+     *
+     * @param size      外层数组大小
+     * @param childSize 内层数组大小
+     * @return
+     */
+    public static JSONObject buildNestedArray(int size, int childSize) {
+        JSONArray list = new JSONArray(size);
+        for (int i = 0; i < size; i++) {
+            JSONObject item = new JSONObject();
+            item.put("a", "a" + i);
+            item.put("b", i);
+            JSONArray children = new JSONArray(childSize);
+            for (int j = 0; j < childSize; j++) {
+                JSONObject child = new JSONObject();
+                child.put("c1", "c" + i + "_" + j);
+                child.put("c2", j);
+                children.add(child);
+            }
+            item.put("c", children);
+            list.add(item);
+        }
+        JSONObject json = new JSONObject();
+        json.put("f", list);
+        return json;
+    }
+
+    /**
+     * 生成多层对象，每层fieldSize个字段
+     *
+     * @param depth
+     * @param fieldSize
+     * @param seed      不同的种子生成部分值不同的对象
+     * @return
+     */
+    public static JSONObject buildDeepObject(int depth, int fieldSize, int seed) {
+        JSONObject json = new JSONObject();
+        for (int i = 0; i < fieldSize; i++) {
+            json.put("field" + i, (i % 10 == 0) ? "value" + i + "_" + seed : "value" + i);
+        }
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < 5; i++) {
+            list.add(i * seed % 7);
+        }
+        json.put("list", list);
+        if (depth > 1) {
+            json.put("child", buildDeepObject(depth - 1, fieldSize, seed));
+        }
+        return json;
+    }
+
+    /**
+     * 生成foreach的输入：{list:[{index},...]}
+     *
+     * @param size
+     * @return
+     */
+    public static JSONObject buildList(int size) {
+        JSONArray list = new JSONArray(size);
+        for (int i = 0; i < size; i++) {
+            JSONObject item = new JSONObject();
+            item.put("index", i);
+            list.add(item);
+        }
+        JSONObject json = new JSONObject();
+        json.put("list", list);
+        return json;
+    }
+}
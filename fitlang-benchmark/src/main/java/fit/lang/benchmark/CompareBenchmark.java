@@ -0,0 +1,50 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.CompareUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * json比较：大文档的compare和equals
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class CompareBenchmark {
+
+    @Param({"3", "6"})
+    int depth;
+
+    JSONObject json1;
+
+    JSONObject json2;
+
+    JSONObject json1Copy;
+
+    @Setup
+    public void setup() {
+        json1 = BenchmarkData.buildDeepObject(depth, 50, 1);
+        json2 = BenchmarkData.buildDeepObject(depth, 50, 2);
+        json1Copy = BenchmarkData.buildDeepObject(depth, 50, 1);
+    }
+
+    @Benchmark
+    public Object compare() {
+        return CompareUtils.compare(json1, json2);
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return CompareUtils.equals(json1, json1Copy);
+    }
+
+    @Benchmark
+    public boolean equalsDiff() {
+        return CompareUtils.equals(json1, json2);
+    }
+}
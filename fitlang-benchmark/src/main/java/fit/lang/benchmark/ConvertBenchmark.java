@@ -0,0 +1,53 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.define.JsonExecuteNodeData;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * convert节点：嵌套数组的路径转换
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ConvertBenchmark {
+
+    static final String FLOW = "{'uni':'convert','express':{" +
+            "'E[].E1':'${f[].a}'," +
+            "'E[].E2':'${f[].b}'," +
+            "'E[].E3[].E1':'${f[].c[].c1}'," +
+            "'E[].E3[].E2':'${f[].c[].c2}'" +
+            "}}";
+
+    @Param({"10", "100"})
+    int size;
+
+    ExecuteNode node;
+
+    JSONObject data;
+
+    @Setup
+    public void setup() {
+        node = JsonDynamicFlowExecuteEngine.createExecuteNode(JSONObject.parseObject(FLOW), new JsonExecuteContext());
+        data = BenchmarkData.buildNestedArray(size, 10);
+    }
+
+    @Benchmark
+    public Object convert() {
+        JsonExecuteContext context = new JsonExecuteContext();
+        JsonExecuteNodeInput input = new JsonExecuteNodeInput(new JsonExecuteNodeData(data), context);
+        JsonExecuteNodeOutput output = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), context);
+        node.executeAndNext(input, output);
+        return output.getData();
+    }
+}
@@ -0,0 +1,60 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExpressUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.define.JsonExecuteNodeData;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 表达式求值和入参、上下文参数合并
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ExpressBenchmark {
+
+    JSONObject param;
+
+    JSONObject expressJson;
+
+    JsonExecuteNodeInput input;
+
+    @Setup
+    public void setup() {
+        param = JSONObject.parseObject("{'a':1,'b':'hello','c':{'d':[1,2,3],'e':'world'}}");
+        expressJson = JSONObject.parseObject("{'x':'${a}','y':'${b + c.e}','z':{'size':'${c.d.size()}','text':'text-${b}'}}");
+
+        JsonExecuteContext context = new JsonExecuteContext();
+        for (int i = 0; i < 20; i++) {
+            context.setAttribute("attr" + i, i);
+        }
+        input = new JsonExecuteNodeInput(new JsonExecuteNodeData(BenchmarkData.buildDeepObject(2, 20, 1)), context);
+    }
+
+    @Benchmark
+    public Object evalField() {
+        return ExpressUtil.eval("${a}", param);
+    }
+
+    @Benchmark
+    public Object evalExpress() {
+        return ExpressUtil.eval("${b + c.e}", param);
+    }
+
+    @Benchmark
+    public Object evalJson() {
+        return ExpressUtil.eval(expressJson, param);
+    }
+
+    @Benchmark
+    public Object inputParamAndContextParam() {
+        return input.getInputParamAndContextParam();
+    }
+}
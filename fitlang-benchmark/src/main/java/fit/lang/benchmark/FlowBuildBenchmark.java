@@ -0,0 +1,52 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流程构建耗时：JsonDynamicFlowExecuteEngine.createExecuteNode，不使用执行计划缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class FlowBuildBenchmark {
+
+    static final String SMALL_FLOW = "{'uni':'sequence','child':[" +
+            "{'uni':'mix','json':{'a':'${b}'}}," +
+            "{'uni':'convert','express':{'c':'${a}'}}" +
+            "]}";
+
+    static final String LARGE_FLOW = "{'uni':'sequence','child':[" +
+            "{'uni':'mix','json':{'a':'${b}'}}," +
+            "{'uni':'switch','switchField':'type','case':{" +
+            "  'x':{'uni':'convert','express':{'c':'${a}'}}," +
+            "  'y':{'uni':'sequence','child':[{'uni':'mix','json':{'y':1}},{'uni':'removeField','fieldNames':['y']}]}" +
+            "}}," +
+            "{'uni':'foreach','foreachField':'list','parallelism':4,'child':{'uni':'convert','express':{'d':'${index}'}}}," +
+            "{'uni':'loop','loopTimes':3,'child':{'uni':'mix','json':{'loop':true}}}," +
+            "{'uni':'parallel','child':[{'uni':'mix','json':{'p1':1}},{'uni':'mix','json':{'p2':2}}]}" +
+            "]}";
+
+    @Param({"small", "large"})
+    String flow;
+
+    JSONObject flowDefine;
+
+    @Setup
+    public void setup() {
+        flowDefine = JSONObject.parseObject("small".equals(flow) ? SMALL_FLOW : LARGE_FLOW);
+    }
+
+    @Benchmark
+    public ExecuteNode createExecuteNode() {
+        return JsonDynamicFlowExecuteEngine.createExecuteNode(flowDefine, new JsonExecuteContext());
+    }
+}
@@ -0,0 +1,59 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.define.JsonExecuteNodeData;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * foreach和loop节点：不同并行度的执行耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ForeachBenchmark {
+
+    @Param({"1", "4", "16"})
+    int parallelism;
+
+    ExecuteNode foreachNode;
+
+    ExecuteNode loopNode;
+
+    JSONObject data;
+
+    @Setup
+    public void setup() {
+        String child = "{'uni':'convert','express':{'index':'${index}','text':'item-${index}'}}";
+        foreachNode = JsonDynamicFlowExecuteEngine.createExecuteNode(JSONObject.parseObject("{'uni':'foreach','foreachField':'list','parallelism':" + parallelism + ",'child':" + child + "}"), new JsonExecuteContext());
+        loopNode = JsonDynamicFlowExecuteEngine.createExecuteNode(JSONObject.parseObject("{'uni':'loop','loopTimes':200,'parallelism':" + parallelism + ",'child':{'uni':'mix','json':{'loop':true}}}"), new JsonExecuteContext());
+        data = BenchmarkData.buildList(200);
+    }
+
+    @Benchmark
+    public Object foreach() {
+        return execute(foreachNode, data);
+    }
+
+    @Benchmark
+    public Object loop() {
+        return execute(loopNode, new JSONObject());
+    }
+
+    static Object execute(ExecuteNode node, JSONObject data) {
+        JsonExecuteContext context = new JsonExecuteContext();
+        JsonExecuteNodeInput input = new JsonExecuteNodeInput(new JsonExecuteNodeData(data), context);
+        JsonExecuteNodeOutput output = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), context);
+        node.executeAndNext(input, output);
+        return output.getData();
+    }
+}
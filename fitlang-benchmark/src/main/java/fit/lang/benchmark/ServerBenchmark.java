@@ -0,0 +1,59 @@
+package fit.lang.benchmark;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import fit.lang.plugin.json.web.server.FitServerInstance;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端请求：server节点启动服务，http节点请求，包含路由、流程执行和客户端连接复用
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ServerBenchmark {
+
+    static final int PORT = Integer.getInteger("fit.benchmark.port", 11301);
+
+    JSONObject requestFlow;
+
+    JSONObject input;
+
+    @Setup
+    public void setup() {
+        String serverFlow = "{'uni':'server','port':" + PORT + ",'service':{" +
+                "'/echo':{'uni':'mix','json':{'echo':true}}," +
+                "'/convert':{'uni':'convert','express':{'name':'${name}','size':'${list.size()}'}}" +
+                "}}";
+        ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(serverFlow));
+
+        requestFlow = JSONObject.parseObject("{'uni':'http','method':'POST','url':'http://127.0.0.1:" + PORT + "/convert'}");
+        input = JSONObject.parseObject("{'name':'fit','list':[1,2,3]}");
+    }
+
+    @TearDown
+    public void tearDown() {
+        FitServerInstance fitServer = ServerJsonExecuteNode.getFitServerInstance(PORT);
+        if (fitServer != null) {
+            fitServer.getSimpleServer().getRawServer().stop(0);
+            fitServer.getExecutor().shutdown();
+        }
+    }
+
+    @Benchmark
+    public Object request() {
+        return ExecuteJsonNodeUtil.executeJson(input, requestFlow);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object concurrentRequest() {
+        return ExecuteJsonNodeUtil.executeJson(input, requestFlow);
+    }
+}
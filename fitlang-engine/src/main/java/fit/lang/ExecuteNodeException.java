@@ -9,4 +9,8 @@ public class ExecuteNodeException extends RuntimeException {
     public ExecuteNodeException(String message, Exception exception) {
         super(message, exception);
     }
+
+    public ExecuteNodeException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
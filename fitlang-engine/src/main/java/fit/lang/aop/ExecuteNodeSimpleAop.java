@@ -4,7 +4,14 @@ import fit.lang.define.ExecuteNode;
 import fit.lang.define.ExecuteNodeAopIgnoreTag;
 import fit.lang.define.ExecuteNodeInput;
 import fit.lang.define.ExecuteNodeOutput;
+import fit.lang.ExecuteReturnNodeException;
+import fit.lang.common.AbstractExecuteNode;
 import fit.lang.info.NodeExecuteInfo;
+import fit.lang.info.NodeMetrics;
+import fit.lang.info.NodeMetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
 
 import static fit.lang.ExecuteNodeUtil.buildDefaultNodeId;
 
@@ -13,6 +20,13 @@ import static fit.lang.ExecuteNodeUtil.buildDefaultNodeId;
  */
 public class ExecuteNodeSimpleAop {
 
+    /**
+     * 当前线程执行中的节点，用于统计节点指标；异常退出的节点在上层节点结束时出栈
+     */
+    static final ThreadLocal<ArrayDeque<MetricsFrame>> metricsFrameStack = ThreadLocal.withInitial(ArrayDeque::new);
+
+    static final int MAX_METRICS_FRAME_DEPTH = 1024;
+
     public static void beforeExecute(ExecuteNodeInput input, ExecuteNode executeNode, ExecuteNodeOutput output) {
 
         if(executeNode.getNodeContext() == null) {
@@ -21,32 +35,143 @@ public class ExecuteNodeSimpleAop {
         buildDefaultNodeId(executeNode);
 
         String id = executeNode.getId();
+        TraceLevel traceLevel = input.getNodeContext().getTraceLevel();
         if (!(executeNode instanceof ExecuteNodeAopIgnoreTag)) {
-            Object data = input.getNodeData().getData();
+            if (traceLevel.isStoreData()) {
+                input.getNodeContext().storeNodeInput(id, input.getNodeData().cloneData());
+            }
             if (executeNode.isNeedCloneInputData()) {
-                input.getNodeData().setData(input.getNodeData().cloneData());
+                input.setNodeData(input.getNodeData().cloneThis());
             }
-            input.getNodeContext().storeNodeInput(id, data);
         }
 
-        if (executeNode.getNodeContext() != null) {
+        if (traceLevel.isTiming() && executeNode.getNodeContext() != null) {
             if (executeNode.getNodeExecuteInfo() == null) {
                 executeNode.getNodeContext().setNodeExecuteInfo(id, new NodeExecuteInfo());
             }
             executeNode.getNodeExecuteInfo().setBeginTime(System.currentTimeMillis());
 //            executeNode.getNodeExecuteInfo().increaseBeginCount();
         }
+
+        if (traceLevel.isTiming() && NodeMetricsRegistry.isEnabled()) {
+            beginMetrics(input, executeNode);
+        }
     }
 
     public static void afterExecute(ExecuteNodeInput input, ExecuteNode executeNode, ExecuteNodeOutput output) {
         String id = executeNode.getId();
+        TraceLevel traceLevel = input.getNodeContext().getTraceLevel();
 
-        if (!(executeNode instanceof ExecuteNodeAopIgnoreTag)) {
-            input.getNodeContext().storeNodeOutput(id, output.getNodeData().getData());
+        if (traceLevel.isStoreData() && !(executeNode instanceof ExecuteNodeAopIgnoreTag)) {
+            input.getNodeContext().storeNodeOutput(id, output.getNodeData().getReadOnlyData());
         }
-        if (executeNode.getNodeContext() != null) {
-            executeNode.getNodeContext().getNodeExecuteInfo(id).setEndTime(System.currentTimeMillis());
+        if (traceLevel.isTiming() && executeNode.getNodeContext() != null) {
+            NodeExecuteInfo nodeExecuteInfo = executeNode.getNodeContext().getNodeExecuteInfo(id);
+            if (nodeExecuteInfo != null) {
+                nodeExecuteInfo.setEndTime(System.currentTimeMillis());
+            }
 //            executeNode.getNodeExecuteInfo().increaseEndCount();
         }
+
+        endMetrics(executeNode, output.getNodeData() == null ? null : output.getNodeData().getReadOnlyData(), false);
+    }
+
+    /**
+     * 节点执行异常
+     *
+     * @param input
+     * @param executeNode
+     * @param e
+     */
+    public static void afterException(ExecuteNodeInput input, ExecuteNode executeNode, Throwable e) {
+        //return节点通过异常实现，不算异常
+        boolean isReturn = e instanceof ExecuteReturnNodeException;
+        endMetrics(executeNode, null, !isReturn);
+        if (isReturn) {
+            for (MetricsFrame frame : metricsFrameStack.get()) {
+                frame.returning = true;
+            }
+        }
+    }
+
+    static void beginMetrics(ExecuteNodeInput input, ExecuteNode executeNode) {
+        ArrayDeque<MetricsFrame> stack = metricsFrameStack.get();
+        if (stack.size() >= MAX_METRICS_FRAME_DEPTH) {
+            stack.clear();
+        }
+        //忽略aop的节点（如流程引擎）不统计，但入栈用于清理异常退出的子节点
+        NodeMetrics metrics = executeNode instanceof ExecuteNodeAopIgnoreTag ? null : getNodeMetrics(getFlowPath(input), executeNode);
+        stack.push(new MetricsFrame(executeNode, metrics, System.nanoTime()));
+    }
+
+    static void endMetrics(ExecuteNode executeNode, Object payload, boolean error) {
+        ArrayDeque<MetricsFrame> stack = metricsFrameStack.get();
+        if (stack.isEmpty()) {
+            return;
+        }
+        boolean found = false;
+        for (Iterator<MetricsFrame> iterator = stack.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().executeNode == executeNode) {
+                found = true;
+                break;
+            }
+        }
+        if (!found) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (!stack.isEmpty()) {
+            MetricsFrame frame = stack.pop();
+            if (frame.executeNode == executeNode) {
+                NodeMetricsRegistry.record(frame.metrics, now - frame.beginNanos, error, payload);
+                break;
+            }
+            //未正常结束的子节点
+            NodeMetricsRegistry.record(frame.metrics, now - frame.beginNanos, !frame.returning, null);
+        }
+    }
+
+    /**
+     * 节点指标的流程路径：服务路径或流程文件路径
+     *
+     * @param input
+     * @return
+     */
+    public static String getFlowPath(ExecuteNodeInput input) {
+        Object flowPath = input.getNodeContext().getAttribute("servicePath");
+        if (flowPath == null) {
+            flowPath = input.getNodeContext().getAttribute("filePath");
+        }
+        return flowPath == null ? "" : flowPath.toString();
+    }
+
+    static NodeMetrics getNodeMetrics(String flowPath, ExecuteNode executeNode) {
+        if (!(executeNode instanceof AbstractExecuteNode)) {
+            return NodeMetricsRegistry.getMetrics(flowPath, NodeMetricsRegistry.getStableNodeId(executeNode.getId()), executeNode.getUni());
+        }
+        AbstractExecuteNode node = (AbstractExecuteNode) executeNode;
+        NodeMetrics metrics = node.getNodeMetrics();
+        if (metrics == null || !metrics.getFlowPath().equals(flowPath)) {
+            metrics = NodeMetricsRegistry.getMetrics(flowPath, NodeMetricsRegistry.getStableNodeId(executeNode.getId()), executeNode.getUni());
+            node.setNodeMetrics(metrics);
+        }
+        return metrics;
+    }
+
+    static class MetricsFrame {
+
+        final ExecuteNode executeNode;
+
+        final NodeMetrics metrics;
+
+        final long beginNanos;
+
+        boolean returning;
+
+        MetricsFrame(ExecuteNode executeNode, NodeMetrics metrics, long beginNanos) {
+            this.executeNode = executeNode;
+            this.metrics = metrics;
+            this.beginNanos = beginNanos;
+        }
     }
 }
\ No newline at end of file
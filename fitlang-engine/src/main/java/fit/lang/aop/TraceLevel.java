@@ -0,0 +1,53 @@
+package fit.lang.aop;
+
+/**
+ * 执行跟踪级别
+ */
+public enum TraceLevel {
+
+    /**
+     * 不记录
+     */
+    OFF,
+
+    /**
+     * 只记录节点执行时间
+     */
+    TIMING,
+
+    /**
+     * 按采样率记录完整出入参，未采中的只记录执行时间
+     */
+    SAMPLED,
+
+    /**
+     * 记录执行时间和每个节点的出入参
+     */
+    FULL;
+
+    public boolean isTiming() {
+        return this != OFF;
+    }
+
+    public boolean isStoreData() {
+        return this == FULL;
+    }
+
+    /**
+     * 解析配置：off, timing, sampled, full
+     *
+     * @param level
+     * @return 无法识别时返回null
+     */
+    public static TraceLevel parse(String level) {
+        if (level == null) {
+            return null;
+        }
+        for (TraceLevel traceLevel : values()) {
+            if (traceLevel.name().equalsIgnoreCase(level.trim())) {
+                return traceLevel;
+            }
+        }
+        return null;
+    }
+}
@@ -1,19 +1,29 @@
 package fit.lang.common;
 
+import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
+import fit.lang.aop.TraceLevel;
 import fit.lang.define.ExecuteContext;
 import fit.lang.info.NodeExecuteInfo;
 
+import java.util.AbstractMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 执行上下文
  */
 public abstract class AbstractExecuteContext implements ExecuteContext {
 
-    int nodeIndex = 100;
+    /**
+     * 默认节点id序号，fork时与父上下文共用，避免并行的子上下文生成相同的id
+     */
+    AtomicInteger nodeIndex = new AtomicInteger(100);
 
     Map<String, Object> attributeMap = new ConcurrentHashMap<>();
 
@@ -29,11 +39,109 @@ public abstract class AbstractExecuteContext implements ExecuteContext {
 
     Boolean debugMode;
 
+    /**
+     * 默认跟踪级别，保持原有行为记录全部出入参
+     */
+    static volatile TraceLevel defaultTraceLevel = TraceLevel.FULL;
+
+    TraceLevel traceLevel;
+
+    /**
+     * 采样率：0~1
+     */
+    double traceSampleRate = 0.01;
+
+    /**
+     * 出入参最多保留的字节数（按json估算），小于等于0不限制
+     */
+    long traceMaxBytes;
+
+    /**
+     * 采样结果，每次执行只决定一次
+     */
+    TraceLevel sampledTraceLevel;
+
+    AtomicLong traceRetainedBytes = new AtomicLong();
+
+    AtomicLong traceDroppedCount = new AtomicLong();
+
+    Map<String, Long> traceValueSizeMap = new ConcurrentHashMap<>();
+
     String instanceId = "I-" + System.currentTimeMillis();
 
+    /**
+     * 父上下文，fork时设置
+     */
+    AbstractExecuteContext parentContext;
+
+    /**
+     * 子上下文对外的属性视图：本地属性优先，其次父上下文
+     */
+    Map<String, Object> forkedAttributeView;
+
+    /**
+     * 子上下文中删除的属性，父上下文的值不再可见，合并时在父上下文中删除
+     */
+    Set<String> removedAttributeNames;
+
+    /**
+     * 创建同类型的空上下文
+     *
+     * @return
+     */
+    protected abstract AbstractExecuteContext newContext();
+
+    /**
+     * 创建子上下文：节点信息、出入参记录与父上下文共用，属性只读继承，写入只在本地
+     *
+     * @return
+     */
+    @Override
+    public AbstractExecuteContext fork() {
+        AbstractExecuteContext childContext = newContext();
+        childContext.parentContext = this;
+        childContext.attributeMap = new ConcurrentHashMap<>();
+        childContext.nodeInputOutputMap = nodeInputOutputMap;
+        childContext.nodeExecuteInfoMap = nodeExecuteInfoMap;
+        childContext.nodeMap = nodeMap;
+        childContext.debugMode = debugMode;
+        childContext.traceLevel = getTraceLevel();
+        childContext.traceSampleRate = traceSampleRate;
+        childContext.traceMaxBytes = traceMaxBytes;
+        childContext.traceRetainedBytes = traceRetainedBytes;
+        childContext.traceDroppedCount = traceDroppedCount;
+        childContext.traceValueSizeMap = traceValueSizeMap;
+        childContext.instanceId = instanceId;
+        childContext.nodeIndex = nodeIndex;
+        childContext.removedAttributeNames = ConcurrentHashMap.newKeySet();
+        childContext.forkedAttributeView = new ForkedAttributeMap(childContext.attributeMap, getAllAttribute(), childContext.removedAttributeNames);
+        return childContext;
+    }
+
+    /**
+     * 子上下文写入的属性合并回当前上下文，调用方按迭代顺序合并即可得到确定结果
+     *
+     * @param childContext
+     */
+    @Override
+    public void merge(ExecuteContext childContext) {
+        AbstractExecuteContext context = (AbstractExecuteContext) childContext;
+        if (context.parentContext != this) {
+            return;
+        }
+        for (String name : context.removedAttributeNames) {
+            attributeMap.remove(name);
+        }
+        attributeMap.putAll(context.attributeMap);
+    }
+
+    public AbstractExecuteContext getParentContext() {
+        return parentContext;
+    }
+
     @Override
     public String buildNextNodeId(String uni) {
-        return instanceId + "-" + uni + "-" + nodeIndex++;
+        return instanceId + "-" + uni + "-" + nodeIndex.getAndIncrement();
     }
 
     public void setInstanceId(String instanceId) {
@@ -49,28 +157,114 @@ public abstract class AbstractExecuteContext implements ExecuteContext {
         this.debugMode = debugMode;
     }
 
+    public static TraceLevel getDefaultTraceLevel() {
+        return defaultTraceLevel;
+    }
+
+    public static void setDefaultTraceLevel(TraceLevel defaultTraceLevel) {
+        if (defaultTraceLevel != null) {
+            AbstractExecuteContext.defaultTraceLevel = defaultTraceLevel;
+        }
+    }
+
+    @Override
+    public TraceLevel getTraceLevel() {
+        if (isDebugMode()) {
+            return TraceLevel.FULL;
+        }
+        TraceLevel level = traceLevel == null ? defaultTraceLevel : traceLevel;
+        if (level != TraceLevel.SAMPLED) {
+            return level;
+        }
+        if (sampledTraceLevel == null) {
+            sampledTraceLevel = ThreadLocalRandom.current().nextDouble() < traceSampleRate ? TraceLevel.FULL : TraceLevel.TIMING;
+        }
+        return sampledTraceLevel;
+    }
+
+    public void setTraceLevel(TraceLevel traceLevel) {
+        this.traceLevel = traceLevel;
+        sampledTraceLevel = null;
+    }
+
+    public double getTraceSampleRate() {
+        return traceSampleRate;
+    }
+
+    public void setTraceSampleRate(double traceSampleRate) {
+        this.traceSampleRate = traceSampleRate;
+        sampledTraceLevel = null;
+    }
+
+    public long getTraceMaxBytes() {
+        return traceMaxBytes;
+    }
+
+    public void setTraceMaxBytes(long traceMaxBytes) {
+        this.traceMaxBytes = traceMaxBytes;
+    }
+
+    public long getTraceRetainedBytes() {
+        return traceRetainedBytes.get();
+    }
+
+    public long getTraceDroppedCount() {
+        return traceDroppedCount.get();
+    }
+
+    /**
+     * 按流程定义配置跟踪：traceLevel, traceSampleRate, traceMaxBytes
+     *
+     * @param define
+     */
+    public void setTraceConfig(JSONObject define) {
+        if (define == null) {
+            return;
+        }
+        TraceLevel level = TraceLevel.parse(define.getString("traceLevel"));
+        if (level != null) {
+            setTraceLevel(level);
+        }
+        if (define.getDouble("traceSampleRate") != null) {
+            setTraceSampleRate(define.getDouble("traceSampleRate"));
+        }
+        if (define.getLong("traceMaxBytes") != null) {
+            setTraceMaxBytes(define.getLong("traceMaxBytes"));
+        }
+    }
+
     public String getInstanceId() {
         return instanceId;
     }
 
     @Override
     public Object getAttribute(String name) {
-        return attributeMap.get(name);
+        Object value = attributeMap.get(name);
+        if (value == null && parentContext != null && !removedAttributeNames.contains(name)) {
+            return parentContext.getAttribute(name);
+        }
+        return value;
     }
 
     @Override
     public void setAttribute(String name, Object value) {
         attributeMap.put(name, value);
+        if (removedAttributeNames != null) {
+            removedAttributeNames.remove(name);
+        }
     }
 
     public Map<String, Object> getAllAttribute() {
+        if (forkedAttributeView != null) {
+            return forkedAttributeView;
+        }
         return attributeMap;
     }
 
     public void putAllAttribute(JSONObject jsonObject) {
         for (Map.Entry<String, Object> entry : jsonObject.entrySet()) {
             if (entry.getKey() != null && entry.getValue() != null) {
-                attributeMap.put(entry.getKey(), entry.getValue());
+                setAttribute(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -102,6 +296,9 @@ public abstract class AbstractExecuteContext implements ExecuteContext {
     }
 
     public void storeNodeValue(String nodeId, String type, Object value) {
+        if (traceMaxBytes > 0 && !reserveTraceBytes(nodeId + "." + type, value)) {
+            return;
+        }
         Map<String, Object> nodeMap = nodeInputOutputMap.get(nodeId);
         if (nodeMap == null) {
             nodeMap = new LinkedHashMap<>();
@@ -110,4 +307,81 @@ public abstract class AbstractExecuteContext implements ExecuteContext {
         nodeMap.put(type, value);
     }
 
+    /**
+     * 占用保留字节数，超过上限时放弃记录
+     *
+     * @param key
+     * @param value
+     * @return
+     */
+    boolean reserveTraceBytes(String key, Object value) {
+        long size = value == null ? 0 : JSON.toJSONBytes(value).length;
+        Long oldSize = traceValueSizeMap.get(key);
+        long delta = size - (oldSize == null ? 0 : oldSize);
+        if (traceRetainedBytes.addAndGet(delta) > traceMaxBytes) {
+            traceRetainedBytes.addAndGet(-delta);
+            traceDroppedCount.incrementAndGet();
+            return false;
+        }
+        traceValueSizeMap.put(key, size);
+        return true;
+    }
+
+    /**
+     * 分层属性视图：读先本地后父级，写只写本地；删除父级的属性时记录删除，之后不再读取父级的值
+     */
+    static class ForkedAttributeMap extends AbstractMap<String, Object> {
+
+        final Map<String, Object> localMap;
+
+        final Map<String, Object> parentMap;
+
+        final Set<String> removedKeys;
+
+        ForkedAttributeMap(Map<String, Object> localMap, Map<String, Object> parentMap, Set<String> removedKeys) {
+            this.localMap = localMap;
+            this.parentMap = parentMap;
+            this.removedKeys = removedKeys;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Object value = localMap.get(key);
+            if (value != null || removedKeys.contains(key)) {
+                return value;
+            }
+            return parentMap.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return localMap.containsKey(key) || (!removedKeys.contains(key) && parentMap.containsKey(key));
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object oldValue = get(key);
+            localMap.put(key, value);
+            removedKeys.remove(key);
+            return oldValue;
+        }
+
+        @Override
+        public Object remove(Object key) {
+            Object oldValue = get(key);
+            localMap.remove(key);
+            if (key instanceof String && parentMap.containsKey(key)) {
+                removedKeys.add((String) key);
+            }
+            return oldValue;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            Map<String, Object> merged = new LinkedHashMap<>(parentMap);
+            merged.keySet().removeAll(removedKeys);
+            merged.putAll(localMap);
+            return merged.entrySet();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package fit.lang.common;
 
 import fit.lang.define.*;
 import fit.lang.info.NodeExecuteInfo;
+import fit.lang.info.NodeMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -61,6 +62,11 @@ public abstract class AbstractExecuteNode implements ExecuteNode {
 
     protected List<ExecuteNode> childNodes = new ArrayList<>(1);
 
+    /**
+     * 指标缓存，避免每次执行拼接key查找
+     */
+    protected NodeMetrics nodeMetrics;
+
     @Override
     public String getUni() {
         return uni;
@@ -75,6 +81,14 @@ public abstract class AbstractExecuteNode implements ExecuteNode {
         return id;
     }
 
+    public NodeMetrics getNodeMetrics() {
+        return nodeMetrics;
+    }
+
+    public void setNodeMetrics(NodeMetrics nodeMetrics) {
+        this.nodeMetrics = nodeMetrics;
+    }
+
     public void setId(String id) {
         this.id = id;
     }
@@ -173,7 +187,7 @@ public abstract class AbstractExecuteNode implements ExecuteNode {
 
             for (ExecuteNode nextNode : getNextNodes()) {
                 if (this.isNeedCloneInputData()) {
-                    input.getNodeData().setData(input.getNodeData().cloneData());
+                    input.setNodeData(input.getNodeData().cloneThis());
                 }
                 nextNode.executeAndNext(input, output);
             }
@@ -0,0 +1,431 @@
+package fit.lang.common;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static fit.lang.ExecuteNodeUtil.getAllException;
+
+/**
+ * 并行执行调度器：引擎共享，foreach/loop等并行节点不再每次创建线程池
+ * <p>
+ * JDK21+ 默认使用虚拟线程，否则使用有界平台线程池；线程池满时由提交线程直接执行，避免嵌套并行时死锁
+ */
+public class ExecuteNodeScheduler {
+
+    public static final String MODE_VIRTUAL = "virtual";
+
+    public static final String MODE_PLATFORM = "platform";
+
+    static volatile ExecuteNodeScheduler defaultScheduler;
+
+    final ExecutorService executorService;
+
+    final String mode;
+
+    /**
+     * 单次并行执行的最大并行数
+     */
+    volatile int maxParallelism;
+
+    final AtomicInteger activeCount = new AtomicInteger();
+
+    final AtomicInteger waitingCount = new AtomicInteger();
+
+    final AtomicLong submittedCount = new AtomicLong();
+
+    final AtomicLong completedCount = new AtomicLong();
+
+    final AtomicLong failedCount = new AtomicLong();
+
+    final AtomicLong cancelledCount = new AtomicLong();
+
+    final AtomicLong callerRunsCount = new AtomicLong();
+
+    public ExecuteNodeScheduler(ExecutorService executorService, String mode, int maxParallelism) {
+        this.executorService = executorService;
+        this.mode = mode;
+        this.maxParallelism = maxParallelism;
+    }
+
+    public static ExecuteNodeScheduler getDefault() {
+        if (defaultScheduler == null) {
+            synchronized (ExecuteNodeScheduler.class) {
+                if (defaultScheduler == null) {
+                    defaultScheduler = create(!"false".equals(System.getProperty("fit.scheduler.virtual")));
+                }
+            }
+        }
+        return defaultScheduler;
+    }
+
+    public static void setDefault(ExecuteNodeScheduler scheduler) {
+        defaultScheduler = scheduler;
+    }
+
+    /**
+     * 创建调度器
+     *
+     * @param useVirtualThread 是否优先使用虚拟线程
+     * @return
+     */
+    public static ExecuteNodeScheduler create(boolean useVirtualThread) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (useVirtualThread) {
+            ExecutorService virtualExecutor = createVirtualThreadExecutor();
+            if (virtualExecutor != null) {
+                return new ExecuteNodeScheduler(virtualExecutor, MODE_VIRTUAL, Math.max(256, processors * 16));
+            }
+        }
+        int maxPoolSize = Integer.getInteger("fit.scheduler.maxPoolSize", Math.max(64, processors * 8));
+        return new ExecuteNodeScheduler(createPlatformExecutor(processors, maxPoolSize), MODE_PLATFORM, maxPoolSize);
+    }
+
+    /**
+     * 反射创建虚拟线程池，兼容java8编译
+     *
+     * @return 不支持时返回null
+     */
+    public static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static ExecutorService createPlatformExecutor(int corePoolSize, int maxPoolSize) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(corePoolSize, Math.max(corePoolSize, maxPoolSize), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "fit-parallel-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    public void setMaxParallelism(int maxParallelism) {
+        this.maxParallelism = maxParallelism;
+    }
+
+    /**
+     * 创建一次并行执行
+     *
+     * @param parallelism 并行数
+     * @param <T>
+     * @return
+     */
+    public <T> Batch<T> newBatch(int parallelism) {
+        return new Batch<>(this, Math.max(1, Math.min(parallelism, maxParallelism)));
+    }
+
+    /**
+     * 异步执行单个任务，线程池已满时由提交线程直接执行
+     *
+     * @param task
+     * @param <T>
+     * @return
+     */
+    public <T> Future<T> submitAsync(Callable<T> task) {
+        submittedCount.incrementAndGet();
+        BatchTask<T> futureTask = new BatchTask<>(() -> {
+            activeCount.incrementAndGet();
+            try {
+                T result = task.call();
+                completedCount.incrementAndGet();
+                return result;
+            } catch (Throwable e) {
+                failedCount.incrementAndGet();
+                throw e;
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        });
+        try {
+            executorService.execute(futureTask);
+        } catch (RejectedExecutionException e) {
+            callerRunsCount.incrementAndGet();
+            futureTask.run();
+        }
+        return futureTask;
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return
+     */
+    public JSONObject getStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("mode", mode);
+        statistics.put("maxParallelism", maxParallelism);
+        statistics.put("activeCount", activeCount.get());
+        statistics.put("queueDepth", waitingCount.get());
+        statistics.put("submittedCount", submittedCount.get());
+        statistics.put("completedCount", completedCount.get());
+        statistics.put("failedCount", failedCount.get());
+        statistics.put("cancelledCount", cancelledCount.get());
+        statistics.put("callerRunsCount", callerRunsCount.get());
+        if (executorService instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executorService;
+            statistics.put("poolSize", threadPoolExecutor.getPoolSize());
+            statistics.put("largestPoolSize", threadPoolExecutor.getLargestPoolSize());
+        }
+        return statistics;
+    }
+
+    /**
+     * 一次并行执行：限制并行数，提交阻塞实现背压，首个失败后取消其余任务
+     *
+     * @param <T>
+     */
+    public static class Batch<T> {
+
+        final ExecuteNodeScheduler scheduler;
+
+        final int parallelism;
+
+        final Semaphore permits;
+
+        final Queue<BatchTask<T>> futures = new ConcurrentLinkedQueue<>();
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Batch(ExecuteNodeScheduler scheduler, int parallelism) {
+            this.scheduler = scheduler;
+            this.parallelism = parallelism;
+            this.permits = new Semaphore(parallelism);
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public boolean isFailed() {
+            return failure.get() != null;
+        }
+
+        /**
+         * 提交任务：并行数已满时阻塞等待
+         *
+         * @param task
+         * @return 已失败时返回null
+         */
+        public Future<T> submit(Callable<T> task) {
+            if (isFailed()) {
+                return null;
+            }
+            scheduler.submittedCount.incrementAndGet();
+
+            //并行数为1，直接在当前线程执行
+            if (parallelism == 1) {
+                BatchTask<T> futureTask = new BatchTask<>(wrap(task, false));
+                futures.add(futureTask);
+                runInCurrentThread(futureTask);
+                return futureTask;
+            }
+
+            scheduler.waitingCount.incrementAndGet();
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+                return null;
+            } finally {
+                scheduler.waitingCount.decrementAndGet();
+            }
+
+            BatchTask<T> futureTask = new BatchTask<>(wrap(task, true));
+            futures.add(futureTask);
+            try {
+                scheduler.executorService.execute(futureTask);
+            } catch (RejectedExecutionException e) {
+                //线程池已满，提交线程直接执行
+                scheduler.callerRunsCount.incrementAndGet();
+                runInCurrentThread(futureTask);
+            }
+            return futureTask;
+        }
+
+        void runInCurrentThread(BatchTask<T> futureTask) {
+            futureTask.run();
+            //取消时的中断只针对任务本身，不能遗留给提交线程
+            if (futureTask.isCancelled()) {
+                Thread.interrupted();
+            }
+        }
+
+        Callable<T> wrap(Callable<T> task, boolean releasePermit) {
+            return () -> {
+                scheduler.activeCount.incrementAndGet();
+                try {
+                    if (isFailed()) {
+                        scheduler.cancelledCount.incrementAndGet();
+                        return null;
+                    }
+                    T result = task.call();
+                    scheduler.completedCount.incrementAndGet();
+                    return result;
+                } catch (Throwable e) {
+                    scheduler.failedCount.incrementAndGet();
+                    fail(e);
+                    throw e;
+                } finally {
+                    scheduler.activeCount.decrementAndGet();
+                    if (releasePermit) {
+                        permits.release();
+                    }
+                }
+            };
+        }
+
+        void fail(Throwable e) {
+            if (failure.compareAndSet(null, e)) {
+                for (BatchTask<T> future : futures) {
+                    if (future.runner != Thread.currentThread() && future.cancel(true)) {
+                        scheduler.cancelledCount.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        /**
+         * 等待单个任务完成并取出结果，不再保留，用于流式处理
+         *
+         * @param future
+         * @return 任务被取消时返回null
+         */
+        public T take(Future<T> future) {
+            T result = null;
+            try {
+                result = future.get();
+            } catch (CancellationException e) {
+                //其他任务失败被取消
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            } finally {
+                futures.remove(future);
+            }
+            throwIfFailed();
+            return result;
+        }
+
+        void throwIfFailed() {
+            Throwable e = failure.get();
+            if (e != null) {
+                throw new ExecuteNodeException("parallel execute exception: ".concat(getAllException(e)), e instanceof Exception ? (Exception) e : new RuntimeException(e));
+            }
+        }
+
+        /**
+         * 等待全部完成，按提交顺序返回结果
+         *
+         * @return
+         */
+        public List<T> join() {
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (CancellationException e) {
+                    results.add(null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                }
+            }
+            throwIfFailed();
+            return results;
+        }
+
+        /**
+         * 等待全部完成，按提交顺序返回结果；超时后取消未完成的任务
+         *
+         * @param timeoutMillis 超时时间，小于等于0时一直等待
+         * @param failOnTimeout 超时是否失败，否：未完成任务的结果为null
+         * @return
+         */
+        public List<T> join(long timeoutMillis, boolean failOnTimeout) {
+            if (timeoutMillis <= 0) {
+                return join();
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                try {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0 && !future.isDone()) {
+                        throw new TimeoutException();
+                    }
+                    results.add(future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    if (failOnTimeout) {
+                        fail(new TimeoutException("parallel execute timeout: " + timeoutMillis + "ms"));
+                        break;
+                    }
+                    if (future.cancel(true)) {
+                        scheduler.cancelledCount.incrementAndGet();
+                    }
+                    results.add(null);
+                } catch (CancellationException e) {
+                    results.add(null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(e);
+                } catch (ExecutionException e) {
+                    fail(e.getCause());
+                }
+            }
+            throwIfFailed();
+            return results;
+        }
+    }
+
+    /**
+     * 记录执行线程，失败时不中断自身
+     *
+     * @param <T>
+     */
+    static class BatchTask<T> extends FutureTask<T> {
+
+        volatile Thread runner;
+
+        BatchTask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            runner = Thread.currentThread();
+            try {
+                super.run();
+            } finally {
+                runner = null;
+            }
+        }
+    }
+}
@@ -2,6 +2,8 @@ package fit.lang.common.flow;
 
 import fit.lang.aop.ExecuteNodeSimpleAop;
 import fit.lang.common.AbstractParallelExecuteNode;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNode;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeInput;
@@ -10,7 +12,6 @@ import fit.lang.info.NodeExecuteInfo;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.*;
 
 /**
  * 执行节点
@@ -20,49 +21,62 @@ public abstract class ForeachExecuteNode extends AbstractParallelExecuteNode {
     @Override
     public void execute(ExecuteNodeInput input, ExecuteNodeOutput output) {
 
-        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
-        LinkedBlockingDeque<Future<ExecuteNodeData>> resultObjects = new LinkedBlockingDeque<>();
+        ExecuteNodeScheduler.Batch<ExecuteNodeData> batch = ExecuteNodeScheduler.getDefault().newBatch(parallelism);
 
         ExecuteNodeSimpleAop.beforeExecute(input, this, output);
 
-        List<ExecuteNodeData> resultDataList = new ArrayList<>();
-        for (int i = 0; next(input); i++) {
-            ExecuteNodeInput subInput = getCurrentInput(input);
-            ExecuteNodeOutput subOutput = getCurrentOutput(output);
+        //并行时每次迭代使用独立子上下文，索引等属性互不干扰，结束后按迭代顺序合并
+        boolean isolated = batch.getParallelism() > 1;
+        List<ExecuteContext> childContextList = new ArrayList<>();
+
+        for (int i = 0; !batch.isFailed() && next(input); i++) {
+            ExecuteNodeInput currentInput = getCurrentInput(input);
+            ExecuteNodeOutput currentOutput = getCurrentOutput(output);
 
             int index = i;
-            Future<ExecuteNodeData> submit = executorService.submit(new Callable<ExecuteNodeData>() {
-                @Override
-                public ExecuteNodeData call() {
+            ExecuteContext childContext = null;
+            if (isolated) {
+                childContext = input.getNodeContext().fork();
+                childContext.setAttribute(getIndexName(), index);
+                childContextList.add(childContext);
+
+                ExecuteNodeInput forkInput = currentInput.createInput(childContext);
+                forkInput.setNodeData(currentInput.getNodeData());
+                currentInput = forkInput;
+
+                ExecuteNodeOutput forkOutput = currentOutput.createOutput(childContext);
+                forkOutput.setNodeData(currentOutput.getNodeData());
+                currentOutput = forkOutput;
+            }
+            ExecuteNodeInput subInput = currentInput;
+            ExecuteNodeOutput subOutput = currentOutput;
+
+            batch.submit(() -> {
+                if (!isolated) {
                     input.getNodeContext().setAttribute(getIndexName(), index);
-                    ExecuteNodeData result = null;
-                    for (ExecuteNode executeNode : childNodes) {
-                        executeNode.executeAndNext(subInput, subOutput);
-                        result = subOutput.getNodeData();
-                        if (isPipe) {
-                            subInput.setNodeData(result);
-                        }
+                }
+                ExecuteNodeData result = null;
+                for (ExecuteNode executeNode : childNodes) {
+                    executeNode.executeAndNext(subInput, subOutput);
+                    result = subOutput.getNodeData();
+                    if (isPipe) {
+                        subInput.setNodeData(result);
                     }
-                    return result;
                 }
+                return result;
             });
-            resultObjects.offer(submit);
         }
-        executorService.shutdown();
 
-        resultObjects.forEach(f -> {
-            try {
-                resultDataList.add(f.get());
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        List<ExecuteNodeData> resultDataList = batch.join();
+        for (ExecuteContext childContext : childContextList) {
+            input.getNodeContext().merge(childContext);
+        }
         setForeachOutputList(resultDataList, output);
 
         //total
         NodeExecuteInfo.globalNodeExecuteInfo.setTotal(resultDataList.size());
 
-        ExecuteNodeSimpleAop.beforeExecute(input, this, output);
+        ExecuteNodeSimpleAop.afterExecute(input, this, output);
 
     }
 
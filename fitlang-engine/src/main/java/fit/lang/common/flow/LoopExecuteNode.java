@@ -1,14 +1,18 @@
 package fit.lang.common.flow;
 
+import fit.lang.ExecuteNodeException;
 import fit.lang.aop.ExecuteNodeSimpleAop;
 import fit.lang.common.AbstractParallelExecuteNode;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNode;
+import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeInput;
 import fit.lang.define.ExecuteNodeOutput;
 import fit.lang.info.NodeExecuteInfo;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -97,48 +101,63 @@ public abstract class LoopExecuteNode extends AbstractParallelExecuteNode {
     @Override
     public void execute(ExecuteNodeInput input, ExecuteNodeOutput output) {
 
-        ExecutorService executorService = Executors.newFixedThreadPool(parallelism);
-        LinkedBlockingDeque<Future<Object>> resultObjects = new LinkedBlockingDeque<>();
+        //pipe模式每次迭代依赖上一次结果，只能顺序执行
+        ExecuteNodeScheduler.Batch<ExecuteNodeData> batch = ExecuteNodeScheduler.getDefault().newBatch(isPipe ? 1 : parallelism);
 
         ExecuteNodeSimpleAop.beforeExecute(input, this, output);
         currentIndex.set(0);
 
-        for (int i = 0; i < getLoopTimes(); i++) {
+        //并行时每次迭代使用独立的子上下文和出入参，结束后按迭代顺序合并
+        boolean isolated = batch.getParallelism() > 1;
+        List<ExecuteContext> childContextList = new ArrayList<>();
 
-            Future<Object> submit = executorService.submit(new Callable<Object>() {
+        for (int i = 0; !batch.isFailed() && i < getLoopTimes(); i++) {
+            int index = currentIndex.getAndIncrement();
+            if (isolated) {
+                ExecuteContext childContext = input.getNodeContext().fork();
+                childContext.setAttribute("loopIndex", index);
+                childContextList.add(childContext);
 
-                @Override
-                public Object call() throws Exception {
-                    input.getNodeContext().setAttribute("loopIndex", currentIndex.getAndIncrement());
+                ExecuteNodeInput subInput = input.createInput(childContext);
+                subInput.setNodeData(input.getNodeData().cloneThis());
+                ExecuteNodeOutput subOutput = output.createOutput(childContext);
+
+                batch.submit(() -> {
+                    for (ExecuteNode executeNode : childNodes) {
+                        executeNode.executeAndNext(subInput, subOutput);
+                    }
+                    return subOutput.getNodeData();
+                });
+            } else {
+                batch.submit(() -> {
+                    input.getNodeContext().setAttribute("loopIndex", index);
                     for (ExecuteNode executeNode : childNodes) {
                         executeNode.executeAndNext(input, output);
                         if (isPipe) {
                             input.setNodeData(output.getNodeData());
                         }
                     }
-                    return output.getNodeData().cloneThis().getData();
-                }
-            });
-            resultObjects.offer(submit);
+                    return output.getNodeData().cloneThis();
+                });
+            }
         }
-        executorService.shutdown();
 
-        List<Object> bags = getBags(isBagsMode ? getLoopTimes() : 0);
+        List<ExecuteNodeData> resultList = batch.join();
+        for (ExecuteContext childContext : childContextList) {
+            input.getNodeContext().merge(childContext);
+        }
 
-        AtomicInteger index = new AtomicInteger();
-        resultObjects.forEach(f -> {
-            try {
-                Object object = f.get();
+        if (isolated && !resultList.isEmpty() && resultList.get(resultList.size() - 1) != null) {
+            output.setNodeData(resultList.get(resultList.size() - 1));
+        }
 
-                if (isBagsMode) {
-                    if (index.getAndIncrement() % bagsStep == 0) {
-                        bags.add(object);
-                    }
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
+        List<Object> bags = getBags(isBagsMode ? getLoopTimes() : 0);
+        if (isBagsMode) {
+            for (int i = 0; i < resultList.size(); i += bagsStep) {
+                ExecuteNodeData result = resultList.get(i);
+                bags.add(result == null ? null : result.getData());
             }
-        });
+        }
 
         if (isBagsMode) {
             setBags(bagsName, bags, output);
@@ -159,6 +178,9 @@ public abstract class LoopExecuteNode extends AbstractParallelExecuteNode {
     }
 
     public void setBagsStep(int bagsStep) {
+        if (bagsStep < 1) {
+            throw new ExecuteNodeException("loop bagsStep must be greater than 0: " + bagsStep);
+        }
         this.bagsStep = bagsStep;
     }
 
@@ -166,6 +188,6 @@ public abstract class LoopExecuteNode extends AbstractParallelExecuteNode {
         if (bagsStep == null) {
             return;
         }
-        this.bagsStep = bagsStep;
+        setBagsStep(bagsStep.intValue());
     }
 }
@@ -53,7 +53,7 @@ public class SequenceExecuteNode extends AbstractExecuteNode {
 
         for (ExecuteNode childNode : childNodes) {
             if (this.isNeedCloneInputData()) {
-                input.getNodeData().setData(input.getNodeData().cloneData());
+                input.setNodeData(input.getNodeData().cloneThis());
             }
             childNode.executeAndNext(input, output);
             if (isBagsMode) {
@@ -20,7 +20,7 @@ public class ThreadExecuteNode extends AbstractExecuteNode {
             public void run() {
                 for (ExecuteNode childNode : childNodes) {
                     if (isNeedCloneInputData()) {
-                        input.getNodeData().setData(input.getNodeData().cloneData());
+                        input.setNodeData(input.getNodeData().cloneThis());
                     }
                     childNode.executeAndNext(input, output);
                 }
@@ -17,7 +17,7 @@ public class EchoExecuteNode extends AbstractExecuteNode {
 
         output.setNodeData(input.getNodeData());
 
-        ExecuteNodeSimpleAop.beforeExecute(input, this, output);
+        ExecuteNodeSimpleAop.afterExecute(input, this, output);
 
     }
 
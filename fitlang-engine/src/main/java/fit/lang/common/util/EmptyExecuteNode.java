@@ -15,7 +15,7 @@ public class EmptyExecuteNode extends AbstractExecuteNode {
 
         ExecuteNodeSimpleAop.beforeExecute(input, this, output);
 
-        ExecuteNodeSimpleAop.beforeExecute(input, this, output);
+        ExecuteNodeSimpleAop.afterExecute(input, this, output);
 
     }
 
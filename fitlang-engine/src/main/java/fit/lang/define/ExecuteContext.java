@@ -1,5 +1,6 @@
 package fit.lang.define;
 
+import fit.lang.aop.TraceLevel;
 import fit.lang.info.NodeExecuteInfo;
 
 /**
@@ -28,7 +29,28 @@ public interface ExecuteContext {
 
     boolean isDebugMode();
 
+    /**
+     * 当前执行生效的跟踪级别，采样级别会按采样结果转换为full或timing
+     *
+     * @return
+     */
+    TraceLevel getTraceLevel();
+
     Object getNode(String nodeId);
 
     void addNode(String nodeId, Object nodeDefine);
+
+    /**
+     * 创建子上下文：只读继承父上下文属性，写入只在子上下文
+     *
+     * @return
+     */
+    ExecuteContext fork();
+
+    /**
+     * 子上下文写入的属性合并回当前上下文
+     *
+     * @param childContext
+     */
+    void merge(ExecuteContext childContext);
 }
@@ -12,6 +12,15 @@ public interface ExecuteNodeData {
      */
     Object getData();
 
+    /**
+     * 获取只读数据：不能修改，写时复制的实现不需要复制
+     *
+     * @return
+     */
+    default Object getReadOnlyData() {
+        return getData();
+    }
+
     /**
      * 设置数据
      *
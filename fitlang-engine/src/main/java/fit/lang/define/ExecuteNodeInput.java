@@ -27,4 +27,11 @@ public interface ExecuteNodeInput {
      */
     ExecuteNodeInput createInput();
 
+    /**
+     * 在指定上下文中创建入参
+     * @param nodeContext
+     * @return
+     */
+    ExecuteNodeInput createInput(ExecuteContext nodeContext);
+
 }
@@ -27,4 +27,11 @@ public interface ExecuteNodeOutput {
      */
     ExecuteNodeOutput createOutput();
 
+    /**
+     * 在指定上下文中创建出参
+     * @param nodeContext
+     * @return
+     */
+    ExecuteNodeOutput createOutput(ExecuteContext nodeContext);
+
 }
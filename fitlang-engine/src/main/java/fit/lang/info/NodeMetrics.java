@@ -0,0 +1,106 @@
+package fit.lang.info;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 节点指标：执行次数、异常次数、延迟分布、出参大小（抽样）
+ */
+public class NodeMetrics {
+
+    final String flowPath;
+
+    final String nodeId;
+
+    final String uni;
+
+    final LongAdder count = new LongAdder();
+
+    final LongAdder errorCount = new LongAdder();
+
+    /**
+     * 延迟：微秒
+     */
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    final LongAdder payloadSampleCount = new LongAdder();
+
+    final LongAdder payloadBytes = new LongAdder();
+
+    final AtomicLong payloadMaxBytes = new AtomicLong();
+
+    public NodeMetrics(String flowPath, String nodeId, String uni) {
+        this.flowPath = flowPath;
+        this.nodeId = nodeId;
+        this.uni = uni;
+    }
+
+    public void record(long costNanos, boolean error) {
+        count.increment();
+        if (error) {
+            errorCount.increment();
+        }
+        latency.record(costNanos / 1000);
+    }
+
+    public void recordPayload(long bytes) {
+        payloadSampleCount.increment();
+        payloadBytes.add(bytes);
+        payloadMaxBytes.accumulateAndGet(bytes, Math::max);
+    }
+
+    public String getFlowPath() {
+        return flowPath;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getUni() {
+        return uni;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getPayloadSampleCount() {
+        return payloadSampleCount.sum();
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes.sum();
+    }
+
+    public long getPayloadMaxBytes() {
+        return payloadMaxBytes.get();
+    }
+
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("flow", flowPath);
+        json.put("node", nodeId);
+        json.put("uni", uni);
+        json.put("count", getCount());
+        json.put("errorCount", getErrorCount());
+        json.put("latencyMicros", latency.toJSON());
+        JSONObject payload = new JSONObject();
+        long sampleCount = getPayloadSampleCount();
+        payload.put("sampleCount", sampleCount);
+        payload.put("avgBytes", sampleCount == 0 ? 0 : getPayloadBytes() / sampleCount);
+        payload.put("maxBytes", getPayloadMaxBytes());
+        json.put("payload", payload);
+        return json;
+    }
+}
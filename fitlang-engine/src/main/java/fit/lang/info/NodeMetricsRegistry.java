@@ -0,0 +1,205 @@
+package fit.lang.info;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 节点指标注册表：按 流程路径 + 节点id + uni 聚合
+ */
+public class NodeMetricsRegistry {
+
+    static volatile boolean enabled = !"false".equals(System.getProperty("fit.metrics.enabled"));
+
+    /**
+     * 最多指标数量，防止节点id不固定时无限增长
+     */
+    static volatile int maxSize = 10000;
+
+    /**
+     * 出参大小抽样间隔：每N次执行计算一次
+     */
+    static volatile int payloadSampleInterval = 16;
+
+    static final Map<String, NodeMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    static final AtomicLong droppedCount = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        NodeMetricsRegistry.enabled = enabled;
+    }
+
+    public static void setMaxSize(int maxSize) {
+        NodeMetricsRegistry.maxSize = maxSize;
+    }
+
+    public static void setPayloadSampleInterval(int payloadSampleInterval) {
+        NodeMetricsRegistry.payloadSampleInterval = Math.max(0, payloadSampleInterval);
+    }
+
+    /**
+     * 获取指标，不存在时创建；超过数量上限返回null
+     *
+     * @param flowPath
+     * @param nodeId
+     * @param uni
+     * @return
+     */
+    public static NodeMetrics getMetrics(String flowPath, String nodeId, String uni) {
+        String key = flowPath + "|" + nodeId + "|" + uni;
+        NodeMetrics metrics = metricsMap.get(key);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (metricsMap.size() >= maxSize) {
+            droppedCount.incrementAndGet();
+            return null;
+        }
+        return metricsMap.computeIfAbsent(key, k -> new NodeMetrics(flowPath, nodeId, uni));
+    }
+
+    public static void record(NodeMetrics metrics, long costNanos, boolean error, Object payload) {
+        if (metrics == null) {
+            return;
+        }
+        metrics.record(costNanos, error);
+        int sampleInterval = payloadSampleInterval;
+        //第1、N+1、2N+1...次抽样，间隔为1时每次都抽样
+        if (payload != null && sampleInterval > 0 && (metrics.getCount() - 1) % sampleInterval == 0) {
+            metrics.recordPayload(getPayloadSize(payload));
+        }
+    }
+
+    static long getPayloadSize(Object payload) {
+        if (payload instanceof String) {
+            return ((String) payload).length();
+        }
+        try {
+            return JSON.toJSONBytes(payload).length;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 去掉自动生成id中的上下文实例前缀（I-时间戳-），使同一流程多次执行的节点id一致
+     *
+     * @param nodeId
+     * @return
+     */
+    public static String getStableNodeId(String nodeId) {
+        if (nodeId == null || !nodeId.startsWith("I-")) {
+            return nodeId;
+        }
+        int index = 2;
+        while (index < nodeId.length() && Character.isDigit(nodeId.charAt(index))) {
+            index++;
+        }
+        if (index > 2 && index < nodeId.length() && nodeId.charAt(index) == '-') {
+            return nodeId.substring(index + 1);
+        }
+        return nodeId;
+    }
+
+    public static List<NodeMetrics> getMetricsList() {
+        List<NodeMetrics> list = new ArrayList<>(metricsMap.values());
+        list.sort(Comparator.comparing(NodeMetrics::getFlowPath).thenComparing(NodeMetrics::getNodeId));
+        return list;
+    }
+
+    public static void clear() {
+        metricsMap.clear();
+        droppedCount.set(0);
+    }
+
+    public static JSONObject toJSON() {
+        JSONObject result = new JSONObject();
+        JSONArray list = new JSONArray();
+        for (NodeMetrics metrics : getMetricsList()) {
+            list.add(metrics.toJSON());
+        }
+        result.put("size", list.size());
+        result.put("droppedCount", droppedCount.get());
+        result.put("list", list);
+        return result;
+    }
+
+    /**
+     * prometheus文本格式
+     *
+     * @return
+     */
+    public static String toPrometheusText() {
+        List<NodeMetrics> list = getMetricsList();
+        StringBuilder text = new StringBuilder();
+
+        appendHeader(text, "fit_node_executions_total", "counter", "node execute count");
+        for (NodeMetrics metrics : list) {
+            appendLine(text, "fit_node_executions_total", metrics, null, metrics.getCount());
+        }
+        appendHeader(text, "fit_node_errors_total", "counter", "node execute exception count");
+        for (NodeMetrics metrics : list) {
+            appendLine(text, "fit_node_errors_total", metrics, null, metrics.getErrorCount());
+        }
+        appendHeader(text, "fit_node_latency_seconds", "summary", "node execute latency");
+        for (NodeMetrics metrics : list) {
+            LatencyHistogram latency = metrics.getLatency();
+            appendLine(text, "fit_node_latency_seconds", metrics, "0.5", toSeconds(latency.getPercentile(50)));
+            appendLine(text, "fit_node_latency_seconds", metrics, "0.95", toSeconds(latency.getPercentile(95)));
+            appendLine(text, "fit_node_latency_seconds", metrics, "0.99", toSeconds(latency.getPercentile(99)));
+            appendLine(text, "fit_node_latency_seconds_sum", metrics, null, toSeconds(latency.getSum()));
+            appendLine(text, "fit_node_latency_seconds_count", metrics, null, latency.getCount());
+        }
+        appendHeader(text, "fit_node_latency_max_seconds", "gauge", "node execute max latency");
+        for (NodeMetrics metrics : list) {
+            appendLine(text, "fit_node_latency_max_seconds", metrics, null, toSeconds(metrics.getLatency().getMax()));
+        }
+        appendHeader(text, "fit_node_payload_bytes", "summary", "node output size (sampled)");
+        for (NodeMetrics metrics : list) {
+            appendLine(text, "fit_node_payload_bytes_sum", metrics, null, metrics.getPayloadBytes());
+            appendLine(text, "fit_node_payload_bytes_count", metrics, null, metrics.getPayloadSampleCount());
+        }
+        appendHeader(text, "fit_node_payload_max_bytes", "gauge", "node output max size (sampled)");
+        for (NodeMetrics metrics : list) {
+            appendLine(text, "fit_node_payload_max_bytes", metrics, null, metrics.getPayloadMaxBytes());
+        }
+        return text.toString();
+    }
+
+    static String toSeconds(long micros) {
+        return String.valueOf(micros / 1000000.0);
+    }
+
+    static void appendHeader(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    static void appendLine(StringBuilder text, String name, NodeMetrics metrics, String quantile, Object value) {
+        text.append(name).append("{flow=\"").append(escapeLabel(metrics.getFlowPath()))
+                .append("\",node=\"").append(escapeLabel(metrics.getNodeId()))
+                .append("\",uni=\"").append(escapeLabel(metrics.getUni())).append('"');
+        if (quantile != null) {
+            text.append(",quantile=\"").append(quantile).append('"');
+        }
+        text.append("} ").append(value).append('\n');
+    }
+
+    static String escapeLabel(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
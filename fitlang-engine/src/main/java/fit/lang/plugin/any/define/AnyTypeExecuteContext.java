@@ -7,4 +7,9 @@ import fit.lang.common.AbstractExecuteContext;
  */
 public class AnyTypeExecuteContext extends AbstractExecuteContext {
 
+    @Override
+    protected AnyTypeExecuteContext newContext() {
+        return new AnyTypeExecuteContext();
+    }
+
 }
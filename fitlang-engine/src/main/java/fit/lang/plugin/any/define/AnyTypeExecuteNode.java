@@ -17,7 +17,7 @@ public abstract class AnyTypeExecuteNode extends AbstractExecuteNode {
 
         execute((AnyTypeExecuteNodeInput) input, (AnyTypeExecuteNodeOutput) output);
 
-        ExecuteNodeSimpleAop.beforeExecute(input, this, output);
+        ExecuteNodeSimpleAop.afterExecute(input, this, output);
 
     }
 
@@ -1,5 +1,6 @@
 package fit.lang.plugin.any.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeInput;
 
@@ -37,4 +38,9 @@ public class AnyTypeExecuteNodeInput implements ExecuteNodeInput {
     public ExecuteNodeInput createInput() {
         return new AnyTypeExecuteNodeInput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeInput createInput(ExecuteContext nodeContext) {
+        return new AnyTypeExecuteNodeInput((AnyTypeExecuteContext) nodeContext);
+    }
 }
@@ -1,5 +1,6 @@
 package fit.lang.plugin.any.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeOutput;
 
@@ -38,4 +39,9 @@ public class AnyTypeExecuteNodeOutput implements ExecuteNodeOutput {
     public ExecuteNodeOutput createOutput() {
         return new AnyTypeExecuteNodeOutput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeOutput createOutput(ExecuteContext nodeContext) {
+        return new AnyTypeExecuteNodeOutput((AnyTypeExecuteContext) nodeContext);
+    }
 }
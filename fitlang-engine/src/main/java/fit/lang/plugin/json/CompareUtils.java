@@ -3,16 +3,13 @@ package fit.lang.plugin.json;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * 两个json比较<br/>
  * 实现思路：<br/>
  * 1，把json按照json path平铺展开<br/>
- * 2，对平铺展开的json进行对比<br/>
+ * 2，对平铺展开的json进行对比（按路径hash查找，已整体差异的子路径用前缀树跳过）<br/>
  * 3，返回对比接口<br/>
  * <p>
  * compare: 返回所有结果<br/>
@@ -29,6 +26,10 @@ public class CompareUtils {
     public static final String FIELD_NAME_OF_TYPE_EQUAL = "typeEqual";
     public static final String FIELD_NAME_OF_DIFF_TYPE = "diffType";
 
+    public static final String ARRAY_ALIGN_OF_INDEX = "index";
+    public static final String ARRAY_ALIGN_OF_VALUE = "value";
+    public static final String ARRAY_ALIGN_OF_KEY = "key";
+
     /**
      * 总结比较结果
      *
@@ -81,15 +82,47 @@ public class CompareUtils {
     }
 
     /**
-     * 比较json是否相同
+     * 比较json是否相同：逐层比较，遇到第一个差异即返回，不展开json path
      *
      * @param json1 json1
      * @param json2 json2
      * @return result
      */
     public static boolean equals(JSONObject json1, JSONObject json2) {
-        JSONObject result = diff(json1, json2);
-        return result.isEmpty();
+        return isEqual(json1 == null ? new JSONObject(0) : json1, json2 == null ? new JSONObject(0) : json2);
+    }
+
+    static boolean isEqual(Object value1, Object value2) {
+        if (value1 == value2) {
+            return true;
+        }
+        if (value1 instanceof JSONObject && value2 instanceof JSONObject) {
+            JSONObject object1 = (JSONObject) value1;
+            JSONObject object2 = (JSONObject) value2;
+            if (object1.size() != object2.size()) {
+                return false;
+            }
+            for (Map.Entry<String, Object> entry : object1.entrySet()) {
+                if (!object2.containsKey(entry.getKey()) || !isEqual(entry.getValue(), object2.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (value1 instanceof JSONArray && value2 instanceof JSONArray) {
+            JSONArray array1 = (JSONArray) value1;
+            JSONArray array2 = (JSONArray) value2;
+            if (array1.size() != array2.size()) {
+                return false;
+            }
+            for (int i = 0; i < array1.size(); i++) {
+                if (!isEqual(array1.get(i), array2.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(value1, value2);
     }
 
     public static JSONArray diffToArray(JSONObject json1, JSONObject json2) {
@@ -134,70 +167,69 @@ public class CompareUtils {
         JSONObject jsonPath2 = convertWithJsonPath(json2);
 
         JSONObject result = new JSONObject();
+        PathPrefixTree ignorePathPrefixTree = new PathPrefixTree();
 
-        List<String> jsonPathList = new ArrayList<>(jsonPath1.keySet());
-        for (String path : jsonPath2.keySet()) {
-            if (!jsonPathList.contains(path)) {
-                jsonPathList.add(path);
+        //先json1的路径，再json2新增的路径；值直接取平铺结果，不再按路径查找
+        for (Map.Entry<String, Object> entry : jsonPath1.entrySet()) {
+            String path = entry.getKey();
+            boolean json2Contain = jsonPath2.containsKey(path);
+            comparePath(result, ignorePathPrefixTree, path, true, entry.getValue(), json2Contain, json2Contain ? jsonPath2.get(path) : null);
+        }
+        for (Map.Entry<String, Object> entry : jsonPath2.entrySet()) {
+            String path = entry.getKey();
+            if (!jsonPath1.containsKey(path)) {
+                comparePath(result, ignorePathPrefixTree, path, false, null, true, entry.getValue());
             }
         }
 
-        List<String> ignorePathPrefixList = new ArrayList<>();
-        outer:
-        for (String path : jsonPathList) {
-            boolean json1Contain = jsonPath1.containsKey(path);
-            boolean json2Contain = jsonPath2.containsKey(path);
+        return result;
+    }
 
-            JSONObject pathResult = new JSONObject();
-            pathResult.put("path", path);
+    private static void comparePath(JSONObject result, PathPrefixTree ignorePathPrefixTree, String path, boolean json1Contain, Object value1, boolean json2Contain, Object value2) {
 
-            for (String ignorePathPrefix : ignorePathPrefixList) {
-                if (path.startsWith(ignorePathPrefix)) {
-                    continue outer;
-                }
+        //整体新增、删除或类型不同的对象和数组，子路径不再比较
+        if (ignorePathPrefixTree.matchPrefix(path)) {
+            return;
+        }
+
+        JSONObject pathResult = new JSONObject();
+        pathResult.put("path", path);
+
+        if (json1Contain && !json2Contain) {
+            pathResult.put(FIELD_NAME_OF_VALUE_EQUAL, false);
+            pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_REMOVE);
+            if (value1 instanceof JSONObject || value1 instanceof JSONArray) {
+                ignorePathPrefixTree.add(path);
             }
-            if (json1Contain && !json2Contain) {
+            pathResult.put("value1", value1);
+        } else if (!json1Contain) {
+            pathResult.put(FIELD_NAME_OF_VALUE_EQUAL, false);
+            pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_ADD);
+            pathResult.put("value2", value2);
+            if (value2 instanceof JSONObject || value2 instanceof JSONArray) {
+                ignorePathPrefixTree.add(path);
+            }
+        } else {
+            if ((value1 instanceof JSONObject && value2 instanceof JSONObject) || (value2 instanceof JSONArray && value1 instanceof JSONArray)) {
+                return;
+            }
+            if ((value1 instanceof JSONObject && value2 instanceof JSONArray) || (value2 instanceof JSONObject && value1 instanceof JSONArray)) {
                 pathResult.put(FIELD_NAME_OF_VALUE_EQUAL, false);
-                pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_REMOVE);
-                Object value1 = json1.getByPath(path);
-                if (value1 instanceof JSONObject || value1 instanceof JSONArray) {
-                    ignorePathPrefixList.add(path);
-                }
+                pathResult.put(FIELD_NAME_OF_TYPE_EQUAL, false);
+                pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_MODIFY);
                 pathResult.put("value1", value1);
-            } else if (!json1Contain && json2Contain) {
-                pathResult.put(FIELD_NAME_OF_VALUE_EQUAL, false);
-                pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_ADD);
-                Object value2 = json2.getByPath(path);
                 pathResult.put("value2", value2);
-                if (value2 instanceof JSONObject || value2 instanceof JSONArray) {
-                    ignorePathPrefixList.add(path);
-                }
-            } else if (json1Contain) {
-                Object value1 = json1.getByPath(path);
-                Object value2 = json2.getByPath(path);
-                if ((value1 instanceof JSONObject && value2 instanceof JSONObject) || (value2 instanceof JSONArray && value1 instanceof JSONArray)) {
-                    continue;
-                }
-                if ((value1 instanceof JSONObject && value2 instanceof JSONArray) || (value2 instanceof JSONObject && value1 instanceof JSONArray)) {
-                    pathResult.put(FIELD_NAME_OF_VALUE_EQUAL, false);
-                    pathResult.put(FIELD_NAME_OF_TYPE_EQUAL, false);
-                    pathResult.put(FIELD_NAME_OF_DIFF_TYPE, DIFF_TYPE_OF_MODIFY);
+                ignorePathPrefixTree.add(path);
+            } else {
+                pathResult.putAll(compareValue(value1, value2));
+                if (Boolean.FALSE.equals(pathResult.get(FIELD_NAME_OF_VALUE_EQUAL))) {
                     pathResult.put("value1", value1);
                     pathResult.put("value2", value2);
-                    ignorePathPrefixList.add(path);
-                } else {
-                    pathResult.putAll(compareValue(value1, value2));
-                    if (Boolean.FALSE.equals(pathResult.get(FIELD_NAME_OF_VALUE_EQUAL))) {
-                        pathResult.put("value1", value1);
-                        pathResult.put("value2", value2);
-                    }
                 }
             }
-
-            result.put(path, pathResult);
         }
 
-        return result;
+        result.put(path, pathResult);
     }
 
     /**
@@ -211,44 +243,40 @@ public class CompareUtils {
         if (json == null) {
             return newMap;
         }
+        convertWithJsonPath(json, "", newMap);
+        return newMap;
+    }
+
+    /**
+     * 一次遍历展开到同一个map中，路径：对象字段用点号连接（特殊key用['key']），数组元素用[index]
+     *
+     * @param json   json
+     * @param prefix 上级路径
+     * @param newMap 结果
+     */
+    private static void convertWithJsonPath(JSONObject json, String prefix, JSONObject newMap) {
         for (Map.Entry<String, Object> field : json.entrySet()) {
             Object value = field.getValue();
-            String fieldName = buildJsonPathKey((field.getKey()));
-            if (value instanceof JSONObject || value instanceof JSONArray) {
-                JSONArray array;
-                boolean isArray = true;
-                if (value instanceof JSONObject) {
-                    array = new JSONArray(1);
-                    array.add(value);
-                    isArray = false;
-                } else {
-                    array = (JSONArray) value;
-                }
-                newMap.put((fieldName), value);
-
+            String fieldName = buildJsonPathKey(field.getKey());
+            if (!prefix.isEmpty()) {
+                fieldName = fieldName.startsWith("[") ? prefix.concat(fieldName) : prefix.concat(".").concat(fieldName);
+            }
+            newMap.put(fieldName, value);
+            if (value instanceof JSONObject) {
+                convertWithJsonPath((JSONObject) value, fieldName, newMap);
+            } else if (value instanceof JSONArray) {
                 int index = 0;
-                for (Object item : array) {
-                    String arrayFieldName = fieldName.concat("[".concat(index + "").concat("]"));
+                for (Object item : (JSONArray) value) {
+                    String arrayFieldName = fieldName.concat("[").concat(String.valueOf(index)).concat("]");
                     if (item instanceof JSONObject) {
-                        JSONObject subMap = convertWithJsonPath((JSONObject) item);
-                        for (Map.Entry<String, Object> entry : subMap.entrySet()) {
-                            String newKey = entry.getKey();
-                            if (!newKey.startsWith("[")) {
-                                newKey = ".".concat(newKey);
-                            }
-                            String newFieldName = isArray ? arrayFieldName.concat(newKey) : fieldName.concat(newKey);
-                            newMap.put((newFieldName), entry.getValue());
-                        }
+                        convertWithJsonPath((JSONObject) item, arrayFieldName, newMap);
                     } else {
-                        newMap.put((arrayFieldName), item);
+                        newMap.put(arrayFieldName, item);
                     }
                     index++;
                 }
-            } else {
-                newMap.put((fieldName), value);
             }
         }
-        return newMap;
     }
 
     /**
@@ -308,4 +336,153 @@ public class CompareUtils {
         }
         return key;
     }
+
+    /**
+     * 数组对齐：按照json1中数组元素的顺序调整json2中对应数组的元素顺序，用于比较顺序不同的列表，不修改原json
+     * <p>
+     * value: 值相同的元素对齐; key: 对象元素按arrayKey字段的值对齐; 其他: 按下标比较，不调整
+     *
+     * @param json1      json1
+     * @param json2      json2
+     * @param arrayAlign 对齐方式：index, value, key
+     * @param arrayKey   key方式对齐时的字段名
+     * @return 调整后的json2
+     */
+    public static JSONObject alignArray(JSONObject json1, JSONObject json2, String arrayAlign, String arrayKey) {
+        if (json1 == null || json2 == null || !(ARRAY_ALIGN_OF_VALUE.equals(arrayAlign) || ARRAY_ALIGN_OF_KEY.equals(arrayAlign) && arrayKey != null)) {
+            return json2;
+        }
+        return (JSONObject) alignValue(json1, json2, arrayAlign, arrayKey);
+    }
+
+    private static Object alignValue(Object value1, Object value2, String arrayAlign, String arrayKey) {
+        if (value1 instanceof JSONObject && value2 instanceof JSONObject) {
+            JSONObject object1 = (JSONObject) value1;
+            JSONObject object2 = (JSONObject) value2;
+            JSONObject newObject = null;
+            for (Map.Entry<String, Object> entry : object2.entrySet()) {
+                Object value = entry.getValue();
+                if (!(value instanceof JSONObject || value instanceof JSONArray)) {
+                    continue;
+                }
+                Object newValue = alignValue(object1.get(entry.getKey()), value, arrayAlign, arrayKey);
+                if (newValue != value) {
+                    if (newObject == null) {
+                        newObject = new JSONObject(object2);
+                    }
+                    newObject.put(entry.getKey(), newValue);
+                }
+            }
+            return newObject == null ? object2 : newObject;
+        }
+        if (value1 instanceof JSONArray && value2 instanceof JSONArray) {
+            JSONArray array1 = (JSONArray) value1;
+            JSONArray array2 = alignArray(array1, (JSONArray) value2, arrayAlign, arrayKey);
+            JSONArray newArray = array2 == value2 ? null : array2;
+            for (int i = 0; i < array2.size() && i < array1.size(); i++) {
+                Object item = array2.get(i);
+                Object newItem = alignValue(array1.get(i), item, arrayAlign, arrayKey);
+                if (newItem != item) {
+                    if (newArray == null) {
+                        newArray = new JSONArray(array2);
+                    }
+                    newArray.set(i, newItem);
+                }
+            }
+            return newArray == null ? array2 : newArray;
+        }
+        return value2;
+    }
+
+    /**
+     * 匹配的元素放到json1中相同的下标，未匹配的元素按原顺序填充剩余位置
+     */
+    private static JSONArray alignArray(JSONArray array1, JSONArray array2, String arrayAlign, String arrayKey) {
+        Map<Object, ArrayDeque<Integer>> indexMap = new HashMap<>(array2.size() * 2);
+        for (int i = 0; i < array2.size(); i++) {
+            Object alignKey = getAlignKey(array2.get(i), arrayAlign, arrayKey);
+            if (alignKey != null) {
+                indexMap.computeIfAbsent(alignKey, k -> new ArrayDeque<>()).add(i);
+            }
+        }
+        if (indexMap.isEmpty()) {
+            return array2;
+        }
+        Object[] slots = new Object[array2.size()];
+        boolean[] matched = new boolean[array2.size()];
+        boolean changed = false;
+        for (int i = 0; i < array1.size() && i < slots.length; i++) {
+            Object alignKey = getAlignKey(array1.get(i), arrayAlign, arrayKey);
+            ArrayDeque<Integer> indexList = alignKey == null ? null : indexMap.get(alignKey);
+            if (indexList == null || indexList.isEmpty()) {
+                continue;
+            }
+            int index = indexList.poll();
+            slots[i] = array2.get(index);
+            matched[index] = true;
+            changed |= index != i;
+        }
+        if (!changed) {
+            return array2;
+        }
+        JSONArray newArray = new JSONArray(array2.size());
+        int next = 0;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] == null) {
+                while (matched[next]) {
+                    next++;
+                }
+                slots[i] = array2.get(next++);
+            }
+            newArray.add(slots[i]);
+        }
+        return newArray;
+    }
+
+    private static Object getAlignKey(Object item, String arrayAlign, String arrayKey) {
+        if (ARRAY_ALIGN_OF_KEY.equals(arrayAlign)) {
+            return item instanceof JSONObject ? ((JSONObject) item).get(arrayKey) : null;
+        }
+        return item;
+    }
+
+    /**
+     * 已忽略路径的前缀树：按字符匹配，只在路径分隔处（点号、中括号或结尾）算作前缀，匹配耗时与路径长度相关，与前缀数量无关
+     */
+    static class PathPrefixTree {
+
+        final Node root = new Node();
+
+        void add(String path) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), k -> new Node());
+            }
+            node.end = true;
+        }
+
+        boolean matchPrefix(String path) {
+            Node node = root;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.get(path.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+                if (node.end && i + 1 < path.length()) {
+                    char next = path.charAt(i + 1);
+                    if (next == '.' || next == '[') {
+                        return true;
+                    }
+                }
+            }
+            return node.end;
+        }
+
+        static class Node {
+
+            final Map<Character, Node> children = new HashMap<>(4);
+
+            boolean end;
+        }
+    }
 }
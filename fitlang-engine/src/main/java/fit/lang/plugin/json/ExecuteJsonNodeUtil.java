@@ -1,6 +1,7 @@
 package fit.lang.plugin.json;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.SecureUtil;
 import cn.hutool.http.HttpRequest;
@@ -13,18 +14,24 @@ import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONWriter;
 import com.alibaba.fastjson2.schema.JSONSchema;
 import fit.lang.ExecuteNodeException;
+import fit.lang.aop.TraceLevel;
 import fit.lang.define.ExecuteNode;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.plugin.json.define.*;
+import fit.lang.plugin.json.http.client.FitHttpRequest;
+import fit.lang.plugin.json.http.client.FitHttpResponse;
+import fit.lang.plugin.json.plan.JsonFlowPlan;
 import fit.lang.plugin.json.web.ServerJsonExecuteNode;
 
 import java.io.File;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.net.SocketAddress;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static fit.lang.ExecuteNodeUtil.getUserHome;
@@ -44,7 +51,7 @@ public class ExecuteJsonNodeUtil {
      * @return
      */
     public static JSONObject execute(JSONObject inputJson) {
-        return JSONObject.parseObject(executeCode(inputJson));
+        return executeJson(inputJson);
     }
 
     /**
@@ -55,7 +62,7 @@ public class ExecuteJsonNodeUtil {
      * @return
      */
     public static JSONObject execute(JSONObject inputJson, JsonExecuteNode node) {
-        return JSONObject.parseObject(executeCode(inputJson, ((JSONObject) node.getNodeDefine().getData())));
+        return executeJson(inputJson, ((JSONObject) node.getNodeDefine().getData()));
     }
 
     /**
@@ -129,6 +136,64 @@ public class ExecuteJsonNodeUtil {
     }
 
     public static String executeCode(JSONObject input, JSONObject flow, JSONObject contextParam, JsonExecuteContext nodeContext) {
+        return toOutputText(flow, executeFlow(input, flow, contextParam, nodeContext));
+    }
+
+    public static JSONObject executeJson(JSONObject input) {
+        return executeJson(input, new JSONObject(), new JsonExecuteContext());
+    }
+
+    /**
+     * 执行代码，直接返回出参对象，避免转字符串再解析
+     *
+     * @param input
+     * @param flow
+     * @return
+     */
+    public static JSONObject executeJson(JSONObject input, JSONObject flow) {
+        return executeJson(input, flow, new JSONObject(), new JsonExecuteContext());
+    }
+
+    public static JSONObject executeJson(JSONObject codeJson, JSONObject contextParam, JsonExecuteContext nodeContext) {
+
+        JSONObject input;
+
+        if (codeJson.containsKey("input")) {
+            input = codeJson.getJSONObject("input");
+        } else {
+            input = new JSONObject(0);
+        }
+        return executeJson(input, codeJson, contextParam, nodeContext);
+    }
+
+    public static JSONObject executeJson(JSONObject input, JSONObject flow, JSONObject contextParam, JsonExecuteContext nodeContext) {
+        return toOutputJson(flow, executeFlow(input, flow, contextParam, nodeContext));
+    }
+
+    /**
+     * 执行流程，返回出参对象（debug模式包含_debug字段），不处理outputRawField
+     *
+     * @param input
+     * @param flow
+     * @param contextParam
+     * @param nodeContext
+     * @return
+     */
+    public static JSONObject executeFlow(JSONObject input, JSONObject flow, JSONObject contextParam, JsonExecuteContext nodeContext) {
+        return executeFlow(input, flow, null, contextParam, nodeContext);
+    }
+
+    /**
+     * 执行流程，使用已获取的流程计划（如服务路由注册时获取），为null时按流程定义查找
+     *
+     * @param input
+     * @param flow
+     * @param flowPlan
+     * @param contextParam
+     * @param nodeContext
+     * @return
+     */
+    public static JSONObject executeFlow(JSONObject input, JSONObject flow, JsonFlowPlan flowPlan, JSONObject contextParam, JsonExecuteContext nodeContext) {
 
         if (input == null || input.isEmpty()) {
             input = flow.getJSONObject("input");
@@ -146,6 +211,11 @@ public class ExecuteJsonNodeUtil {
         //入参放入全局变量中
         nodeContext.setAttribute("input", input);
         nodeContext.setAttribute("nodeDefine", flow);
+        //debug输出的上下文需要包含节点出入参（nodeInputOutput），流程配置的traceLevel优先
+        if (Boolean.TRUE.equals(flow.getBoolean("debug")) && !nodeContext.getTraceLevel().isStoreData()) {
+            nodeContext.setTraceLevel(TraceLevel.FULL);
+        }
+        nodeContext.setTraceConfig(flow);
 
         JsonExecuteNodeOutput nodeOutput = new JsonExecuteNodeOutput(nodeContext);
         JsonExecuteNodeInput nodeInput = new JsonExecuteNodeInput(nodeContext);
@@ -155,18 +225,12 @@ public class ExecuteJsonNodeUtil {
             nodeContext.putAllAttribute(contextParam);
         }
 
-        ExecuteNode executeNode = new JsonDynamicFlowExecuteEngine(flow);
+        ExecuteNode executeNode = new JsonDynamicFlowExecuteEngine(flow, flowPlan);
 
         executeNode.setNodeContext(nodeContext);
 
         executeNode.execute(nodeInput, nodeOutput);
 
-        String outputRawField = flow.getString("outputRawField");
-        if (StrUtil.isNotBlank(outputRawField)) {
-            Object returnValue = nodeOutput.getData().get(outputRawField);
-            return (returnValue == null) ? "" : returnValue.toString();
-        }
-
         JSONObject result = nodeOutput.getData();
         if (Boolean.TRUE.equals(flow.getBoolean("debug"))) {
             Map<String, Object> context = nodeInput.getNodeContext().getAllAttribute();
@@ -174,9 +238,90 @@ public class ExecuteJsonNodeUtil {
             result = nodeOutput.getData().clone();
             result.put("_debug", context);
         }
+        return result;
+    }
+
+    /**
+     * 出参转文本：配置outputRawField时返回该字段的原始值
+     *
+     * @param flow
+     * @param result
+     * @return
+     */
+    public static String toOutputText(JSONObject flow, JSONObject result) {
+        String outputRawField = flow.getString("outputRawField");
+        if (StrUtil.isNotBlank(outputRawField)) {
+            Object returnValue = result.get(outputRawField);
+            return (returnValue == null) ? "" : returnValue.toString();
+        }
         return toJsonText(result);
     }
 
+    /**
+     * 出参对象：返回副本，出参可能直接引用入参或上下文中的对象，调用方修改时互不影响；
+     * 配置outputRawField时该字段是json对象直接返回，json数组放在list字段，其他值放在_raw字段
+     *
+     * @param flow
+     * @param result
+     * @return
+     */
+    public static JSONObject toOutputJson(JSONObject flow, JSONObject result) {
+        String outputRawField = flow.getString("outputRawField");
+        if (StrUtil.isBlank(outputRawField)) {
+            return JSON.copy(result);
+        }
+        Object returnValue = result.get(outputRawField);
+        if (returnValue instanceof JSONObject) {
+            return JSON.copy((JSONObject) returnValue);
+        }
+        JSONObject output = new JSONObject(1);
+        if (returnValue instanceof JSONArray) {
+            output.put("list", JSON.copy((JSONArray) returnValue));
+            return output;
+        }
+        String text = returnValue == null ? "" : returnValue.toString();
+        if (isJsonObjectText(text)) {
+            return JSONObject.parseObject(text);
+        }
+        if (isJsonArrayText(text)) {
+            output.put("list", JSON.parseArray(text));
+        } else {
+            output.put("_raw", text);
+        }
+        return output;
+    }
+
+    /**
+     * 出参直接写入输出流，不生成中间字符串
+     *
+     * @param flow
+     * @param result
+     * @param outputStream
+     */
+    public static void writeOutput(JSONObject flow, JSONObject result, OutputStream outputStream) {
+        String outputRawField = flow.getString("outputRawField");
+        if (StrUtil.isNotBlank(outputRawField)) {
+            IoUtil.write(outputStream, false, toOutputText(flow, result).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        JSON.writeTo(outputStream, result, JSONWriter.Feature.WriteMapNullValue);
+    }
+
+    /**
+     * 出参转utf-8字节
+     *
+     * @param flow
+     * @param result
+     * @return
+     */
+    public static byte[] toOutputBytes(JSONObject flow, JSONObject result) {
+        String outputRawField = flow.getString("outputRawField");
+        if (StrUtil.isNotBlank(outputRawField)) {
+            return toOutputText(flow, result).getBytes(StandardCharsets.UTF_8);
+        }
+        return JSON.toJSONBytes(result, JSONWriter.Feature.WriteMapNullValue);
+    }
+
     public static Map<String, String> toStringMap(JSONObject jsonObject) {
         return toStringMap(jsonObject, false);
     }
@@ -354,10 +499,10 @@ public class ExecuteJsonNodeUtil {
      * @param useInput
      */
     public static Object parseHttpFormParam(JsonExecuteNodeInput input, HttpRequest request, Object httpParam, boolean useInput) {
-        Object param = ExpressUtil.eval(httpParam, input.getInputParamAndContextParam());
+        Object param = ExpressUtil.eval(httpParam, input.getVariableScope());
         if (param instanceof JSONObject) {
             if (useInput) {
-                JSONObject inputParam = input.getData().clone();
+                JSONObject inputParam = input.getReadOnlyData().clone();
                 inputParam.putAll((JSONObject) param);
                 param = inputParam;
             }
@@ -367,6 +512,28 @@ public class ExecuteJsonNodeUtil {
         return null;
     }
 
+    /**
+     * 解析http form格式的请求参数
+     *
+     * @param input
+     * @param request
+     * @param httpParam
+     * @param useInput
+     */
+    public static Object parseHttpFormParam(JsonExecuteNodeInput input, FitHttpRequest request, Object httpParam, boolean useInput) {
+        Object param = ExpressUtil.eval(httpParam, input.getVariableScope());
+        if (param instanceof JSONObject) {
+            if (useInput) {
+                JSONObject inputParam = input.getReadOnlyData().clone();
+                inputParam.putAll((JSONObject) param);
+                param = inputParam;
+            }
+            request.setForm((JSONObject) param);
+            return param;
+        }
+        return null;
+    }
+
     /**
      * 设置http请求头
      *
@@ -379,6 +546,18 @@ public class ExecuteJsonNodeUtil {
         }
     }
 
+    /**
+     * 设置http请求头
+     *
+     * @param header
+     * @param request
+     */
+    public static void setHttpHeader(JSONObject header, FitHttpRequest request) {
+        if (header != null && !header.isEmpty()) {
+            request.addHeaders(toStringMapForCookie(header));
+        }
+    }
+
     /**
      * 设置代理
      *
@@ -393,6 +572,16 @@ public class ExecuteJsonNodeUtil {
         }
     }
 
+    /**
+     * 设置代理
+     *
+     * @param proxyConfig
+     * @param request
+     */
+    public static void setProxy(JSONObject proxyConfig, FitHttpRequest request) {
+        request.setProxy(buildProxy(proxyConfig));
+    }
+
     /**
      * 构建proxy
      *
@@ -426,7 +615,20 @@ public class ExecuteJsonNodeUtil {
      * @return
      */
     public static JSONObject parseHttpResult(HttpResponse response) {
-        String responseText = response.body();
+        return parseHttpResult(response.body(), response.getStatus(), response.isOk());
+    }
+
+    /**
+     * 解析http结果
+     *
+     * @param response
+     * @return
+     */
+    public static JSONObject parseHttpResult(FitHttpResponse response) {
+        return parseHttpResult(response.body(), response.getStatus(), response.isOk());
+    }
+
+    static JSONObject parseHttpResult(String responseText, int status, boolean isOk) {
 
         if (responseText == null) {
             responseText = "";
@@ -439,8 +641,8 @@ public class ExecuteJsonNodeUtil {
         } else {
             result.put("_raw", responseText);
         }
-        if (!response.isOk()) {
-            result.put("httpStatus", response.getStatus());
+        if (!isOk) {
+            result.put("httpStatus", status);
         }
         return result;
     }
@@ -500,13 +702,8 @@ public class ExecuteJsonNodeUtil {
             //TODO toString
             fieldValue = input.getNodeContext().getAttribute(fieldName);
         }
-        JSONObject inputAndContextParam = input.getInputParamAndContextParam();
-
         //把节点定义也放入解析
-        for (Map.Entry<String, Object> define : nodeJsonDefine.entrySet()) {
-            inputAndContextParam.putIfAbsent(define.getKey(), define.getValue());
-        }
-        return ExpressUtil.eval(fieldValue, inputAndContextParam);
+        return ExpressUtil.eval(fieldValue, input.getVariableScope(nodeJsonDefine));
     }
 
     /**
@@ -552,12 +749,13 @@ public class ExecuteJsonNodeUtil {
         }
 
         List<String> result = new ArrayList<>(array.size());
+        JsonVariableScope scope = input.getVariableScope();
         for (Object item : array) {
             if (item == null) {
                 continue;
             }
             String line = item.toString();
-            String parseValue = (String) ExpressUtil.eval(line, input.getInputParamAndContextParam());
+            String parseValue = (String) ExpressUtil.eval(line, scope);
             result.add(parseValue);
         }
         return result;
@@ -571,7 +769,7 @@ public class ExecuteJsonNodeUtil {
      * @return
      */
     public static String parseStringExcludeContext(String fieldValue, JsonExecuteNodeInput input) {
-        Object value = ExpressUtil.eval(fieldValue, input.getData());
+        Object value = ExpressUtil.eval(fieldValue, input.getReadOnlyData());
         return value == null ? "" : value.toString();
     }
 
@@ -588,7 +786,7 @@ public class ExecuteJsonNodeUtil {
             //TODO toString
             fieldValue = input.getNodeContext().getAttribute(fieldValue).toString();
         }
-        return (String) ExpressUtil.eval(fieldValue, input.getInputParamAndContextParam());
+        return (String) ExpressUtil.eval(fieldValue, input.getVariableScope());
     }
 
     /**
@@ -1,13 +1,41 @@
 package fit.lang.plugin.json;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import org.mvel2.MVEL;
 
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 public class ExpressUtil {
 
+    public static final int DEFAULT_EXPRESS_CACHE_CAPACITY = 4096;
+
+    /**
+     * 编译后的表达式缓存
+     */
+    static volatile LRUCache<String, Serializable> expressCache = CacheUtil.newLRUCache(DEFAULT_EXPRESS_CACHE_CAPACITY);
+
+    static final AtomicLong hitCount = new AtomicLong();
+
+    static final AtomicLong missCount = new AtomicLong();
+
+    static final AtomicLong fieldPathCount = new AtomicLong();
+
+    /**
+     * 简单字段路径： a 或 a.b.c
+     */
+    static final Pattern FIELD_PATH_PATTERN = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*(\\.[A-Za-z_$][A-Za-z0-9_$]*)*");
+
+    static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("true", "false", "null", "nil", "empty", "this", "new", "def", "function", "FitLang"));
+
     /**
      * 表达式计算
      *
@@ -21,20 +49,154 @@ public class ExpressUtil {
         }
 
         express = express.trim();
-        if (!express.startsWith("${") || !express.endsWith("}")) {
+        if (!isExpress(express)) {
             return express;
         }
 
-        String realExpress = express.substring(2, express.length() - 1);
+        String realExpress = getRealExpress(express);
+
+        //简单字段直接取值，不经过MVEL
+        String[] fieldPath = parseFieldPath(realExpress);
+        if (fieldPath != null) {
+            Object[] value = getByFieldPath(param, fieldPath, 0);
+            if (value != null) {
+                fieldPathCount.incrementAndGet();
+                return value[0];
+            }
+        }
+
+        Serializable compiledExpress = getCompiledExpress(realExpress);
         param.put("FitLang", FitLangExpressTool.INSTANCE);
 
         try {
-            return MVEL.eval(realExpress, param, param);
+            return MVEL.executeExpression(compiledExpress, param, param);
         } finally {
             param.remove("FitLang");
         }
     }
 
+    /**
+     * 表达式计算：基于变量作用域，不需要合并入参和上下文
+     *
+     * @param express
+     * @param scope
+     * @return
+     */
+    public static Object eval(String express, JsonVariableScope scope) {
+        if (express == null) {
+            return null;
+        }
+
+        express = express.trim();
+        if (!isExpress(express)) {
+            return express;
+        }
+
+        String realExpress = getRealExpress(express);
+
+        String[] fieldPath = parseFieldPath(realExpress);
+        if (fieldPath != null && scope.containsKey(fieldPath[0])) {
+            Object[] value = getByFieldPath(scope.get(fieldPath[0]), fieldPath, 1);
+            if (value != null) {
+                fieldPathCount.incrementAndGet();
+                return value[0];
+            }
+        }
+
+        Serializable compiledExpress = getCompiledExpress(realExpress);
+        return MVEL.executeExpression(compiledExpress, new JsonVariableResolverFactory(scope));
+    }
+
+    static boolean isExpress(String express) {
+        return express.startsWith("${") && express.endsWith("}");
+    }
+
+    static String getRealExpress(String express) {
+        return express.substring(2, express.length() - 1).trim();
+    }
+
+    /**
+     * 获取编译后的表达式，不存在则编译
+     *
+     * @param express
+     * @return
+     */
+    static Serializable getCompiledExpress(String express) {
+        LRUCache<String, Serializable> cache = expressCache;
+        Serializable compiledExpress = cache.get(express);
+        if (compiledExpress != null) {
+            hitCount.incrementAndGet();
+            return compiledExpress;
+        }
+        missCount.incrementAndGet();
+        compiledExpress = MVEL.compileExpression(express);
+        cache.put(express, compiledExpress);
+        return compiledExpress;
+    }
+
+    /**
+     * 解析简单字段路径
+     *
+     * @param express
+     * @return 不是简单字段返回null
+     */
+    static String[] parseFieldPath(String express) {
+        if (!FIELD_PATH_PATTERN.matcher(express).matches()) {
+            return null;
+        }
+        String[] fieldPath = express.split("\\.");
+        if (KEYWORDS.contains(fieldPath[0])) {
+            return null;
+        }
+        return fieldPath;
+    }
+
+    /**
+     * 按字段路径取值：字段不存在时返回null，由MVEL处理（保持报错行为一致）
+     *
+     * @param root
+     * @param fieldPath
+     * @param fromIndex
+     * @return 长度为1的数组，包装取到的值
+     */
+    static Object[] getByFieldPath(Object root, String[] fieldPath, int fromIndex) {
+        Object value = root;
+        for (int i = fromIndex; i < fieldPath.length; i++) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (!map.containsKey(fieldPath[i])) {
+                return null;
+            }
+            value = map.get(fieldPath[i]);
+        }
+        return new Object[]{value};
+    }
+
+    public static void setExpressCacheCapacity(int capacity) {
+        expressCache = CacheUtil.newLRUCache(capacity);
+    }
+
+    public static void clearExpressCache() {
+        expressCache.clear();
+    }
+
+    /**
+     * 表达式缓存统计
+     *
+     * @return
+     */
+    public static JSONObject getExpressCacheStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("size", expressCache.size());
+        statistics.put("capacity", expressCache.capacity());
+        statistics.put("hitCount", hitCount.get());
+        statistics.put("missCount", missCount.get());
+        statistics.put("fieldPathCount", fieldPathCount.get());
+        return statistics;
+    }
+
     /**
      * json封装
      *
@@ -46,6 +208,17 @@ public class ExpressUtil {
         return (JSONObject) eval((Object) expressJson, param);
     }
 
+    /**
+     * json封装
+     *
+     * @param expressJson
+     * @param scope
+     * @return
+     */
+    public static JSONObject eval(JSONObject expressJson, JsonVariableScope scope) {
+        return (JSONObject) eval((Object) expressJson, scope);
+    }
+
     /**
      * 表达式计算
      *
@@ -81,4 +254,36 @@ public class ExpressUtil {
         }
         return newValue;
     }
-}
\ No newline at end of file
+
+    /**
+     * 表达式计算
+     *
+     * @param value
+     * @param scope
+     * @return
+     */
+    public static Object eval(Object value, JsonVariableScope scope) {
+        if (value == null) {
+            return null;
+        }
+
+        Object newValue = value;
+        if (value instanceof String) {
+            newValue = eval((String) value, scope);
+        } else if (value instanceof JSONObject) {
+            JSONObject newJson = new JSONObject();
+            for (Map.Entry<String, Object> entry : ((JSONObject) value).entrySet()) {
+                newJson.put(entry.getKey(), eval(entry.getValue(), scope));
+            }
+            newValue = newJson;
+        } else if (value instanceof JSONArray) {
+            JSONArray oldArray = (JSONArray) value;
+            JSONArray newArray = new JSONArray(oldArray.size());
+            for (Object item : oldArray) {
+                newArray.add(eval(item, scope));
+            }
+            newValue = newArray;
+        }
+        return newValue;
+    }
+}
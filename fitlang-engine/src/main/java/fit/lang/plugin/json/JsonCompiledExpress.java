@@ -0,0 +1,142 @@
+package fit.lang.plugin.json;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import org.mvel2.MVEL;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 预编译的表达式模板：结构和常量只解析一次，执行时不再截取、匹配和查表达式缓存
+ * <p>
+ * 计算结果与ExpressUtil.eval(Object, JsonVariableScope)一致
+ */
+public abstract class JsonCompiledExpress {
+
+    public abstract Object eval(JsonVariableScope scope);
+
+    /**
+     * 编译表达式模板：字符串、JSONObject、JSONArray递归编译，其他值原样返回
+     *
+     * @param value
+     * @return
+     */
+    public static JsonCompiledExpress compile(Object value) {
+        if (value instanceof String) {
+            String express = ((String) value).trim();
+            if (!ExpressUtil.isExpress(express)) {
+                return new Constant(express);
+            }
+            String realExpress = ExpressUtil.getRealExpress(express);
+            return new Express(realExpress, ExpressUtil.parseFieldPath(realExpress));
+        }
+        if (value instanceof JSONObject) {
+            JSONObject json = (JSONObject) value;
+            String[] keys = new String[json.size()];
+            JsonCompiledExpress[] values = new JsonCompiledExpress[json.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : json.entrySet()) {
+                keys[i] = entry.getKey();
+                values[i] = compile(entry.getValue());
+                i++;
+            }
+            return new ObjectExpress(keys, values);
+        }
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            JsonCompiledExpress[] items = new JsonCompiledExpress[array.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = compile(array.get(i));
+            }
+            return new ArrayExpress(items);
+        }
+        return new Constant(value);
+    }
+
+    static class Constant extends JsonCompiledExpress {
+
+        final Object value;
+
+        Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object eval(JsonVariableScope scope) {
+            return value;
+        }
+    }
+
+    /**
+     * ${...}表达式：简单字段路径直接取值，取不到时和其他表达式一样交给MVEL
+     */
+    static class Express extends JsonCompiledExpress {
+
+        final String express;
+
+        final String[] fieldPath;
+
+        volatile Serializable compiledExpress;
+
+        Express(String express, String[] fieldPath) {
+            this.express = express;
+            this.fieldPath = fieldPath;
+        }
+
+        @Override
+        public Object eval(JsonVariableScope scope) {
+            if (fieldPath != null && scope.containsKey(fieldPath[0])) {
+                Object[] value = ExpressUtil.getByFieldPath(scope.get(fieldPath[0]), fieldPath, 1);
+                if (value != null) {
+                    return value[0];
+                }
+            }
+            Serializable compiled = compiledExpress;
+            if (compiled == null) {
+                compiled = MVEL.compileExpression(express);
+                compiledExpress = compiled;
+            }
+            return MVEL.executeExpression(compiled, new JsonVariableResolverFactory(scope));
+        }
+    }
+
+    static class ObjectExpress extends JsonCompiledExpress {
+
+        final String[] keys;
+
+        final JsonCompiledExpress[] values;
+
+        ObjectExpress(String[] keys, JsonCompiledExpress[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public JSONObject eval(JsonVariableScope scope) {
+            JSONObject result = new JSONObject(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                result.put(keys[i], values[i].eval(scope));
+            }
+            return result;
+        }
+    }
+
+    static class ArrayExpress extends JsonCompiledExpress {
+
+        final JsonCompiledExpress[] items;
+
+        ArrayExpress(JsonCompiledExpress[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public JSONArray eval(JsonVariableScope scope) {
+            JSONArray result = new JSONArray(items.length);
+            for (JsonCompiledExpress item : items) {
+                result.add(item.eval(scope));
+            }
+            return result;
+        }
+    }
+}
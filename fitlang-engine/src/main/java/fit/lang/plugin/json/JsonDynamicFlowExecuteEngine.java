@@ -8,51 +8,20 @@ import fit.lang.ExecuteNodeEngineConst;
 import fit.lang.ExecuteNodeException;
 import fit.lang.ExecuteNodeUtil;
 import fit.lang.ExecuteReturnNodeException;
-import fit.lang.common.flow.ThreadExecuteNode;
-import fit.lang.common.util.EchoExecuteNode;
-import fit.lang.common.util.PrintExecuteNode;
 import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNode;
 import fit.lang.define.ExecuteNodeAopIgnoreTag;
 import fit.lang.define.ExecuteNodeBuildable;
-import fit.lang.plugin.json.applet.AppletJsonExecuteNode;
-import fit.lang.plugin.json.cmd.CmdJsonExecuteNode;
-import fit.lang.plugin.json.cmd.UnzipJsonExecuteNode;
-import fit.lang.plugin.json.cmd.ZipJsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeData;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
-import fit.lang.plugin.json.file.DeleteFileJsonExecuteNode;
-import fit.lang.plugin.json.file.ReadFileJsonExecuteNode;
-import fit.lang.plugin.json.file.WriteFileJsonExecuteNode;
-import fit.lang.plugin.json.flow.*;
-import fit.lang.plugin.json.function.JsonFunctionExecuteNode;
-import fit.lang.plugin.json.function.JsonPackageExecuteNode;
-import fit.lang.plugin.json.http.*;
-import fit.lang.plugin.json.info.InfoJsonExecuteNode;
-import fit.lang.plugin.json.info.SystemBaseInfoJsonExecuteNode;
-import fit.lang.plugin.json.json.*;
-import fit.lang.plugin.json.monitor.*;
-import fit.lang.plugin.json.net.SslTelnetHttpJsonExecuteNode;
-import fit.lang.plugin.json.net.SslTelnetJsonExecuteNode;
-import fit.lang.plugin.json.net.TelnetHttpJsonExecuteNode;
-import fit.lang.plugin.json.net.TelnetJsonExecuteNode;
-import fit.lang.plugin.json.office.MergeExcelJsonExecuteNode;
-import fit.lang.plugin.json.office.ReadExcelForAllSheetJsonExecuteNode;
-import fit.lang.plugin.json.office.ReadExcelJsonExecuteNode;
-import fit.lang.plugin.json.office.WriteExcelJsonExecuteNode;
-import fit.lang.plugin.json.os.GetClipboardJsonExecuteNode;
-import fit.lang.plugin.json.os.SetClipboardJsonExecuteNode;
-import fit.lang.plugin.json.util.*;
-import fit.lang.plugin.json.web.ProxyJsonExecuteNode;
-import fit.lang.plugin.json.web.ServerJsonExecuteNode;
-import fit.lang.plugin.json.web.WebJsonExecuteNode;
+import fit.lang.plugin.json.plan.JsonFlowCompiler;
+import fit.lang.plugin.json.plan.JsonFlowPlan;
+import fit.lang.plugin.json.plan.JsonFlowPlanCache;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static fit.lang.ExecuteNodeUtil.buildNextNode;
 import static fit.lang.ExecuteNodeUtil.getAllException;
@@ -64,10 +33,10 @@ public class JsonDynamicFlowExecuteEngine extends JsonExecuteNode implements Exe
 
     public static String currentDir;
 
-    static Map<String, Class<? extends ExecuteNode>> executeNodeMap = new HashMap<>();
-
     JSONObject nodeDefine;
 
+    JsonFlowPlan flowPlan;
+
     public static String getCurrentDir() {
         return currentDir;
     }
@@ -80,6 +49,15 @@ public class JsonDynamicFlowExecuteEngine extends JsonExecuteNode implements Exe
         setNodeDefine(nodeDefine);
     }
 
+    /**
+     * @param nodeDefine
+     * @param flowPlan   流程定义对应的计划，为null时执行时按流程定义查找
+     */
+    public JsonDynamicFlowExecuteEngine(JSONObject nodeDefine, JsonFlowPlan flowPlan) {
+        setNodeDefine(nodeDefine);
+        this.flowPlan = flowPlan;
+    }
+
     public void setNodeDefine(JSONObject nodeDefine) {
         if (nodeDefine == null || nodeDefine.isEmpty()) {
             throw new ExecuteNodeException("define is empty!");
@@ -89,6 +67,19 @@ public class JsonDynamicFlowExecuteEngine extends JsonExecuteNode implements Exe
         }
         //避免修改内部结构
         this.nodeDefine = nodeDefine.clone();
+        this.flowPlan = null;
+    }
+
+    /**
+     * 获取流程计划：相同内容的流程共享，避免每次执行都重新构建节点树
+     *
+     * @return
+     */
+    public JsonFlowPlan getFlowPlan() {
+        if (flowPlan == null) {
+            flowPlan = JsonFlowPlanCache.getPlan(nodeDefine);
+        }
+        return flowPlan;
     }
 
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
@@ -96,9 +87,24 @@ public class JsonDynamicFlowExecuteEngine extends JsonExecuteNode implements Exe
         if (StrUtil.isNotBlank(currentDir)) {
             input.getNodeContext().setAttribute("currentDir", currentDir);
         }
+        JsonFlowPlan plan = getFlowPlan();
+        //不记录出入参时热点流程走编译后的步骤，执行时间由步骤记录
+        if (!input.getNodeContext().getTraceLevel().isStoreData()) {
+            JsonFlowCompiler.Step compiledStep = plan.getCompiledStep();
+            if (compiledStep != null) {
+                try {
+                    compiledStep.execute(input, output);
+                } catch (ExecuteReturnNodeException returnNodeException) {
+                    output.setData(returnNodeException.getResult());
+                }
+                return;
+            }
+        }
+        ExecuteNode executeNode = plan.acquire(input.getNodeContext());
         try {
-            ExecuteNode executeNode = createExecuteNode(nodeDefine, input.getNodeContext());
             executeNode.executeAndNext(input, output);
+            //异常中断的节点树可能残留执行状态，只归还正常完成的
+            plan.release(executeNode);
         } catch (ExecuteReturnNodeException returnNodeException) {
             output.setData(returnNodeException.getResult());
         }
@@ -155,190 +161,48 @@ public class JsonDynamicFlowExecuteEngine extends JsonExecuteNode implements Exe
     }
 
     /**
-     * 获取执行类：支持协议解析
+     * 获取执行类：支持协议解析，类在第一次使用时加载，见JsonExecuteNodeRegistry
      *
      * @param uni
      * @return
      */
     public static Class<? extends ExecuteNode> getExecuteNodeClass(String uni) {
-        String key = uni;
-        if (uni.contains(":")) {
-            key = uni.substring(0, uni.lastIndexOf(':'));
-        }
-        return executeNodeMap.get(key);
+        return JsonExecuteNodeRegistry.getExecuteNodeClass(uni);
     }
 
     public static void register(String uni, Class<? extends ExecuteNode> executeNodeClass) {
-        if (executeNodeMap.containsKey(uni)) {
-            return;
-        }
-        executeNodeMap.put(uni, executeNodeClass);
+        JsonExecuteNodeRegistry.register(uni, executeNodeClass);
+    }
+
+    /**
+     * 按类名注册，第一次使用时才加载类
+     *
+     * @param uni
+     * @param className
+     */
+    public static void register(String uni, String className) {
+        JsonExecuteNodeRegistry.register(uni, className);
     }
 
     public static void unregister(String uni) {
-        executeNodeMap.remove(uni);
+        JsonExecuteNodeRegistry.unregister(uni);
     }
 
+    static final String[] UNSAFE_NODES = new String[]{
+            "readFile",
+            "writeFile",
+            "deleteFile",
+    };
+
     public static void disableUnsafeNodes() {
-        String[] dangerNodes = new String[]{
-                "readFile",
-                "writeFile",
-                "deleteFile",
-        };
-        for (String nodeUni : dangerNodes) {
+        for (String nodeUni : UNSAFE_NODES) {
             unregister(nodeUni);
         }
     }
 
     public static void enableUnsafeNodes() {
-
-        // file
-        register("readFile", ReadFileJsonExecuteNode.class);
-        register("writeFile", WriteFileJsonExecuteNode.class);
-        register("deleteFile", DeleteFileJsonExecuteNode.class);
-
-    }
-
-    static {
-
-        // util
-        register("hello", HelloJsonExecuteNode.class);
-        register("echo", EchoExecuteNode.class);
-        register("setGlobal", SetGlobalJsonExecuteNode.class);
-        register("print", PrintExecuteNode.class);
-        register("log", LogJsonExecuteNode.class);
-        register("sleep", SleepJsonExecuteNode.class);
-        register("perf", PerformanceJsonExecuteNode.class);
-        register("replaceContent", ReplaceContentJsonExecuteNode.class);
-
-        // flow
-        register("sequence", JsonSequenceExecuteNode.class);
-        register("batch", JsonBatchExecuteNode.class);
-        register("pipe", JsonPipeExecuteNode.class);
-        register("foreach", JsonForeachExecuteNode.class);
-        register("loop", JsonLoopExecuteNode.class);
-        register("switch", JsonSwitchExecuteNode.class);
-        register("thread", ThreadExecuteNode.class);
-        register("call", CallJsonExecuteNode.class);
-        register("catch", CatchJsonExecuteNode.class);
-        register("assert", AssertJsonExecuteNode.class);
-        register("return", ReturnJsonExecuteNode.class);
-        register("execute", ExecuteJsonExecuteNode.class);
-
-        //json
-        register("parseJson", ParseJsonJsonExecuteNode.class);
-        register("stringifyJson", StringifyJsonJsonExecuteNode.class);
-        register("parse", ParseJsonJsonExecuteNode.class);
-        register("stringify", StringifyJsonJsonExecuteNode.class);
-
-        register("mix", MixJsonExecuteNode.class);
-        register("eval", EvalJsonExecuteNode.class);
-        register("mixNode", MixNodeJsonExecuteNode.class);
-
-        register("getSchema", GetSchemaJsonExecuteNode.class);
-        register("get", GetJsonExecuteNode.class);
-        register("set", SetJsonExecuteNode.class);
-
-        register("removeField", RemoveFieldJsonExecuteNode.class);
-        register("removeEmptyField", RemoveEmptyFieldJsonExecuteNode.class);
-
-        register("sortField", SortFieldJsonExecuteNode.class);
-        register("getStruct", GetStructJsonExecuteNode.class);
-
-        register("convert", ConvertJsonExecuteNode.class);
-        register("convertKeyValueList", ConvertKeyValueListJsonExecuteNode.class);
-        register("convertArrayToObject", ConvertArrayToObjectJsonExecuteNode.class);
-        register("convertObjectToArray", ConvertObjectToArrayJsonExecuteNode.class);
-        register("convertToObjectArray", ConvertToObjectArrayJsonExecuteNode.class);
-        register("convertToBasicArray", ConvertToBasicArrayJsonExecuteNode.class);
-        register("convertToJsonPath", ConvertToJsonPathJsonExecuteNode.class);
-        register("compare", CompareJsonJsonExecuteNode.class);
-
-        register("add", AddJsonExecuteNode.class);
-
-        register("increase", IncreaseJsonExecuteNode.class);
-        register("decrease", DecreaseJsonExecuteNode.class);
-
-        // http
-        register("http", HttpJsonExecuteNode.class);
-
-        register("httpHead", HttpHeadJsonExecuteNode.class);
-        register("HEAD http", HttpHeadJsonExecuteNode.class);
-        register("HEAD https", HttpHeadJsonExecuteNode.class);
-
-        register("postJson", HttpPostJsonJsonExecuteNode.class);
-        register("httpPostJson", HttpPostJsonJsonExecuteNode.class);
-        register("POST http", HttpPostJsonJsonExecuteNode.class);
-        register("POST https", HttpPostJsonJsonExecuteNode.class);
-
-        register("postForm", HttpPostFormJsonExecuteNode.class);
-        register("httpPostForm", HttpPostFormJsonExecuteNode.class);
-
-        register("httpGet", HttpGetJsonExecuteNode.class);
-        register("GET http", HttpGetJsonExecuteNode.class);
-        register("GET https", HttpGetJsonExecuteNode.class);
-
-        register("httpPut", HttpPutJsonJsonExecuteNode.class);
-        register("PUT http", HttpPutJsonJsonExecuteNode.class);
-        register("PUT https", HttpPutJsonJsonExecuteNode.class);
-
-        register("httpDelete", HttpDeleteJsonJsonExecuteNode.class);
-        register("DELETE http", HttpDeleteJsonJsonExecuteNode.class);
-        register("DELETE https", HttpDeleteJsonJsonExecuteNode.class);
-
-        // web
-        register("server", ServerJsonExecuteNode.class);
-        register("proxy", ProxyJsonExecuteNode.class);
-
-        register("web", WebJsonExecuteNode.class);
-
-        //info
-        register("systemInfo", SystemBaseInfoJsonExecuteNode.class);
-        register("info", InfoJsonExecuteNode.class);
-
-        //monitor
-        register("startMonitor", StartMonitorJsonExecuteNode.class);
-        register("getMonitorData", GetMonitorDataJsonExecuteNode.class);
-        register("getClientMonitorData", GetClientMonitorDataJsonExecuteNode.class);
-        register("receiveClientMonitorData", ReceiveClientMonitorDataJsonExecuteNode.class);
-        register("pushClientMonitorData", PushClientMonitorDataJsonExecuteNode.class);
-        register("getMonitorClient", GetMonitorClientJsonExecuteNode.class);
-
-        // file
-        register("readFile", ReadFileJsonExecuteNode.class);
-        register("writeFile", WriteFileJsonExecuteNode.class);
-        register("deleteFile", DeleteFileJsonExecuteNode.class);
-
-        //jui
-        register("postman", HttpJsonExecuteNode.class);
-
-        //function and package
-        register("package", JsonPackageExecuteNode.class);
-        register("function", JsonFunctionExecuteNode.class);
-
-        //cmd
-        register("cmd", CmdJsonExecuteNode.class);
-        register("zip", ZipJsonExecuteNode.class);
-        register("unzip", UnzipJsonExecuteNode.class);
-
-        //net
-        register("telnet", TelnetJsonExecuteNode.class);
-        register("telnets", SslTelnetJsonExecuteNode.class);
-        register("telnet.http", TelnetHttpJsonExecuteNode.class);
-        register("telnet.https", SslTelnetHttpJsonExecuteNode.class);
-
-        //os
-        register("getClipboard", GetClipboardJsonExecuteNode.class);
-        register("setClipboard", SetClipboardJsonExecuteNode.class);
-
-        //office
-        register("readExcelForAllSheet", ReadExcelForAllSheetJsonExecuteNode.class);
-        register("readExcel", ReadExcelJsonExecuteNode.class);
-        register("writeExcel", WriteExcelJsonExecuteNode.class);
-        register("mergeExcel", MergeExcelJsonExecuteNode.class);
-
-        //applet
-        register("applet", AppletJsonExecuteNode.class);
-
+        for (String nodeUni : UNSAFE_NODES) {
+            JsonExecuteNodeRegistry.registerBuiltin(nodeUni);
+        }
     }
 }
@@ -0,0 +1,320 @@
+package fit.lang.plugin.json;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.define.ExecuteNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 节点注册表：内置节点只登记类名索引，第一次使用某个uni时才加载对应的类
+ * <p>
+ * 带协议的uni（如 GET http:xxx）按协议前缀（最后一个冒号前的部分）查找，不按完整uni缓存，避免缓存随uni无限增长
+ */
+public class JsonExecuteNodeRegistry {
+
+    /**
+     * 内置节点索引：uni, 类名；顺序与分组和原先的注册代码一致
+     */
+    static final String[][] BUILTIN_INDEX = new String[][]{
+            // util
+            {"hello", "fit.lang.plugin.json.util.HelloJsonExecuteNode"},
+            {"echo", "fit.lang.common.util.EchoExecuteNode"},
+            {"setGlobal", "fit.lang.plugin.json.util.SetGlobalJsonExecuteNode"},
+            {"print", "fit.lang.common.util.PrintExecuteNode"},
+            {"log", "fit.lang.plugin.json.util.LogJsonExecuteNode"},
+            {"sleep", "fit.lang.plugin.json.util.SleepJsonExecuteNode"},
+            {"perf", "fit.lang.plugin.json.util.PerformanceJsonExecuteNode"},
+            {"replaceContent", "fit.lang.plugin.json.util.ReplaceContentJsonExecuteNode"},
+
+            // flow
+            {"sequence", "fit.lang.plugin.json.flow.JsonSequenceExecuteNode"},
+            {"batch", "fit.lang.plugin.json.flow.JsonBatchExecuteNode"},
+            {"pipe", "fit.lang.plugin.json.flow.JsonPipeExecuteNode"},
+            {"foreach", "fit.lang.plugin.json.flow.JsonForeachExecuteNode"},
+            {"foreachStream", "fit.lang.plugin.json.flow.JsonStreamForeachExecuteNode"},
+            {"loop", "fit.lang.plugin.json.flow.JsonLoopExecuteNode"},
+            {"switch", "fit.lang.plugin.json.flow.JsonSwitchExecuteNode"},
+            {"thread", "fit.lang.common.flow.ThreadExecuteNode"},
+            {"call", "fit.lang.plugin.json.flow.CallJsonExecuteNode"},
+            {"catch", "fit.lang.plugin.json.flow.CatchJsonExecuteNode"},
+            {"assert", "fit.lang.plugin.json.flow.AssertJsonExecuteNode"},
+            {"return", "fit.lang.plugin.json.flow.ReturnJsonExecuteNode"},
+            {"execute", "fit.lang.plugin.json.flow.ExecuteJsonExecuteNode"},
+            {"parallel", "fit.lang.plugin.json.flow.JsonParallelExecuteNode"},
+            {"all", "fit.lang.plugin.json.flow.JsonParallelExecuteNode"},
+            {"await", "fit.lang.plugin.json.flow.JsonAwaitExecuteNode"},
+
+            //json
+            {"parseJson", "fit.lang.plugin.json.json.ParseJsonJsonExecuteNode"},
+            {"stringifyJson", "fit.lang.plugin.json.json.StringifyJsonJsonExecuteNode"},
+            {"parse", "fit.lang.plugin.json.json.ParseJsonJsonExecuteNode"},
+            {"stringify", "fit.lang.plugin.json.json.StringifyJsonJsonExecuteNode"},
+
+            {"mix", "fit.lang.plugin.json.json.MixJsonExecuteNode"},
+            {"eval", "fit.lang.plugin.json.json.EvalJsonExecuteNode"},
+            {"mixNode", "fit.lang.plugin.json.json.MixNodeJsonExecuteNode"},
+
+            {"getSchema", "fit.lang.plugin.json.json.GetSchemaJsonExecuteNode"},
+            {"get", "fit.lang.plugin.json.json.GetJsonExecuteNode"},
+            {"set", "fit.lang.plugin.json.json.SetJsonExecuteNode"},
+
+            {"removeField", "fit.lang.plugin.json.json.RemoveFieldJsonExecuteNode"},
+            {"removeEmptyField", "fit.lang.plugin.json.json.RemoveEmptyFieldJsonExecuteNode"},
+
+            {"sortField", "fit.lang.plugin.json.json.SortFieldJsonExecuteNode"},
+            {"getStruct", "fit.lang.plugin.json.json.GetStructJsonExecuteNode"},
+
+            {"convert", "fit.lang.plugin.json.json.ConvertJsonExecuteNode"},
+            {"convertKeyValueList", "fit.lang.plugin.json.json.ConvertKeyValueListJsonExecuteNode"},
+            {"convertArrayToObject", "fit.lang.plugin.json.json.ConvertArrayToObjectJsonExecuteNode"},
+            {"convertObjectToArray", "fit.lang.plugin.json.json.ConvertObjectToArrayJsonExecuteNode"},
+            {"convertToObjectArray", "fit.lang.plugin.json.json.ConvertToObjectArrayJsonExecuteNode"},
+            {"convertToBasicArray", "fit.lang.plugin.json.json.ConvertToBasicArrayJsonExecuteNode"},
+            {"convertToJsonPath", "fit.lang.plugin.json.json.ConvertToJsonPathJsonExecuteNode"},
+            {"compare", "fit.lang.plugin.json.json.CompareJsonJsonExecuteNode"},
+
+            {"add", "fit.lang.plugin.json.json.AddJsonExecuteNode"},
+
+            {"increase", "fit.lang.plugin.json.json.IncreaseJsonExecuteNode"},
+            {"decrease", "fit.lang.plugin.json.json.DecreaseJsonExecuteNode"},
+
+            // http
+            {"http", "fit.lang.plugin.json.http.HttpJsonExecuteNode"},
+
+            {"httpHead", "fit.lang.plugin.json.http.HttpHeadJsonExecuteNode"},
+            {"HEAD http", "fit.lang.plugin.json.http.HttpHeadJsonExecuteNode"},
+            {"HEAD https", "fit.lang.plugin.json.http.HttpHeadJsonExecuteNode"},
+
+            {"postJson", "fit.lang.plugin.json.http.HttpPostJsonJsonExecuteNode"},
+            {"httpPostJson", "fit.lang.plugin.json.http.HttpPostJsonJsonExecuteNode"},
+            {"POST http", "fit.lang.plugin.json.http.HttpPostJsonJsonExecuteNode"},
+            {"POST https", "fit.lang.plugin.json.http.HttpPostJsonJsonExecuteNode"},
+
+            {"postForm", "fit.lang.plugin.json.http.HttpPostFormJsonExecuteNode"},
+            {"httpPostForm", "fit.lang.plugin.json.http.HttpPostFormJsonExecuteNode"},
+
+            {"httpGet", "fit.lang.plugin.json.http.HttpGetJsonExecuteNode"},
+            {"GET http", "fit.lang.plugin.json.http.HttpGetJsonExecuteNode"},
+            {"GET https", "fit.lang.plugin.json.http.HttpGetJsonExecuteNode"},
+
+            {"httpPut", "fit.lang.plugin.json.http.HttpPutJsonJsonExecuteNode"},
+            {"PUT http", "fit.lang.plugin.json.http.HttpPutJsonJsonExecuteNode"},
+            {"PUT https", "fit.lang.plugin.json.http.HttpPutJsonJsonExecuteNode"},
+
+            {"httpDelete", "fit.lang.plugin.json.http.HttpDeleteJsonJsonExecuteNode"},
+            {"DELETE http", "fit.lang.plugin.json.http.HttpDeleteJsonJsonExecuteNode"},
+            {"DELETE https", "fit.lang.plugin.json.http.HttpDeleteJsonJsonExecuteNode"},
+
+            // web
+            {"server", "fit.lang.plugin.json.web.ServerJsonExecuteNode"},
+            {"proxy", "fit.lang.plugin.json.web.ProxyJsonExecuteNode"},
+
+            {"web", "fit.lang.plugin.json.web.WebJsonExecuteNode"},
+
+            //info
+            {"systemInfo", "fit.lang.plugin.json.info.SystemBaseInfoJsonExecuteNode"},
+            {"info", "fit.lang.plugin.json.info.InfoJsonExecuteNode"},
+
+            //monitor
+            {"startMonitor", "fit.lang.plugin.json.monitor.StartMonitorJsonExecuteNode"},
+            {"getMonitorData", "fit.lang.plugin.json.monitor.GetMonitorDataJsonExecuteNode"},
+            {"getClientMonitorData", "fit.lang.plugin.json.monitor.GetClientMonitorDataJsonExecuteNode"},
+            {"receiveClientMonitorData", "fit.lang.plugin.json.monitor.ReceiveClientMonitorDataJsonExecuteNode"},
+            {"pushClientMonitorData", "fit.lang.plugin.json.monitor.PushClientMonitorDataJsonExecuteNode"},
+            {"getMonitorClient", "fit.lang.plugin.json.monitor.GetMonitorClientJsonExecuteNode"},
+
+            // file
+            {"readFile", "fit.lang.plugin.json.file.ReadFileJsonExecuteNode"},
+            {"writeFile", "fit.lang.plugin.json.file.WriteFileJsonExecuteNode"},
+            {"deleteFile", "fit.lang.plugin.json.file.DeleteFileJsonExecuteNode"},
+
+            //jui
+            {"postman", "fit.lang.plugin.json.http.HttpJsonExecuteNode"},
+
+            //function and package
+            {"package", "fit.lang.plugin.json.function.JsonPackageExecuteNode"},
+            {"function", "fit.lang.plugin.json.function.JsonFunctionExecuteNode"},
+
+            //cmd
+            {"cmd", "fit.lang.plugin.json.cmd.CmdJsonExecuteNode"},
+            {"zip", "fit.lang.plugin.json.cmd.ZipJsonExecuteNode"},
+            {"unzip", "fit.lang.plugin.json.cmd.UnzipJsonExecuteNode"},
+
+            //net
+            {"telnet", "fit.lang.plugin.json.net.TelnetJsonExecuteNode"},
+            {"telnets", "fit.lang.plugin.json.net.SslTelnetJsonExecuteNode"},
+            {"telnet.http", "fit.lang.plugin.json.net.TelnetHttpJsonExecuteNode"},
+            {"telnet.https", "fit.lang.plugin.json.net.SslTelnetHttpJsonExecuteNode"},
+
+            //os
+            {"getClipboard", "fit.lang.plugin.json.os.GetClipboardJsonExecuteNode"},
+            {"setClipboard", "fit.lang.plugin.json.os.SetClipboardJsonExecuteNode"},
+
+            //office
+            {"readExcelForAllSheet", "fit.lang.plugin.json.office.ReadExcelForAllSheetJsonExecuteNode"},
+            {"readExcel", "fit.lang.plugin.json.office.ReadExcelJsonExecuteNode"},
+            {"writeExcel", "fit.lang.plugin.json.office.WriteExcelJsonExecuteNode"},
+            {"mergeExcel", "fit.lang.plugin.json.office.MergeExcelJsonExecuteNode"},
+
+            //applet
+            {"applet", "fit.lang.plugin.json.applet.AppletJsonExecuteNode"},
+    };
+
+    static final Map<String, Entry> entryMap = new ConcurrentHashMap<>();
+
+    /**
+     * 按加载顺序记录的类加载耗时
+     */
+    static final List<Entry> loadedList = new ArrayList<>();
+
+    static final long initNanos;
+
+    static {
+        long beginTime = System.nanoTime();
+        for (String[] item : BUILTIN_INDEX) {
+            register(item[0], item[1]);
+        }
+        initNanos = System.nanoTime() - beginTime;
+    }
+
+    /**
+     * 按类名注册，第一次使用时加载；已注册的uni不覆盖
+     *
+     * @param uni
+     * @param className
+     */
+    public static void register(String uni, String className) {
+        entryMap.putIfAbsent(uni, new Entry(uni, className, null));
+    }
+
+    public static void register(String uni, Class<? extends ExecuteNode> executeNodeClass) {
+        entryMap.putIfAbsent(uni, new Entry(uni, executeNodeClass.getName(), executeNodeClass));
+    }
+
+    /**
+     * 注册内置节点
+     *
+     * @param uni
+     * @return 内置索引中没有时返回false
+     */
+    public static boolean registerBuiltin(String uni) {
+        for (String[] item : BUILTIN_INDEX) {
+            if (item[0].equals(uni)) {
+                register(item[0], item[1]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void unregister(String uni) {
+        entryMap.remove(uni);
+    }
+
+    public static boolean contains(String uni) {
+        return entryMap.containsKey(uni);
+    }
+
+    /**
+     * 获取执行类：支持协议解析，uni:xxx 按最后一个冒号前的部分查找
+     *
+     * @param uni
+     * @return
+     */
+    public static Class<? extends ExecuteNode> getExecuteNodeClass(String uni) {
+        Entry entry = entryMap.get(uni);
+        if (entry == null) {
+            int index = uni.lastIndexOf(':');
+            if (index < 0) {
+                return null;
+            }
+            //只查注册表，卸载后不会从其他缓存中再次找到
+            entry = entryMap.get(uni.substring(0, index));
+            if (entry == null) {
+                return null;
+            }
+        }
+        return entry.getExecuteNodeClass();
+    }
+
+    /**
+     * 注册表报告：索引大小、索引耗时、已加载的类和加载耗时
+     *
+     * @return
+     */
+    public static JSONObject getReport() {
+        JSONObject report = new JSONObject();
+        report.put("registeredCount", entryMap.size());
+        report.put("indexMillis", initNanos / 1000000.0);
+        JSONArray loaded = new JSONArray();
+        double totalMillis = 0;
+        synchronized (loadedList) {
+            for (Entry entry : loadedList) {
+                JSONObject item = new JSONObject();
+                item.put("uni", entry.uni);
+                item.put("class", entry.className);
+                item.put("loadMillis", entry.loadNanos / 1000000.0);
+                loaded.add(item);
+                totalMillis += entry.loadNanos / 1000000.0;
+            }
+        }
+        report.put("loadedCount", loaded.size());
+        report.put("loadMillis", totalMillis);
+        report.put("loaded", loaded);
+        return report;
+    }
+
+    static class Entry {
+
+        final String uni;
+
+        final String className;
+
+        volatile Class<? extends ExecuteNode> executeNodeClass;
+
+        long loadNanos;
+
+        Entry(String uni, String className, Class<? extends ExecuteNode> executeNodeClass) {
+            this.uni = uni;
+            this.className = className;
+            this.executeNodeClass = executeNodeClass;
+        }
+
+        Class<? extends ExecuteNode> getExecuteNodeClass() {
+            Class<? extends ExecuteNode> result = executeNodeClass;
+            if (result == null) {
+                synchronized (this) {
+                    result = executeNodeClass;
+                    if (result == null) {
+                        result = load();
+                        executeNodeClass = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        Class<? extends ExecuteNode> load() {
+            long beginTime = System.nanoTime();
+            Class<?> loadClass;
+            try {
+                loadClass = Class.forName(className, true, JsonExecuteNodeRegistry.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new ExecuteNodeException("load node class error: " + uni + ", " + className + ", " + e, e);
+            }
+            if (!ExecuteNode.class.isAssignableFrom(loadClass)) {
+                throw new ExecuteNodeException("node class is not ExecuteNode: " + uni + ", " + className);
+            }
+            loadNanos = System.nanoTime() - beginTime;
+            synchronized (loadedList) {
+                loadedList.add(this);
+            }
+            return loadClass.asSubclass(ExecuteNode.class);
+        }
+    }
+}
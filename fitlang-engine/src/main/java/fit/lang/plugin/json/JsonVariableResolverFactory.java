@@ -0,0 +1,110 @@
+package fit.lang.plugin.json;
+
+import org.mvel2.integration.VariableResolver;
+import org.mvel2.integration.impl.BaseVariableResolverFactory;
+import org.mvel2.integration.impl.SimpleValueResolver;
+
+import java.util.Set;
+
+/**
+ * MVEL变量解析：直接从变量作用域读取，避免合并成一个map
+ */
+public class JsonVariableResolverFactory extends BaseVariableResolverFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String FIELD_NAME_OF_FIT_LANG = "FitLang";
+
+    final JsonVariableScope scope;
+
+    public JsonVariableResolverFactory(JsonVariableScope scope) {
+        this.scope = scope;
+    }
+
+    @Override
+    public VariableResolver createVariable(String name, Object value) {
+        scope.put(name, value);
+        return new ScopeVariableResolver(scope, name);
+    }
+
+    @Override
+    public VariableResolver createVariable(String name, Object value, Class<?> type) {
+        return createVariable(name, value);
+    }
+
+    @Override
+    public boolean isTarget(String name) {
+        return scope.isLocal(name);
+    }
+
+    @Override
+    public boolean isResolveable(String name) {
+        return scope.containsKey(name) || FIELD_NAME_OF_FIT_LANG.equals(name) || isNextResolveable(name);
+    }
+
+    @Override
+    public VariableResolver getVariableResolver(String name) {
+        if (scope.containsKey(name)) {
+            return new ScopeVariableResolver(scope, name);
+        }
+        if (FIELD_NAME_OF_FIT_LANG.equals(name)) {
+            return new SimpleValueResolver(FitLangExpressTool.INSTANCE);
+        }
+        return super.getVariableResolver(name);
+    }
+
+    @Override
+    public Set<String> getKnownVariables() {
+        return scope.keySet();
+    }
+
+    /**
+     * 读写都经过作用域
+     */
+    static class ScopeVariableResolver implements VariableResolver {
+
+        private static final long serialVersionUID = 1L;
+
+        final JsonVariableScope scope;
+
+        final String name;
+
+        ScopeVariableResolver(JsonVariableScope scope, String name) {
+            this.scope = scope;
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Class<?> getType() {
+            return Object.class;
+        }
+
+        /**
+         * 接口参数是原始类型，不能改为Class<?>
+         */
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void setStaticType(Class type) {
+        }
+
+        @Override
+        public int getFlags() {
+            return 0;
+        }
+
+        @Override
+        public Object getValue() {
+            return scope.get(name);
+        }
+
+        @Override
+        public void setValue(Object value) {
+            scope.put(name, value);
+        }
+    }
+}
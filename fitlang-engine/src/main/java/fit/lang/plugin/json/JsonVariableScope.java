@@ -0,0 +1,135 @@
+package fit.lang.plugin.json;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 变量作用域：按层级读取，不合并复制
+ * <p>
+ * 查找顺序：局部变量, context, 入参, 上下文属性, 节点定义；
+ * 和 getInputParamAndContextParam 合并后的结果保持一致，表达式赋值时才创建局部变量（写时复制）
+ */
+public class JsonVariableScope {
+
+    public static final String FIELD_NAME_OF_CONTEXT = "context";
+
+    final JSONObject input;
+
+    final Map<String, Object> contextAttribute;
+
+    final JSONObject nodeDefine;
+
+    /**
+     * 表达式中赋值的变量，懒创建
+     */
+    Map<String, Object> localVariables;
+
+    public JsonVariableScope(JSONObject input, Map<String, Object> contextAttribute) {
+        this(input, contextAttribute, null);
+    }
+
+    public JsonVariableScope(JSONObject input, Map<String, Object> contextAttribute, JSONObject nodeDefine) {
+        this.input = input;
+        this.contextAttribute = contextAttribute;
+        this.nodeDefine = nodeDefine;
+    }
+
+    public Object get(String name) {
+        if (localVariables != null && localVariables.containsKey(name)) {
+            return localVariables.get(name);
+        }
+        if (FIELD_NAME_OF_CONTEXT.equals(name) && contextAttribute != null) {
+            return contextAttribute;
+        }
+        Object value = input == null ? null : input.get(name);
+        if (value == null && contextAttribute != null) {
+            value = contextAttribute.get(name);
+        }
+        if (value == null && nodeDefine != null) {
+            value = nodeDefine.get(name);
+        }
+        return value;
+    }
+
+    public boolean containsKey(String name) {
+        if (localVariables != null && localVariables.containsKey(name)) {
+            return true;
+        }
+        if (FIELD_NAME_OF_CONTEXT.equals(name) && contextAttribute != null) {
+            return true;
+        }
+        return (input != null && input.containsKey(name))
+                || (contextAttribute != null && contextAttribute.containsKey(name))
+                || (nodeDefine != null && nodeDefine.containsKey(name));
+    }
+
+    /**
+     * 赋值只写入局部变量，不修改入参、上下文和节点定义
+     *
+     * @param name
+     * @param value
+     */
+    public void put(String name, Object value) {
+        if (localVariables == null) {
+            localVariables = new HashMap<>();
+        }
+        localVariables.put(name, value);
+    }
+
+    public Object remove(String name) {
+        if (localVariables == null) {
+            return null;
+        }
+        return localVariables.remove(name);
+    }
+
+    public boolean isLocal(String name) {
+        return localVariables != null && localVariables.containsKey(name);
+    }
+
+    public Set<String> keySet() {
+        Set<String> keys = new LinkedHashSet<>();
+        if (input != null) {
+            keys.addAll(input.keySet());
+        }
+        if (contextAttribute != null) {
+            keys.add(FIELD_NAME_OF_CONTEXT);
+            keys.addAll(contextAttribute.keySet());
+        }
+        if (nodeDefine != null) {
+            keys.addAll(nodeDefine.keySet());
+        }
+        if (localVariables != null) {
+            keys.addAll(localVariables.keySet());
+        }
+        return keys;
+    }
+
+    /**
+     * 合并成一个json对象，只在确实需要完整对象时使用
+     *
+     * @return
+     */
+    public JSONObject toJSONObject() {
+        JSONObject param = input == null ? new JSONObject() : input.clone();
+        if (contextAttribute != null) {
+            param.put(FIELD_NAME_OF_CONTEXT, contextAttribute);
+            for (Map.Entry<String, Object> item : contextAttribute.entrySet()) {
+                param.putIfAbsent(item.getKey(), item.getValue());
+            }
+        }
+        if (nodeDefine != null) {
+            for (Map.Entry<String, Object> define : nodeDefine.entrySet()) {
+                param.putIfAbsent(define.getKey(), define.getValue());
+            }
+        }
+        if (localVariables != null) {
+            param.putAll(localVariables);
+        }
+        return param;
+    }
+}
@@ -23,15 +23,13 @@ public class NodeExpressUtil {
             Object value = entry.getValue();
             Object newValue;
             if (value instanceof JSONObject) {
-                String itemResult = ExecuteJsonNodeUtil.executeCode(param, (JSONObject) value);
-                newValue = JSONObject.parse(itemResult);
+                newValue = ExecuteJsonNodeUtil.executeJson(param, (JSONObject) value);
             } else if (value instanceof JSONArray) {
                 JSONArray oldArray = (JSONArray) value;
                 JSONArray newArray = new JSONArray(oldArray.size());
                 for (Object item : oldArray) {
                     if (item instanceof JSONObject) {
-                        String itemResult = ExecuteJsonNodeUtil.executeCode(param, (JSONObject) item);
-                        newValue = JSONObject.parse(itemResult);
+                        newValue = ExecuteJsonNodeUtil.executeJson(param, (JSONObject) item);
                         newArray.add(newValue);
                     } else {
                         throw new ExecuteNodeException("type must json object or array!");
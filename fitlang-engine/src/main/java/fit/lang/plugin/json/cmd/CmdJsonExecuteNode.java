@@ -48,7 +48,7 @@ public class CmdJsonExecuteNode extends JsonExecuteNode {
         if (configEnv != null) {
             env.putAll(configEnv);
         }
-        env = ExpressUtil.eval(env, input.getInputParamAndContextParam());
+        env = ExpressUtil.eval(env, input.getVariableScope());
         envArray = new String[env.size()];
         int index = 0;
         for (Map.Entry<String, Object> entry : env.entrySet()) {
@@ -60,17 +60,17 @@ public class CmdJsonExecuteNode extends JsonExecuteNode {
 
         JSONObject option = nodeJsonDefine.getJSONObject("option");
         if (option != null) {
-            option = ExpressUtil.eval(option, input.getInputParamAndContextParam());
+            option = ExpressUtil.eval(option, input.getVariableScope());
         }
 
         Object target = nodeJsonDefine.get("target");
         if (target != null) {
-            target = ExpressUtil.eval(target, input.getInputParamAndContextParam());
+            target = ExpressUtil.eval(target, input.getVariableScope());
         }
 
         Object param = nodeJsonDefine.get("param");
         if (param != null) {
-            param = ExpressUtil.eval(param, input.getInputParamAndContextParam());
+            param = ExpressUtil.eval(param, input.getVariableScope());
         }
 
         List<JSONObject> results = new ArrayList<>(cmdList.size());
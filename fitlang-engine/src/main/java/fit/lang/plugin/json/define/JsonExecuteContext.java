@@ -7,4 +7,9 @@ import fit.lang.common.AbstractExecuteContext;
  */
 public class JsonExecuteContext extends AbstractExecuteContext {
 
+    @Override
+    protected JsonExecuteContext newContext() {
+        return new JsonExecuteContext();
+    }
+
 }
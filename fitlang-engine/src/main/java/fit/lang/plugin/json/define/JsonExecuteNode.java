@@ -43,7 +43,12 @@ public abstract class JsonExecuteNode extends AbstractExecuteNode {
 
 //        this.setNodeContext(input.getNodeContext());
 
-        execute((JsonExecuteNodeInput) input, (JsonExecuteNodeOutput) output);
+        try {
+            execute((JsonExecuteNodeInput) input, (JsonExecuteNodeOutput) output);
+        } catch (RuntimeException | Error e) {
+            ExecuteNodeSimpleAop.afterException(input, this, e);
+            throw e;
+        }
 
         ExecuteNodeSimpleAop.afterExecute(input, this, output);
 
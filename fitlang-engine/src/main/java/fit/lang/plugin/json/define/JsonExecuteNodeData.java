@@ -5,13 +5,30 @@ import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONPath;
 import fit.lang.define.ExecuteNodeData;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 /**
  * 执行节点入参
+ * <p>
+ * 写时复制：cloneThis只共享数据，不复制；共享的数据在第一次写入（set、remove、getData）前复制第一层，
+ * set嵌套路径时再复制路径上的对象，其他嵌套对象继续共享；只读访问使用getReadOnlyData和get系列方法
  */
 public class JsonExecuteNodeData implements ExecuteNodeData {
 
     JSONObject data;
 
+    /**
+     * data是否可能被其他JsonExecuteNodeData引用
+     */
+    boolean shared;
+
+    /**
+     * 从共享数据复制后，已经复制过的嵌套对象，这些对象可以直接修改；为空表示嵌套对象都属于当前数据
+     */
+    Set<Object> copiedNodes;
+
     JsonExecuteNodeData() {
         data = new JSONObject();
     }
@@ -20,7 +37,28 @@ public class JsonExecuteNodeData implements ExecuteNodeData {
         data = item;
     }
 
+    JsonExecuteNodeData(JSONObject item, boolean shared) {
+        data = item;
+        this.shared = shared;
+    }
+
+    /**
+     * 可修改的数据，共享时先复制
+     *
+     * @return
+     */
     public JSONObject getData() {
+        ensureWritable();
+        return data;
+    }
+
+    /**
+     * 只读数据，不复制，调用方不能修改
+     *
+     * @return
+     */
+    @Override
+    public JSONObject getReadOnlyData() {
         return data;
     }
 
@@ -36,11 +74,60 @@ public class JsonExecuteNodeData implements ExecuteNodeData {
 
     @Override
     public ExecuteNodeData cloneThis() {
-        return new JsonExecuteNodeData((JSONObject) cloneData());
+        if (data == null) {
+            return new JsonExecuteNodeData(null);
+        }
+        shared = true;
+        return new JsonExecuteNodeData(data, true);
     }
 
     public void setData(JSONObject data) {
         this.data = data;
+        shared = false;
+        copiedNodes = null;
+    }
+
+    void ensureWritable() {
+        if (shared) {
+            data = data.clone();
+            shared = false;
+            copiedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+    }
+
+    /**
+     * 复制路径上共享的嵌套对象，只处理a.b.c形式的路径
+     *
+     * @param fieldName
+     */
+    void copyPath(String fieldName) {
+        if (copiedNodes == null || fieldName.indexOf('.') < 0 || !isSimplePath(fieldName)) {
+            return;
+        }
+        String[] names = fieldName.startsWith("$.") ? fieldName.substring(2).split("\\.") : fieldName.split("\\.");
+        JSONObject parent = data;
+        for (int i = 0; i < names.length - 1; i++) {
+            Object child = parent.get(names[i]);
+            if (!(child instanceof JSONObject)) {
+                return;
+            }
+            if (!copiedNodes.contains(child)) {
+                child = ((JSONObject) child).clone();
+                parent.put(names[i], child);
+                copiedNodes.add(child);
+            }
+            parent = (JSONObject) child;
+        }
+    }
+
+    static boolean isSimplePath(String fieldName) {
+        for (int i = fieldName.startsWith("$.") ? 2 : 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (c == '[' || c == ']' || c == '$' || c == '*' || c == '\'' || c == '"' || c == '?' || c == '@') {
+                return false;
+            }
+        }
+        return true;
     }
 
     public boolean isEmpty() {
@@ -52,6 +139,8 @@ public class JsonExecuteNodeData implements ExecuteNodeData {
     }
 
     public void set(String fieldName, Object fieldValue) {
+        ensureWritable();
+        copyPath(fieldName);
         JSONPath.set(data, fieldName, fieldValue);
     }
 
@@ -84,6 +173,7 @@ public class JsonExecuteNodeData implements ExecuteNodeData {
     }
 
     public Object remove(String fieldName) {
+        ensureWritable();
         return data.remove(fieldName);
     }
 
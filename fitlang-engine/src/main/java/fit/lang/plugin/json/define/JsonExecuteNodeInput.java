@@ -1,9 +1,9 @@
 package fit.lang.plugin.json.define;
 
 import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeInput;
-
-import java.util.Map;
+import fit.lang.plugin.json.JsonVariableScope;
 
 /**
  * 执行节点入参
@@ -24,17 +24,35 @@ public class JsonExecuteNodeInput extends JsonExecuteNodePut implements ExecuteN
      * @return
      */
     public JSONObject getInputParamAndContextParam() {
-        JSONObject param = getData().clone();
-        param.put("context", getNodeContext().getAllAttribute());
-        Map<String, Object> attribute = getNodeContext().getAllAttribute();
-        for (Map.Entry<String, Object> item : attribute.entrySet()) {
-            param.putIfAbsent(item.getKey(), item.getValue());
-        }
-        return param;
+        return getVariableScope().toJSONObject();
+    }
+
+    /**
+     * 入参和上下文参数的变量作用域：按层级读取，不复制数据
+     *
+     * @return
+     */
+    public JsonVariableScope getVariableScope() {
+        return getVariableScope(null);
+    }
+
+    /**
+     * 入参、上下文参数和节点定义的变量作用域
+     *
+     * @param nodeDefine
+     * @return
+     */
+    public JsonVariableScope getVariableScope(JSONObject nodeDefine) {
+        return new JsonVariableScope(getReadOnlyData(), getNodeContext().getAllAttribute(), nodeDefine);
     }
 
     @Override
     public ExecuteNodeInput createInput() {
         return new JsonExecuteNodeInput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeInput createInput(ExecuteContext nodeContext) {
+        return new JsonExecuteNodeInput((JsonExecuteContext) nodeContext);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package fit.lang.plugin.json.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeOutput;
 
 /**
@@ -19,4 +20,9 @@ public class JsonExecuteNodeOutput extends JsonExecuteNodePut implements Execute
     public ExecuteNodeOutput createOutput() {
         return new JsonExecuteNodeOutput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeOutput createOutput(ExecuteContext nodeContext) {
+        return new JsonExecuteNodeOutput((JsonExecuteContext) nodeContext);
+    }
 }
\ No newline at end of file
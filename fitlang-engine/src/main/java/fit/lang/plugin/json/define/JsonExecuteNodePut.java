@@ -90,6 +90,15 @@ public class JsonExecuteNodePut {
         return data.getData();
     }
 
+    /**
+     * 只读数据，不复制，调用方不能修改
+     *
+     * @return
+     */
+    public JSONObject getReadOnlyData() {
+        return data.getReadOnlyData();
+    }
+
     public void setData(JSONObject data) {
         this.data.setData(data);
     }
@@ -28,7 +28,7 @@ public class AssertJsonExecuteNode extends JsonExecuteNode {
         if (nodeJsonDefine.get("expected") != null) {
             type = "expected";
             Object expectedExpress = nodeJsonDefine.get("expected");
-            assertResultObject = ExpressUtil.eval(expectedExpress, input.getInputParamAndContextParam());
+            assertResultObject = ExpressUtil.eval(expectedExpress, input.getVariableScope());
 
             if (Boolean.TRUE.equals(needToString) && assertResultObject != null) {
                 success = input.getData().toJSONString().equals(assertResultObject.toString());
@@ -39,7 +39,7 @@ public class AssertJsonExecuteNode extends JsonExecuteNode {
         if (success && nodeJsonDefine.get("containField") != null) {
             type = "containField";
             JSONArray containField = nodeJsonDefine.getJSONArray("containField");
-            assertResultObject = "contain fields: ".concat(ExpressUtil.eval(containField, input.getInputParamAndContextParam()).toString());
+            assertResultObject = "contain fields: ".concat(ExpressUtil.eval(containField, input.getVariableScope()).toString());
 
             success = true;
             for (Object field : containField) {
@@ -52,7 +52,7 @@ public class AssertJsonExecuteNode extends JsonExecuteNode {
         if (success && nodeJsonDefine.get("containJson") != null) {
             type = "containJson";
             JSONObject containJson = nodeJsonDefine.getJSONObject("containJson");
-            assertResultObject = toJsonText(ExpressUtil.eval(containJson, input.getInputParamAndContextParam()));
+            assertResultObject = toJsonText(ExpressUtil.eval(containJson, input.getVariableScope()));
             success = true;
             for (String field : containJson.keySet()) {
                 if (!containJson.get(field).equals(input.get(field))) {
@@ -0,0 +1,101 @@
+package fit.lang.plugin.json.flow;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.define.ExecuteContext;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * 异步执行句柄：节点异步执行时登记到上下文，由await节点等待并合并结果
+ */
+public class AsyncExecuteHandle {
+
+    static final String CONTEXT_KEY = "_asyncHandles";
+
+    final String name;
+
+    final Future<JSONObject> future;
+
+    /**
+     * 异步执行使用的子上下文，await时合并
+     */
+    final ExecuteContext childContext;
+
+    AsyncExecuteHandle(String name, Future<JSONObject> future, ExecuteContext childContext) {
+        this.name = name;
+        this.future = future;
+        this.childContext = childContext;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Future<JSONObject> getFuture() {
+        return future;
+    }
+
+    public ExecuteContext getChildContext() {
+        return childContext;
+    }
+
+    /**
+     * 提交异步任务并登记
+     *
+     * @param nodeContext  当前上下文
+     * @param name         名称，和未等待的句柄重名时抛出异常；为空时按defaultName生成不重复的名称
+     * @param defaultName  默认名称，如节点id；循环中同一节点多次提交时依次加上序号：id、id-1、id-2
+     * @param childContext 任务使用的子上下文
+     * @param task
+     * @return
+     */
+    public static AsyncExecuteHandle submit(ExecuteContext nodeContext, String name, String defaultName, ExecuteContext childContext, Callable<JSONObject> task) {
+        Map<String, AsyncExecuteHandle> handles = getHandles(nodeContext, true);
+        synchronized (handles) {
+            if (name == null || name.isEmpty()) {
+                name = buildUniqueName(handles, defaultName == null || defaultName.isEmpty() ? "async" : defaultName);
+            } else if (handles.containsKey(name)) {
+                throw new ExecuteNodeException("async name is duplicated: " + name + ", await it first or use another asyncName");
+            }
+            AsyncExecuteHandle handle = new AsyncExecuteHandle(name, ExecuteNodeScheduler.getDefault().submitAsync(task), childContext);
+            handles.put(name, handle);
+            return handle;
+        }
+    }
+
+    static String buildUniqueName(Map<String, AsyncExecuteHandle> handles, String baseName) {
+        String name = baseName;
+        for (int i = 1; handles.containsKey(name); i++) {
+            name = baseName + "-" + i;
+        }
+        return name;
+    }
+
+    /**
+     * 上下文中登记的句柄
+     *
+     * @param nodeContext
+     * @param create      不存在时是否创建
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, AsyncExecuteHandle> getHandles(ExecuteContext nodeContext, boolean create) {
+        Object handles = nodeContext.getAttribute(CONTEXT_KEY);
+        if (handles == null && create) {
+            synchronized (nodeContext) {
+                handles = nodeContext.getAttribute(CONTEXT_KEY);
+                if (handles == null) {
+                    handles = Collections.synchronizedMap(new LinkedHashMap<String, AsyncExecuteHandle>());
+                    nodeContext.setAttribute(CONTEXT_KEY, handles);
+                }
+            }
+        }
+        return (Map<String, AsyncExecuteHandle>) handles;
+    }
+}
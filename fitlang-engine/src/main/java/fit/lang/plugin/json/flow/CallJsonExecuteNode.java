@@ -27,8 +27,8 @@ public class CallJsonExecuteNode extends JsonExecuteNode {
             if (!(nodeDefine instanceof JSONObject)) {
                 throw new ExecuteNodeException("node is not existed by node id: ".concat(nodeId));
             }
-            String result = ExecuteJsonNodeUtil.executeCode(input.getData(), (JSONObject) nodeDefine, new JSONObject(), input.getNodeContext());
-            output.setData(JSONObject.parseObject(result));
+            JSONObject result = ExecuteJsonNodeUtil.executeJson(input.getData(), (JSONObject) nodeDefine, new JSONObject(), input.getNodeContext());
+            output.setData(result);
         } else {
             JsonExecuteNode functionNode = JsonPackageExecuteNode.getFunction(functionId);
             if(functionNode == null) {
@@ -20,9 +20,9 @@ public class ExecuteJsonExecuteNode extends JsonExecuteNode {
             inputJson = new JSONObject();
         }
 
-        String result = ExecuteJsonNodeUtil.executeCode(nodeDefine, inputJson, input.getNodeContext());
+        JSONObject result = ExecuteJsonNodeUtil.executeJson(nodeDefine, inputJson, input.getNodeContext());
 
-        output.setData(JSONObject.parseObject(result));
+        output.setData(result);
 
     }
 }
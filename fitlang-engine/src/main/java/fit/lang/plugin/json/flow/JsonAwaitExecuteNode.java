@@ -0,0 +1,101 @@
+package fit.lang.plugin.json.flow;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.plugin.json.define.JsonExecuteNode;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static fit.lang.ExecuteNodeUtil.getAllException;
+import static fit.lang.plugin.json.ExecuteJsonNodeUtil.getConfigFields;
+
+/**
+ * 等待异步节点（如async模式的http节点）的结果，按名称合并到出参
+ * <p>
+ * async: 等待的名称，默认等待当前上下文所有未完成的异步节点; timeout: 超时时间，毫秒; ignoreError: 异常或超时时结果为error信息
+ */
+public class JsonAwaitExecuteNode extends JsonExecuteNode {
+
+    @Override
+    public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+
+        JSONObject result = input.getReadOnlyData().clone();
+
+        Map<String, AsyncExecuteHandle> handles = AsyncExecuteHandle.getHandles(input.getNodeContext(), false);
+        if (handles == null) {
+            output.setData(result);
+            return;
+        }
+
+        List<AsyncExecuteHandle> awaitHandles = new ArrayList<>();
+        JSONArray names = getConfigFields(nodeJsonDefine, "async");
+        synchronized (handles) {
+            if (names.isEmpty()) {
+                awaitHandles.addAll(handles.values());
+                handles.clear();
+            } else {
+                for (Object name : names) {
+                    AsyncExecuteHandle handle = handles.remove(name.toString());
+                    if (handle == null) {
+                        throw new ExecuteNodeException("await async is not existed: " + name);
+                    }
+                    awaitHandles.add(handle);
+                }
+            }
+        }
+
+        long timeout = nodeJsonDefine.getLongValue("timeout", 0L);
+        boolean ignoreError = Boolean.TRUE.equals(nodeJsonDefine.getBoolean("ignoreError"));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+
+        for (AsyncExecuteHandle handle : awaitHandles) {
+            JSONObject value;
+            try {
+                if (timeout > 0) {
+                    value = handle.getFuture().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } else {
+                    value = handle.getFuture().get();
+                }
+                if (handle.getChildContext() != null) {
+                    input.getNodeContext().merge(handle.getChildContext());
+                }
+            } catch (TimeoutException e) {
+                handle.getFuture().cancel(true);
+                value = handleError(handle, "await timeout: " + timeout + "ms", null, ignoreError);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExecuteNodeException("await interrupted: " + handle.getName(), e);
+            } catch (CancellationException e) {
+                value = handleError(handle, "cancelled", null, ignoreError);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                value = handleError(handle, getAllException(cause), cause, ignoreError);
+            }
+            result.put(handle.getName(), value);
+        }
+
+        output.setData(result);
+    }
+
+    static JSONObject handleError(AsyncExecuteHandle handle, String message, Throwable cause, boolean ignoreError) {
+        if (!ignoreError) {
+            String errorMessage = "await " + handle.getName() + " error: " + message;
+            if (cause instanceof Exception) {
+                throw new ExecuteNodeException(errorMessage, (Exception) cause);
+            }
+            throw new ExecuteNodeException(errorMessage);
+        }
+        JSONObject error = new JSONObject();
+        error.put("error", message);
+        return error;
+    }
+}
@@ -77,6 +77,7 @@ public class JsonForeachExecuteNode extends ForeachExecuteNode implements Execut
 
         //重置index，下次使用
         currentIndex = -1;
+        cache.clear();
     }
 
     @Override
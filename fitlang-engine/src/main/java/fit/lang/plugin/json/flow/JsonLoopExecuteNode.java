@@ -45,9 +45,8 @@ public class JsonLoopExecuteNode extends LoopExecuteNode implements ExecuteNodeB
 
         //动态解析
         String loopTimes = parseStringField("loopTimes", (JsonExecuteNodeInput) input, (JSONObject) nodeDefine.getData());
-        if (loopTimes != null) {
-            setLoopTimes(Integer.parseInt(loopTimes));
-        }
+        //节点会被复用，未配置时恢复默认值
+        setLoopTimes(loopTimes != null ? Integer.parseInt(loopTimes) : 1);
 
         super.execute(input, output);
     }
@@ -0,0 +1,104 @@
+package fit.lang.plugin.json.flow;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeUtil;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.define.ExecuteNode;
+import fit.lang.define.ExecuteNodeBuildable;
+import fit.lang.define.ExecuteNodeData;
+import fit.lang.plugin.json.define.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static fit.lang.ExecuteNodeUtil.getAllException;
+
+/**
+ * 并行执行子节点（fan-out/fan-in）：每个子节点使用独立上下文和入参副本，全部完成或超时后按顺序放入袋子
+ * <p>
+ * 总耗时取决于最慢的子节点，而不是所有子节点耗时之和
+ */
+public class JsonParallelExecuteNode extends JsonExecuteNode implements ExecuteNodeBuildable {
+
+    String bagsName = "list";
+
+    /**
+     * 超时时间：毫秒，0不限制
+     */
+    long timeout;
+
+    int parallelism;
+
+    /**
+     * 是否忽略异常和超时：是，对应结果为error信息；否，任一子节点异常或超时则整体失败
+     */
+    boolean ignoreError;
+
+    @Override
+    public void build(ExecuteNodeData executeNodeData) {
+        JSONObject nodeDefine = (JSONObject) executeNodeData.getData();
+        if (nodeDefine.getString("bagsName") != null) {
+            bagsName = nodeDefine.getString("bagsName");
+        }
+        timeout = nodeDefine.getLongValue("timeout", 0L);
+        parallelism = nodeDefine.getIntValue("parallelism", 0);
+        ignoreError = Boolean.TRUE.equals(nodeDefine.getBoolean("ignoreError"));
+
+        ExecuteNodeUtil.buildChildNode(this, nodeDefine);
+    }
+
+    @Override
+    public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+
+        JsonExecuteContext nodeContext = input.getNodeContext();
+        ExecuteNodeScheduler.Batch<JSONObject> batch = ExecuteNodeScheduler.getDefault().newBatch(parallelism > 0 ? parallelism : childNodes.size());
+
+        List<JsonExecuteContext> childContextList = new ArrayList<>(childNodes.size());
+        //异常被忽略的子节点上下文可能只执行了一部分，不合并
+        boolean[] failed = new boolean[childNodes.size()];
+        for (int index = 0; index < childNodes.size(); index++) {
+            ExecuteNode childNode = childNodes.get(index);
+            int childIndex = index;
+            JsonExecuteContext childContext = (JsonExecuteContext) nodeContext.fork();
+            childContextList.add(childContext);
+            JsonExecuteNodeInput childInput = new JsonExecuteNodeInput((JsonExecuteNodeData) input.getNodeData().cloneThis(), childContext);
+            JsonExecuteNodeOutput childOutput = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), childContext);
+            batch.submit(() -> {
+                try {
+                    childNode.executeAndNext(childInput, childOutput);
+                    return childOutput.getData();
+                } catch (RuntimeException e) {
+                    if (ignoreError) {
+                        failed[childIndex] = true;
+                        return buildErrorResult(getAllException(e));
+                    }
+                    throw e;
+                }
+            });
+        }
+
+        List<JSONObject> results = batch.join(timeout, !ignoreError);
+
+        JSONArray bags = new JSONArray(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            JSONObject result = results.get(i);
+            if (result == null) {
+                result = buildErrorResult("timeout: " + timeout + "ms");
+            } else if (!failed[i]) {
+                nodeContext.merge(childContextList.get(i));
+            }
+            bags.add(result);
+        }
+
+        JSONObject result = new JSONObject();
+        result.put(bagsName, bags);
+        output.setData(result);
+    }
+
+    static JSONObject buildErrorResult(String message) {
+        JSONObject error = new JSONObject();
+        error.put("error", message);
+        return error;
+    }
+}
@@ -0,0 +1,279 @@
+package fit.lang.plugin.json.flow;
+
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.ExecuteNodeUtil;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.define.ExecuteNode;
+import fit.lang.define.ExecuteNodeBuildable;
+import fit.lang.define.ExecuteNodeData;
+import fit.lang.plugin.json.ExpressUtil;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import fit.lang.plugin.json.define.*;
+import fit.lang.plugin.json.flow.stream.JsonArrayStreamSource;
+import fit.lang.plugin.json.flow.stream.JsonLinesFileStreamSource;
+import fit.lang.plugin.json.flow.stream.JsonStreamSource;
+import fit.lang.plugin.json.flow.stream.NodeGeneratorStreamSource;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import static fit.lang.ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_FOREACH_FIELD_NAME;
+import static fit.lang.plugin.json.ExecuteJsonNodeUtil.getConfigFields;
+import static fit.lang.plugin.json.ExecuteJsonNodeUtil.joinFilePath;
+
+/**
+ * 流式foreach：从数据源逐条读取，限制处理中的数量，结果按顺序分批交给sink节点，内存占用有上限
+ * <p>
+ * source.type: jsonLines（json lines文件）, http（分页接口）, generator（分页执行节点）, list（入参数组）;
+ * 未配置sink时结果放入出参的resultField
+ */
+public class JsonStreamForeachExecuteNode extends JsonExecuteNode implements ExecuteNodeBuildable {
+
+    public static final String SOURCE_TYPE_JSON_LINES = "jsonLines";
+
+    public static final String SOURCE_TYPE_HTTP = "http";
+
+    public static final String SOURCE_TYPE_GENERATOR = "generator";
+
+    public static final String SOURCE_TYPE_LIST = "list";
+
+    int parallelism = 1;
+
+    /**
+     * 处理中（含已完成未输出）的最大数量
+     */
+    int windowSize;
+
+    int sinkBatchSize = 100;
+
+    boolean isPipe;
+
+    String indexName = "foreachIndex";
+
+    String foreachField = "list";
+
+    String resultField = "list";
+
+    @Override
+    public void build(ExecuteNodeData executeNodeData) {
+
+        JSONObject nodeDefine = (JSONObject) executeNodeData.getData();
+
+        if (nodeDefine.getInteger("parallelism") != null) {
+            parallelism = Math.max(1, nodeDefine.getInteger("parallelism"));
+        }
+        windowSize = nodeDefine.getIntValue("window", parallelism * 4);
+        windowSize = Math.max(windowSize, parallelism);
+        if (nodeDefine.getInteger("sinkBatchSize") != null) {
+            sinkBatchSize = Math.max(1, nodeDefine.getInteger("sinkBatchSize"));
+        }
+        isPipe = Boolean.TRUE.equals(nodeDefine.getBoolean("isPipe"));
+        if (StrUtil.isNotBlank(nodeDefine.getString("indexName"))) {
+            indexName = nodeDefine.getString("indexName");
+        }
+        if (StrUtil.isNotBlank(nodeDefine.getString(DEFINE_KEYWORDS_OF_FOREACH_FIELD_NAME))) {
+            foreachField = nodeDefine.getString(DEFINE_KEYWORDS_OF_FOREACH_FIELD_NAME);
+        }
+        if (StrUtil.isNotBlank(nodeDefine.getString("resultField"))) {
+            resultField = nodeDefine.getString("resultField");
+        }
+
+        ExecuteNodeUtil.buildChildNode(this, nodeDefine);
+    }
+
+    @Override
+    public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+
+        JsonExecuteContext nodeContext = input.getNodeContext();
+
+        //sink节点每次执行时创建，绑定当前上下文
+        JSONObject sinkDefine = nodeJsonDefine.getJSONObject("sink");
+        StreamSink sink = new StreamSink(sinkDefine == null ? null : JsonDynamicFlowExecuteEngine.createExecuteNode(sinkDefine, nodeContext), nodeContext);
+
+        ExecuteNodeScheduler.Batch<JSONObject> batch = ExecuteNodeScheduler.getDefault().newBatch(parallelism);
+        boolean isolated = batch.getParallelism() > 1;
+        JSONArray mixToItemFields = getConfigFields(nodeJsonDefine, "mixToItemField");
+
+        Deque<InFlightItem> window = new ArrayDeque<>(windowSize);
+
+        try (JsonStreamSource source = createSource(input)) {
+            for (int index = 0; !batch.isFailed() && source.hasNext(); index++) {
+                JSONObject item = toItem(source.next());
+                for (Object fieldName : mixToItemFields) {
+                    item.put(fieldName.toString(), input.get(fieldName.toString()));
+                }
+
+                InFlightItem inFlightItem = new InFlightItem();
+                JsonExecuteContext itemContext = nodeContext;
+                if (isolated) {
+                    itemContext = (JsonExecuteContext) nodeContext.fork();
+                    itemContext.setAttribute(indexName, index);
+                    inFlightItem.childContext = itemContext;
+                }
+                inFlightItem.future = batch.submit(buildTask(item, index, itemContext, isolated));
+                if (inFlightItem.future != null) {
+                    window.add(inFlightItem);
+                }
+
+                //窗口已满，按顺序取出最早的结果
+                while (window.size() >= windowSize) {
+                    sink.accept(take(batch, window.poll(), nodeContext));
+                }
+            }
+
+            while (!window.isEmpty()) {
+                sink.accept(take(batch, window.poll(), nodeContext));
+            }
+            batch.join();
+            sink.flush();
+        }
+
+        output.set("total", sink.total);
+        if (sink.sinkNode == null) {
+            output.set(resultField, sink.buffer);
+        } else {
+            output.set("sinkBatchCount", sink.batchCount);
+        }
+    }
+
+    Callable<JSONObject> buildTask(JSONObject item, int index, JsonExecuteContext itemContext, boolean isolated) {
+        return () -> {
+            if (!isolated) {
+                itemContext.setAttribute(indexName, index);
+            }
+            JsonExecuteNodeInput subInput = new JsonExecuteNodeInput(new JsonExecuteNodeData(item), itemContext);
+            JsonExecuteNodeOutput subOutput = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), itemContext);
+            for (ExecuteNode executeNode : childNodes) {
+                executeNode.executeAndNext(subInput, subOutput);
+                if (isPipe) {
+                    subInput.setNodeData(subOutput.getNodeData());
+                }
+            }
+            return subOutput.getData();
+        };
+    }
+
+    JSONObject take(ExecuteNodeScheduler.Batch<JSONObject> batch, InFlightItem inFlightItem, JsonExecuteContext nodeContext) {
+        JSONObject result = batch.take(inFlightItem.future);
+        //按顺序合并子上下文
+        if (inFlightItem.childContext != null) {
+            nodeContext.merge(inFlightItem.childContext);
+        }
+        return result;
+    }
+
+    JsonStreamSource createSource(JsonExecuteNodeInput input) {
+        JSONObject sourceDefine = nodeJsonDefine.getJSONObject("source");
+        if (sourceDefine == null) {
+            return new JsonArrayStreamSource(input.getJsonArray(foreachField));
+        }
+        String type = sourceDefine.getString("type");
+        if (SOURCE_TYPE_JSON_LINES.equals(type)) {
+            String workspaceDir = StrUtil.toStringOrNull(ExpressUtil.eval(sourceDefine.getString("workspaceDir"), input.getVariableScope()));
+            String filePath = StrUtil.toStringOrNull(ExpressUtil.eval(sourceDefine.getString("filePath"), input.getVariableScope()));
+            if (StrUtil.isBlank(filePath)) {
+                throw new ExecuteNodeException("foreachStream jsonLines source filePath is required!");
+            }
+            String charset = sourceDefine.getString("charset");
+            return new JsonLinesFileStreamSource(new File(joinFilePath(workspaceDir == null ? "" : workspaceDir, filePath)),
+                    CharsetUtil.charset(StrUtil.isBlank(charset) ? "UTF-8" : charset));
+        }
+        if (SOURCE_TYPE_HTTP.equals(type) || SOURCE_TYPE_GENERATOR.equals(type)) {
+            JSONObject generatorDefine;
+            if (SOURCE_TYPE_HTTP.equals(type)) {
+                generatorDefine = sourceDefine.clone();
+                generatorDefine.remove("type");
+                generatorDefine.put("uni", "http");
+            } else {
+                generatorDefine = sourceDefine.getJSONObject("node");
+                if (generatorDefine == null) {
+                    throw new ExecuteNodeException("foreachStream generator source node is required!");
+                }
+            }
+            ExecuteNode generatorNode = JsonDynamicFlowExecuteEngine.createExecuteNode(generatorDefine, input.getNodeContext());
+            NodeGeneratorStreamSource source = new NodeGeneratorStreamSource(generatorNode, input.getNodeContext());
+            source.setParam(ExpressUtil.eval(sourceDefine.getJSONObject("pageParam"), input.getVariableScope()));
+            source.setPageField(sourceDefine.getString("pageField"));
+            source.setPage(sourceDefine.getInteger("startPage"));
+            source.setPageSizeField(sourceDefine.getString("pageSizeField"));
+            source.setPageSize(sourceDefine.getInteger("pageSize"));
+            source.setListField(sourceDefine.getString("listField"));
+            source.setMaxPages(sourceDefine.getInteger("maxPages"));
+            return source;
+        }
+        if (SOURCE_TYPE_LIST.equals(type) || type == null) {
+            String listField = sourceDefine.getString(DEFINE_KEYWORDS_OF_FOREACH_FIELD_NAME);
+            return new JsonArrayStreamSource(input.getJsonArray(StrUtil.isBlank(listField) ? foreachField : listField));
+        }
+        throw new ExecuteNodeException("foreachStream source type is not supported: ".concat(type));
+    }
+
+    static JSONObject toItem(Object item) {
+        if (item instanceof JSONObject) {
+            return (JSONObject) item;
+        }
+        if (item instanceof Map) {
+            return JSONObject.from(item);
+        }
+        JSONObject itemJson = new JSONObject();
+        itemJson.put("value", item);
+        return itemJson;
+    }
+
+    /**
+     * 结果输出：有sink节点时按批次输出，否则收集到出参
+     */
+    class StreamSink {
+
+        final ExecuteNode sinkNode;
+
+        final JsonExecuteContext nodeContext;
+
+        JSONArray buffer = new JSONArray();
+
+        long total;
+
+        int batchCount;
+
+        StreamSink(ExecuteNode sinkNode, JsonExecuteContext nodeContext) {
+            this.sinkNode = sinkNode;
+            this.nodeContext = nodeContext;
+        }
+
+        void accept(JSONObject result) {
+            total++;
+            buffer.add(result);
+            if (sinkNode != null && buffer.size() >= sinkBatchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (sinkNode == null || buffer.isEmpty()) {
+                return;
+            }
+            JSONObject sinkInput = new JSONObject();
+            sinkInput.put("list", buffer);
+            sinkInput.put("batchIndex", batchCount++);
+            sinkInput.put("total", total);
+            sinkNode.executeAndNext(new JsonExecuteNodeInput(new JsonExecuteNodeData(sinkInput), nodeContext),
+                    new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), nodeContext));
+            buffer = new JSONArray();
+        }
+    }
+
+    static class InFlightItem {
+
+        Future<JSONObject> future;
+
+        JsonExecuteContext childContext;
+    }
+}
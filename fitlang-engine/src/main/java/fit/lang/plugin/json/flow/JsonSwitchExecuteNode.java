@@ -41,7 +41,7 @@ public class JsonSwitchExecuteNode extends SwitchExecuteNode implements ExecuteN
         if (caseValue == null) {
             return null;
         }
-        caseValue = eval(caseValue, ((JsonExecuteNodeInput) input).getInputParamAndContextParam()).toString();
+        caseValue = eval(caseValue, ((JsonExecuteNodeInput) input).getVariableScope()).toString();
         return caseValue;
     }
 
@@ -19,7 +19,7 @@ public class ReturnJsonExecuteNode extends JsonExecuteNode {
         if (returnJson == null) {
             returnJson = new JSONObject();
         }
-        JSONObject returnJsonResult = ExpressUtil.eval(returnJson, input.getInputParamAndContextParam());
+        JSONObject returnJsonResult = ExpressUtil.eval(returnJson, input.getVariableScope());
         output.setData(returnJsonResult);
 
         //返回结果
@@ -0,0 +1,27 @@
+package fit.lang.plugin.json.flow.stream;
+
+import com.alibaba.fastjson2.JSONArray;
+
+import java.util.Iterator;
+
+/**
+ * 数组数据源：兼容已在内存中的数组
+ */
+public class JsonArrayStreamSource implements JsonStreamSource {
+
+    final Iterator<Object> iterator;
+
+    public JsonArrayStreamSource(JSONArray array) {
+        this.iterator = array == null ? new JSONArray(0).iterator() : array.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return iterator.hasNext();
+    }
+
+    @Override
+    public Object next() {
+        return iterator.next();
+    }
+}
@@ -0,0 +1,74 @@
+package fit.lang.plugin.json.flow.stream;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import fit.lang.ExecuteNodeException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+/**
+ * json lines文件数据源：每行一个json，逐行读取
+ */
+public class JsonLinesFileStreamSource implements JsonStreamSource {
+
+    final File file;
+
+    final BufferedReader reader;
+
+    String nextLine;
+
+    boolean finished;
+
+    public JsonLinesFileStreamSource(File file, Charset charset) {
+        if (!file.isFile()) {
+            throw new ExecuteNodeException("file not found: " + file.getAbsolutePath());
+        }
+        this.file = file;
+        this.reader = FileUtil.getReader(file, charset);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextLine != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StrUtil.isNotBlank(line)) {
+                    nextLine = line;
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new ExecuteNodeException("read json lines file error: " + file.getAbsolutePath(), e);
+        }
+        finished = true;
+        close();
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        return JSON.parse(line);
+    }
+
+    @Override
+    public void close() {
+        IoUtil.close(reader);
+    }
+}
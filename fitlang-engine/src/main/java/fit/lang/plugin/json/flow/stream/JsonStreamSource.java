@@ -0,0 +1,14 @@
+package fit.lang.plugin.json.flow.stream;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 流式数据源：按需逐条读取，不一次性加载全部数据
+ */
+public interface JsonStreamSource extends Iterator<Object>, Closeable {
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,145 @@
+package fit.lang.plugin.json.flow.stream;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONPath;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.define.JsonExecuteNodeData;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 节点生成的数据源：按页执行节点（如http分页接口），每次只保留一页数据
+ * <p>
+ * 每页入参为 param + {pageField: 页码, pageSizeField: 每页数量}，从出参的listField取列表；
+ * 列表为空、不足一页或达到最大页数时结束
+ */
+public class NodeGeneratorStreamSource implements JsonStreamSource {
+
+    final ExecuteNode node;
+
+    final JsonExecuteContext nodeContext;
+
+    JSONObject param = new JSONObject();
+
+    String pageField = "page";
+
+    int page = 1;
+
+    String pageSizeField = "pageSize";
+
+    Integer pageSize;
+
+    String listField = "list";
+
+    int maxPages = Integer.MAX_VALUE;
+
+    int pageCount;
+
+    boolean finished;
+
+    Iterator<?> current = Collections.emptyIterator();
+
+    public NodeGeneratorStreamSource(ExecuteNode node, JsonExecuteContext nodeContext) {
+        this.node = node;
+        this.nodeContext = nodeContext;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (finished) {
+                return false;
+            }
+            fetchNextPage();
+        }
+        return true;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    void fetchNextPage() {
+        JSONObject pageInput = param.clone();
+        pageInput.put(pageField, page);
+        if (pageSize != null) {
+            pageInput.put(pageSizeField, pageSize);
+        }
+
+        JsonExecuteNodeInput input = new JsonExecuteNodeInput(new JsonExecuteNodeData(pageInput), nodeContext);
+        JsonExecuteNodeOutput output = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), nodeContext);
+        node.executeAndNext(input, output);
+
+        page++;
+        pageCount++;
+
+        List<?> list = getList(output.getData());
+        if (list == null || list.isEmpty()) {
+            finished = true;
+            current = Collections.emptyIterator();
+            return;
+        }
+        if ((pageSize != null && list.size() < pageSize) || pageCount >= maxPages) {
+            finished = true;
+        }
+        current = list.iterator();
+    }
+
+    List<?> getList(JSONObject result) {
+        if (result == null) {
+            return null;
+        }
+        Object list = listField.indexOf('.') < 0 ? result.get(listField) : JSONPath.eval(result, "$.".concat(listField));
+        return list instanceof List ? (List<?>) list : null;
+    }
+
+    public void setParam(JSONObject param) {
+        if (param != null) {
+            this.param = param;
+        }
+    }
+
+    public void setPageField(String pageField) {
+        if (pageField != null) {
+            this.pageField = pageField;
+        }
+    }
+
+    public void setPage(Integer page) {
+        if (page != null) {
+            this.page = page;
+        }
+    }
+
+    public void setPageSizeField(String pageSizeField) {
+        if (pageSizeField != null) {
+            this.pageSizeField = pageSizeField;
+        }
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public void setListField(String listField) {
+        if (listField != null) {
+            this.listField = listField;
+        }
+    }
+
+    public void setMaxPages(Integer maxPages) {
+        if (maxPages != null) {
+            this.maxPages = maxPages;
+        }
+    }
+}
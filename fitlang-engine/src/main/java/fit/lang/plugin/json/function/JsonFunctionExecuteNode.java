@@ -44,7 +44,7 @@ public class JsonFunctionExecuteNode extends JsonExecuteNode implements ExecuteN
 
         for (ExecuteNode childNode : childNodes) {
             if (this.isNeedCloneInputData()) {
-                input.getNodeData().setData(input.getNodeData().cloneData());
+                input.setNodeData(input.getNodeData().cloneThis());
             }
             childNode.executeAndNext(input, output);
         }
@@ -2,9 +2,6 @@ package fit.lang.plugin.json.http;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpUtil;
 import cn.hutool.http.Method;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
@@ -12,15 +9,25 @@ import com.alibaba.fastjson2.JSONObject;
 import fit.lang.ExecuteNodeException;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import fit.lang.plugin.json.ExpressUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
 import fit.lang.plugin.json.define.JsonExecuteNode;
+import fit.lang.plugin.json.define.JsonExecuteNodeData;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
-
+import fit.lang.plugin.json.flow.AsyncExecuteHandle;
+import fit.lang.plugin.json.http.client.FitCookieJar;
+import fit.lang.plugin.json.http.client.FitHttpBodyUtil;
+import fit.lang.plugin.json.http.client.FitHttpClientManager;
+import fit.lang.plugin.json.http.client.FitHttpRequest;
+import fit.lang.plugin.json.http.client.FitHttpResponse;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import fit.lang.plugin.json.web.server.FitServerResponse;
+
+import java.io.File;
 import java.net.HttpCookie;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,21 +39,38 @@ import static fit.lang.plugin.json.ExecuteJsonNodeUtil.*;
 public class HttpJsonExecuteNode extends JsonExecuteNode {
 
     /**
-     * cookie全局变量
+     * 上下文中的cookie存储
      */
-    static Map<String, JSONObject> globalCookieMap = new HashMap<>();
+    public static final String CONTEXT_COOKIE_JAR = "_cookieJar";
 
-    static void setGlobalCookie(String domain, String key, String value) {
-        JSONObject cookieObject = globalCookieMap.get(domain);
-        if (cookieObject == null) {
-            cookieObject = new JSONObject();
-            globalCookieMap.put(domain, cookieObject);
+    /**
+     * 获取cookie存储：cookieSession配置按名称共享，cookieScope配置context（当前上下文）、none（不保存），默认全局
+     *
+     * @param input
+     * @param nodeJsonDefine
+     * @return 不保存时返回null
+     */
+    static FitCookieJar getCookieJar(JsonExecuteNodeInput input, JSONObject nodeJsonDefine) {
+        String cookieSession = nodeJsonDefine.getString("cookieSession");
+        if (StrUtil.isNotBlank(cookieSession)) {
+            return FitCookieJar.getSession(cookieSession);
         }
-        cookieObject.put(key, value);
-    }
-
-    static JSONObject getGlobalCookie(String domain) {
-        return globalCookieMap.get(domain);
+        String cookieScope = nodeJsonDefine.getString("cookieScope");
+        if (FitCookieJar.SCOPE_NONE.equals(cookieScope)) {
+            return null;
+        }
+        if (FitCookieJar.SCOPE_CONTEXT.equals(cookieScope)) {
+            JsonExecuteContext nodeContext = input.getNodeContext();
+            synchronized (nodeContext) {
+                FitCookieJar cookieJar = (FitCookieJar) nodeContext.getAttribute(CONTEXT_COOKIE_JAR);
+                if (cookieJar == null) {
+                    cookieJar = new FitCookieJar();
+                    nodeContext.setAttribute(CONTEXT_COOKIE_JAR, cookieJar);
+                }
+                return cookieJar;
+            }
+        }
+        return FitCookieJar.getGlobal();
     }
 
     @Override
@@ -59,6 +83,34 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
     }
 
     public static void request(JsonExecuteNodeInput input, JsonExecuteNodeOutput output, JSONObject nodeJsonDefine, Method method) {
+        if (Boolean.TRUE.equals(nodeJsonDefine.getBoolean("async"))) {
+            requestAsync(input, output, nodeJsonDefine, method);
+            return;
+        }
+        doRequest(input, output, nodeJsonDefine, method);
+    }
+
+    /**
+     * 异步请求：不阻塞当前流程，入参透传，结果由await节点按asyncName获取
+     *
+     * @param input
+     * @param output
+     * @param nodeJsonDefine
+     * @param method
+     */
+    static void requestAsync(JsonExecuteNodeInput input, JsonExecuteNodeOutput output, JSONObject nodeJsonDefine, Method method) {
+        JsonExecuteContext childContext = (JsonExecuteContext) input.getNodeContext().fork();
+        JsonExecuteNodeInput asyncInput = new JsonExecuteNodeInput((JsonExecuteNodeData) input.getNodeData().cloneThis(), childContext);
+        JsonExecuteNodeOutput asyncOutput = new JsonExecuteNodeOutput(new JsonExecuteNodeData(new JSONObject()), childContext);
+        String asyncName = nodeJsonDefine.getString("asyncName");
+        AsyncExecuteHandle.submit(input.getNodeContext(), asyncName, nodeJsonDefine.getString("id"), childContext, () -> {
+            doRequest(asyncInput, asyncOutput, nodeJsonDefine, method);
+            return asyncOutput.getData();
+        });
+        output.setNodeData(input.getNodeData().cloneThis());
+    }
+
+    static void doRequest(JsonExecuteNodeInput input, JsonExecuteNodeOutput output, JSONObject nodeJsonDefine, Method method) {
 
         String url = ExecuteJsonNodeUtil.parseStringField("url", input, nodeJsonDefine);
         if (url == null) {
@@ -88,17 +140,32 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
 
         boolean useInput = !Boolean.FALSE.equals(nodeJsonDefine.getBoolean("useInput"));
 
-        HttpRequest request = HttpUtil.createRequest(method, url);
+        FitHttpRequest request = new FitHttpRequest(method.name(), url);
+        request.setClientType(nodeJsonDefine.getString("client"));
+        request.setConnectTimeout(nodeJsonDefine.getIntValue("connectTimeout", 0));
+        request.setReadTimeout(nodeJsonDefine.getIntValue("readTimeout", 0));
+        request.setHttp2(Boolean.TRUE.equals(nodeJsonDefine.getBoolean("http2")));
+
+        //流式读取响应体：限制大小、写文件或直接输出到服务器响应
+        long maxBodySize = nodeJsonDefine.getLongValue("maxBodySize", 0L);
+        String saveFile = ExecuteJsonNodeUtil.parseStringField("saveFile", input, nodeJsonDefine);
+        boolean pipe = Boolean.TRUE.equals(nodeJsonDefine.getBoolean("pipe"));
+        request.setStream(Boolean.TRUE.equals(nodeJsonDefine.getBoolean("stream")) || maxBodySize > 0 || saveFile != null || pipe);
 
         JSONObject header = nodeJsonDefine.getJSONObject("header");
-        header = ExpressUtil.eval(header, input.getInputParamAndContextParam());
+        header = ExpressUtil.eval(header, input.getVariableScope());
 
-        header = buildHeaderCookie(nodeJsonDefine, httpUrl, header);
+        FitCookieJar cookieJar = getCookieJar(input, nodeJsonDefine);
+        String cookieDomain = nodeJsonDefine.getString("cookieDomain");
+        if (StrUtil.isBlank(cookieDomain)) {
+            cookieDomain = httpUrl.getHost();
+        }
+        header = buildHeaderCookie(cookieJar, cookieDomain, header);
 
         setHttpHeader(header, request);
 
         JSONObject proxy = nodeJsonDefine.getJSONObject("proxy");
-        proxy = ExpressUtil.eval(proxy, input.getInputParamAndContextParam());
+        proxy = ExpressUtil.eval(proxy, input.getVariableScope());
         setProxy(proxy, request);
 
         JSONObject httpParam = parseParam(nodeJsonDefine);
@@ -118,21 +185,21 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
             requestBody = parseHttpFormParam(input, request, httpParam, useInput);
         } else if (method == Method.POST || method == Method.PUT || method == Method.DELETE) {
             String httpBody;
-            JSONObject param = ExpressUtil.eval(httpParam, input.getInputParamAndContextParam());
+            JSONObject param = ExpressUtil.eval(httpParam, input.getVariableScope());
             if (useInput) {
-                JSONObject inputParam = input.getData().clone();
+                JSONObject inputParam = input.getReadOnlyData().clone();
                 inputParam.putAll(param);
                 param = inputParam;
             }
             httpBody = param.toString();
             requestBody = httpBody;
-            request.body(httpBody);
+            request.setBody(httpBody);
         }
 
         long timeBegin = System.currentTimeMillis();
 
         JSONObject result = new JSONObject();
-        HttpResponse response = null;
+        FitHttpResponse response = null;
 
         int realRetryTimes = -1;
 
@@ -142,8 +209,16 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
-            response = request.execute();
-            result = parseHttpResult(response);
+            response = FitHttpClientManager.execute(request);
+            try {
+                result = readHttpResult(input, response, saveFile, pipe, maxBodySize);
+            } finally {
+                response.close();
+            }
+            //已输出到服务器响应，不能重试
+            if (pipe && isServerResponseCommitted(input)) {
+                break;
+            }
             Object retry = ExpressUtil.eval(retryCondition, result);
             if (!Boolean.TRUE.equals(retry) && !"true".equals(retry)) {
                 break;
@@ -174,15 +249,14 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
             JSONObject headerInfo = parseHeader(response);
             out.put("header", headerInfo.getJSONObject("header"));
             out.put("cookieArray", parseCookie(response));
-            out.put("cookieObject", parseCookieJson(response));
+            out.put("cookieObject", parseCookieJson(response, cookieJar, cookieDomain));
             JSONObject sizeInfo = new JSONObject();
             sizeInfo.put("header", headerInfo.getIntValue("size"));
             out.put("retryTimes", realRetryTimes);
             out.put("time", (timeEnd - timeBegin) + "ms");
             out.put("sizeInfo", sizeInfo);
-            String body = response == null ? null : response.body();
-            if (body != null) {
-                int bodySize = response.body().length();
+            long bodySize = response == null ? -1 : response.getBodySize();
+            if (bodySize >= 0) {
                 sizeInfo.put("body", bodySize);
                 out.put("size", bodySize + headerInfo.getIntValue("size"));
                 out.put("body", result);
@@ -191,25 +265,66 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
         output.setData(out);
     }
 
-    private static JSONObject buildHeaderCookie(JSONObject nodeJsonDefine, URL httpUrl, JSONObject header) {
+    /**
+     * 读取响应结果：非流式按文本解析；流式时写文件、输出到服务器响应或边读边解析json
+     *
+     * @param input
+     * @param response
+     * @param saveFile
+     * @param pipe
+     * @param maxBodySize
+     * @return
+     */
+    static JSONObject readHttpResult(JsonExecuteNodeInput input, FitHttpResponse response, String saveFile, boolean pipe, long maxBodySize) {
+        if (!response.isStream()) {
+            if (maxBodySize > 0 && response.getBodySize() > maxBodySize) {
+                throw new ExecuteNodeException("http response body is too large, max size: " + maxBodySize);
+            }
+            return parseHttpResult(response);
+        }
+        JSONObject result;
+        FitServerResponse serverResponse = getServerResponse(input);
+        if (saveFile != null) {
+            File file = new File(buildFilePath(saveFile, "http saveFile"));
+            long size = FitHttpBodyUtil.writeToFile(response, file, maxBodySize);
+            result = new JSONObject();
+            result.put("file", file.getAbsolutePath());
+            result.put("size", size);
+        } else if (pipe && serverResponse != null) {
+            long size = serverResponse.pipe(response, maxBodySize);
+            result = new JSONObject();
+            result.put("pipe", true);
+            result.put("size", size);
+        } else {
+            result = FitHttpBodyUtil.parseJson(response, maxBodySize);
+        }
+        if (!response.isOk()) {
+            result.put("httpStatus", response.getStatus());
+        }
+        return result;
+    }
+
+    static FitServerResponse getServerResponse(JsonExecuteNodeInput input) {
+        return (FitServerResponse) input.getNodeContext().getAttribute(ServerJsonExecuteNode.SERVER_RESPONSE);
+    }
+
+    static boolean isServerResponseCommitted(JsonExecuteNodeInput input) {
+        FitServerResponse serverResponse = getServerResponse(input);
+        return serverResponse != null && serverResponse.isCommitted();
+    }
+
+    private static JSONObject buildHeaderCookie(FitCookieJar cookieJar, String cookieDomain, JSONObject header) {
         if (header == null) {
             header = new JSONObject();
         }
         Object requestCookie = header.get("cookie");
-        String cookieDomain = nodeJsonDefine.getString("cookieDomain");
-        if (StrUtil.isBlank(cookieDomain)) {
-            cookieDomain = httpUrl.getHost();
-        }
-        JSONObject globalCookie = getGlobalCookie(cookieDomain);
-        if (globalCookie != null && (requestCookie instanceof JSONObject || requestCookie == null)) {
-            if (requestCookie == null) {
-                requestCookie = new JSONObject();
+        JSONObject savedCookie = cookieJar == null ? null : cookieJar.get(cookieDomain);
+        if (savedCookie != null && (requestCookie instanceof JSONObject || requestCookie == null)) {
+            //请求配置的cookie优先
+            if (requestCookie != null) {
+                savedCookie.putAll((JSONObject) requestCookie);
             }
-            JSONObject requestCookieObject = (JSONObject) requestCookie;
-            globalCookie = globalCookie.clone();
-            globalCookie.putAll(requestCookieObject);
-            requestCookieObject = globalCookie;
-            header.put("cookie", requestCookieObject);
+            header.put("cookie", savedCookie);
         }
         return header;
     }
@@ -233,14 +348,14 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
         return contentType.equalsIgnoreCase("application/x-www-form-urlencoded");
     }
 
-    static JSONArray parseCookie(HttpResponse response) {
+    static JSONArray parseCookie(FitHttpResponse response) {
         if (response == null) {
             return new JSONArray();
         }
         return (JSONArray) JSON.toJSON(response.getCookies());
     }
 
-    static JSONObject parseCookieJson(HttpResponse response) {
+    static JSONObject parseCookieJson(FitHttpResponse response, FitCookieJar cookieJar, String cookieDomain) {
         JSONObject cookieJson = new JSONObject();
         if (response == null) {
             return new JSONObject();
@@ -248,12 +363,14 @@ public class HttpJsonExecuteNode extends JsonExecuteNode {
         List<HttpCookie> list = response.getCookies();
         for (HttpCookie cookie : list) {
             cookieJson.put(cookie.getName(), cookie.getValue());
-            setGlobalCookie(cookie.getDomain(), cookie.getName(), cookie.getValue());
+            if (cookieJar != null) {
+                cookieJar.add(cookieDomain, cookie);
+            }
         }
         return cookieJson;
     }
 
-    static JSONObject parseHeader(HttpResponse response) {
+    static JSONObject parseHeader(FitHttpResponse response) {
         if (response == null) {
             return new JSONObject();
         }
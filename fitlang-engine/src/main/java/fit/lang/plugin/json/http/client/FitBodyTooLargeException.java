@@ -0,0 +1,29 @@
+package fit.lang.plugin.json.http.client;
+
+import fit.lang.ExecuteNodeException;
+
+/**
+ * 请求体或响应体超过最大字节数
+ */
+public class FitBodyTooLargeException extends ExecuteNodeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 服务器返回的状态码：请求体过大413，上游响应体过大502
+     */
+    final int status;
+
+    public FitBodyTooLargeException(String message) {
+        this(message, 413);
+    }
+
+    public FitBodyTooLargeException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
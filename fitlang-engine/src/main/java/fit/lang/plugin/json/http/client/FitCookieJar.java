@@ -0,0 +1,214 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.net.HttpCookie;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * cookie存储：线程安全，按域名保存，支持Expires/Max-Age过期，域名数和每个域名的cookie数有上限，超过时淘汰最久未使用的
+ * <p>
+ * 作用范围：global（全局共享，默认），context（当前执行上下文），session（按名称共享）
+ */
+public class FitCookieJar {
+
+    public static final String SCOPE_GLOBAL = "global";
+
+    public static final String SCOPE_CONTEXT = "context";
+
+    public static final String SCOPE_SESSION = "session";
+
+    public static final String SCOPE_NONE = "none";
+
+    static int defaultMaxDomains = Integer.getInteger("fit.cookie.maxDomains", 1000);
+
+    static int defaultMaxCookiesPerDomain = Integer.getInteger("fit.cookie.maxCookiesPerDomain", 50);
+
+    static int maxSessions = Integer.getInteger("fit.cookie.maxSessions", 1000);
+
+    static final FitCookieJar globalCookieJar = new FitCookieJar();
+
+    static final Map<String, FitCookieJar> sessionCookieJarMap = new LinkedHashMap<String, FitCookieJar>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FitCookieJar> eldest) {
+            return size() > maxSessions;
+        }
+    };
+
+    final int maxDomains;
+
+    final int maxCookiesPerDomain;
+
+    final LinkedHashMap<String, LinkedHashMap<String, CookieValue>> domainCookieMap;
+
+    public FitCookieJar() {
+        this(defaultMaxDomains, defaultMaxCookiesPerDomain);
+    }
+
+    public FitCookieJar(int maxDomains, int maxCookiesPerDomain) {
+        this.maxDomains = maxDomains;
+        this.maxCookiesPerDomain = maxCookiesPerDomain;
+        this.domainCookieMap = new LinkedHashMap<String, LinkedHashMap<String, CookieValue>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LinkedHashMap<String, CookieValue>> eldest) {
+                return maxDomains > 0 && size() > maxDomains;
+            }
+        };
+    }
+
+    public static FitCookieJar getGlobal() {
+        return globalCookieJar;
+    }
+
+    /**
+     * 按名称获取共享的cookie存储，不存在时创建
+     *
+     * @param sessionName
+     * @return
+     */
+    public static FitCookieJar getSession(String sessionName) {
+        synchronized (sessionCookieJarMap) {
+            return sessionCookieJarMap.computeIfAbsent(sessionName, k -> new FitCookieJar());
+        }
+    }
+
+    public static void removeSession(String sessionName) {
+        synchronized (sessionCookieJarMap) {
+            sessionCookieJarMap.remove(sessionName);
+        }
+    }
+
+    /**
+     * 保存响应的cookie：cookie没有Domain属性时使用请求的域名，Max-Age为0或已过期时删除
+     *
+     * @param requestDomain
+     * @param cookie
+     */
+    public synchronized void add(String requestDomain, HttpCookie cookie) {
+        String domain = normalizeDomain(StrUtil.isNotBlank(cookie.getDomain()) ? cookie.getDomain() : requestDomain);
+        if (domain == null) {
+            return;
+        }
+        LinkedHashMap<String, CookieValue> cookieMap = domainCookieMap.get(domain);
+        long maxAge = cookie.getMaxAge();
+        //-1为会话cookie；已过期的Expires解析为0或负数
+        if (maxAge == 0 || maxAge < -1) {
+            if (cookieMap != null) {
+                cookieMap.remove(cookie.getName());
+            }
+            return;
+        }
+        if (cookieMap == null) {
+            cookieMap = new LinkedHashMap<String, CookieValue>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CookieValue> eldest) {
+                    return maxCookiesPerDomain > 0 && size() > maxCookiesPerDomain;
+                }
+            };
+            domainCookieMap.put(domain, cookieMap);
+        }
+        long expireAt = maxAge > 0 ? System.currentTimeMillis() + maxAge * 1000 : Long.MAX_VALUE;
+        cookieMap.put(cookie.getName(), new CookieValue(cookie.getValue(), expireAt));
+    }
+
+    /**
+     * 保存cookie，不过期
+     *
+     * @param domain
+     * @param name
+     * @param value
+     */
+    public void put(String domain, String name, String value) {
+        HttpCookie cookie = new HttpCookie(name, value);
+        cookie.setDomain(domain);
+        add(domain, cookie);
+    }
+
+    /**
+     * 获取域名可用的cookie，包含上级域名的cookie，近的域名优先；同时清理已过期的cookie
+     *
+     * @param host
+     * @return 没有时返回null
+     */
+    public synchronized JSONObject get(String host) {
+        String domain = normalizeDomain(host);
+        if (domain == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        JSONObject result = null;
+        while (true) {
+            LinkedHashMap<String, CookieValue> cookieMap = domainCookieMap.get(domain);
+            if (cookieMap != null) {
+                Iterator<Map.Entry<String, CookieValue>> iterator = cookieMap.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, CookieValue> entry = iterator.next();
+                    if (entry.getValue().expireAt <= now) {
+                        iterator.remove();
+                        continue;
+                    }
+                    if (result == null) {
+                        result = new JSONObject();
+                    }
+                    result.putIfAbsent(entry.getKey(), entry.getValue().value);
+                }
+                if (cookieMap.isEmpty()) {
+                    domainCookieMap.remove(domain);
+                }
+            }
+            int index = domain.indexOf('.');
+            //ip不匹配上级域名，不匹配顶级域名
+            if (isIp(domain) || index < 0 || domain.indexOf('.', index + 1) < 0) {
+                break;
+            }
+            domain = domain.substring(index + 1);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        domainCookieMap.clear();
+    }
+
+    public synchronized int getDomainCount() {
+        return domainCookieMap.size();
+    }
+
+    public synchronized int getCookieCount() {
+        int count = 0;
+        for (LinkedHashMap<String, CookieValue> cookieMap : domainCookieMap.values()) {
+            count += cookieMap.size();
+        }
+        return count;
+    }
+
+    static boolean isIp(String domain) {
+        return domain.indexOf(':') >= 0 || domain.matches("\\d+(\\.\\d+){3}");
+    }
+
+    static String normalizeDomain(String domain) {
+        if (StrUtil.isBlank(domain)) {
+            return null;
+        }
+        domain = domain.trim().toLowerCase();
+        if (domain.startsWith(".")) {
+            domain = domain.substring(1);
+        }
+        return domain;
+    }
+
+    static class CookieValue {
+
+        final String value;
+
+        final long expireAt;
+
+        CookieValue(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
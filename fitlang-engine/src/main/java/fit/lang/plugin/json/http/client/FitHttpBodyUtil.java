@@ -0,0 +1,255 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.CharsetUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 流式响应体处理：边读边解析json、写文件或写到输出流，不生成完整的中间字符串，可以限制最大读取字节数
+ */
+public class FitHttpBodyUtil {
+
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 流式解析响应体：json对象直接返回，json数组放在list字段，其他放在_raw字段
+     *
+     * @param response
+     * @param maxBodySize 最大字节数，0不限制
+     * @return
+     */
+    public static JSONObject parseJson(FitHttpResponse response, long maxBodySize) {
+        JSONObject result = new JSONObject(1);
+        if (response.bodyStream() == null) {
+            result.put("_raw", response.body() == null ? "" : response.body());
+        } else {
+            Charset charset = getCharset(response.header("Content-Type"));
+            LimitedInputStream inputStream = new LimitedInputStream(response.bodyStream(), maxBodySize);
+            BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, BUFFER_SIZE);
+            try {
+                int first = peekFirstChar(bufferedInputStream);
+                if (first == '{') {
+                    result = JSON.parseObject(bufferedInputStream, charset);
+                } else if (first == '[') {
+                    result.put("list", JSON.parseObject(bufferedInputStream, charset, JSONArray.class));
+                } else {
+                    result.put("_raw", IoUtil.read(bufferedInputStream, charset));
+                }
+            } catch (RuntimeException e) {
+                checkLimit(inputStream);
+                throw new ExecuteNodeException("parse http response body error: " + e.getMessage(), e);
+            }
+            checkLimit(inputStream);
+            response.bodySize = inputStream.getCount();
+            if (result == null) {
+                result = new JSONObject(1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 响应体写入文件
+     *
+     * @param response
+     * @param file
+     * @param maxBodySize 最大字节数，0不限制
+     * @return 写入字节数
+     */
+    public static long writeToFile(FitHttpResponse response, File file, long maxBodySize) {
+        FileUtil.mkParentDirs(file);
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            return copy(response, outputStream, maxBodySize);
+        } catch (IOException e) {
+            throw new ExecuteNodeException("write http response to file error: " + file.getAbsolutePath() + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 响应体写到输出流，不关闭输出流
+     *
+     * @param response
+     * @param outputStream
+     * @param maxBodySize  最大字节数，0不限制
+     * @return 写入字节数
+     */
+    public static long copy(FitHttpResponse response, OutputStream outputStream, long maxBodySize) {
+        if (response.bodyStream() == null) {
+            byte[] bytes = response.body() == null ? new byte[0] : response.body().getBytes(StandardCharsets.UTF_8);
+            if (maxBodySize > 0 && bytes.length > maxBodySize) {
+                throw new FitBodyTooLargeException("http response body is too large, max size: " + maxBodySize);
+            }
+            try {
+                outputStream.write(bytes);
+            } catch (IOException e) {
+                throw new ExecuteNodeException("write http response error: " + e.getMessage(), e);
+            }
+            response.bodySize = bytes.length;
+            return bytes.length;
+        }
+        LimitedInputStream inputStream = new LimitedInputStream(response.bodyStream(), maxBodySize);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            checkLimit(inputStream);
+            throw new ExecuteNodeException("write http response error: " + e.getMessage(), e);
+        }
+        response.bodySize = inputStream.getCount();
+        return inputStream.getCount();
+    }
+
+    /**
+     * 查看第一个非空白字符，读取位置不变
+     *
+     * @param inputStream
+     * @return
+     */
+    static int peekFirstChar(BufferedInputStream inputStream) {
+        try {
+            inputStream.mark(BUFFER_SIZE);
+            try {
+                for (int i = 0; i < BUFFER_SIZE; i++) {
+                    int b = inputStream.read();
+                    //跳过空白和utf-8 bom
+                    if (b == -1 || !(Character.isWhitespace(b) || b == 0xEF || b == 0xBB || b == 0xBF)) {
+                        return b;
+                    }
+                }
+                return -1;
+            } finally {
+                inputStream.reset();
+            }
+        } catch (IOException e) {
+            throw new ExecuteNodeException("read http response error: " + e.getMessage(), e);
+        }
+    }
+
+    static void checkLimit(LimitedInputStream inputStream) {
+        if (inputStream.isExceeded()) {
+            throw new FitBodyTooLargeException("http response body is too large, max size: " + inputStream.maxSize);
+        }
+    }
+
+    /**
+     * 解压gzip数据，限制解压后的字节数，避免压缩炸弹
+     *
+     * @param inputStream 压缩数据，不关闭
+     * @param maxSize     解压后最大字节数，0不限制
+     * @return
+     */
+    public static byte[] unGzip(InputStream inputStream, long maxSize) {
+        LimitedInputStream limitedInputStream = null;
+        try {
+            //GZIPInputStream不关闭，避免关闭调用方的输入流
+            limitedInputStream = new LimitedInputStream(new GZIPInputStream(inputStream, BUFFER_SIZE), maxSize);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = limitedInputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            if (limitedInputStream != null && limitedInputStream.isExceeded()) {
+                throw new FitBodyTooLargeException("gzip body is too large, max size: " + maxSize);
+            }
+            throw new ExecuteNodeException("read gzip body error: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 根据Content-Type获取字符集，默认UTF-8
+     *
+     * @param contentType
+     * @return
+     */
+    public static Charset getCharset(String contentType) {
+        String charsetName = StrUtil.subAfter(contentType == null ? "" : contentType.toLowerCase(), "charset=", true);
+        if (StrUtil.isNotBlank(charsetName)) {
+            try {
+                return CharsetUtil.charset(StrUtil.subBefore(charsetName, ";", false).trim());
+            } catch (Exception e) {
+                //ignore unknown charset
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * 统计读取字节数，超过最大值时抛出异常
+     */
+    static class LimitedInputStream extends FilterInputStream {
+
+        final long maxSize;
+
+        long count;
+
+        boolean exceeded;
+
+        LimitedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int length = super.read(b, off, len);
+            if (length > 0) {
+                add(length);
+            }
+            return length;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long length = super.skip(n);
+            add(length);
+            return length;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        void add(long length) throws IOException {
+            count += length;
+            if (maxSize > 0 && count > maxSize) {
+                exceeded = true;
+                throw new IOException("http response body is too large, max size: " + maxSize);
+            }
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+    }
+}
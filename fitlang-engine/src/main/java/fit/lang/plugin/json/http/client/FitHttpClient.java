@@ -0,0 +1,13 @@
+package fit.lang.plugin.json.http.client;
+
+import java.io.IOException;
+
+/**
+ * http客户端实现
+ */
+public interface FitHttpClient {
+
+    String getType();
+
+    FitHttpResponse execute(FitHttpRequest request) throws IOException;
+}
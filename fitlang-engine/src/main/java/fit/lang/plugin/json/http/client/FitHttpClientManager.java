@@ -0,0 +1,295 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * http客户端管理：选择客户端实现，按host限制最大连接（并发请求）数，统计连接池指标
+ * <p>
+ * 默认客户端：hutool；jdk客户端（jdk11+）需要在节点上配置client、http2，或通过系统属性fit.http.client、setDefaultClientType指定，
+ * jdk客户端会校验https证书；配置了代理或设置了jdk客户端不允许的请求头（host、connection等）的请求使用hutool
+ */
+public class FitHttpClientManager {
+
+    static final Map<String, FitHttpClient> clientMap = new ConcurrentHashMap<>();
+
+    static final Map<String, HostPool> hostPoolMap = new ConcurrentHashMap<>();
+
+    static String defaultClientType = System.getProperty("fit.http.client", HutoolFitHttpClient.TYPE);
+
+    /**
+     * 最多保留的host数，超过时移除空闲host的连接限制和指标
+     */
+    static int maxHostCount = Integer.getInteger("fit.http.maxHostCount", 1024);
+
+    /**
+     * 每个host最大连接数
+     */
+    static int maxConnectionsPerHost = Integer.getInteger("fit.http.maxConnectionsPerHost", 64);
+
+    /**
+     * 等待连接的最长时间：毫秒
+     */
+    static long acquireTimeout = Long.getLong("fit.http.acquireTimeout", 30000L);
+
+    static {
+        register(new HutoolFitHttpClient());
+        if (JdkFitHttpClient.isSupported()) {
+            register(new JdkFitHttpClient());
+        }
+    }
+
+    public static void register(FitHttpClient client) {
+        clientMap.put(client.getType(), client);
+    }
+
+    public static FitHttpClient getClient(String type) {
+        FitHttpClient client = clientMap.get(StrUtil.isBlank(type) ? defaultClientType : type);
+        if (client == null) {
+            client = clientMap.get(HutoolFitHttpClient.TYPE);
+        }
+        return client;
+    }
+
+    public static String getDefaultClientType() {
+        return defaultClientType;
+    }
+
+    public static void setDefaultClientType(String defaultClientType) {
+        FitHttpClientManager.defaultClientType = defaultClientType;
+    }
+
+    public static int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * 修改后对新的host生效
+     *
+     * @param maxConnectionsPerHost
+     */
+    public static void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        FitHttpClientManager.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public static void setAcquireTimeout(long acquireTimeout) {
+        FitHttpClientManager.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * 执行请求
+     *
+     * @param request
+     * @return
+     */
+    public static FitHttpResponse execute(FitHttpRequest request) {
+        FitHttpClient client = selectClient(request);
+        HostPool hostPool = getHostPool(request.getUrl());
+
+        hostPool.acquire();
+        long beginTime = System.nanoTime();
+        boolean release = true;
+        try {
+            FitHttpResponse response = client.execute(request);
+            hostPool.record(client.getType(), System.nanoTime() - beginTime, false);
+            if (response.isStream()) {
+                //流式响应读取期间仍占用连接，关闭响应时释放
+                response.onClose(hostPool::release);
+                release = false;
+            }
+            return response;
+        } catch (IOException e) {
+            hostPool.record(client.getType(), System.nanoTime() - beginTime, true);
+            throw new ExecuteNodeException("http request error: " + request.getUrl() + ", " + e.getClass().getSimpleName() + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            hostPool.record(client.getType(), System.nanoTime() - beginTime, true);
+            throw e;
+        } finally {
+            if (release) {
+                hostPool.release();
+            }
+        }
+    }
+
+    static FitHttpClient selectClient(FitHttpRequest request) {
+        if (request.getProxy() != null) {
+            return getClient(HutoolFitHttpClient.TYPE);
+        }
+        String clientType = request.getClientType();
+        //只有jdk客户端支持HTTP/2
+        if (StrUtil.isBlank(clientType) && request.isHttp2() && JdkFitHttpClient.isSupported()) {
+            clientType = JdkFitHttpClient.TYPE;
+        }
+        FitHttpClient client = getClient(clientType);
+        if (JdkFitHttpClient.TYPE.equals(client.getType()) && JdkFitHttpClient.hasRestrictedHeader(request)) {
+            return getClient(HutoolFitHttpClient.TYPE);
+        }
+        return client;
+    }
+
+    static HostPool getHostPool(String url) {
+        String host = getHostKey(url);
+        HostPool hostPool = hostPoolMap.get(host);
+        if (hostPool == null) {
+            if (hostPoolMap.size() >= maxHostCount) {
+                evictIdleHostPool();
+            }
+            hostPool = hostPoolMap.computeIfAbsent(host, k -> new HostPool(k, maxConnectionsPerHost));
+        }
+        return hostPool;
+    }
+
+    /**
+     * 移除没有请求的host，请求中的host保留
+     */
+    static void evictIdleHostPool() {
+        for (String host : hostPoolMap.keySet()) {
+            hostPoolMap.computeIfPresent(host, (k, hostPool) -> hostPool.isIdle() ? null : hostPool);
+        }
+    }
+
+    static String getHostKey(String url) {
+        try {
+            URI uri = URI.create(url);
+            int port = uri.getPort();
+            if (port < 0) {
+                port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+            }
+            return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    public static JSONObject getStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("defaultClient", defaultClientType);
+        statistics.put("maxConnectionsPerHost", maxConnectionsPerHost);
+        JSONObject hosts = new JSONObject();
+        for (HostPool hostPool : new TreeMap<>(hostPoolMap).values()) {
+            hosts.put(hostPool.host, hostPool.getStatistics());
+        }
+        statistics.put("hosts", hosts);
+        return statistics;
+    }
+
+    /**
+     * 只清空计数，连接限制和请求中的连接不受影响
+     */
+    public static void clearStatistics() {
+        for (HostPool hostPool : hostPoolMap.values()) {
+            hostPool.resetStatistics();
+        }
+    }
+
+    /**
+     * 单个host的连接限制和指标
+     */
+    static class HostPool {
+
+        final String host;
+
+        final int maxConnections;
+
+        final Semaphore permits;
+
+        final AtomicInteger active = new AtomicInteger();
+
+        final AtomicInteger waiting = new AtomicInteger();
+
+        final LongAdder requestCount = new LongAdder();
+
+        final LongAdder errorCount = new LongAdder();
+
+        final LongAdder acquireTimeoutCount = new LongAdder();
+
+        final LongAdder totalNanos = new LongAdder();
+
+        final Map<String, LongAdder> clientRequestCount = new ConcurrentHashMap<>();
+
+        HostPool(String host, int maxConnections) {
+            this.host = host;
+            this.maxConnections = maxConnections;
+            this.permits = maxConnections > 0 ? new Semaphore(maxConnections) : null;
+        }
+
+        void acquire() {
+            if (permits == null) {
+                active.incrementAndGet();
+                return;
+            }
+            if (!permits.tryAcquire()) {
+                waiting.incrementAndGet();
+                try {
+                    if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                        acquireTimeoutCount.increment();
+                        throw new ExecuteNodeException("http connection acquire timeout: " + host + ", max connections: " + maxConnections);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExecuteNodeException("http connection acquire interrupted: " + host, e);
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            }
+            active.incrementAndGet();
+        }
+
+        void release() {
+            active.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+
+        boolean isIdle() {
+            return active.get() == 0 && waiting.get() == 0;
+        }
+
+        void resetStatistics() {
+            requestCount.reset();
+            errorCount.reset();
+            acquireTimeoutCount.reset();
+            totalNanos.reset();
+            clientRequestCount.clear();
+        }
+
+        void record(String clientType, long costNanos, boolean error) {
+            requestCount.increment();
+            totalNanos.add(costNanos);
+            if (error) {
+                errorCount.increment();
+            }
+            clientRequestCount.computeIfAbsent(clientType, k -> new LongAdder()).increment();
+        }
+
+        JSONObject getStatistics() {
+            JSONObject statistics = new JSONObject();
+            long count = requestCount.sum();
+            statistics.put("maxConnections", maxConnections);
+            statistics.put("active", active.get());
+            statistics.put("waiting", waiting.get());
+            statistics.put("requestCount", count);
+            statistics.put("errorCount", errorCount.sum());
+            statistics.put("acquireTimeoutCount", acquireTimeoutCount.sum());
+            statistics.put("avgTimeMillis", count == 0 ? 0 : totalNanos.sum() / count / 1000000.0);
+            JSONObject clientCount = new JSONObject();
+            for (Map.Entry<String, LongAdder> entry : clientRequestCount.entrySet()) {
+                clientCount.put(entry.getKey(), entry.getValue().sum());
+            }
+            statistics.put("client", clientCount);
+            return statistics;
+        }
+    }
+}
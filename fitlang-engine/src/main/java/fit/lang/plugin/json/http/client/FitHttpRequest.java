@@ -0,0 +1,191 @@
+package fit.lang.plugin.json.http.client;
+
+import java.net.Proxy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * http请求，与具体客户端实现无关
+ */
+public class FitHttpRequest {
+
+    String method = "GET";
+
+    String url;
+
+    Map<String, String> headers = new LinkedHashMap<>();
+
+    /**
+     * 请求体，与form互斥
+     */
+    String body;
+
+    /**
+     * 二进制请求体，与body、form互斥
+     */
+    byte[] bodyBytes;
+
+    /**
+     * 表单参数：GET/HEAD拼接到url，其他方法作为x-www-form-urlencoded请求体
+     */
+    Map<String, Object> form;
+
+    Proxy proxy;
+
+    /**
+     * 连接超时：毫秒，0使用默认值
+     */
+    int connectTimeout;
+
+    /**
+     * 读取超时：毫秒，0使用默认值
+     */
+    int readTimeout;
+
+    boolean http2;
+
+    /**
+     * 客户端类型：jdk, hutool，为空使用默认客户端
+     */
+    String clientType;
+
+    /**
+     * 是否流式读取响应体：是，响应体不读入内存，由调用方读取并关闭响应
+     */
+    boolean stream;
+
+    public FitHttpRequest() {
+    }
+
+    public FitHttpRequest(String method, String url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public void addHeaders(Map<String, String> headers) {
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+    }
+
+    public void setHeader(String name, String value) {
+        headers.put(name, value);
+    }
+
+    /**
+     * 请求头，名称不区分大小写
+     *
+     * @param name
+     * @return
+     */
+    public String getHeader(String name) {
+        for (Map.Entry<String, String> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+        this.bodyBytes = null;
+        this.form = null;
+    }
+
+    public byte[] getBodyBytes() {
+        return bodyBytes;
+    }
+
+    public void setBodyBytes(byte[] bodyBytes) {
+        this.bodyBytes = bodyBytes;
+        this.body = null;
+        this.form = null;
+    }
+
+    public Map<String, Object> getForm() {
+        return form;
+    }
+
+    public void setForm(Map<String, Object> form) {
+        this.form = form;
+        this.body = null;
+        this.bodyBytes = null;
+    }
+
+    public Proxy getProxy() {
+        return proxy;
+    }
+
+    public void setProxy(Proxy proxy) {
+        this.proxy = proxy;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public String getClientType() {
+        return clientType;
+    }
+
+    public void setClientType(String clientType) {
+        this.clientType = clientType;
+    }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    public boolean isGetOrHead() {
+        return "GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method);
+    }
+}
@@ -0,0 +1,167 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.io.IoUtil;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * http响应，与具体客户端实现无关
+ * <p>
+ * 流式响应（请求stream为true）只有bodyStream，读取完成后需要关闭，关闭时释放连接
+ */
+public class FitHttpResponse implements Closeable {
+
+    int status;
+
+    Map<String, List<String>> headers = Collections.emptyMap();
+
+    String body;
+
+    InputStream bodyStream;
+
+    /**
+     * 流式读取后的响应体字节数
+     */
+    long bodySize = -1;
+
+    Runnable closeHandler;
+
+    final AtomicBoolean closed = new AtomicBoolean();
+
+    public FitHttpResponse(int status, Map<String, List<String>> headers, String body) {
+        this.status = status;
+        if (headers != null) {
+            this.headers = headers;
+        }
+        this.body = body;
+    }
+
+    /**
+     * 流式响应
+     *
+     * @param status
+     * @param headers
+     * @param bodyStream
+     * @return
+     */
+    public static FitHttpResponse ofStream(int status, Map<String, List<String>> headers, InputStream bodyStream) {
+        FitHttpResponse response = new FitHttpResponse(status, headers, null);
+        response.bodyStream = bodyStream;
+        return response;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isOk() {
+        return status >= 200 && status < 300;
+    }
+
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    /**
+     * 响应头，名称不区分大小写
+     *
+     * @param name
+     * @return
+     */
+    public String header(String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+        return null;
+    }
+
+    public String body() {
+        return body;
+    }
+
+    public InputStream bodyStream() {
+        return bodyStream;
+    }
+
+    /**
+     * 响应体大小：非流式为字符数，流式为已读取的字节数，未读取返回-1
+     *
+     * @return
+     */
+    public long getBodySize() {
+        if (body != null) {
+            return body.length();
+        }
+        return bodySize;
+    }
+
+    public boolean isStream() {
+        return bodyStream != null;
+    }
+
+    /**
+     * 响应头中的Content-Length，未知返回-1
+     *
+     * @return
+     */
+    public long contentLength() {
+        String contentLength = header("Content-Length");
+        if (contentLength == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 关闭时执行，用于释放连接数限制
+     *
+     * @param closeHandler
+     */
+    void onClose(Runnable closeHandler) {
+        this.closeHandler = closeHandler;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            IoUtil.close(bodyStream);
+        } finally {
+            if (closeHandler != null) {
+                closeHandler.run();
+            }
+        }
+    }
+
+    public List<HttpCookie> getCookies() {
+        List<HttpCookie> cookies = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (!"Set-Cookie".equalsIgnoreCase(entry.getKey()) || entry.getValue() == null) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                try {
+                    cookies.addAll(HttpCookie.parse(value));
+                } catch (IllegalArgumentException e) {
+                    //ignore invalid cookie
+                }
+            }
+        }
+        return cookies;
+    }
+}
@@ -0,0 +1,51 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpUtil;
+import cn.hutool.http.Method;
+
+/**
+ * 基于hutool（HttpURLConnection）的客户端，支持socks代理；连接复用依赖jdk的http.keepAlive
+ */
+public class HutoolFitHttpClient implements FitHttpClient {
+
+    public static final String TYPE = "hutool";
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    @Override
+    public FitHttpResponse execute(FitHttpRequest fitRequest) {
+        HttpRequest request = HttpUtil.createRequest(Method.valueOf(fitRequest.getMethod().toUpperCase()), fitRequest.getUrl());
+        if (!fitRequest.getHeaders().isEmpty()) {
+            request.addHeaders(fitRequest.getHeaders());
+        }
+        if (fitRequest.getForm() != null) {
+            request.form(fitRequest.getForm());
+        } else if (fitRequest.getBody() != null) {
+            request.body(fitRequest.getBody());
+        } else if (fitRequest.getBodyBytes() != null) {
+            request.body(fitRequest.getBodyBytes());
+        }
+        if (fitRequest.getProxy() != null) {
+            request.setProxy(fitRequest.getProxy());
+        }
+        if (fitRequest.getConnectTimeout() > 0) {
+            request.setConnectionTimeout(fitRequest.getConnectTimeout());
+        }
+        if (fitRequest.getReadTimeout() > 0) {
+            request.setReadTimeout(fitRequest.getReadTimeout());
+        }
+        if (fitRequest.isStream()) {
+            //异步模式不读取响应体，bodyStream已处理gzip/deflate
+            HttpResponse response = request.executeAsync();
+            return FitHttpResponse.ofStream(response.getStatus(), response.headers(), response.bodyStream());
+        }
+        //不调用close，close会断开连接，无法复用
+        HttpResponse response = request.execute();
+        return new FitHttpResponse(response.getStatus(), response.headers(), response.body());
+    }
+}
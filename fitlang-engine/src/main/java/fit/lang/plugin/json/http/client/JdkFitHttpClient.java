@@ -0,0 +1,301 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.http.ContentType;
+import cn.hutool.http.GlobalHeaders;
+import cn.hutool.http.HttpUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 基于jdk11+ java.net.http.HttpClient的客户端，连接池按host复用连接，支持HTTP/2
+ * <p>
+ * 引擎需要兼容jdk8，通过反射调用；连接超时和协议版本是客户端级别的配置，按配置缓存客户端实例。
+ * 与hutool的差异：校验https证书；未设置的请求头使用hutool的全局默认请求头；响应头名称转换为Content-Type形式（jdk返回小写）
+ */
+public class JdkFitHttpClient implements FitHttpClient {
+
+    public static final String TYPE = "jdk";
+
+    /**
+     * jdk客户端不允许设置的请求头
+     */
+    static final Set<String> RESTRICTED_HEADERS = new HashSet<>(Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+    static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    static Method newClientBuilder;
+    static Method clientBuilderConnectTimeout;
+    static Method clientBuilderVersion;
+    static Method clientBuilderBuild;
+    static Object versionHttp11;
+    static Object versionHttp2;
+
+    static Method newRequestBuilder;
+    static Method requestBuilderTimeout;
+    static Method requestBuilderHeader;
+    static Method requestBuilderMethod;
+    static Method requestBuilderBuild;
+    static Method bodyPublisherOfByteArray;
+    static Method bodyPublisherNoBody;
+
+    static Method clientSend;
+    static Object bodyHandlerOfByteArray;
+    static Object bodyHandlerOfInputStream;
+    static Method responseStatusCode;
+    static Method responseHeaders;
+    static Method responseBody;
+    static Method headersMap;
+
+    static final boolean supported = init();
+
+    final Map<String, Object> clientMap = new ConcurrentHashMap<>();
+
+    static boolean init() {
+        try {
+            Class<?> clientClass = Class.forName("java.net.http.HttpClient");
+            Class<?> clientBuilderClass = Class.forName("java.net.http.HttpClient$Builder");
+            Class<?> versionClass = Class.forName("java.net.http.HttpClient$Version");
+            Class<?> requestClass = Class.forName("java.net.http.HttpRequest");
+            Class<?> requestBuilderClass = Class.forName("java.net.http.HttpRequest$Builder");
+            Class<?> bodyPublisherClass = Class.forName("java.net.http.HttpRequest$BodyPublisher");
+            Class<?> bodyPublishersClass = Class.forName("java.net.http.HttpRequest$BodyPublishers");
+            Class<?> responseClass = Class.forName("java.net.http.HttpResponse");
+            Class<?> bodyHandlerClass = Class.forName("java.net.http.HttpResponse$BodyHandler");
+            Class<?> bodyHandlersClass = Class.forName("java.net.http.HttpResponse$BodyHandlers");
+            Class<?> headersClass = Class.forName("java.net.http.HttpHeaders");
+
+            newClientBuilder = clientClass.getMethod("newBuilder");
+            clientBuilderConnectTimeout = clientBuilderClass.getMethod("connectTimeout", Duration.class);
+            clientBuilderVersion = clientBuilderClass.getMethod("version", versionClass);
+            clientBuilderBuild = clientBuilderClass.getMethod("build");
+            versionHttp11 = versionClass.getField("HTTP_1_1").get(null);
+            versionHttp2 = versionClass.getField("HTTP_2").get(null);
+
+            newRequestBuilder = requestClass.getMethod("newBuilder", URI.class);
+            requestBuilderTimeout = requestBuilderClass.getMethod("timeout", Duration.class);
+            requestBuilderHeader = requestBuilderClass.getMethod("header", String.class, String.class);
+            requestBuilderMethod = requestBuilderClass.getMethod("method", String.class, bodyPublisherClass);
+            requestBuilderBuild = requestBuilderClass.getMethod("build");
+            bodyPublisherOfByteArray = bodyPublishersClass.getMethod("ofByteArray", byte[].class);
+            bodyPublisherNoBody = bodyPublishersClass.getMethod("noBody");
+
+            clientSend = clientClass.getMethod("send", requestClass, bodyHandlerClass);
+            bodyHandlerOfByteArray = bodyHandlersClass.getMethod("ofByteArray").invoke(null);
+            bodyHandlerOfInputStream = bodyHandlersClass.getMethod("ofInputStream").invoke(null);
+            responseStatusCode = responseClass.getMethod("statusCode");
+            responseHeaders = responseClass.getMethod("headers");
+            responseBody = responseClass.getMethod("body");
+            headersMap = headersClass.getMethod("map");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 是否设置了jdk客户端不允许的请求头，这类请求交给hutool
+     *
+     * @param request
+     * @return
+     */
+    public static boolean hasRestrictedHeader(FitHttpRequest request) {
+        for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+            if (entry.getValue() != null && RESTRICTED_HEADERS.contains(entry.getKey().toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前jdk是否支持
+     *
+     * @return
+     */
+    public static boolean isSupported() {
+        return supported;
+    }
+
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+
+    Object getClient(int connectTimeout, boolean http2) {
+        int timeout = connectTimeout > 0 ? connectTimeout : DEFAULT_CONNECT_TIMEOUT;
+        String key = timeout + (http2 ? "|h2" : "|h1");
+        return clientMap.computeIfAbsent(key, k -> {
+            try {
+                Object builder = newClientBuilder.invoke(null);
+                clientBuilderConnectTimeout.invoke(builder, Duration.ofMillis(timeout));
+                clientBuilderVersion.invoke(builder, http2 ? versionHttp2 : versionHttp11);
+                return clientBuilderBuild.invoke(builder);
+            } catch (Exception e) {
+                throw new IllegalStateException("create jdk http client error: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public FitHttpResponse execute(FitHttpRequest request) throws IOException {
+        String method = request.getMethod().toUpperCase();
+        String url = request.getUrl();
+        byte[] body = null;
+        String contentType = request.getHeader("Content-Type");
+
+        if (request.getForm() != null && !request.getForm().isEmpty()) {
+            String formText = HttpUtil.toParams(request.getForm(), StandardCharsets.UTF_8);
+            if (request.isGetOrHead()) {
+                url = url.concat(url.contains("?") ? "&" : "?").concat(formText);
+            } else {
+                body = formText.getBytes(StandardCharsets.UTF_8);
+                if (contentType == null) {
+                    contentType = ContentType.build(ContentType.FORM_URLENCODED, StandardCharsets.UTF_8);
+                }
+            }
+        } else if (request.getBody() != null) {
+            body = request.getBody().getBytes(StandardCharsets.UTF_8);
+            //与hutool一致，未指定时根据内容判断
+            if (contentType == null) {
+                String bodyContentType = HttpUtil.getContentTypeByRequestBody(request.getBody());
+                if (bodyContentType != null) {
+                    contentType = ContentType.build(bodyContentType, StandardCharsets.UTF_8);
+                }
+            }
+        } else if (request.getBodyBytes() != null) {
+            body = request.getBodyBytes();
+        }
+
+        try {
+            Object builder = newRequestBuilder.invoke(null, URI.create(url));
+            if (request.getReadTimeout() > 0) {
+                requestBuilderTimeout.invoke(builder, Duration.ofMillis(request.getReadTimeout()));
+            }
+            Set<String> headerNames = new HashSet<>();
+            for (Map.Entry<String, String> entry : request.getHeaders().entrySet()) {
+                if (entry.getValue() == null || RESTRICTED_HEADERS.contains(entry.getKey().toLowerCase())
+                        || "Content-Type".equalsIgnoreCase(entry.getKey())) {
+                    continue;
+                }
+                headerNames.add(entry.getKey().toLowerCase());
+                requestBuilderHeader.invoke(builder, entry.getKey(), entry.getValue());
+            }
+            //与hutool一致，发送全局默认请求头（Accept-Encoding等）
+            for (Map.Entry<String, List<String>> entry : GlobalHeaders.INSTANCE.headers().entrySet()) {
+                String name = entry.getKey();
+                if (headerNames.contains(name.toLowerCase()) || RESTRICTED_HEADERS.contains(name.toLowerCase())
+                        || "Content-Type".equalsIgnoreCase(name) || entry.getValue() == null) {
+                    continue;
+                }
+                for (String value : entry.getValue()) {
+                    requestBuilderHeader.invoke(builder, name, value);
+                }
+            }
+            if (contentType != null) {
+                requestBuilderHeader.invoke(builder, "Content-Type", contentType);
+            }
+            Object bodyPublisher = body == null ? bodyPublisherNoBody.invoke(null) : bodyPublisherOfByteArray.invoke(null, (Object) body);
+            requestBuilderMethod.invoke(builder, method, bodyPublisher);
+            Object httpRequest = requestBuilderBuild.invoke(builder);
+
+            Object bodyHandler = request.isStream() ? bodyHandlerOfInputStream : bodyHandlerOfByteArray;
+            Object httpResponse = clientSend.invoke(getClient(request.getConnectTimeout(), request.isHttp2()), httpRequest, bodyHandler);
+
+            int status = (Integer) responseStatusCode.invoke(httpResponse);
+            @SuppressWarnings("unchecked")
+            Map<String, List<String>> headers = normalizeHeaders((Map<String, List<String>>) headersMap.invoke(responseHeaders.invoke(httpResponse)));
+            if (request.isStream()) {
+                FitHttpResponse response = FitHttpResponse.ofStream(status, headers, null);
+                response.bodyStream = decodeStream((InputStream) responseBody.invoke(httpResponse), response.header("Content-Encoding"));
+                return response;
+            }
+            byte[] responseBytes = (byte[]) responseBody.invoke(httpResponse);
+            FitHttpResponse response = new FitHttpResponse(status, headers, null);
+            response.body = decodeBody(responseBytes, response.header("Content-Encoding"), response.header("Content-Type"));
+            return response;
+        } catch (InvocationTargetException e) {
+            Throwable target = e.getTargetException();
+            if (target instanceof IOException) {
+                throw (IOException) target;
+            }
+            if (target instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+                throw new IOException("http request interrupted: " + url, target);
+            }
+            if (target instanceof RuntimeException) {
+                throw (RuntimeException) target;
+            }
+            throw new IOException(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 响应头名称转换为Content-Type形式，与hutool返回的一致
+     *
+     * @param headers
+     * @return
+     */
+    static Map<String, List<String>> normalizeHeaders(Map<String, List<String>> headers) {
+        Map<String, List<String>> result = new LinkedHashMap<>(headers.size() * 2);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            String name = entry.getKey();
+            if (name == null || name.startsWith(":")) {
+                continue;
+            }
+            StringBuilder builder = new StringBuilder(name.length());
+            boolean upper = true;
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                builder.append(upper ? Character.toUpperCase(c) : c);
+                upper = c == '-';
+            }
+            result.put(builder.toString(), entry.getValue());
+        }
+        return result;
+    }
+
+    static InputStream decodeStream(InputStream inputStream, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(inputStream);
+        } else if ("deflate".equalsIgnoreCase(contentEncoding)) {
+            return new InflaterInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    static String decodeBody(byte[] bytes, String contentEncoding, String contentType) throws IOException {
+        if (bytes == null || bytes.length == 0) {
+            return "";
+        }
+        if (contentEncoding != null) {
+            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+                bytes = readAll(new GZIPInputStream(new ByteArrayInputStream(bytes)));
+            } else if ("deflate".equalsIgnoreCase(contentEncoding)) {
+                bytes = readAll(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+            }
+        }
+        return new String(bytes, FitHttpBodyUtil.getCharset(contentType));
+    }
+
+    static byte[] readAll(InputStream inputStream) {
+        try {
+            return IoUtil.readBytes(inputStream);
+        } finally {
+            IoUtil.close(inputStream);
+        }
+    }
+}
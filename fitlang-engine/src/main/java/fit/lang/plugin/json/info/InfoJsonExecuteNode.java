@@ -3,6 +3,7 @@ package fit.lang.plugin.json.info;
 import cn.hutool.system.SystemUtil;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.JsonExecuteNodeRegistry;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
@@ -62,6 +63,10 @@ public class InfoJsonExecuteNode extends JsonExecuteNode {
             systemInfoJson.put("env", System.getenv());
         }
 
+        if (shardFields.contains("registry")) {
+            systemInfoJson.put("registry", JsonExecuteNodeRegistry.getReport());
+        }
+
         output.setData(systemInfoJson);
 
     }
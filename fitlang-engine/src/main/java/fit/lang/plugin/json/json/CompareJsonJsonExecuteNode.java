@@ -36,23 +36,35 @@ public class CompareJsonJsonExecuteNode extends JsonExecuteNode {
         JSONObject json1 = inputJson.getJSONObject(json1Field);
         JSONObject json2 = inputJson.getJSONObject(json2Field);
 
+        //数组对齐：index（默认，按下标）、value（值相同的元素对齐）、key（按arrayKey字段对齐）
+        json2 = CompareUtils.alignArray(json1, json2, nodeJsonDefine.getString("arrayAlign"), nodeJsonDefine.getString("arrayKey"));
+
+        //只判断是否相同：遇到第一个差异即返回
+        if (Boolean.TRUE.equals(nodeJsonDefine.getBoolean("onlyEqual"))) {
+            JSONObject outputJson = new JSONObject();
+            outputJson.put("equal", CompareUtils.equals(json1, json2));
+            output.setData(outputJson);
+            return;
+        }
+
+        JSONObject compareResult = CompareUtils.compare(json1, json2);
+        JSONArray list = new JSONArray(compareResult.size());
+        list.addAll(compareResult.values());
+        JSONObject outputJson = CompareUtils.sum(list);
+
         Object result;
-        if (toArray) {
-            if (onlyDiff) {
-                result = CompareUtils.diffToArray(json1, json2);
-            } else {
-                result = CompareUtils.compareToArray(json1, json2);
+        if (onlyDiff) {
+            JSONObject diffResult = new JSONObject();
+            for (Object item : list) {
+                JSONObject pathResult = (JSONObject) item;
+                if (!Boolean.TRUE.equals(pathResult.get(CompareUtils.FIELD_NAME_OF_VALUE_EQUAL))) {
+                    diffResult.put(pathResult.getString("path"), pathResult);
+                }
             }
+            result = toArray ? new JSONArray(diffResult.values()) : diffResult;
         } else {
-            if (onlyDiff) {
-                result = CompareUtils.diff(json1, json2);
-
-            } else {
-                result = CompareUtils.compare(json1, json2);
-            }
+            result = toArray ? list : compareResult;
         }
-        JSONArray list = CompareUtils.compareToArray(json1, json2);
-        JSONObject outputJson = CompareUtils.sum(list);
 
         outputJson.put("result", result);
 
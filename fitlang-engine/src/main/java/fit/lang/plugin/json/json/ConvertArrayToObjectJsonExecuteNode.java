@@ -38,7 +38,7 @@ public class ConvertArrayToObjectJsonExecuteNode extends JsonExecuteNode {
             valueField = "value";
         }
 
-        JSONObject outputJson = input.getData().clone();
+        JSONObject outputJson = input.getReadOnlyData().clone();
         Object list = outputJson.getByPath(arrayField);
         if (list instanceof JSONArray) {
             JSONArray array = (JSONArray) list;
@@ -1,5 +1,6 @@
 package fit.lang.plugin.json.json;
 
+import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.alibaba.fastjson2.JSONPath;
 import fit.lang.ExecuteNodeException;
@@ -9,7 +10,10 @@ import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.getJsonData;
 
@@ -24,6 +28,11 @@ public class ConvertJsonExecuteNode extends JsonExecuteNode implements ExecuteNo
      */
     JSONObject express = new JSONObject();
 
+    /**
+     * 编译后的转换计划，设置表达式时生成
+     */
+    List<FieldPlan> plans = Collections.emptyList();
+
     /**
      * 值映射
      */
@@ -35,6 +44,7 @@ public class ConvertJsonExecuteNode extends JsonExecuteNode implements ExecuteNo
 
     public void setExpress(JSONObject express) {
         this.express = express;
+        this.plans = express == null ? Collections.emptyList() : compile(express);
     }
 
     public JSONObject getValueMapping() {
@@ -51,123 +61,286 @@ public class ConvertJsonExecuteNode extends JsonExecuteNode implements ExecuteNo
         if (nodeJsonDefine != null) {
             Boolean isMixMode = nodeJsonDefine.getBoolean("isMixMode");
             if (Boolean.TRUE.equals(isMixMode)) {
-                output.setData(input.getData().clone());
+                output.setNodeData(input.getNodeData().cloneThis());
             }
         }
 
-        for (String to : express.keySet()) {
-
-            Object from = express.get(to);
-
-            Object value = from;
+        for (FieldPlan fieldPlan : plans) {
+            fieldPlan.convert(this, input.getReadOnlyData(), output.getData());
+        }
+    }
 
+    /**
+     * 编译表达式：每个字段的路径只解析一次，数组路径拆分为逐层相对路径
+     *
+     * @param express
+     * @return
+     */
+    static List<FieldPlan> compile(JSONObject express) {
+        List<FieldPlan> plans = new ArrayList<>(express.size());
+        for (Map.Entry<String, Object> entry : express.entrySet()) {
+            String to = entry.getKey();
+            Object from = entry.getValue();
             //变量
             if (from instanceof String) {
                 String fromString = (String) from;
                 if (fromString.startsWith("${") && fromString.endsWith("}")) {
-                    String frommInnerExpress = getInnerExpress(fromString);
+                    String fromInnerExpress = getInnerExpress(fromString);
                     //处理数组
-                    if (frommInnerExpress.contains("[]")) {
-                        convertArray(input, output, frommInnerExpress, to);
-                        continue;
+                    if (fromInnerExpress.contains("[]")) {
+                        plans.add(new ArrayFieldPlan(to, fromInnerExpress));
                     } else {
-                        value = JSONPath.eval(input.getData(), frommInnerExpress);
-                        value = valueMapping(to, value);
+                        plans.add(new FieldPlan(to, JSONPath.of(fromInnerExpress), null));
                     }
+                    continue;
                 }
             }
-            JSONPath.set(output.getData(), to, value);
+            plans.add(new FieldPlan(to, null, from));
         }
+        return plans;
     }
 
-    private void convertArray(JsonExecuteNodeInput input, JsonExecuteNodeOutput output, String from, String to) {
-        Object value;
-        String[] fromParts = from.split("\\[]");
-        String[] toParts = to.split("\\[]");
-        List array = (List) JSONPath.eval(input.getData(), fromParts[0]);
+    static String getInnerExpress(String express) {
+        return express.substring(2, express.length() - 1);
+    }
 
-        if (array == null) {
-            JSONPath.set(output.getData(), to.split("\\[]")[0], (Object) null);
-            return;
+    /**
+     * 数组路径拆分后的相对路径：空表示元素本身
+     *
+     * @param part
+     * @return
+     */
+    static JSONPath compileRelativePath(String part) {
+        if (part.isEmpty()) {
+            return null;
         }
+        return JSONPath.of(part.startsWith("[") ? "$".concat(part) : "$.".concat(part.startsWith(".") ? part.substring(1) : part));
+    }
 
-        int[] length = new int[fromParts.length - 1];
-        int[] index = new int[fromParts.length - 1];
+    static String getMappingField(String to) {
+        int index = to.lastIndexOf('.');
+        return index < 0 ? to : to.substring(index + 1);
+    }
 
-        index[index.length - 1] = -1;
+    /**
+     * 单个字段的转换计划：常量或普通路径
+     */
+    static class FieldPlan {
 
-        buildLength(input.getData(), fromParts, length, index, index.length - 1);
+        final String to;
 
-        while (next(input.getData(), fromParts, length, index, index.length - 1)) {
-            String fromPath = buildPath(fromParts, index);
-            String toPath = buildPath(toParts, index);
-            value = JSONPath.eval(input.getData(), fromPath);
-            value = valueMapping(toPath, value);
-            JSONPath.set(output.getData(), toPath, value);
+        final JSONPath toPath;
+
+        final String mappingField;
+
+        final JSONPath fromPath;
+
+        final Object constant;
+
+        FieldPlan(String to, JSONPath fromPath, Object constant) {
+            this.to = to;
+            this.toPath = to.contains("[]") ? null : JSONPath.of(to);
+            this.mappingField = getMappingField(to);
+            this.fromPath = fromPath;
+            this.constant = constant;
         }
-    }
 
-    String buildPath(String[] parts, int[] index) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < parts.length; i++) {
-            if (i > 0) {
-                builder.append("[" + index[i - 1] + "]");
+        void convert(ConvertJsonExecuteNode node, JSONObject input, JSONObject output) {
+            Object value = constant;
+            if (fromPath != null) {
+                value = node.valueMapping(mappingField, fromPath.eval(input));
             }
-            builder.append(parts[i]);
+            set(output, value);
         }
-        return builder.toString();
-    }
 
-    void buildLength(JSONObject root, String[] pathParts, int[] length, int[] index, int level) {
-        StringBuilder jsonPath = new StringBuilder();
-        for (int i = 0; i < level + 1; i++) {
-            if (i > 0) {
-                jsonPath.append("[" + index[i - 1] + "]");
-            }
-            jsonPath.append(pathParts[i]);
-            List array = (List) JSONPath.eval(root, jsonPath.toString());
-            if (array != null) {
-                length[i] = array.size();
+        void set(JSONObject output, Object value) {
+            if (toPath == null) {
+                JSONPath.set(output, to, value);
             } else {
-                length[i] = 0;
+                toPath.set(output, value);
             }
         }
     }
 
-    boolean next(JSONObject root, String[] pathParts, int[] length, int[] index, int level) {
-        index[level]++;
-        if (index[level] >= length[level]) {
+    /**
+     * 数组字段的转换计划：按层游标遍历源数组，目标数组按相同下标逐层创建，不再为每个元素拼接路径并从根节点查找
+     * <p>
+     * 例：E[].E3[].E1 = f[].c[].c1，源路径拆分为f、.c、.c1，目标路径拆分为E、.E3、.E1
+     */
+    static class ArrayFieldPlan extends FieldPlan {
+
+        /**
+         * 源路径：第一层相对根节点，其他层相对上一层数组元素
+         */
+        final JSONPath[] fromParts;
+
+        /**
+         * 目标路径：同上，层数可以少于源路径（多个元素写入同一位置）
+         */
+        final JSONPath[] toParts;
+
+        static final Object NONE = new Object();
+
+        ArrayFieldPlan(String to, String from) {
+            super(to, null, null);
+            String[] fromPartTexts = from.split("\\[]", -1);
+            String[] toPartTexts = to.split("\\[]", -1);
+            if (toPartTexts.length > fromPartTexts.length) {
+                throw new ExecuteNodeException("convert express array level not match: " + to + " : ${" + from + "}");
+            }
+            fromParts = new JSONPath[fromPartTexts.length];
+            toParts = new JSONPath[toPartTexts.length];
+            fromParts[0] = JSONPath.of(fromPartTexts[0]);
+            toParts[0] = JSONPath.of(toPartTexts[0]);
+            for (int i = 1; i < fromPartTexts.length; i++) {
+                fromParts[i] = compileRelativePath(fromPartTexts[i]);
+            }
+            for (int i = 1; i < toPartTexts.length; i++) {
+                toParts[i] = compileRelativePath(toPartTexts[i]);
+            }
+        }
 
-            if (level == 0) {
-                return false;
-            } else {
-                index[level - 1]++;
-                if (index[level - 1] >= length[level - 1]) {
-                    return next(root, pathParts, length, index, level - 1);
+        @Override
+        void convert(ConvertJsonExecuteNode node, JSONObject input, JSONObject output) {
+            Object array = fromParts[0].eval(input);
+            if (!(array instanceof List)) {
+                toParts[0].set(output, (Object) null);
+                return;
+            }
+            Object lastValue = getLastValue((List<?>) array, 1);
+            //没有值时不创建目标数组
+            if (lastValue == NONE) {
+                return;
+            }
+            if (toParts.length == 1) {
+                toParts[0].set(output, node.valueMapping(mappingField, lastValue));
+                return;
+            }
+            convertLevel(node, (List<?>) array, 1, getOrCreateArray(output, toParts[0]));
+        }
+
+        /**
+         * 遍历第level层源数组，按相同下标写入目标数组
+         *
+         * @param node
+         * @param fromArray 当前层源数组
+         * @param level     当前层元素的相对路径下标
+         * @param toArray   当前层目标数组
+         */
+        void convertLevel(ConvertJsonExecuteNode node, List<?> fromArray, int level, List<Object> toArray) {
+            boolean leaf = level == fromParts.length - 1;
+            boolean lastToLevel = level == toParts.length - 1;
+            for (int i = 0; i < fromArray.size(); i++) {
+                Object fromValue = evalPart(fromArray.get(i), level);
+                if (leaf) {
+                    setValue(toArray, i, toParts[level], node.valueMapping(mappingField, fromValue));
+                } else if (fromValue instanceof List) {
+                    if (lastToLevel) {
+                        //目标层数少于源路径：更深层的元素写入同一位置，最后一个生效
+                        Object lastValue = getLastValue((List<?>) fromValue, level + 1);
+                        if (lastValue != NONE) {
+                            setValue(toArray, i, toParts[level], node.valueMapping(mappingField, lastValue));
+                        }
+                    } else if (getLastValue((List<?>) fromValue, level + 1) != NONE) {
+                        List<Object> childArray = toParts[level] == null ? getOrCreateArray(toArray, i) : getOrCreateArray(getOrCreateObject(toArray, i), toParts[level]);
+                        convertLevel(node, (List<?>) fromValue, level + 1, childArray);
+                    }
                 }
-                for (int i = level; i < index.length; i++) {
-                    buildLength(root, pathParts, length, index, i);
-                    index[i] = 0;
+            }
+        }
+
+        Object evalPart(Object fromElement, int level) {
+            if (fromParts[level] == null || fromElement == null) {
+                return fromElement;
+            }
+            return fromParts[level].eval(fromElement);
+        }
+
+        /**
+         * 最后一个叶子节点的值，没有时返回NONE
+         *
+         * @param fromArray
+         * @param level
+         * @return
+         */
+        Object getLastValue(List<?> fromArray, int level) {
+            boolean leaf = level == fromParts.length - 1;
+            for (int i = fromArray.size() - 1; i >= 0; i--) {
+                Object fromValue = evalPart(fromArray.get(i), level);
+                if (leaf) {
+                    return fromValue;
+                }
+                if (fromValue instanceof List) {
+                    Object lastValue = getLastValue((List<?>) fromValue, level + 1);
+                    if (lastValue != NONE) {
+                        return lastValue;
+                    }
                 }
-                return true;
             }
+            return NONE;
         }
-        return true;
-    }
 
-    String getInnerExpress(String express) {
-        return express.substring(2, express.length() - 1);
-    }
+        static void setValue(List<Object> toArray, int index, JSONPath path, Object value) {
+            if (path == null) {
+                setElement(toArray, index, value);
+            } else {
+                path.set(getOrCreateObject(toArray, index), value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        static List<Object> getOrCreateArray(Object parent, JSONPath path) {
+            if (path == null) {
+                return (List<Object>) parent;
+            }
+            Object array = path.eval(parent);
+            if (array instanceof List) {
+                return (List<Object>) array;
+            }
+            JSONArray newArray = new JSONArray();
+            path.set(parent, newArray);
+            return newArray;
+        }
+
+        @SuppressWarnings("unchecked")
+        static List<Object> getOrCreateArray(List<Object> array, int index) {
+            Object element = index < array.size() ? array.get(index) : null;
+            if (element instanceof List) {
+                return (List<Object>) element;
+            }
+            JSONArray newElement = new JSONArray();
+            setElement(array, index, newElement);
+            return newElement;
+        }
 
-    Object valueMapping(String path, Object value) {
+        static JSONObject getOrCreateObject(List<Object> array, int index) {
+            Object element = index < array.size() ? array.get(index) : null;
+            if (element instanceof JSONObject) {
+                return (JSONObject) element;
+            }
+            JSONObject newElement = new JSONObject();
+            setElement(array, index, newElement);
+            return newElement;
+        }
 
-        String field = path;
-        if (path.contains(".")) {
-            String[] parts = path.split("\\.");
-            field = parts[parts.length - 1];
+        static void setElement(List<Object> array, int index, Object value) {
+            while (array.size() <= index) {
+                array.add(null);
+            }
+            array.set(index, value);
         }
-        String valueString = value == null ? "null" : value.toString();
+    }
+
+    /**
+     * 值映射
+     *
+     * @param field 目标路径最后一级字段名
+     * @param value
+     * @return
+     */
+    Object valueMapping(String field, Object value) {
         if (valueMapping != null && valueMapping.containsKey(field)) {
+            String valueString = value == null ? "null" : value.toString();
             JSONObject mapping = valueMapping.getJSONObject(field);
             if (mapping != null && mapping.containsKey(valueString)) {
                 return mapping.get(valueString);
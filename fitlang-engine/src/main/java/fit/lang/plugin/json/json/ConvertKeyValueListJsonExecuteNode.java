@@ -35,7 +35,7 @@ public class ConvertKeyValueListJsonExecuteNode extends JsonExecuteNode {
             throw new ExecuteNodeException("convertKeyValueList valueField field is required!");
         }
 
-        JSONObject outputJson = input.getData().clone();
+        JSONObject outputJson = input.getReadOnlyData().clone();
         Object list = outputJson.getByPath(listField);
         if (list instanceof JSONArray) {
             JSONArray array = (JSONArray) list;
@@ -40,7 +40,7 @@ public class ConvertObjectToArrayJsonExecuteNode extends JsonExecuteNode {
             valueField = "value";
         }
 
-        JSONObject outputJson = input.getData().clone();
+        JSONObject outputJson = input.getReadOnlyData().clone();
         Object object = outputJson.getByPath(objectField);
         JSONArray array = new JSONArray();
         if (object instanceof JSONObject) {
@@ -28,7 +28,7 @@ public class ConvertToBasicArrayJsonExecuteNode extends JsonExecuteNode {
             keyField = "key";
         }
 
-        JSONObject outputJson = input.getData().clone();
+        JSONObject outputJson = input.getReadOnlyData().clone();
         Object list = outputJson.getByPath(arrayField);
         if (list instanceof JSONArray) {
             JSONArray array = (JSONArray) list;
@@ -23,7 +23,7 @@ public class DecreaseJsonExecuteNode extends JsonExecuteNode {
         }
         number -= 1;
 
-        JSONObject result = input.getData().clone();
+        JSONObject result = input.getReadOnlyData().clone();
         result.put(fieldName, number);
         output.setData(result);
     }
@@ -18,7 +18,7 @@ public class EvalJsonExecuteNode extends JsonExecuteNode {
         if (evalJson == null) {
             evalJson = input.getData();
         }
-        JSONObject evalResult = ExpressUtil.eval(evalJson, input.getInputParamAndContextParam());
+        JSONObject evalResult = ExpressUtil.eval(evalJson, input.getVariableScope());
         output.setData(evalResult);
     }
 }
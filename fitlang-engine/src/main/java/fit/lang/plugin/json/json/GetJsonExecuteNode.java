@@ -19,7 +19,7 @@ public class GetJsonExecuteNode extends JsonExecuteNode {
 
         String path = getWildlyField(nodeJsonDefine, WILDLY_FIELDS);
 
-        path = (String) ExpressUtil.eval(path, input.getInputParamAndContextParam());
+        path = (String) ExpressUtil.eval(path, input.getVariableScope());
 
         Object object = input.getInputParamAndContextParam().getByPath(path);
         JSONObject data;
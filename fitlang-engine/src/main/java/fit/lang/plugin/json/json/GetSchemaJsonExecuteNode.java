@@ -26,7 +26,7 @@ public class GetSchemaJsonExecuteNode extends JsonExecuteNode {
         if (StrUtil.isBlank(path)) {
             jsonObject = input.getData();
         } else {
-            path = (String) ExpressUtil.eval(path, input.getInputParamAndContextParam());
+            path = (String) ExpressUtil.eval(path, input.getVariableScope());
 
             Object object = input.getInputParamAndContextParam().getByPath(path);
             if (object instanceof JSONObject) {
@@ -24,7 +24,7 @@ public class IncreaseJsonExecuteNode extends JsonExecuteNode {
         }
         number += 1;
 
-        JSONObject result = input.getData().clone();
+        JSONObject result = input.getReadOnlyData().clone();
         result.put(fieldName, number);
         output.setData(result);
     }
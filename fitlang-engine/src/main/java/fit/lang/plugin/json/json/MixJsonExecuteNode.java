@@ -25,8 +25,8 @@ public class MixJsonExecuteNode extends JsonExecuteNode {
             throw new ExecuteNodeException("mix node of json field is required!");
         }
 
-        JSONObject mixJsonResult = ExpressUtil.eval(mixJson, input.getInputParamAndContextParam());
-        JSONObject outputJson = input.getData().clone();
+        JSONObject mixJsonResult = ExpressUtil.eval(mixJson, input.getVariableScope());
+        JSONObject outputJson = input.getReadOnlyData().clone();
         //上下文特殊处理
         if (mixJson.containsKey("_context")) {
             outputJson.put(mixJson.getString("_context"), JSON.toJSON(input.getNodeContext().getAllAttribute()));
@@ -18,8 +18,8 @@ public class MixNodeJsonExecuteNode extends JsonExecuteNode {
         if (mixJson == null) {
             throw new ExecuteNodeException("mix node of json field is required!");
         }
-        JSONObject mixJsonResult = NodeExpressUtil.eval(mixJson, input.getData());
-        JSONObject outputJson = input.getData().clone();
+        JSONObject mixJsonResult = NodeExpressUtil.eval(mixJson, input.getReadOnlyData());
+        JSONObject outputJson = input.getReadOnlyData().clone();
         outputJson.putAll(mixJsonResult);
         output.setData(outputJson);
     }
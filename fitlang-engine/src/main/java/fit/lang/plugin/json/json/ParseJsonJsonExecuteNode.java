@@ -23,9 +23,9 @@ public class ParseJsonJsonExecuteNode extends JsonExecuteNode {
         if (jsonField == null) {
             throw new ExecuteNodeException("parseJson jsonField is required!");
         }
-        Object value = input.getData().getByPath(jsonField);
+        Object value = input.getReadOnlyData().getByPath(jsonField);
 
-        JSONObject outputJson = input.getData().clone();
+        JSONObject outputJson = input.getReadOnlyData().clone();
         output.setData(outputJson);
 
         if (value instanceof String) {
@@ -26,7 +26,7 @@ public class RemoveFieldJsonExecuteNode extends JsonExecuteNode implements Execu
 
     @Override
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
-        for (String field : input.getData().keySet()) {
+        for (String field : input.getReadOnlyData().keySet()) {
             if (fieldNames.contains(field)) {
                 continue;
             }
@@ -1,7 +1,5 @@
 package fit.lang.plugin.json.json;
 
-import com.alibaba.fastjson2.JSONObject;
-import com.alibaba.fastjson2.JSONPath;
 import fit.lang.plugin.json.ExpressUtil;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
@@ -21,14 +19,13 @@ public class SetJsonExecuteNode extends JsonExecuteNode {
 
         String path = getWildlyField(nodeJsonDefine, WILDLY_FIELDS);
 
-        path = (String) ExpressUtil.eval(path, input.getInputParamAndContextParam());
+        path = (String) ExpressUtil.eval(path, input.getVariableScope());
 
         Object value = parseField("value", input);
 
-        JSONObject inputData = input.getData();
+        //写时复制：共享的入参只复制路径上的对象
+        input.set(path, value);
 
-        JSONPath.set(inputData, path, value);
-
-        output.setData(inputData);
+        output.setNodeData(input.getNodeData().cloneThis());
     }
 }
@@ -31,28 +31,38 @@ public class GetClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         }
 
         int second = parseIntField("second", input, 500);
+        int maxPoints = parseIntField("maxPoints", input, MonitorTimeSeries.DEFAULT_MAX_POINTS);
+        String downsample = parseStringField("downsample", input);
+        long now = System.currentTimeMillis();
+        long after = parseTime(parseStringField("startTime", input), now - second * 1000L);
+        long before = parseTime(parseStringField("endTime", input), Long.MAX_VALUE);
 
         result.put("clientId", innerClientId);
         result.put("second", second);
 
+        MonitorSegmentStore store = ReceiveClientMonitorDataJsonExecuteNode.getStore();
+        if (store == null) {
+            store = MonitorSegmentStore.getDefault();
+        }
         JSONObject client = ReceiveClientMonitorDataJsonExecuteNode.getClient(innerClientId);
+        if (client == null && store != null) {
+            //重启前的client，只有存储中的数据
+            client = store.loadClientInfo(innerClientId);
+        }
         if (client == null) {
             result.put("message", "client not existed!");
         } else {
-            result.put("cpuPoints", fetchMonitorDataInLastSecond(client.getJSONArray("cpuPoints"), second));
-            result.put("memoryPoints", fetchMonitorDataInLastSecond(client.getJSONArray("memoryPoints"), second));
+            int cpuCount = client.getIntValue("cpuCount");
+            double memoryG = client.getDoubleValue("memoryG");
+
+            result.putAll(fetchMonitorData(ReceiveClientMonitorDataJsonExecuteNode.getCpuSeries(innerClientId), ReceiveClientMonitorDataJsonExecuteNode.getMemorySeries(innerClientId),
+                    store, innerClientId, after, before, maxPoints, downsample, cpuCount, memoryG));
             result.put("clientInfo", client.get("clientInfo"));
             result.put("cpuTotal", client.get("cpuTotal"));
-
-            int cpuCount = client.getInteger("cpuCount");
-            double memoryG = client.getDouble("memoryG");
             result.put("cpuCount", cpuCount);
             result.put("memoryG", memoryG);
-
-            result.put("sumCpuPoints", (sumCpuDataInLastSecond(client.getJSONArray("cpuPoints"), second, cpuCount)));
-            result.put("sumMemoryPoints", (sumMemoryDataInLastSecond(client.getJSONArray("memoryPoints"), second, memoryG)));
-            result.put("min", DateUtil.format(new Date(System.currentTimeMillis() - second * 1000L), "yyyy-MM-dd HH:mm:ss"));
-            result.put("max", getNow());
+            result.put("min", DateUtil.format(new Date(after), "yyyy-MM-dd HH:mm:ss"));
+            result.put("max", before == Long.MAX_VALUE ? getNow() : DateUtil.format(new Date(before), "yyyy-MM-dd HH:mm:ss"));
         }
 
         output.setData(result);
@@ -23,23 +23,29 @@ public class GetMonitorDataJsonExecuteNode extends JsonExecuteNode {
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
 
         int second = parseIntField("second", input, 500);
+        int maxPoints = parseIntField("maxPoints", input, MonitorTimeSeries.DEFAULT_MAX_POINTS);
+        String downsample = parseStringField("downsample", input);
+        long now = System.currentTimeMillis();
+        long after = parseTime(parseStringField("startTime", input), now - second * 1000L);
+        long before = parseTime(parseStringField("endTime", input), Long.MAX_VALUE);
+
+        int cpuCount = JsonExecuteNodeMonitorUtil.getCpuProcessorCount();
+        double memoryG = getMemoryG();
+
+        MonitorSegmentStore store = StartMonitorJsonExecuteNode.getStore();
+        if (store == null) {
+            store = MonitorSegmentStore.getDefault();
+        }
+        JSONObject result = fetchMonitorData(StartMonitorJsonExecuteNode.getCpuSeries(), StartMonitorJsonExecuteNode.getMemorySeries(), store, LOCAL_PARTITION,
+                after, before, maxPoints, downsample, cpuCount, memoryG);
 
-        JSONObject result = new JSONObject();
-        result.put("cpuPoints", StartMonitorJsonExecuteNode.getCpuGatherList(second));
-        result.put("memoryPoints", StartMonitorJsonExecuteNode.getMemoryGatherList(second));
         CentralProcessor centralProcessor = OshiUtil.getHardware().getProcessor();
         result.put("cpuTotal", centralProcessor.getPhysicalProcessorCount() + " X " + covertToG(centralProcessor.getMaxFreq()) + "G");
         result.put("second", second);
-
-        int cpuCount = JsonExecuteNodeMonitorUtil.getCpuProcessorCount();
-        double memoryG = getMemoryG();
         result.put("cpuCount", cpuCount);
         result.put("memoryG", memoryG);
-
-        result.put("sumCpuPoints", sumCpuDataInLastSecond(StartMonitorJsonExecuteNode.cpuGatherList, second, cpuCount));
-        result.put("sumMemoryPoints", sumMemoryDataInLastSecond(StartMonitorJsonExecuteNode.memoryGatherList, second, memoryG));
-        result.put("min", DateUtil.format(new Date(System.currentTimeMillis() - second * 1000L), "yyyy-MM-dd HH:mm:ss"));
-        result.put("max", getNow());
+        result.put("min", DateUtil.format(new Date(after), "yyyy-MM-dd HH:mm:ss"));
+        result.put("max", before == Long.MAX_VALUE ? getNow() : DateUtil.format(new Date(before), "yyyy-MM-dd HH:mm:ss"));
 
         output.setData(result);
     }
@@ -1,6 +1,9 @@
 package fit.lang.plugin.json.monitor;
 
+import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.math.MathUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.system.oshi.OshiUtil;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
@@ -8,6 +11,7 @@ import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import oshi.hardware.CentralProcessor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.*;
@@ -15,6 +19,29 @@ import static fit.lang.plugin.json.ExecuteJsonNodeUtil.covertSecondToHour;
 
 public class JsonExecuteNodeMonitorUtil {
 
+    /**
+     * cpu监控点指标
+     */
+    public static final String[] CPU_FIELDS = {"total", "free", "sys", "used", "user", "wait"};
+
+    /**
+     * 内存监控点指标
+     */
+    public static final String[] MEMORY_FIELDS = {"total", "available", "used"};
+
+    public static final String METRIC_CPU = "cpu";
+
+    public static final String METRIC_MEMORY = "memory";
+
+    /**
+     * 本机监控数据的存储分区
+     */
+    public static final String LOCAL_PARTITION = "_local";
+
+    static final List<String> CPU_SUM_FIELDS = Arrays.asList("free", "used");
+
+    static final List<String> MEMORY_SUM_FIELDS = Arrays.asList("available", "used");
+
     static String getCpuTotalShow() {
         CentralProcessor centralProcessor = OshiUtil.getHardware().getProcessor();
         return centralProcessor.getPhysicalProcessorCount() + " X " + covertToG(centralProcessor.getMaxFreq()) + "G";
@@ -45,6 +72,73 @@ public class JsonExecuteNodeMonitorUtil {
         return filterListByMaxLength(result, 512);
     }
 
+    /**
+     * 从时序数据中获取最近second秒的点，超过maxPoints时分桶聚合
+     *
+     * @param series
+     * @param second
+     * @param maxPoints
+     * @param downsample avg, min, max
+     * @return
+     */
+    public static List<JSONObject> fetchMonitorDataInLastSecond(MonitorTimeSeries series, int second, int maxPoints, String downsample) {
+        if (series == null) {
+            return new ArrayList<>();
+        }
+        return series.queryInLastSecond(second, maxPoints, downsample);
+    }
+
+    /**
+     * 查询时间范围内的cpu和内存监控数据及汇总：开始时间早于内存中最早的数据且配置了持久化存储时从存储中查询
+     *
+     * @param cpuSeries    内存中的cpu数据，可以为空
+     * @param memorySeries 内存中的内存数据，可以为空
+     * @param store        持久化存储，可以为空
+     * @param partition    存储分区
+     * @param after        开始时间（不包含）
+     * @param before       结束时间（包含）
+     * @param maxPoints
+     * @param downsample
+     * @param cpuCount
+     * @param memoryG
+     * @return
+     */
+    public static JSONObject fetchMonitorData(MonitorTimeSeries cpuSeries, MonitorTimeSeries memorySeries, MonitorSegmentStore store, String partition,
+                                              long after, long before, int maxPoints, String downsample, int cpuCount, double memoryG) {
+        JSONObject result = new JSONObject();
+        boolean fromStore = store != null && (cpuSeries == null || cpuSeries.size() == 0 || after < cpuSeries.getFirstTimestamp());
+        if (fromStore) {
+            result.put("cpuPoints", store.query(partition, METRIC_CPU, CPU_FIELDS, after, before, maxPoints, downsample));
+            result.put("memoryPoints", store.query(partition, METRIC_MEMORY, MEMORY_FIELDS, after, before, maxPoints, downsample));
+            result.put("sumCpuPoints", buildCpuSumResult(store.sum(partition, METRIC_CPU, CPU_FIELDS, after, CPU_SUM_FIELDS), cpuCount));
+            result.put("sumMemoryPoints", buildMemorySumResult(store.sum(partition, METRIC_MEMORY, MEMORY_FIELDS, after, MEMORY_SUM_FIELDS), memoryG));
+        } else {
+            result.put("cpuPoints", cpuSeries == null ? new ArrayList<>() : cpuSeries.query(after, before, maxPoints, downsample));
+            result.put("memoryPoints", memorySeries == null ? new ArrayList<>() : memorySeries.query(after, before, maxPoints, downsample));
+            result.put("sumCpuPoints", cpuSeries == null ? new JSONObject() : buildCpuSumResult(cpuSeries.sumAfter(after, CPU_SUM_FIELDS), cpuCount));
+            result.put("sumMemoryPoints", memorySeries == null ? new JSONObject() : buildMemorySumResult(memorySeries.sumAfter(after, MEMORY_SUM_FIELDS), memoryG));
+        }
+        result.put("fromStore", fromStore);
+        return result;
+    }
+
+    /**
+     * 解析时间：毫秒时间戳或日期时间文本，为空时返回默认值
+     *
+     * @param text
+     * @param defaultValue
+     * @return
+     */
+    static long parseTime(String text, long defaultValue) {
+        if (StrUtil.isBlank(text)) {
+            return defaultValue;
+        }
+        if (NumberUtil.isLong(text)) {
+            return Long.parseLong(text);
+        }
+        return DateUtil.parse(text).getTime();
+    }
+
     private static List<JSONObject> fetchMonitorData(List<JSONObject> list, int second) {
         if (second < 0) {
             second = 0;
@@ -105,11 +199,17 @@ public class JsonExecuteNodeMonitorUtil {
     }
 
     public static JSONObject sumCpuDataInLastSecond(List<JSONObject> list, int second, int cpuCount) {
-        List<String> sumFields = new ArrayList<>();
-        sumFields.add("free");
-        sumFields.add("used");
-        JSONObject sumResult = sumDataInLastSecond(list, second, sumFields);
+        return buildCpuSumResult(sumDataInLastSecond(list, second, CPU_SUM_FIELDS), cpuCount);
+    }
 
+    public static JSONObject sumCpuDataInLastSecond(MonitorTimeSeries series, int second, int cpuCount) {
+        if (series == null) {
+            return new JSONObject();
+        }
+        return buildCpuSumResult(series.sumInLastSecond(second, CPU_SUM_FIELDS), cpuCount);
+    }
+
+    static JSONObject buildCpuSumResult(JSONObject sumResult, int cpuCount) {
         if (sumResult.isEmpty()) {
             return sumResult;
         }
@@ -137,11 +237,17 @@ public class JsonExecuteNodeMonitorUtil {
     }
 
     public static JSONObject sumMemoryDataInLastSecond(List<JSONObject> list, int second, double memoryG) {
-        List<String> sumFields = new ArrayList<>();
-        sumFields.add("available");
-        sumFields.add("used");
-        JSONObject sumResult = sumDataInLastSecond(list, second, sumFields);
+        return buildMemorySumResult(sumDataInLastSecond(list, second, MEMORY_SUM_FIELDS), memoryG);
+    }
+
+    public static JSONObject sumMemoryDataInLastSecond(MonitorTimeSeries series, int second, double memoryG) {
+        if (series == null) {
+            return new JSONObject();
+        }
+        return buildMemorySumResult(series.sumInLastSecond(second, MEMORY_SUM_FIELDS), memoryG);
+    }
 
+    static JSONObject buildMemorySumResult(JSONObject sumResult, double memoryG) {
         if (sumResult.isEmpty()) {
             return sumResult;
         }
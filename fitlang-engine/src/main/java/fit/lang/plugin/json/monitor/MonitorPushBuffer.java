@@ -0,0 +1,331 @@
+package fit.lang.plugin.json.monitor;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.ZipUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.common.ExecuteNodeScheduler;
+import fit.lang.plugin.json.http.client.FitHttpClientManager;
+import fit.lang.plugin.json.http.client.FitHttpRequest;
+import fit.lang.plugin.json.http.client.FitHttpResponse;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static fit.lang.plugin.json.ExecuteJsonNodeUtil.parseHttpResult;
+import static fit.lang.plugin.json.ExecuteJsonNodeUtil.setProxy;
+
+/**
+ * 监控数据批量推送：按pushUrl缓存监控点，达到pushBatchSize个点或pushBatchSecond秒时合并为一个请求，gzip压缩后推送
+ * <p>
+ * 推送失败按退避时间重试，仍然失败时追加到本地溢出文件，之后推送前先合并补发；
+ * 请求体：{clientId, cpuTotal, cpuCount, memoryG, points: [{cpuPoint, memoryPoint}]}，同时带上最后一个点的cpuPoint和memoryPoint兼容旧的接收端
+ */
+public class MonitorPushBuffer {
+
+    static final Map<String, MonitorPushBuffer> bufferMap = new ConcurrentHashMap<>();
+
+    /**
+     * 补发时单个请求最多的点数
+     */
+    static final int MAX_RESEND_POINTS = 1000;
+
+    static final long MAX_RETRY_MILLIS = 30000L;
+
+    final String pushUrl;
+
+    int batchSize;
+
+    long batchMillis;
+
+    int maxRetry;
+
+    long retryMillis;
+
+    int timeout;
+
+    boolean gzip;
+
+    long maxSpillSize;
+
+    File spillFile;
+
+    JSONObject proxy;
+
+    /**
+     * 最新的客户端信息，与监控点一起推送
+     */
+    JSONObject header = new JSONObject();
+
+    List<JSONObject> points = new ArrayList<>();
+
+    long firstTime;
+
+    /**
+     * 同一个pushUrl串行推送，保证补发顺序
+     */
+    final Object sendLock = new Object();
+
+    final LongAdder requestCount = new LongAdder();
+
+    final LongAdder errorCount = new LongAdder();
+
+    final LongAdder spillCount = new LongAdder();
+
+    final LongAdder dropCount = new LongAdder();
+
+    MonitorPushBuffer(String pushUrl) {
+        this.pushUrl = pushUrl;
+    }
+
+    /**
+     * 获取pushUrl对应的缓冲区，每次获取时更新配置
+     *
+     * @param pushUrl
+     * @param config           pushBatchSize, pushBatchSecond, pushMaxRetry, pushRetryMillis, pushTimeout, pushGzip, pushSpillPath, pushMaxSpillMB, pushProxy
+     * @param defaultBatchSize 未配置pushBatchSize时的批量大小
+     * @return
+     */
+    public static MonitorPushBuffer get(String pushUrl, JSONObject config, int defaultBatchSize) {
+        MonitorPushBuffer buffer = bufferMap.computeIfAbsent(pushUrl, MonitorPushBuffer::new);
+        buffer.configure(config == null ? new JSONObject() : config, defaultBatchSize);
+        return buffer;
+    }
+
+    synchronized void configure(JSONObject config, int defaultBatchSize) {
+        batchSize = Math.max(1, config.getIntValue("pushBatchSize", defaultBatchSize));
+        batchMillis = Math.max(0, config.getIntValue("pushBatchSecond", 60)) * 1000L;
+        maxRetry = Math.max(0, config.getIntValue("pushMaxRetry", 3));
+        retryMillis = Math.max(0, config.getLongValue("pushRetryMillis", 1000L));
+        timeout = config.getIntValue("pushTimeout", 10000);
+        gzip = !Boolean.FALSE.equals(config.getBoolean("pushGzip"));
+        maxSpillSize = Math.max(0, config.getIntValue("pushMaxSpillMB", 64)) * 1024L * 1024L;
+        String spillPath = config.getString("pushSpillPath");
+        File spillDir = StrUtil.isBlank(spillPath) ? FileUtil.file(FileUtil.getTmpDir(), "fit-monitor-push") : FileUtil.file(spillPath);
+        spillFile = FileUtil.file(spillDir, "push-" + SecureUtil.md5(pushUrl) + ".jsonl");
+        proxy = config.getJSONObject("pushProxy");
+    }
+
+    /**
+     * 加入监控点，达到批量条件时推送
+     *
+     * @param clientHeader 客户端信息
+     * @param cpuPoint
+     * @param memoryPoint
+     * @param async        是否异步推送
+     * @return 推送时返回推送结果，否则返回缓存状态
+     */
+    public JSONObject add(JSONObject clientHeader, JSONObject cpuPoint, JSONObject memoryPoint, boolean async) {
+        JSONObject point = new JSONObject();
+        point.put("cpuPoint", cpuPoint);
+        point.put("memoryPoint", memoryPoint);
+
+        JSONObject batch = null;
+        int bufferSize;
+        synchronized (this) {
+            header = clientHeader;
+            if (points.isEmpty()) {
+                firstTime = System.currentTimeMillis();
+            }
+            points.add(point);
+            if (points.size() >= batchSize || System.currentTimeMillis() - firstTime >= batchMillis) {
+                batch = takeBatch();
+            }
+            bufferSize = points.size();
+        }
+        if (batch == null) {
+            JSONObject result = new JSONObject();
+            result.put("message", "buffered");
+            result.put("bufferSize", bufferSize);
+            return result;
+        }
+        return send(batch, async);
+    }
+
+    /**
+     * 推送缓存中的所有点
+     *
+     * @param async
+     * @return
+     */
+    public JSONObject flush(boolean async) {
+        JSONObject batch;
+        synchronized (this) {
+            batch = takeBatch();
+        }
+        if (batch == null) {
+            return new JSONObject();
+        }
+        return send(batch, async);
+    }
+
+    public static void flushAll(boolean async) {
+        for (MonitorPushBuffer buffer : bufferMap.values()) {
+            buffer.flush(async);
+        }
+    }
+
+    JSONObject takeBatch() {
+        if (points.isEmpty()) {
+            return null;
+        }
+        JSONObject batch = header.clone();
+        JSONObject last = points.get(points.size() - 1);
+        batch.put("cpuPoint", last.get("cpuPoint"));
+        batch.put("memoryPoint", last.get("memoryPoint"));
+        batch.put("points", new JSONArray(points));
+        points = new ArrayList<>();
+        return batch;
+    }
+
+    JSONObject send(JSONObject batch, boolean async) {
+        if (async) {
+            ExecuteNodeScheduler.getDefault().submitAsync(() -> send(batch));
+            JSONObject result = new JSONObject();
+            result.put("message", "sending");
+            result.put("pointCount", batch.getJSONArray("points").size());
+            return result;
+        }
+        return send(batch);
+    }
+
+    /**
+     * 推送一批数据：先补发溢出文件保证时间顺序，补发或推送失败时写入溢出文件
+     *
+     * @param batch
+     * @return
+     */
+    JSONObject send(JSONObject batch) {
+        synchronized (sendLock) {
+            try {
+                resendSpill();
+                return postWithRetry(batch.toJSONString());
+            } catch (Exception e) {
+                spill(batch);
+                JSONObject result = new JSONObject();
+                result.put("message", "push error, spilled: " + e.getMessage());
+                return result;
+            }
+        }
+    }
+
+    JSONObject postWithRetry(String body) {
+        RuntimeException lastException = null;
+        for (int attempt = 0; attempt <= maxRetry; attempt++) {
+            if (attempt > 0 && retryMillis > 0) {
+                try {
+                    Thread.sleep(Math.min(MAX_RETRY_MILLIS, retryMillis << Math.min(attempt - 1, 16)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            try {
+                return post(body);
+            } catch (RuntimeException e) {
+                lastException = e;
+            }
+        }
+        throw lastException == null ? new IllegalStateException("push interrupted: " + pushUrl) : lastException;
+    }
+
+    JSONObject post(String body) {
+        requestCount.increment();
+        FitHttpRequest request = new FitHttpRequest("POST", pushUrl);
+        setProxy(proxy, request);
+        request.setConnectTimeout(timeout);
+        request.setReadTimeout(timeout);
+        request.setHeader("Content-Type", "application/json;charset=UTF-8");
+        if (gzip) {
+            request.setHeader("Content-Encoding", "gzip");
+            request.setBodyBytes(ZipUtil.gzip(body.getBytes(StandardCharsets.UTF_8)));
+        } else {
+            request.setBody(body);
+        }
+        try {
+            FitHttpResponse response = FitHttpClientManager.execute(request);
+            JSONObject result = parseHttpResult(response);
+            if (!response.isOk()) {
+                throw new IllegalStateException("push failed, http status: " + response.getStatus());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            errorCount.increment();
+            throw e;
+        }
+    }
+
+    void spill(JSONObject batch) {
+        if (maxSpillSize > 0 && spillFile.length() > maxSpillSize) {
+            dropCount.increment();
+            System.out.println("fit-monitor-push spill file is full, drop batch: " + spillFile.getAbsolutePath());
+            return;
+        }
+        FileUtil.appendUtf8String(batch.toJSONString() + "\n", spillFile);
+        spillCount.increment();
+    }
+
+    /**
+     * 补发溢出文件：相邻批次合并为一个请求，失败时保留未发送的部分
+     */
+    void resendSpill() {
+        if (!spillFile.isFile()) {
+            return;
+        }
+        List<String> lines = FileUtil.readUtf8Lines(spillFile);
+        int sent = 0;
+        while (sent < lines.size()) {
+            JSONObject merged = null;
+            JSONArray mergedPoints = new JSONArray();
+            int end = sent;
+            while (end < lines.size() && (merged == null || mergedPoints.size() < MAX_RESEND_POINTS)) {
+                String line = lines.get(end++);
+                if (StrUtil.isBlank(line)) {
+                    continue;
+                }
+                merged = JSONObject.parseObject(line);
+                mergedPoints.addAll(merged.getJSONArray("points"));
+            }
+            if (merged != null) {
+                merged.put("points", mergedPoints);
+                try {
+                    post(merged.toJSONString());
+                } catch (RuntimeException e) {
+                    if (sent > 0) {
+                        FileUtil.writeUtf8String(StrUtil.join("\n", lines.subList(sent, lines.size())) + "\n", spillFile);
+                    }
+                    throw e;
+                }
+            }
+            sent = end;
+        }
+        FileUtil.del(spillFile);
+    }
+
+    public File getSpillFile() {
+        return spillFile;
+    }
+
+    public synchronized int getBufferSize() {
+        return points.size();
+    }
+
+    public JSONObject getStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("pushUrl", pushUrl);
+        statistics.put("bufferSize", getBufferSize());
+        statistics.put("requestCount", requestCount.sum());
+        statistics.put("errorCount", errorCount.sum());
+        statistics.put("spillCount", spillCount.sum());
+        statistics.put("dropCount", dropCount.sum());
+        statistics.put("spillSize", spillFile.length());
+        return statistics;
+    }
+}
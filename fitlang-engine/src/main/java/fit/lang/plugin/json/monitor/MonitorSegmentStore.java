@@ -0,0 +1,740 @@
+package fit.lang.plugin.json.monitor;
+
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.common.ExecuteNodeScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 监控数据持久化：按client分区，每个指标一组只追加的内存映射分段文件
+ * <p>
+ * 目录结构：{storePath}/{分区}/{指标}/{raw|rollup}-{第一个点的时间戳}.seg，分区目录下client.json保存client信息；
+ * 分段文件：32字节文件头（魔数、版本、指标数、记录数），之后是定长记录（long时间戳 + 每个指标一个double），先写记录再更新记录数；
+ * <p>
+ * 原始数据按天分段（segmentHour），超过rawRetentionDay天的分段压缩为rollupSecond秒一个点的汇总分段，超过retentionDay天的分段删除；
+ * 查询按时间范围只映射相关分段，二分查找定位，流式分桶聚合，不加载全部数据
+ * <p>
+ * 配置（startMonitor、receiveClientMonitorData节点或系统属性fit.monitor.storePath）：
+ * storePath: 存储目录; retentionDay: 保留天数，默认90; rawRetentionDay: 原始数据保留天数，默认7; rollupSecond: 汇总间隔秒数，默认300
+ */
+public class MonitorSegmentStore {
+
+    public static final String TIER_RAW = "raw";
+
+    public static final String TIER_ROLLUP = "rollup";
+
+    static final int MAGIC = 0x46495453;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+
+    static final int COUNT_OFFSET = 12;
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    static final String CLIENT_INFO_FILE = "client.json";
+
+    /**
+     * 每个分段最大记录数
+     */
+    static final int SEGMENT_RECORDS = 100000;
+
+    /**
+     * 压缩检查间隔
+     */
+    static final long COMPACT_INTERVAL = 10 * 60 * 1000L;
+
+    static final Map<String, MonitorSegmentStore> storeMap = new ConcurrentHashMap<>();
+
+    static volatile MonitorSegmentStore defaultStore;
+
+    final File root;
+
+    final long segmentMillis;
+
+    final long retentionMillis;
+
+    final long rawRetentionMillis;
+
+    final long rollupMillis;
+
+    final Map<String, SegmentSeries> seriesMap = new ConcurrentHashMap<>();
+
+    final AtomicBoolean compacting = new AtomicBoolean();
+
+    volatile long lastCompactTime = System.currentTimeMillis();
+
+    MonitorSegmentStore(File root, JSONObject config) {
+        this.root = root;
+        this.segmentMillis = Math.max(1, config.getIntValue("segmentHour", 24)) * 3600 * 1000L;
+        this.retentionMillis = Math.max(1, config.getIntValue("retentionDay", 90)) * 24 * 3600 * 1000L;
+        this.rawRetentionMillis = Math.max(1, config.getIntValue("rawRetentionDay", 7)) * 24 * 3600 * 1000L;
+        this.rollupMillis = Math.max(1, config.getIntValue("rollupSecond", 300)) * 1000L;
+    }
+
+    /**
+     * 打开存储，同一目录只创建一次，并设置为默认存储
+     *
+     * @param storePath
+     * @param config
+     * @return
+     */
+    public static MonitorSegmentStore open(String storePath, JSONObject config) {
+        File root = FileUtil.mkdir(storePath);
+        MonitorSegmentStore store = storeMap.computeIfAbsent(root.getAbsolutePath(), k -> new MonitorSegmentStore(root, config == null ? new JSONObject() : config));
+        defaultStore = store;
+        return store;
+    }
+
+    /**
+     * 默认存储：最后一次打开的存储，或系统属性fit.monitor.storePath配置的存储，都没有时为空
+     *
+     * @return
+     */
+    public static MonitorSegmentStore getDefault() {
+        if (defaultStore == null && System.getProperty("fit.monitor.storePath") != null) {
+            open(System.getProperty("fit.monitor.storePath"), null);
+        }
+        return defaultStore;
+    }
+
+    public static void setDefault(MonitorSegmentStore store) {
+        defaultStore = store;
+    }
+
+    public File getRoot() {
+        return root;
+    }
+
+    static String toPartitionName(String partition) {
+        return partition.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    SegmentSeries getSeries(String partition, String metric, String[] fields) {
+        String key = toPartitionName(partition) + "/" + metric;
+        SegmentSeries series = seriesMap.computeIfAbsent(key, k -> new SegmentSeries(new File(root, k), fields));
+        //压缩时创建的没有指标名称
+        if (series.fields == null) {
+            series.fields = fields;
+        }
+        return series;
+    }
+
+    public void append(String partition, String metric, String[] fields, JSONObject point) {
+        Long timestamp = point.getLong("timestamp");
+        double[] values = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            values[i] = point.getDoubleValue(fields[i]);
+        }
+        append(partition, metric, fields, timestamp == null ? System.currentTimeMillis() : timestamp, values);
+    }
+
+    public void append(String partition, String metric, String[] fields, long timestamp, double[] values) {
+        getSeries(partition, metric, fields).append(TIER_RAW, timestamp, values, segmentMillis);
+        compactIfNeeded();
+    }
+
+    /**
+     * 按时间范围查询，超过maxPoints时分桶聚合，与MonitorTimeSeries.query一致
+     *
+     * @param partition
+     * @param metric
+     * @param fields
+     * @param after      开始时间（不包含）
+     * @param before     结束时间（包含）
+     * @param maxPoints
+     * @param downsample
+     * @return
+     */
+    public List<JSONObject> query(String partition, String metric, String[] fields, long after, long before, int maxPoints, String downsample) {
+        return getSeries(partition, metric, fields).query(after, before, maxPoints, downsample);
+    }
+
+    /**
+     * 汇总时间积分数据，与MonitorTimeSeries.sumInLastSecond一致
+     *
+     * @param partition
+     * @param metric
+     * @param fields
+     * @param after
+     * @param sumFields
+     * @return
+     */
+    public JSONObject sum(String partition, String metric, String[] fields, long after, List<String> sumFields) {
+        return getSeries(partition, metric, fields).sum(after, sumFields);
+    }
+
+    public boolean hasPartition(String partition) {
+        return new File(root, toPartitionName(partition)).isDirectory();
+    }
+
+    public void saveClientInfo(String partition, JSONObject clientInfo) {
+        File file = new File(new File(root, toPartitionName(partition)), CLIENT_INFO_FILE);
+        FileUtil.writeString(clientInfo.toJSONString(), file, StandardCharsets.UTF_8);
+    }
+
+    public JSONObject loadClientInfo(String partition) {
+        File file = new File(new File(root, toPartitionName(partition)), CLIENT_INFO_FILE);
+        if (!file.isFile()) {
+            return null;
+        }
+        return JSONObject.parseObject(FileUtil.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 所有保存了client信息的分区
+     *
+     * @return
+     */
+    public List<JSONObject> loadClientInfoList() {
+        List<JSONObject> list = new ArrayList<>();
+        File[] partitions = root.listFiles(File::isDirectory);
+        if (partitions == null) {
+            return list;
+        }
+        Arrays.sort(partitions);
+        for (File partition : partitions) {
+            JSONObject clientInfo = loadClientInfo(partition.getName());
+            if (clientInfo != null) {
+                list.add(clientInfo);
+            }
+        }
+        return list;
+    }
+
+    void compactIfNeeded() {
+        long now = System.currentTimeMillis();
+        if (now - lastCompactTime < COMPACT_INTERVAL || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        lastCompactTime = now;
+        ExecuteNodeScheduler.getDefault().submitAsync(() -> {
+            try {
+                compact(now);
+            } catch (Exception e) {
+                System.out.println("monitor store compact error: " + e.getMessage());
+            } finally {
+                compacting.set(false);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 压缩和清理：原始分段超过rawRetention压缩为汇总分段，任何分段超过retention删除
+     *
+     * @param now
+     */
+    public void compact(long now) {
+        File[] partitions = root.listFiles(File::isDirectory);
+        if (partitions == null) {
+            return;
+        }
+        for (File partition : partitions) {
+            File[] metrics = partition.listFiles(File::isDirectory);
+            if (metrics == null) {
+                continue;
+            }
+            for (File metric : metrics) {
+                String key = partition.getName() + "/" + metric.getName();
+                SegmentSeries series = seriesMap.get(key);
+                if (series == null) {
+                    series = seriesMap.computeIfAbsent(key, k -> new SegmentSeries(metric, null));
+                }
+                series.compact(now - rawRetentionMillis, now - retentionMillis, rollupMillis, segmentMillis * 7);
+            }
+        }
+    }
+
+    public void close() {
+        for (SegmentSeries series : seriesMap.values()) {
+            series.close();
+        }
+        seriesMap.clear();
+        storeMap.remove(root.getAbsolutePath());
+        if (defaultStore == this) {
+            defaultStore = null;
+        }
+    }
+
+    /**
+     * 单个分区单个指标的所有分段，按开始时间排序，汇总分段总是早于原始分段
+     */
+    static class SegmentSeries {
+
+        final File dir;
+
+        String[] fields;
+
+        List<Segment> segments;
+
+        /**
+         * 当前写入的分段
+         */
+        final Map<String, Segment> activeMap = new HashMap<>();
+
+        SegmentSeries(File dir, String[] fields) {
+            this.dir = dir;
+            this.fields = fields;
+        }
+
+        List<Segment> getSegments() {
+            if (segments == null) {
+                segments = new ArrayList<>();
+                File[] files = dir.listFiles((d, name) -> name.endsWith(SEGMENT_SUFFIX));
+                if (files != null) {
+                    for (File file : files) {
+                        Segment segment = Segment.parse(file);
+                        if (segment != null) {
+                            segments.add(segment);
+                        }
+                    }
+                }
+                segments.sort(Segment::compareTo);
+            }
+            return segments;
+        }
+
+        synchronized void append(String tier, long timestamp, double[] values, long periodMillis) {
+            Segment active = activeMap.get(tier);
+            if (active == null) {
+                //重启后继续写入同一周期内未写满的分段
+                List<Segment> list = getSegments();
+                for (int i = list.size() - 1; i >= 0; i--) {
+                    if (list.get(i).tier.equals(tier)) {
+                        active = list.get(i);
+                        break;
+                    }
+                }
+                if (active != null && active.fieldCount() != values.length) {
+                    active = null;
+                }
+            }
+            if (active != null) {
+                long last = active.getLastTimestamp();
+                if (timestamp < last) {
+                    timestamp = last;
+                }
+                if (active.isFull() || Math.floorDiv(active.start, periodMillis) != Math.floorDiv(timestamp, periodMillis)) {
+                    active.close();
+                    active = null;
+                }
+            }
+            if (active == null) {
+                active = Segment.create(dir, tier, timestamp, values.length);
+                getSegments().add(active);
+                getSegments().sort(Segment::compareTo);
+            }
+            activeMap.put(tier, active);
+            active.append(timestamp, values);
+        }
+
+        synchronized List<JSONObject> query(long after, long before, int maxPoints, String downsample) {
+            List<Segment> selected = new ArrayList<>();
+            List<int[]> ranges = new ArrayList<>();
+            int total = 0;
+            for (Segment segment : getSegments()) {
+                int count = segment.getCount();
+                if (count == 0 || segment.getTimestamp(count - 1) <= after || segment.start > before) {
+                    continue;
+                }
+                int from = segment.indexAfter(after);
+                int to = segment.indexAfter(before);
+                if (to > from) {
+                    selected.add(segment);
+                    ranges.add(new int[]{from, to});
+                    total += to - from;
+                }
+            }
+
+            List<JSONObject> result = new ArrayList<>();
+            if (total == 0) {
+                return result;
+            }
+            int bucketCount = maxPoints < 1 || total <= maxPoints ? total : maxPoints;
+            BucketAggregator aggregator = new BucketAggregator(fields, total, bucketCount, downsample, result);
+            for (int i = 0; i < selected.size(); i++) {
+                Segment segment = selected.get(i);
+                int[] range = ranges.get(i);
+                for (int index = range[0]; index < range[1]; index++) {
+                    aggregator.add(segment.getTimestamp(index), segment, index);
+                }
+            }
+            return result;
+        }
+
+        synchronized JSONObject sum(long after, List<String> sumFields) {
+            JSONObject result = new JSONObject();
+            int[] fieldIndexes = new int[sumFields.size()];
+            for (int i = 0; i < fieldIndexes.length; i++) {
+                fieldIndexes[i] = indexOf(fields, sumFields.get(i));
+            }
+            double[] sums = null;
+            long preTimestamp = 0;
+            for (Segment segment : getSegments()) {
+                int count = segment.getCount();
+                if (count == 0 || segment.getTimestamp(count - 1) <= after) {
+                    continue;
+                }
+                for (int index = segment.indexAfter(after); index < count; index++) {
+                    long timestamp = segment.getTimestamp(index);
+                    if (sums == null) {
+                        sums = new double[fieldIndexes.length];
+                        for (int i = 0; i < fieldIndexes.length; i++) {
+                            sums[i] = fieldIndexes[i] < 0 ? 0 : segment.getValue(index, fieldIndexes[i]);
+                        }
+                    } else {
+                        long timestampDiff = (timestamp - preTimestamp) / 1000;
+                        for (int i = 0; i < fieldIndexes.length; i++) {
+                            if (fieldIndexes[i] >= 0) {
+                                sums[i] += timestampDiff * segment.getValue(index, fieldIndexes[i]);
+                            }
+                        }
+                    }
+                    preTimestamp = timestamp;
+                }
+            }
+            if (sums != null) {
+                for (int i = 0; i < fieldIndexes.length; i++) {
+                    if (fieldIndexes[i] >= 0) {
+                        result.put(sumFields.get(i), sums[i]);
+                    }
+                }
+            }
+            return result;
+        }
+
+        synchronized void compact(long rawBefore, long deleteBefore, long rollupMillis, long rollupPeriodMillis) {
+            List<Segment> list = new ArrayList<>(getSegments());
+            for (Segment segment : list) {
+                int count = segment.getCount();
+                long last = count == 0 ? segment.start : segment.getTimestamp(count - 1);
+                boolean active = activeMap.get(segment.tier) == segment;
+                if (last < deleteBefore) {
+                    remove(segment);
+                } else if (TIER_RAW.equals(segment.tier) && last < rawBefore && !active) {
+                    rollup(segment, rollupMillis, rollupPeriodMillis);
+                    remove(segment);
+                }
+            }
+        }
+
+        /**
+         * 原始分段按rollupMillis分桶求平均，时间戳取桶内最后一个点
+         */
+        void rollup(Segment segment, long rollupMillis, long rollupPeriodMillis) {
+            int count = segment.getCount();
+            int fieldCount = segment.fieldCount();
+            double[] sums = new double[fieldCount];
+            int bucketSize = 0;
+            long bucket = 0;
+            long bucketTimestamp = 0;
+            for (int index = 0; index < count; index++) {
+                long timestamp = segment.getTimestamp(index);
+                long currentBucket = Math.floorDiv(timestamp, rollupMillis);
+                if (bucketSize > 0 && currentBucket != bucket) {
+                    appendAverage(sums, bucketSize, bucketTimestamp, rollupPeriodMillis);
+                    Arrays.fill(sums, 0);
+                    bucketSize = 0;
+                }
+                bucket = currentBucket;
+                bucketTimestamp = timestamp;
+                for (int i = 0; i < fieldCount; i++) {
+                    sums[i] += segment.getValue(index, i);
+                }
+                bucketSize++;
+            }
+            if (bucketSize > 0) {
+                appendAverage(sums, bucketSize, bucketTimestamp, rollupPeriodMillis);
+            }
+        }
+
+        void appendAverage(double[] sums, int size, long timestamp, long periodMillis) {
+            double[] values = new double[sums.length];
+            for (int i = 0; i < sums.length; i++) {
+                values[i] = sums[i] / size;
+            }
+            append(TIER_ROLLUP, timestamp, values, periodMillis);
+        }
+
+        void remove(Segment segment) {
+            segment.close();
+            getSegments().remove(segment);
+            activeMap.values().remove(segment);
+            if (!segment.file.delete()) {
+                segment.file.deleteOnExit();
+            }
+        }
+
+        synchronized void close() {
+            for (Segment segment : activeMap.values()) {
+                segment.close();
+            }
+            activeMap.clear();
+            segments = null;
+        }
+    }
+
+    /**
+     * 分段文件，写入时以读写方式映射整个分段，关闭时截断未使用的部分；只读分段按需映射
+     */
+    static class Segment implements Comparable<Segment> {
+
+        final File file;
+
+        final String tier;
+
+        final long start;
+
+        MappedByteBuffer buffer;
+
+        boolean writable;
+
+        int fieldCount = -1;
+
+        Segment(File file, String tier, long start) {
+            this.file = file;
+            this.tier = tier;
+            this.start = start;
+        }
+
+        static Segment parse(File file) {
+            String name = file.getName();
+            int index = name.indexOf('-');
+            if (index < 0) {
+                return null;
+            }
+            try {
+                long start = Long.parseLong(name.substring(index + 1, name.length() - SEGMENT_SUFFIX.length()));
+                return new Segment(file, name.substring(0, index), start);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        static Segment create(File dir, String tier, long start, int fieldCount) {
+            FileUtil.mkdir(dir);
+            Segment segment = new Segment(new File(dir, tier + "-" + start + SEGMENT_SUFFIX), tier, start);
+            segment.fieldCount = fieldCount;
+            segment.map(true, fieldCount);
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, VERSION);
+            segment.buffer.putInt(8, fieldCount);
+            segment.buffer.putInt(COUNT_OFFSET, 0);
+            return segment;
+        }
+
+        void map(boolean write, int writeFieldCount) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, write ? "rw" : "r")) {
+                FileChannel channel = randomAccessFile.getChannel();
+                if (write) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) SEGMENT_RECORDS * recordSize(writeFieldCount));
+                } else {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                        throw new ExecuteNodeException("monitor segment file is invalid: " + file.getAbsolutePath());
+                    }
+                }
+                writable = write;
+                if (fieldCount < 0) {
+                    fieldCount = buffer.getInt(8);
+                }
+            } catch (IOException e) {
+                throw new ExecuteNodeException("monitor segment file map error: " + file.getAbsolutePath() + ", " + e.getMessage(), e);
+            }
+        }
+
+        MappedByteBuffer getBuffer() {
+            if (buffer == null) {
+                map(false, 0);
+            }
+            return buffer;
+        }
+
+        static int recordSize(int fieldCount) {
+            return 8 + 8 * fieldCount;
+        }
+
+        int fieldCount() {
+            if (fieldCount < 0) {
+                getBuffer();
+            }
+            return fieldCount;
+        }
+
+        int getCount() {
+            return getBuffer().getInt(COUNT_OFFSET);
+        }
+
+        boolean isFull() {
+            return getCount() >= SEGMENT_RECORDS;
+        }
+
+        long getTimestamp(int index) {
+            return getBuffer().getLong(HEADER_SIZE + index * recordSize(fieldCount()));
+        }
+
+        double getValue(int index, int field) {
+            return getBuffer().getDouble(HEADER_SIZE + index * recordSize(fieldCount()) + 8 + field * 8);
+        }
+
+        long getLastTimestamp() {
+            int count = getCount();
+            return count == 0 ? start : getTimestamp(count - 1);
+        }
+
+        /**
+         * 第一个时间戳大于after的记录序号
+         */
+        int indexAfter(long after) {
+            int low = 0;
+            int high = getCount();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (getTimestamp(middle) > after) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        void append(long timestamp, double[] values) {
+            if (!writable) {
+                map(true, fieldCount());
+            }
+            int count = getCount();
+            int position = HEADER_SIZE + count * recordSize(values.length);
+            buffer.putLong(position, timestamp);
+            for (int i = 0; i < values.length; i++) {
+                buffer.putDouble(position + 8 + i * 8, values[i]);
+            }
+            //记录写完后再更新记录数
+            buffer.putInt(COUNT_OFFSET, count + 1);
+        }
+
+        /**
+         * 关闭写入：刷盘并截断未使用的部分
+         */
+        void close() {
+            if (buffer == null) {
+                return;
+            }
+            if (writable) {
+                int count = getCount();
+                buffer.force();
+                buffer = null;
+                writable = false;
+                try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+                    randomAccessFile.getChannel().truncate(HEADER_SIZE + (long) count * recordSize(fieldCount));
+                } catch (IOException e) {
+                    //截断失败不影响读取：按记录数读取
+                    System.out.println("monitor segment truncate error: " + e.getMessage());
+                }
+            } else {
+                buffer = null;
+            }
+        }
+
+        @Override
+        public int compareTo(Segment other) {
+            //汇总分段在前
+            if (!tier.equals(other.tier)) {
+                return TIER_ROLLUP.equals(tier) ? -1 : 1;
+            }
+            return Long.compare(start, other.start);
+        }
+    }
+
+    /**
+     * 流式分桶：共total个点均分为bucketCount个桶，与MonitorTimeSeries.query分桶方式一致
+     */
+    static class BucketAggregator {
+
+        final String[] fields;
+
+        final int total;
+
+        final int bucketCount;
+
+        final String downsample;
+
+        final List<JSONObject> result;
+
+        final double[] values;
+
+        int index;
+
+        int bucket;
+
+        int bucketEnd;
+
+        int bucketSize;
+
+        BucketAggregator(String[] fields, int total, int bucketCount, String downsample, List<JSONObject> result) {
+            this.fields = fields;
+            this.total = total;
+            this.bucketCount = bucketCount;
+            this.downsample = downsample;
+            this.result = result;
+            this.values = new double[fields.length];
+            this.bucketEnd = (int) ((long) total / bucketCount);
+        }
+
+        void add(long timestamp, Segment segment, int segmentIndex) {
+            int fieldCount = Math.min(fields.length, segment.fieldCount());
+            for (int i = 0; i < fieldCount; i++) {
+                double value = segment.getValue(segmentIndex, i);
+                if (bucketSize == 0) {
+                    values[i] = value;
+                } else if (MonitorTimeSeries.DOWNSAMPLE_MIN.equals(downsample)) {
+                    values[i] = Math.min(values[i], value);
+                } else if (MonitorTimeSeries.DOWNSAMPLE_MAX.equals(downsample)) {
+                    values[i] = Math.max(values[i], value);
+                } else {
+                    values[i] += value;
+                }
+            }
+            bucketSize++;
+            index++;
+            if (index >= bucketEnd) {
+                JSONObject point = new JSONObject();
+                boolean average = !MonitorTimeSeries.DOWNSAMPLE_MIN.equals(downsample) && !MonitorTimeSeries.DOWNSAMPLE_MAX.equals(downsample);
+                for (int i = 0; i < fields.length; i++) {
+                    point.put(fields[i], average ? values[i] / bucketSize : values[i]);
+                }
+                point.put("timestamp", timestamp);
+                point.put("timestampShow", DateUtil.formatDateTime(new Date(timestamp)));
+                result.add(point);
+                bucket++;
+                bucketSize = 0;
+                bucketEnd = (int) ((long) total * (bucket + 1) / bucketCount);
+            }
+        }
+    }
+
+    static int indexOf(String[] fields, String field) {
+        if (fields == null) {
+            return -1;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,285 @@
+package fit.lang.plugin.json.monitor;
+
+import cn.hutool.core.date.DateUtil;
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 监控时序数据：固定容量的环形缓冲区，时间戳和每个指标分别用基本类型数组存储，写满后覆盖最早的数据
+ * <p>
+ * 时间戳按写入顺序递增（早于最后一个点的时间戳按最后一个点处理），按时间范围查询使用二分查找；
+ * 读写都在对象锁内完成，查询返回新的列表，不持有内部数组
+ */
+public class MonitorTimeSeries {
+
+    public static final String DOWNSAMPLE_AVG = "avg";
+
+    public static final String DOWNSAMPLE_MIN = "min";
+
+    public static final String DOWNSAMPLE_MAX = "max";
+
+    /**
+     * 默认容量，5秒采集一次约保存14小时
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("fit.monitor.capacity", 10000);
+
+    /**
+     * 默认最大返回点数，超出时按时间分桶聚合
+     */
+    public static final int DEFAULT_MAX_POINTS = 512;
+
+    final String[] fields;
+
+    final long[] timestamps;
+
+    final double[][] values;
+
+    /**
+     * 最早的点在数组中的位置
+     */
+    int head;
+
+    int size;
+
+    public MonitorTimeSeries(String[] fields) {
+        this(fields, DEFAULT_CAPACITY);
+    }
+
+    public MonitorTimeSeries(String[] fields, int capacity) {
+        if (capacity < 1) {
+            capacity = DEFAULT_CAPACITY;
+        }
+        this.fields = fields.clone();
+        this.timestamps = new long[capacity];
+        this.values = new double[fields.length][capacity];
+    }
+
+    /**
+     * 追加监控点，缺少的指标记为0
+     *
+     * @param point
+     */
+    public void append(JSONObject point) {
+        Long timestamp = point.getLong("timestamp");
+        double[] pointValues = new double[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            pointValues[i] = point.getDoubleValue(fields[i]);
+        }
+        append(timestamp == null ? System.currentTimeMillis() : timestamp, pointValues);
+    }
+
+    public synchronized void append(long timestamp, double[] pointValues) {
+        int capacity = timestamps.length;
+        if (size > 0) {
+            long last = timestamps[(head + size - 1) % capacity];
+            if (timestamp < last) {
+                timestamp = last;
+            }
+        }
+        int position;
+        if (size < capacity) {
+            position = (head + size) % capacity;
+            size++;
+        } else {
+            position = head;
+            head = (head + 1) % capacity;
+        }
+        timestamps[position] = timestamp;
+        for (int i = 0; i < fields.length; i++) {
+            values[i][position] = pointValues[i];
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    public String[] getFields() {
+        return fields.clone();
+    }
+
+    public synchronized long getFirstTimestamp() {
+        return size == 0 ? 0 : timestamps[head];
+    }
+
+    public synchronized long getLastTimestamp() {
+        return size == 0 ? 0 : timestamp(size - 1);
+    }
+
+    long timestamp(int index) {
+        return timestamps[(head + index) % timestamps.length];
+    }
+
+    double value(int field, int index) {
+        return values[field][(head + index) % timestamps.length];
+    }
+
+    /**
+     * 第一个时间戳大于after的点的序号（从最早的点开始计数）
+     *
+     * @param after
+     * @return
+     */
+    int indexAfter(long after) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamp(middle) > after) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 时间范围内的点数
+     *
+     * @param after  开始时间（不包含）
+     * @param before 结束时间（包含）
+     * @return
+     */
+    public synchronized int count(long after, long before) {
+        return Math.max(0, indexAfter(before) - indexAfter(after));
+    }
+
+    /**
+     * 最近second秒的点，超过maxPoints时分桶聚合
+     *
+     * @param second
+     * @param maxPoints
+     * @param downsample avg, min, max
+     * @return
+     */
+    public List<JSONObject> queryInLastSecond(int second, int maxPoints, String downsample) {
+        return query(System.currentTimeMillis() - Math.max(0, second) * 1000L, Long.MAX_VALUE, maxPoints, downsample);
+    }
+
+    /**
+     * 按时间范围查询，点数超过maxPoints时按顺序均分为maxPoints个桶，每个桶输出一个点：时间戳取桶内最后一个点，指标按downsample聚合
+     *
+     * @param after      开始时间（不包含）
+     * @param before     结束时间（包含）
+     * @param maxPoints  最大点数，小于1不限制
+     * @param downsample avg（默认）, min, max
+     * @return
+     */
+    public synchronized List<JSONObject> query(long after, long before, int maxPoints, String downsample) {
+        int from = indexAfter(after);
+        int to = indexAfter(before);
+        int count = to - from;
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        if (maxPoints < 1 || count <= maxPoints) {
+            List<JSONObject> result = new ArrayList<>(count);
+            for (int i = from; i < to; i++) {
+                double[] pointValues = new double[fields.length];
+                for (int field = 0; field < fields.length; field++) {
+                    pointValues[field] = value(field, i);
+                }
+                result.add(buildPoint(timestamp(i), pointValues));
+            }
+            return result;
+        }
+
+        List<JSONObject> result = new ArrayList<>(maxPoints);
+        for (int bucket = 0; bucket < maxPoints; bucket++) {
+            int bucketFrom = from + (int) ((long) count * bucket / maxPoints);
+            int bucketTo = from + (int) ((long) count * (bucket + 1) / maxPoints);
+            double[] pointValues = new double[fields.length];
+            for (int field = 0; field < fields.length; field++) {
+                pointValues[field] = aggregate(field, bucketFrom, bucketTo, downsample);
+            }
+            result.add(buildPoint(timestamp(bucketTo - 1), pointValues));
+        }
+        return result;
+    }
+
+    double aggregate(int field, int from, int to, String downsample) {
+        double result = value(field, from);
+        if (DOWNSAMPLE_MIN.equals(downsample)) {
+            for (int i = from + 1; i < to; i++) {
+                result = Math.min(result, value(field, i));
+            }
+            return result;
+        }
+        if (DOWNSAMPLE_MAX.equals(downsample)) {
+            for (int i = from + 1; i < to; i++) {
+                result = Math.max(result, value(field, i));
+            }
+            return result;
+        }
+        for (int i = from + 1; i < to; i++) {
+            result += value(field, i);
+        }
+        return result / (to - from);
+    }
+
+    JSONObject buildPoint(long timestamp, double[] pointValues) {
+        JSONObject point = new JSONObject();
+        for (int i = 0; i < fields.length; i++) {
+            point.put(fields[i], pointValues[i]);
+        }
+        point.put("timestamp", timestamp);
+        point.put("timestampShow", DateUtil.formatDateTime(new Date(timestamp)));
+        return point;
+    }
+
+    /**
+     * 汇总时间积分数据，与JsonExecuteNodeMonitorUtil.sumDataInLastSecond计算方式一致：第一个点的值加上之后每个点的值乘以间隔秒数
+     *
+     * @param second
+     * @param sumFields
+     * @return
+     */
+    public JSONObject sumInLastSecond(int second, List<String> sumFields) {
+        return sumAfter(System.currentTimeMillis() - Math.max(0, second) * 1000L, sumFields);
+    }
+
+    /**
+     * 汇总after之后的时间积分数据
+     *
+     * @param after
+     * @param sumFields
+     * @return
+     */
+    public synchronized JSONObject sumAfter(long after, List<String> sumFields) {
+        JSONObject result = new JSONObject();
+        int from = indexAfter(after);
+        if (from >= size) {
+            return result;
+        }
+        for (String sumField : sumFields) {
+            int field = indexOfField(sumField);
+            if (field < 0) {
+                continue;
+            }
+            double sum = value(field, from);
+            for (int i = from + 1; i < size; i++) {
+                long timestampDiff = (timestamp(i) - timestamp(i - 1)) / 1000;
+                sum += timestampDiff * value(field, i);
+            }
+            result.put(sumField, sum);
+        }
+        return result;
+    }
+
+    int indexOfField(String field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
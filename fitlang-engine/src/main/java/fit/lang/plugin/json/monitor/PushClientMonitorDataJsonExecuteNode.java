@@ -1,41 +1,48 @@
 package fit.lang.plugin.json.monitor;
 
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
 
-import static fit.lang.plugin.json.ExecuteJsonNodeUtil.parseHttpResult;
-import static fit.lang.plugin.json.ExecuteJsonNodeUtil.setProxy;
 import static fit.lang.plugin.json.monitor.JsonExecuteNodeMonitorUtil.*;
 import static fit.lang.plugin.json.monitor.StartMonitorJsonExecuteNode.*;
 
 /**
- * 推送监控数据
+ * 推送监控数据：默认每次调用推送一次，配置pushBatchSize后批量推送，见MonitorPushBuffer
  */
 public class PushClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
 
     @Override
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
         String clientId = parseStringField("clientId", input);
-        JSONObject pushResult = pushMonitorData(nodeJsonDefine.get("pushUrl"), clientId, input.getData(), (JSONObject) nodeJsonDefine.get("pushProxy"));
+        JSONObject pushResult = pushMonitorData(nodeJsonDefine.get("pushUrl"), clientId, input.getData(), nodeJsonDefine, 1, false);
         pushResult.put("pushUrl", nodeJsonDefine.get("pushUrl"));
 
         output.setData(pushResult);
     }
 
-    public static JSONObject pushMonitorData(Object pushUrl, String clientId, JSONObject pushData, JSONObject pushProxy) {
+    /**
+     * 推送监控数据
+     *
+     * @param pushUrl          单个或多个地址
+     * @param clientId
+     * @param pushData         客户端信息
+     * @param pushConfig       推送配置，见MonitorPushBuffer.get
+     * @param defaultBatchSize 未配置pushBatchSize时的批量大小
+     * @param async            是否异步推送
+     * @return
+     */
+    public static JSONObject pushMonitorData(Object pushUrl, String clientId, JSONObject pushData, JSONObject pushConfig, int defaultBatchSize, boolean async) {
         JSONObject pushResult;
         if (pushUrl instanceof JSONArray) {
             JSONArray pushUrls = (JSONArray) pushUrl;
-            pushResult = pushMonitorData(pushUrls.toArray(new String[0]), clientId, pushData, pushProxy);
+            pushResult = pushMonitorData(pushUrls.toArray(new String[0]), clientId, pushData, pushConfig, defaultBatchSize, async);
         } else if (pushUrl instanceof String) {
-            pushResult = pushMonitorData((String) pushUrl, clientId, pushData, pushProxy);
+            pushResult = pushMonitorData(new String[]{(String) pushUrl}, clientId, pushData, pushConfig, defaultBatchSize, async);
+            pushResult.put("pushResult", pushResult.getJSONArray("pushResult").get(0));
         } else {
             pushResult = new JSONObject();
             pushResult.put("message", "pushUrl is error!");
@@ -43,13 +50,7 @@ public class PushClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         return pushResult;
     }
 
-    static JSONObject pushMonitorData(String pushUrl, String clientId, JSONObject pushData, JSONObject pushProxy) {
-        JSONObject pushOutput = pushMonitorData(new String[]{pushUrl}, clientId, pushData, pushProxy);
-        pushOutput.put("pushResult", pushOutput.getJSONArray("pushResult").get(0));
-        return pushOutput;
-    }
-
-    static JSONObject pushMonitorData(String[] pushUrls, String clientId, JSONObject pushData, JSONObject pushProxy) {
+    static JSONObject pushMonitorData(String[] pushUrls, String clientId, JSONObject pushData, JSONObject pushConfig, int defaultBatchSize, boolean async) {
 
         JSONObject cpuPoint = buildCpuPoint();
         JSONObject memoryPoint = buildMemoryPoint();
@@ -57,8 +58,6 @@ public class PushClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         if (StrUtil.isNotBlank(clientId)) {
             pushData.put("clientId", clientId);
         }
-        pushData.put("cpuPoint", cpuPoint);
-        pushData.put("memoryPoint", memoryPoint);
         pushData.put("cpuTotal", getCpuTotalShow());
         pushData.put("cpuCount", getCpuProcessorCount());
         pushData.put("memoryG", getMemoryG());
@@ -66,7 +65,7 @@ public class PushClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         int i = 0;
         for (String url : pushUrls) {
             try {
-                pushResult[i] = post(url, pushProxy, String.valueOf(pushData)).toJSONString();
+                pushResult[i] = MonitorPushBuffer.get(url, pushConfig, defaultBatchSize).add(pushData, cpuPoint, memoryPoint, async).toJSONString();
             } catch (Exception e) {
                 pushResult[i] = e.getMessage();
             }
@@ -74,20 +73,12 @@ public class PushClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         }
 
         JSONObject pushOutput = new JSONObject();
-        pushOutput.put("pushData", pushData);
+        JSONObject outputData = pushData.clone();
+        outputData.put("cpuPoint", cpuPoint);
+        outputData.put("memoryPoint", memoryPoint);
+        pushOutput.put("pushData", outputData);
         pushOutput.put("pushResult", pushResult);
         return pushOutput;
     }
 
-    static JSONObject post(String url, JSONObject proxy, String body) {
-        HttpRequest request = HttpUtil.createPost(url);
-
-        setProxy(proxy, request);
-
-        request.body(body);
-        HttpResponse response = request.execute();
-
-        return parseHttpResult(response);
-    }
-
 }
@@ -7,28 +7,42 @@ import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static fit.lang.ExecuteNodeUtil.getNow;
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.buildInnerClientId;
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.buildInnerClientIp;
+import static fit.lang.plugin.json.monitor.JsonExecuteNodeMonitorUtil.*;
 
 /**
  * 接收监控数据
  */
 public class ReceiveClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
 
-    static Map<String, JSONObject> clientInfoMap = new HashMap<>();
-    static List<JSONObject> clients = new ArrayList<>();
+    static Map<String, JSONObject> clientInfoMap = new ConcurrentHashMap<>();
+    static List<JSONObject> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * 每个client的监控数据，固定容量
+     */
+    static Map<String, MonitorTimeSeries> cpuSeriesMap = new ConcurrentHashMap<>();
+    static Map<String, MonitorTimeSeries> memorySeriesMap = new ConcurrentHashMap<>();
+
+    /**
+     * 持久化存储，未配置时为空；按innerClientId分区
+     */
+    static volatile MonitorSegmentStore store;
 
     @Override
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
 
         JSONObject result = new JSONObject();
 
+        initStore(nodeJsonDefine.getString("storePath"));
+
         String clientId = parseStringField("clientId", input);
 
         if (StrUtil.isBlank(clientId)) {
@@ -48,59 +62,142 @@ public class ReceiveClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         String cpuCount = input.getString("cpuCount");
         String memoryG = input.getString("memoryG");
         JSONObject clientInfo = input.getJsonObject("clientInfo");
-        JSONObject client = clientInfoMap.get(innerClientId);
-        if (client == null) {
-            client = new JSONObject();
-            clientInfoMap.put(innerClientId, client);
-            client.put("cpuPoints", new JSONArray());
-            client.put("memoryPoints", new JSONArray());
-            client.put("cpuTotal", cpuTotal);
-            client.put("cpuCount", cpuCount);
-            client.put("memoryG", memoryG);
-
-            client.put("clientInfo", clientInfo);
-
-            JSONObject onlyClientInfo = new JSONObject();
-            onlyClientInfo.put("clientId", clientId);
-            onlyClientInfo.put("innerClientId", innerClientId);
-            onlyClientInfo.put("clientIp", clientIp);
-            onlyClientInfo.put("startTime", getNow());
-            onlyClientInfo.put("clientInfo", clientInfo);
-
-            clients.add(onlyClientInfo);
+        JSONObject client = getOrCreateClient(clientId, innerClientId, clientIp, clientInfo);
+
+        //批量推送时为points，否则为单个cpuPoint和memoryPoint
+        JSONArray points = input.getReadOnlyData().getJSONArray("points");
+        if (points == null) {
+            points = new JSONArray();
+            JSONObject point = new JSONObject();
+            point.put("cpuPoint", input.getJsonObject("cpuPoint"));
+            point.put("memoryPoint", input.getJsonObject("memoryPoint"));
+            points.add(point);
         }
 
-        JSONObject cpuPoint = input.getJsonObject("cpuPoint");
-        JSONObject memoryPoint = input.getJsonObject("memoryPoint");
-
-        if (cpuPoint != null && !cpuPoint.isEmpty() && memoryPoint != null && !memoryPoint.isEmpty()) {
-            //补充缺失的数据
-            if (!cpuPoint.containsKey("timestamp")) {
-                cpuPoint.put("timestamp", System.currentTimeMillis());
-                cpuPoint.put("timestampShow", getNow());
+        synchronized (client) {
+            client.putIfAbsent("cpuTotal", cpuTotal);
+            client.putIfAbsent("cpuCount", cpuCount);
+            client.putIfAbsent("memoryG", memoryG);
+
+            int receiveCount = 0;
+            for (int i = 0; i < points.size(); i++) {
+                JSONObject point = points.getJSONObject(i);
+                if (point != null && receivePoint(innerClientId, point.getJSONObject("cpuPoint"), point.getJSONObject("memoryPoint"))) {
+                    receiveCount++;
+                }
             }
-            client.getJSONArray("cpuPoints").add(cpuPoint);
-
-            //补充缺失的数据
-            if (!memoryPoint.containsKey("timestamp")) {
-                memoryPoint.put("timestamp", System.currentTimeMillis());
-                memoryPoint.put("timestampShow", getNow());
+            if (receiveCount > 0) {
+                client.put("cpuTotal", cpuTotal);
+                client.put("cpuCount", cpuCount);
+                client.put("memoryG", memoryG);
+                client.remove("message");
+
+                if (store != null && !client.containsKey("startTime")) {
+                    client.put("startTime", getNow());
+                    JSONObject saveClient = client.clone();
+                    saveClient.put("clientId", clientId);
+                    saveClient.put("clientIp", clientIp);
+                    saveClient.put("innerClientId", innerClientId);
+                    store.saveClientInfo(innerClientId, saveClient);
+                }
+
+            } else {
+                client.put("message", "cpuPoint or memoryPoint data is empty!");
             }
-            client.getJSONArray("memoryPoints").add(memoryPoint);
 
-            client.put("cpuTotal", cpuTotal);
-            client.put("cpuCount", cpuCount);
-            client.put("memoryG", memoryG);
+            client.put("receiveCount", receiveCount);
+            client.put("clientId", clientId);
+            client.put("clientIp", clientIp);
+            client.put("innerClientId", innerClientId);
+            client.put("pointCount", cpuSeriesMap.get(innerClientId).size());
+            client = client.clone();
+        }
 
-        } else {
-            client.put("message", "cpuPoint or memoryPoint data is empty!");
+        output.setData(client);
+    }
+
+    static boolean receivePoint(String innerClientId, JSONObject cpuPoint, JSONObject memoryPoint) {
+        if (cpuPoint == null || cpuPoint.isEmpty() || memoryPoint == null || memoryPoint.isEmpty()) {
+            return false;
+        }
+        //补充缺失的数据
+        if (!cpuPoint.containsKey("timestamp")) {
+            cpuPoint.put("timestamp", System.currentTimeMillis());
+        }
+        cpuSeriesMap.get(innerClientId).append(cpuPoint);
+        if (store != null) {
+            store.append(innerClientId, METRIC_CPU, CPU_FIELDS, cpuPoint);
         }
 
-        client.put("clientId", clientId);
-        client.put("clientIp", clientIp);
-        client.put("innerClientId", innerClientId);
+        //补充缺失的数据
+        if (!memoryPoint.containsKey("timestamp")) {
+            memoryPoint.put("timestamp", System.currentTimeMillis());
+        }
+        memorySeriesMap.get(innerClientId).append(memoryPoint);
+        if (store != null) {
+            store.append(innerClientId, METRIC_MEMORY, MEMORY_FIELDS, memoryPoint);
+        }
+        return true;
+    }
 
-        output.setData(client);
+    static JSONObject getOrCreateClient(String clientId, String innerClientId, String clientIp, JSONObject clientInfo) {
+        JSONObject client = clientInfoMap.get(innerClientId);
+        if (client != null) {
+            return client;
+        }
+        synchronized (clientInfoMap) {
+            client = clientInfoMap.get(innerClientId);
+            if (client == null) {
+                client = new JSONObject();
+                client.put("clientInfo", clientInfo);
+                cpuSeriesMap.put(innerClientId, new MonitorTimeSeries(CPU_FIELDS));
+                memorySeriesMap.put(innerClientId, new MonitorTimeSeries(MEMORY_FIELDS));
+                clientInfoMap.put(innerClientId, client);
+
+                JSONObject onlyClientInfo = new JSONObject();
+                onlyClientInfo.put("clientId", clientId);
+                onlyClientInfo.put("innerClientId", innerClientId);
+                onlyClientInfo.put("clientIp", clientIp);
+                onlyClientInfo.put("startTime", getNow());
+                onlyClientInfo.put("clientInfo", clientInfo);
+
+                clients.add(onlyClientInfo);
+            }
+            return client;
+        }
+    }
+
+    /**
+     * 首次配置存储时，从存储恢复重启前的client信息，历史数据查询时从存储读取
+     *
+     * @param storePath
+     */
+    static void initStore(String storePath) {
+        MonitorSegmentStore newStore = storePath == null ? MonitorSegmentStore.getDefault() : MonitorSegmentStore.open(storePath, null);
+        if (newStore == null || newStore == store) {
+            return;
+        }
+        synchronized (clientInfoMap) {
+            if (newStore == store) {
+                return;
+            }
+            for (JSONObject savedClient : newStore.loadClientInfoList()) {
+                String innerClientId = savedClient.getString("innerClientId");
+                if (innerClientId == null || clientInfoMap.containsKey(innerClientId)) {
+                    continue;
+                }
+                JSONObject client = getOrCreateClient(savedClient.getString("clientId"), innerClientId, savedClient.getString("clientIp"), savedClient.getJSONObject("clientInfo"));
+                client.put("cpuTotal", savedClient.get("cpuTotal"));
+                client.put("cpuCount", savedClient.get("cpuCount"));
+                client.put("memoryG", savedClient.get("memoryG"));
+                client.put("startTime", savedClient.get("startTime"));
+            }
+            store = newStore;
+        }
+    }
+
+    public static MonitorSegmentStore getStore() {
+        return store;
     }
 
     public static List<JSONObject> getClients() {
@@ -111,4 +208,12 @@ public class ReceiveClientMonitorDataJsonExecuteNode extends JsonExecuteNode {
         return clientInfoMap.get(innerClientId);
     }
 
+    public static MonitorTimeSeries getCpuSeries(String innerClientId) {
+        return cpuSeriesMap.get(innerClientId);
+    }
+
+    public static MonitorTimeSeries getMemorySeries(String innerClientId) {
+        return memorySeriesMap.get(innerClientId);
+    }
+
 }
@@ -11,11 +11,10 @@ import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
 import oshi.hardware.GlobalMemory;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.covertToG;
-import static fit.lang.plugin.json.monitor.JsonExecuteNodeMonitorUtil.fetchMonitorDataInLastSecond;
+import static fit.lang.plugin.json.monitor.JsonExecuteNodeMonitorUtil.*;
 import static fit.lang.plugin.json.monitor.PushClientMonitorDataJsonExecuteNode.pushMonitorData;
 
 /**
@@ -24,38 +23,70 @@ import static fit.lang.plugin.json.monitor.PushClientMonitorDataJsonExecuteNode.
 public class StartMonitorJsonExecuteNode extends JsonExecuteNode {
 
     /**
-     * 全局变量
+     * 全局变量：本机采集的监控数据，固定容量
      */
-    static List<JSONObject> cpuGatherList = new ArrayList<>();
+    static MonitorTimeSeries cpuSeries = new MonitorTimeSeries(CPU_FIELDS);
 
-    static List<JSONObject> memoryGatherList = new ArrayList<>();
+    static MonitorTimeSeries memorySeries = new MonitorTimeSeries(MEMORY_FIELDS);
+
+    /**
+     * 持久化存储，未配置时为空
+     */
+    static MonitorSegmentStore store;
 
     static Object pushUrl;
 
-    static JSONObject pushProxy;
+    /**
+     * 推送配置，见MonitorPushBuffer.get
+     */
+    static JSONObject pushConfig;
+
+    /**
+     * 监控线程默认批量推送的点数
+     */
+    static final int DEFAULT_PUSH_BATCH_SIZE = 12;
 
     static Thread thread;
 
     public static List<JSONObject> getCpuGatherList(int second) {
-        return fetchMonitorDataInLastSecond(cpuGatherList, second);
+        return fetchMonitorDataInLastSecond(cpuSeries, second, MonitorTimeSeries.DEFAULT_MAX_POINTS, MonitorTimeSeries.DOWNSAMPLE_AVG);
     }
 
     public static List<JSONObject> getMemoryGatherList(int second) {
-        return fetchMonitorDataInLastSecond(memoryGatherList, second);
+        return fetchMonitorDataInLastSecond(memorySeries, second, MonitorTimeSeries.DEFAULT_MAX_POINTS, MonitorTimeSeries.DOWNSAMPLE_AVG);
+    }
+
+    public static MonitorTimeSeries getCpuSeries() {
+        return cpuSeries;
+    }
+
+    public static MonitorTimeSeries getMemorySeries() {
+        return memorySeries;
+    }
+
+    public static MonitorSegmentStore getStore() {
+        return store;
     }
 
     @Override
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
 
         JSONObject result = new JSONObject();
-        if (cpuGatherList == null) {//避免重复启动
-            cpuGatherList = new ArrayList<>();
+
+        //修改容量时重新创建，已采集的数据不保留
+        int capacity = nodeJsonDefine.getIntValue("capacity", 0);
+        if (capacity > 0 && capacity != cpuSeries.capacity()) {
+            cpuSeries = new MonitorTimeSeries(CPU_FIELDS, capacity);
+            memorySeries = new MonitorTimeSeries(MEMORY_FIELDS, capacity);
         }
 
+        String storePath = nodeJsonDefine.getString("storePath");
+        store = storePath == null ? MonitorSegmentStore.getDefault() : MonitorSegmentStore.open(storePath, nodeJsonDefine);
+
         String secondText = parseStringField("second", input);
 
         pushUrl = nodeJsonDefine.get("pushUrl");
-        pushProxy = nodeJsonDefine.getJSONObject("pushProxy");
+        pushConfig = nodeJsonDefine.clone();
 
         int second = 5;
         if (NumberUtil.isInteger(secondText)) {
@@ -75,6 +106,10 @@ public class StartMonitorJsonExecuteNode extends JsonExecuteNode {
 
         result.put("message", "start monitor OK");
         result.put("second", second);
+        result.put("capacity", cpuSeries.capacity());
+        if (store != null) {
+            result.put("storePath", store.getRoot().getAbsolutePath());
+        }
 
         output.setData(result);
     }
@@ -89,17 +124,23 @@ public class StartMonitorJsonExecuteNode extends JsonExecuteNode {
                         Thread.sleep(second * 1000L - 1000L);
                     } catch (InterruptedException e) {
                         System.out.println("stop thread" + this.getName());
+                        //停止前推送缓存的数据
+                        MonitorPushBuffer.flushAll(true);
                         break;
                     }
                     try {
 
                         JSONObject cpuPoint = buildCpuPoint();
-                        cpuGatherList.add(cpuPoint);
+                        cpuSeries.append(cpuPoint);
                         JSONObject memoryPoint = buildMemoryPoint();
-                        memoryGatherList.add(memoryPoint);
+                        memorySeries.append(memoryPoint);
+                        if (store != null) {
+                            store.append(LOCAL_PARTITION, METRIC_CPU, CPU_FIELDS, cpuPoint);
+                            store.append(LOCAL_PARTITION, METRIC_MEMORY, MEMORY_FIELDS, memoryPoint);
+                        }
 
                         if (pushUrl instanceof JSONArray || pushUrl instanceof String) {
-                            pushMonitorData(pushUrl, null, new JSONObject(), pushProxy);
+                            pushMonitorData(pushUrl, null, new JSONObject(), pushConfig, DEFAULT_PUSH_BATCH_SIZE, true);
                         }
                     } catch (Exception e) {
                         System.out.println("fit-monitor-error: " + e.getMessage());
@@ -39,7 +39,7 @@ public class TelnetHttpJsonExecuteNode extends JsonExecuteNode {
         String method = ExecuteJsonNodeUtil.parseStringField("method", input, nodeJsonDefine);
 
         JSONObject header = nodeJsonDefine.getJSONObject("header");
-        header = ExpressUtil.eval(header, input.getInputParamAndContextParam());
+        header = ExpressUtil.eval(header, input.getVariableScope());
 
         try {
 
@@ -0,0 +1,346 @@
+package fit.lang.plugin.json.plan;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeEngineConst;
+import fit.lang.ExecuteNodeException;
+import fit.lang.ExecuteReturnNodeException;
+import fit.lang.aop.ExecuteNodeSimpleAop;
+import fit.lang.define.ExecuteContext;
+import fit.lang.define.ExecuteNode;
+import fit.lang.info.NodeExecuteInfo;
+import fit.lang.info.NodeMetrics;
+import fit.lang.info.NodeMetricsRegistry;
+import fit.lang.plugin.json.JsonCompiledExpress;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.define.JsonExecuteNode;
+import fit.lang.plugin.json.define.JsonExecuteNodeInput;
+import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 流程编译：热点流程编译为步骤树直接执行
+ * <p>
+ * pipe、sequence、mix、convert、get、set编译为步骤，表达式预编译，不经过aop和节点树；
+ * 其他节点（switch、http等）作为子流程交给解释执行。
+ * 只在不记录出入参（TraceLevel.OFF、TIMING）时使用，TIMING时步骤按解释执行的节点id记录执行时间和节点指标，见JsonFlowPlan
+ */
+public class JsonFlowCompiler {
+
+    /**
+     * 无状态节点：同一个实例可以被多个线程同时执行，只通过入参读取上下文，不使用构建时绑定的上下文
+     */
+    static final Set<String> DIRECT_NODES = new HashSet<>(Arrays.asList("convert", "get", "set"));
+
+    /**
+     * 编译流程
+     *
+     * @param flowDefine
+     * @return 包含return节点的流程不编译，返回null
+     */
+    public static Step compile(JSONObject flowDefine) {
+        if (containsUni(flowDefine, "return")) {
+            return null;
+        }
+        //按解释执行的构建顺序生成默认节点id（写入流程定义），步骤使用相同的id记录执行时间；执行引擎节点先占用一个id
+        JsonExecuteContext buildContext = new JsonExecuteContext();
+        buildContext.buildNextNodeId("engine");
+        JsonDynamicFlowExecuteEngine.createExecuteNode(flowDefine, buildContext);
+        return compileNode(flowDefine);
+    }
+
+    static Step compileNode(JSONObject nodeDefine) {
+        String uni = nodeDefine.getString(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_UNI);
+        if (uni == null) {
+            throw new ExecuteNodeException("node uni is required!");
+        }
+        //next非pipe模式、需要复制入参的节点保持原来的执行方式
+        String nextMode = nodeDefine.getString(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_NEXT_MODE);
+        if ((nextMode != null && !"pipe".equals(nextMode)) || Boolean.TRUE.equals(nodeDefine.getBoolean(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_NEED_CLONE_INPUT_DATA))) {
+            return new InterpretStep(nodeDefine);
+        }
+
+        JSONObject selfDefine = nodeDefine.clone();
+        selfDefine.remove(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_NEXT_NODE);
+
+        Step step;
+        if ("pipe".equals(uni)) {
+            step = new PipeStep(compileChildNodes(selfDefine));
+        } else if ("sequence".equals(uni) && !Boolean.TRUE.equals(selfDefine.getBoolean("isBagsMode"))) {
+            step = new SequenceStep(compileChildNodes(selfDefine));
+        } else if ("mix".equals(uni) && selfDefine.getJSONObject("json") != null) {
+            step = new MixStep(selfDefine);
+        } else if (DIRECT_NODES.contains(uni)) {
+            step = new DirectStep(selfDefine);
+        } else {
+            return new InterpretStep(nodeDefine);
+        }
+        step = new TimingStep(selfDefine.getString(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_ID), uni, step);
+
+        List<Step> nextSteps = compileNodes(nodeDefine.get(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_NEXT_NODE));
+        if (nextSteps.isEmpty()) {
+            return step;
+        }
+        return new NextStep(step, nextSteps);
+    }
+
+    static Step[] compileChildNodes(JSONObject nodeDefine) {
+        return compileNodes(nodeDefine.get(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_CHILD_NODE)).toArray(new Step[0]);
+    }
+
+    static List<Step> compileNodes(Object nodes) {
+        List<Step> steps = new ArrayList<>(1);
+        if (nodes instanceof JSONObject) {
+            steps.add(compileNode((JSONObject) nodes));
+        } else if (nodes instanceof JSONArray) {
+            for (Object node : (JSONArray) nodes) {
+                if (node instanceof JSONObject) {
+                    steps.add(compileNode((JSONObject) node));
+                }
+            }
+        }
+        return steps;
+    }
+
+    static boolean containsUni(Object define, String uni) {
+        if (define instanceof JSONObject) {
+            JSONObject json = (JSONObject) define;
+            if (uni.equals(json.get(ExecuteNodeEngineConst.DEFINE_KEYWORDS_OF_UNI))) {
+                return true;
+            }
+            for (Object value : json.values()) {
+                if (containsUni(value, uni)) {
+                    return true;
+                }
+            }
+        } else if (define instanceof JSONArray) {
+            for (Object value : (JSONArray) define) {
+                if (containsUni(value, uni)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 编译后的执行步骤，和对应节点executeAndNext的行为一致
+     */
+    public abstract static class Step {
+
+        public abstract void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output);
+    }
+
+    /**
+     * 记录执行时间，和aop在TIMING级别的行为一致：节点执行信息、节点指标
+     */
+    static class TimingStep extends Step {
+
+        final String id;
+
+        final String stableId;
+
+        final String uni;
+
+        final Step step;
+
+        volatile NodeMetrics metrics;
+
+        TimingStep(String id, String uni, Step step) {
+            this.id = id == null ? uni : id;
+            this.stableId = NodeMetricsRegistry.getStableNodeId(this.id);
+            this.uni = uni;
+            this.step = step;
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            ExecuteContext nodeContext = input.getNodeContext();
+            if (!nodeContext.getTraceLevel().isTiming()) {
+                step.execute(input, output);
+                return;
+            }
+            NodeExecuteInfo nodeExecuteInfo = nodeContext.getNodeExecuteInfo(id);
+            if (nodeExecuteInfo == null) {
+                nodeExecuteInfo = new NodeExecuteInfo();
+                nodeContext.setNodeExecuteInfo(id, nodeExecuteInfo);
+            }
+            nodeExecuteInfo.setBeginTime(System.currentTimeMillis());
+            NodeMetrics nodeMetrics = NodeMetricsRegistry.isEnabled() ? getNodeMetrics(input) : null;
+            long beginNanos = System.nanoTime();
+            try {
+                step.execute(input, output);
+            } catch (RuntimeException e) {
+                //return节点通过异常实现，不算异常
+                NodeMetricsRegistry.record(nodeMetrics, System.nanoTime() - beginNanos, !(e instanceof ExecuteReturnNodeException), null);
+                throw e;
+            }
+            nodeExecuteInfo.setEndTime(System.currentTimeMillis());
+            NodeMetricsRegistry.record(nodeMetrics, System.nanoTime() - beginNanos, false, output.getNodeData() == null ? null : output.getNodeData().getReadOnlyData());
+        }
+
+        NodeMetrics getNodeMetrics(JsonExecuteNodeInput input) {
+            String flowPath = ExecuteNodeSimpleAop.getFlowPath(input);
+            NodeMetrics nodeMetrics = metrics;
+            if (nodeMetrics == null || !nodeMetrics.getFlowPath().equals(flowPath)) {
+                nodeMetrics = NodeMetricsRegistry.getMetrics(flowPath, stableId, uni);
+                metrics = nodeMetrics;
+            }
+            return nodeMetrics;
+        }
+    }
+
+    /**
+     * 见PipeExecuteNode
+     */
+    static class PipeStep extends Step {
+
+        final Step[] childSteps;
+
+        PipeStep(Step[] childSteps) {
+            this.childSteps = childSteps;
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            Object lastOutputData = null;
+            for (int i = 0; i < childSteps.length; i++) {
+                JsonExecuteNodeInput itemInput;
+                if (i == 0) {
+                    itemInput = input;
+                } else {
+                    itemInput = (JsonExecuteNodeInput) input.createInput();
+                    itemInput.getNodeData().setData(lastOutputData);
+                }
+                JsonExecuteNodeOutput itemOutput = (JsonExecuteNodeOutput) output.createOutput();
+                childSteps[i].execute(itemInput, itemOutput);
+                lastOutputData = itemOutput.getNodeData().getData();
+            }
+            output.getNodeData().setData(lastOutputData);
+        }
+    }
+
+    /**
+     * 见SequenceExecuteNode，不支持袋子模式
+     */
+    static class SequenceStep extends Step {
+
+        final Step[] childSteps;
+
+        SequenceStep(Step[] childSteps) {
+            this.childSteps = childSteps;
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            for (Step childStep : childSteps) {
+                childStep.execute(input, output);
+            }
+        }
+    }
+
+    /**
+     * 节点执行后按pipe模式执行next节点，见AbstractExecuteNode.executeAndNext
+     */
+    static class NextStep extends Step {
+
+        final Step step;
+
+        final List<Step> nextSteps;
+
+        NextStep(Step step, List<Step> nextSteps) {
+            this.step = step;
+            this.nextSteps = nextSteps;
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            step.execute(input, output);
+            input.setNodeData(output.getNodeData().cloneThis());
+            for (Step nextStep : nextSteps) {
+                nextStep.execute(input, output);
+            }
+        }
+    }
+
+    /**
+     * 见MixJsonExecuteNode，json模板预编译
+     */
+    static class MixStep extends Step {
+
+        final String pickJsonField;
+
+        final String contextField;
+
+        final JsonCompiledExpress mixExpress;
+
+        MixStep(JSONObject nodeDefine) {
+            JSONObject mixJson = nodeDefine.getJSONObject("json");
+            pickJsonField = nodeDefine.getString("pickJsonField");
+            contextField = mixJson.containsKey("_context") ? mixJson.getString("_context") : null;
+            mixExpress = JsonCompiledExpress.compile(mixJson);
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            JSONObject mixJsonResult = (JSONObject) mixExpress.eval(input.getVariableScope());
+            JSONObject outputJson = input.getReadOnlyData().clone();
+            if (contextField != null) {
+                outputJson.put(contextField, JSON.toJSON(input.getNodeContext().getAllAttribute()));
+            }
+            if (StrUtil.isBlank(pickJsonField)) {
+                outputJson.putAll(mixJsonResult);
+            } else {
+                Object mixValue = mixJsonResult.get(pickJsonField);
+                if (mixValue instanceof JSONObject) {
+                    outputJson.putAll((JSONObject) mixValue);
+                }
+            }
+            output.setData(outputJson);
+        }
+    }
+
+    /**
+     * 无状态节点：编译时构建一次，执行时直接调用，不经过aop
+     */
+    static class DirectStep extends Step {
+
+        final JsonExecuteNode executeNode;
+
+        DirectStep(JSONObject nodeDefine) {
+            executeNode = (JsonExecuteNode) JsonDynamicFlowExecuteEngine.createExecuteNode(nodeDefine, new JsonExecuteContext());
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            executeNode.execute(input, output);
+        }
+    }
+
+    /**
+     * 不支持编译的节点：作为子流程解释执行，节点树同样复用
+     */
+    static class InterpretStep extends Step {
+
+        final JsonFlowPlan plan;
+
+        InterpretStep(JSONObject nodeDefine) {
+            plan = new JsonFlowPlan(null, nodeDefine.toJSONString(), JsonFlowPlanCache.maxIdleSize);
+        }
+
+        @Override
+        public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
+            ExecuteNode executeNode = plan.acquire(input.getNodeContext());
+            executeNode.executeAndNext(input, output);
+            plan.release(executeNode);
+        }
+    }
+}
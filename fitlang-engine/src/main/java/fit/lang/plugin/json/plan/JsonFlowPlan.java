@@ -0,0 +1,218 @@
+package fit.lang.plugin.json.plan;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteContext;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 编译后的流程计划
+ * <p>
+ * 流程定义文本不可变，按内容共享；节点实例带有执行期状态（foreach下标、loop次数等），
+ * 所以每次执行独占一棵节点树，执行完成后归还到空闲池中复用，避免重复构建；
+ * 只有全部由POOLABLE_NODES中的节点组成的流程才复用，其他节点可能在字段中保留上次执行的状态
+ */
+public class JsonFlowPlan {
+
+    /**
+     * 已确认可以复用的节点类名：执行期不修改字段，或每次执行前重置（loop、sleep、foreach）；按类名精确匹配，不包含子类
+     */
+    static final Set<String> POOLABLE_NODES = new HashSet<>(Arrays.asList(
+            "fit.lang.plugin.json.util.HelloJsonExecuteNode",
+            "fit.lang.common.util.EchoExecuteNode",
+            "fit.lang.common.util.PrintExecuteNode",
+            "fit.lang.plugin.json.util.LogJsonExecuteNode",
+            "fit.lang.plugin.json.util.SleepJsonExecuteNode",
+            "fit.lang.plugin.json.flow.JsonSequenceExecuteNode",
+            "fit.lang.plugin.json.flow.JsonPipeExecuteNode",
+            "fit.lang.plugin.json.flow.JsonForeachExecuteNode",
+            "fit.lang.plugin.json.flow.JsonLoopExecuteNode",
+            "fit.lang.plugin.json.flow.JsonSwitchExecuteNode",
+            "fit.lang.plugin.json.flow.AssertJsonExecuteNode",
+            "fit.lang.plugin.json.json.MixJsonExecuteNode",
+            "fit.lang.plugin.json.json.EvalJsonExecuteNode",
+            "fit.lang.plugin.json.json.GetJsonExecuteNode",
+            "fit.lang.plugin.json.json.SetJsonExecuteNode",
+            "fit.lang.plugin.json.json.ConvertJsonExecuteNode",
+            "fit.lang.plugin.json.json.ParseJsonJsonExecuteNode",
+            "fit.lang.plugin.json.json.StringifyJsonJsonExecuteNode",
+            "fit.lang.plugin.json.http.HttpJsonExecuteNode",
+            "fit.lang.plugin.json.web.ProxyJsonExecuteNode"
+    ));
+
+    /**
+     * 流程定义内容hash
+     */
+    final String key;
+
+    /**
+     * 流程定义文本，每次构建都重新解析，保证节点树之间不共享定义对象
+     */
+    final String flowText;
+
+    final int maxIdleSize;
+
+    final Queue<ExecuteNode> idleNodes = new ConcurrentLinkedQueue<>();
+
+    final AtomicInteger idleSize = new AtomicInteger();
+
+    final AtomicLong buildCount = new AtomicLong();
+
+    final AtomicLong reuseCount = new AtomicLong();
+
+    final AtomicLong executeCount = new AtomicLong();
+
+    /**
+     * 是否已经尝试编译
+     */
+    volatile boolean compiled;
+
+    /**
+     * 编译后的步骤，不支持编译时为null
+     */
+    volatile JsonFlowCompiler.Step compiledStep;
+
+    /**
+     * 包含未确认可复用的节点（如异步执行的节点，执行返回后节点树仍可能被使用）时不复用
+     */
+    volatile boolean reusable = true;
+
+    JsonFlowPlan(String key, String flowText, int maxIdleSize) {
+        this.key = key;
+        this.flowText = flowText;
+        this.maxIdleSize = maxIdleSize;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public JSONObject getFlowDefine() {
+        return JSONObject.parseObject(flowText);
+    }
+
+    public long getBuildCount() {
+        return buildCount.get();
+    }
+
+    public long getReuseCount() {
+        return reuseCount.get();
+    }
+
+    public int getIdleSize() {
+        return idleSize.get();
+    }
+
+    public boolean isCompiled() {
+        return compiledStep != null;
+    }
+
+    /**
+     * 获取编译后的步骤：执行次数达到编译阈值时编译一次
+     *
+     * @return 未达到阈值或不支持编译时返回null
+     */
+    public JsonFlowCompiler.Step getCompiledStep() {
+        if (compiled) {
+            return compiledStep;
+        }
+        int compileThreshold = JsonFlowPlanCache.compileThreshold;
+        if (compileThreshold <= 0 || executeCount.incrementAndGet() < compileThreshold) {
+            return null;
+        }
+        synchronized (this) {
+            if (!compiled) {
+                try {
+                    compiledStep = JsonFlowCompiler.compile(getFlowDefine());
+                } catch (RuntimeException e) {
+                    //编译失败继续解释执行
+                    compiledStep = null;
+                }
+                compiled = true;
+            }
+        }
+        return compiledStep;
+    }
+
+    /**
+     * 获取独占的节点树，并绑定到当前上下文
+     *
+     * @param nodeContext
+     * @return
+     */
+    public ExecuteNode acquire(ExecuteContext nodeContext) {
+        ExecuteNode executeNode = idleNodes.poll();
+        if (executeNode == null) {
+            executeNode = JsonDynamicFlowExecuteEngine.createExecuteNode(getFlowDefine(), nodeContext);
+            buildCount.incrementAndGet();
+            if (reusable && !isPoolable(executeNode)) {
+                reusable = false;
+            }
+            return executeNode;
+        }
+        idleSize.decrementAndGet();
+        reuseCount.incrementAndGet();
+        bindContext(executeNode, nodeContext);
+        return executeNode;
+    }
+
+    /**
+     * 归还节点树：只有正常执行完成的节点树才能归还
+     *
+     * @param executeNode
+     */
+    public void release(ExecuteNode executeNode) {
+        if (!reusable || executeNode == null) {
+            return;
+        }
+        if (idleSize.incrementAndGet() > maxIdleSize) {
+            idleSize.decrementAndGet();
+            return;
+        }
+        idleNodes.offer(executeNode);
+    }
+
+    /**
+     * 重新绑定上下文，和构建时的行为保持一致
+     *
+     * @param executeNode
+     * @param nodeContext
+     */
+    static void bindContext(ExecuteNode executeNode, ExecuteContext nodeContext) {
+        executeNode.setNodeContext(nodeContext);
+        if (executeNode.getNodeDefine() != null) {
+            nodeContext.addNode(executeNode.getId(), executeNode.getNodeDefine().getData());
+        }
+        for (ExecuteNode childNode : executeNode.getChildNodes()) {
+            bindContext(childNode, nodeContext);
+        }
+        for (ExecuteNode nextNode : executeNode.getNextNodes()) {
+            bindContext(nextNode, nodeContext);
+        }
+    }
+
+    static boolean isPoolable(ExecuteNode executeNode) {
+        if (!POOLABLE_NODES.contains(executeNode.getClass().getName())) {
+            return false;
+        }
+        for (ExecuteNode childNode : executeNode.getChildNodes()) {
+            if (!isPoolable(childNode)) {
+                return false;
+            }
+        }
+        for (ExecuteNode nextNode : executeNode.getNextNodes()) {
+            if (!isPoolable(nextNode)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,119 @@
+package fit.lang.plugin.json.plan;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.crypto.SecureUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+
+/**
+ * 流程计划缓存：以流程定义的副本为key按内容查找（JSONObject的hashCode和equals），不需要每次序列化和计算md5，LRU淘汰
+ */
+public class JsonFlowPlanCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    public static final int DEFAULT_MAX_IDLE_SIZE = 8;
+
+    /**
+     * 流程执行多少次后编译，0表示不编译
+     */
+    public static final int DEFAULT_COMPILE_THRESHOLD = 1000;
+
+    static volatile boolean enabled = true;
+
+    static volatile int compileThreshold = DEFAULT_COMPILE_THRESHOLD;
+
+    static volatile int maxIdleSize = DEFAULT_MAX_IDLE_SIZE;
+
+    static volatile LRUCache<JSONObject, JsonFlowPlan> planCache = CacheUtil.newLRUCache(DEFAULT_CAPACITY);
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        JsonFlowPlanCache.enabled = enabled;
+    }
+
+    public static void setCapacity(int capacity) {
+        planCache = CacheUtil.newLRUCache(capacity);
+    }
+
+    public static int getCapacity() {
+        return planCache.capacity();
+    }
+
+    public static void setMaxIdleSize(int maxIdleSize) {
+        JsonFlowPlanCache.maxIdleSize = maxIdleSize;
+    }
+
+    public static int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    public static void setCompileThreshold(int compileThreshold) {
+        JsonFlowPlanCache.compileThreshold = compileThreshold;
+    }
+
+    public static int size() {
+        return planCache.size();
+    }
+
+    public static void clear() {
+        planCache.clear();
+    }
+
+    /**
+     * 获取流程计划，不存在则创建
+     *
+     * @param flowDefine
+     * @return
+     */
+    public static JsonFlowPlan getPlan(JSONObject flowDefine) {
+        if (!enabled) {
+            return createPlan(flowDefine, 0);
+        }
+        LRUCache<JSONObject, JsonFlowPlan> cache = planCache;
+        JsonFlowPlan plan = cache.get(flowDefine);
+        if (plan == null) {
+            //key使用副本，调用方之后修改流程定义不影响已缓存的计划
+            JSONObject key = JSON.copy(flowDefine);
+            plan = cache.get(key, () -> createPlan(key, maxIdleSize));
+        }
+        return plan;
+    }
+
+    static JsonFlowPlan createPlan(JSONObject flowDefine, int maxIdleSize) {
+        String flowText = ExecuteJsonNodeUtil.toJsonText(flowDefine);
+        return new JsonFlowPlan(SecureUtil.md5(flowText), flowText, maxIdleSize);
+    }
+
+    /**
+     * 统计信息
+     *
+     * @return
+     */
+    public static JSONObject getStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("enabled", enabled);
+        statistics.put("size", planCache.size());
+        statistics.put("capacity", planCache.capacity());
+        long buildCount = 0;
+        long reuseCount = 0;
+        int compiledCount = 0;
+        for (JsonFlowPlan plan : planCache) {
+            buildCount += plan.getBuildCount();
+            reuseCount += plan.getReuseCount();
+            if (plan.isCompiled()) {
+                compiledCount++;
+            }
+        }
+        statistics.put("buildCount", buildCount);
+        statistics.put("reuseCount", reuseCount);
+        statistics.put("compileThreshold", compileThreshold);
+        statistics.put("compiledCount", compiledCount);
+        return statistics;
+    }
+}
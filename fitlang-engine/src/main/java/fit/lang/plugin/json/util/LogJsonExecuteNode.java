@@ -29,7 +29,7 @@ public class LogJsonExecuteNode extends JsonExecuteNode {
         if (printable != null) {
             Object info = nodeJsonDefine.get("info");
             if (info != null) {
-                Object infoObject = ExpressUtil.eval(info, input.getInputParamAndContextParam());
+                Object infoObject = ExpressUtil.eval(info, input.getVariableScope());
                 if (infoObject instanceof JSONObject) {
                     ((JSONObject) infoObject).put("_timestamp", getTimestamp());
                 }
@@ -39,6 +39,6 @@ public class LogJsonExecuteNode extends JsonExecuteNode {
             }
         }
 
-        output.setData(input.getData());
+        output.setNodeData(input.getNodeData().cloneThis());
     }
 }
\ No newline at end of file
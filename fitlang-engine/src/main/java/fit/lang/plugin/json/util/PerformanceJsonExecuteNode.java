@@ -19,13 +19,16 @@ public class PerformanceJsonExecuteNode extends WrapExecuteNode implements Execu
     @Override
     public void execute(ExecuteNodeInput input, ExecuteNodeOutput output) {
         super.execute(input, output);
-        Object result = output.getNodeData().getData();
+        Object result = output.getNodeData().getReadOnlyData();
         JSONObject realResult = new JSONObject();
         realResult.put("output", result);
-        getNodeExecuteInfo().evalTps(NodeExecuteInfo.globalNodeExecuteInfo.getTotal());
+        NodeExecuteInfo nodeExecuteInfo = getNodeExecuteInfo();
+        //跟踪级别为off时没有执行信息
+        if (nodeExecuteInfo != null) {
+            nodeExecuteInfo.evalTps(NodeExecuteInfo.globalNodeExecuteInfo.getTotal());
+            realResult.put("executeInfo", JSONObject.from(nodeExecuteInfo));
+        }
         NodeExecuteInfo.globalNodeExecuteInfo.setTotal(0);
-
-        realResult.put("executeInfo", JSONObject.from(getNodeExecuteInfo()));
         output.getNodeData().setData(realResult);
     }
 
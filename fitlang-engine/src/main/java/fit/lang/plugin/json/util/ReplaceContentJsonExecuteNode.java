@@ -32,7 +32,7 @@ public class ReplaceContentJsonExecuteNode extends JsonExecuteNode {
             result = content.replace(find, replace);
         }
 
-        output.setData(input.getData().clone());
+        output.setNodeData(input.getNodeData().cloneThis());
         output.set("content", result);
 
     }
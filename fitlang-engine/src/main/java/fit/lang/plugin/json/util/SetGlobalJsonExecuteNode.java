@@ -16,10 +16,10 @@ public class SetGlobalJsonExecuteNode extends JsonExecuteNode {
         String key = nodeJsonDefine.getString("key");
         Object value = nodeJsonDefine.get("value");
 
-        Object newValue = ExpressUtil.eval(value, input.getInputParamAndContextParam());
+        Object newValue = ExpressUtil.eval(value, input.getVariableScope());
         input.getNodeContext().setAttribute(key, newValue);
 
-        output.setData(input.getData().clone());
+        output.setNodeData(input.getNodeData().cloneThis());
 
     }
 }
@@ -24,13 +24,14 @@ public class SleepJsonExecuteNode extends JsonExecuteNode implements ExecuteNode
     @Override
     public void execute(JsonExecuteNodeInput input, JsonExecuteNodeOutput output) {
 
+        long sleepMillis = millis;
         String second = parseStringField("second", input);
         if (second != null) {
-            setMillis((long) (Double.parseDouble(second) * 1000));
+            sleepMillis = (long) (Double.parseDouble(second) * 1000);
         }
 
         try {
-            Thread.sleep(millis);
+            Thread.sleep(sleepMillis);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         }
@@ -1,12 +1,14 @@
 package fit.lang.plugin.json.web;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
-import cn.hutool.http.HttpUtil;
 import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+import fit.lang.plugin.json.http.client.FitHttpBodyUtil;
+import fit.lang.plugin.json.http.client.FitHttpClientManager;
+import fit.lang.plugin.json.http.client.FitHttpRequest;
+import fit.lang.plugin.json.http.client.FitHttpResponse;
+import fit.lang.plugin.json.web.server.FitServerResponse;
 
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.isJsonObjectText;
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.toStringMapForCookie;
@@ -40,15 +42,44 @@ public class ProxyJsonExecuteNode extends JsonExecuteNode {
             }
         }
 
-        HttpRequest request = HttpUtil.createPost(realUrl);
+        FitHttpRequest request = new FitHttpRequest("POST", realUrl);
+        request.setClientType(nodeJsonDefine.getString("client"));
+        request.setConnectTimeout(nodeJsonDefine.getIntValue("connectTimeout", 0));
+        request.setReadTimeout(nodeJsonDefine.getIntValue("readTimeout", 0));
         JSONObject header = nodeJsonDefine.getJSONObject("header");
         if (header != null && !header.isEmpty()) {
             request.addHeaders(toStringMapForCookie(header));
         }
-        request.body(input.getData().toJSONString());
-        HttpResponse response = request.execute();
-        String responseText = response.body();
+        request.setBody(input.getReadOnlyData().toJSONString());
 
+        boolean stream = Boolean.TRUE.equals(nodeJsonDefine.getBoolean("stream"));
+        long maxBodySize = nodeJsonDefine.getLongValue("maxBodySize", 0L);
+        request.setStream(stream || maxBodySize > 0);
+
+        FitHttpResponse response = FitHttpClientManager.execute(request);
+        JSONObject result;
+        try {
+            FitServerResponse serverResponse = (FitServerResponse) input.getNodeContext().getAttribute(ServerJsonExecuteNode.SERVER_RESPONSE);
+            if (stream && serverResponse != null) {
+                //服务中代理：响应体直接写到客户端，不经过内存
+                long size = serverResponse.pipe(response, maxBodySize);
+                result = new JSONObject();
+                result.put("status", response.getStatus());
+                result.put("size", size);
+            } else if (response.isStream()) {
+                result = FitHttpBodyUtil.parseJson(response, maxBodySize);
+            } else {
+                result = parseResponseText(response.body());
+            }
+        } finally {
+            response.close();
+        }
+
+        output.setData(result);
+
+    }
+
+    static JSONObject parseResponseText(String responseText) {
         if (responseText == null) {
             responseText = "";
         }
@@ -58,8 +89,6 @@ public class ProxyJsonExecuteNode extends JsonExecuteNode {
         } else {
             result.put("_raw", responseText);
         }
-
-        output.setData(result);
-
+        return result;
     }
 }
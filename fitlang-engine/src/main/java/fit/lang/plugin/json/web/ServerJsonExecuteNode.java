@@ -1,6 +1,7 @@
 package fit.lang.plugin.json.web;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.core.map.multi.ListValueMap;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.StrUtil;
@@ -11,18 +12,32 @@ import cn.hutool.http.server.HttpServerRequest;
 import cn.hutool.http.server.HttpServerResponse;
 import cn.hutool.http.server.SimpleServer;
 import cn.hutool.http.server.action.Action;
+import cn.hutool.http.server.action.RootAction;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
+import fit.lang.aop.TraceLevel;
+import fit.lang.info.NodeMetricsRegistry;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
 import fit.lang.plugin.json.define.JsonExecuteContext;
 import fit.lang.plugin.json.define.JsonExecuteNode;
 import fit.lang.plugin.json.define.JsonExecuteNodeInput;
 import fit.lang.plugin.json.define.JsonExecuteNodeOutput;
+import fit.lang.plugin.json.http.client.FitBodyTooLargeException;
+import fit.lang.plugin.json.http.client.FitHttpBodyUtil;
+import fit.lang.plugin.json.http.client.FitHttpClientManager;
+import fit.lang.plugin.json.plan.JsonFlowPlan;
+import fit.lang.plugin.json.plan.JsonFlowPlanCache;
+import fit.lang.plugin.json.web.server.FitServerExecutor;
 import fit.lang.plugin.json.web.server.FitServerInstance;
+import fit.lang.plugin.json.web.server.FitServerResponse;
+import fit.lang.plugin.json.web.server.FitServiceRoute;
+import fit.lang.plugin.json.web.server.FitServiceRouter;
+import fit.lang.plugin.json.web.server.FitServiceWatcher;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.*;
@@ -52,9 +67,22 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
     public static final String REQUEST_PATH = "requestPath";
     public static final String SERVICE_PATH = "servicePath";
 
-    static Map<Integer, FitServerInstance> serverMap = new HashMap<>();
+    /**
+     * gzip请求体解压后默认最大字节数：10M
+     */
+    public static final long DEFAULT_MAX_GZIP_BODY_SIZE = 10 * 1024 * 1024L;
 
-    static Set<FitServerInstance> initRootMap = new HashSet<>();
+    /**
+     * 上下文中的路径参数，同时合并到入参
+     */
+    public static final String PATH_PARAMS = "pathParams";
+
+    /**
+     * 上下文中当前请求的服务器响应：FitServerResponse
+     */
+    public static final String SERVER_RESPONSE = "serverResponse";
+
+    static Map<Integer, FitServerInstance> serverMap = new HashMap<>();
 
     public static void setCurrentServerFilePath(String currentServerFilePath) {
         ServerJsonExecuteNode.currentServerFilePath = currentServerFilePath;
@@ -94,7 +122,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
         FitServerInstance fitServer = serverMap.get(port);
         JSONObject result;
         if (fitServer == null) {
-            fitServer = createFitServerInstance(port);
+            fitServer = createFitServerInstance(port, nodeJsonDefine.getJSONObject("executor"));
             result = load(fitServer);
             fitServer.getSimpleServer().start();
         } else {
@@ -114,21 +142,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
             System.out.println("server start warning: fitPath is not existed: " + rootPath);
             return;
         }
-        if (initRootMap.contains(fitServer)) {
-            try {
-                fitServer.getSimpleServer().getRawServer().removeContext("/");
-            } catch (Exception e) {
-                //ignore
-                System.out.println("server removeContext error: " + e.getMessage() + ", at path: " + rootPath);
-            }
-        }
-        try {
-            fitServer.getSimpleServer().setRoot(rootPath);
-            initRootMap.add(fitServer);
-        } catch (Exception e) {
-            //ignore
-            System.out.println("server setRoot error: " + e.getMessage() + ", at path: " + rootPath);
-        }
+        fitServer.setRootAction(new RootAction(rootPath));
     }
 
     private String getFitPath() {
@@ -147,75 +161,91 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
         fitServer.setServerFile(getCurrentServerFilePath());
         fitServer.setServerDir(getServerFileDir());
 
-        serviceList.clear();
-
         JSONObject result = new JSONObject();
 
         setFileServer(fitServer);
 
-        JSONArray disableInnerServiceConfig = nodeJsonDefine.getJSONArray("disableInnerService");
+        //和目录监听修改服务列表使用同一个锁，重新加载期间监听的修改等待加载完成
+        synchronized (serviceList) {
+            serviceList.clear();
 
-        if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_api")) {
-            // nothing
-        } else {
-            serviceList.add(addApiMenuService(fitServer));
-        }
+            JSONArray disableInnerServiceConfig = nodeJsonDefine.getJSONArray("disableInnerService");
 
-        if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_raw")) {
-            // nothing
-        } else {
-            serviceList.add(addRawContentService(fitServer));
-        }
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_api")) {
+                // nothing
+            } else {
+                serviceList.add(addApiMenuService(fitServer));
+            }
 
-        if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_shutdown")) {
-            // nothing
-        } else {
-            JSONObject define = addShutdownService(fitServer);
-            serviceList.add(define);
-        }
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_raw")) {
+                // nothing
+            } else {
+                serviceList.add(addRawContentService(fitServer));
+            }
 
-        if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_stop")) {
-            // nothing
-        } else {
-            JSONObject stopDefine = addStopService(fitServer);
-            serviceList.add(stopDefine);
-        }
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_shutdown")) {
+                // nothing
+            } else {
+                JSONObject define = addShutdownService(fitServer);
+                serviceList.add(define);
+            }
 
-        JSONObject ipDefine = addIpService(fitServer);
-        serviceList.add(ipDefine);
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_stop")) {
+                // nothing
+            } else {
+                JSONObject stopDefine = addStopService(fitServer);
+                serviceList.add(stopDefine);
+            }
 
-        if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_reload")) {
-            // nothing
-        } else {
-            JSONObject reloadDefine = addReloadService(fitServer);
-            serviceList.add(reloadDefine);
-        }
+            JSONObject ipDefine = addIpService(fitServer);
+            serviceList.add(ipDefine);
 
-        JSONObject serviceDefine = nodeJsonDefine.getJSONObject("service");
-        if (serviceDefine != null && !serviceDefine.isEmpty()) {
-            loadServiceNode(nodeJsonDefine.getJSONObject("service"), fitServer);
-        }
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_reload")) {
+                // nothing
+            } else {
+                JSONObject reloadDefine = addReloadService(fitServer);
+                serviceList.add(reloadDefine);
+            }
 
-        serviceList.add(serviceDefine);
+            if (disableInnerServiceConfig != null && disableInnerServiceConfig.contains("_metrics")) {
+                // nothing
+            } else {
+                JSONObject metricsDefine = addMetricsService(fitServer);
+                serviceList.add(metricsDefine);
+            }
 
-        if (StrUtil.isBlank(serviceDir)) {
-            serviceDir = getServerFileDir();
-        }
+            JSONObject serviceDefine = nodeJsonDefine.getJSONObject("service");
+            if (serviceDefine != null && !serviceDefine.isEmpty()) {
+                loadServiceNode(nodeJsonDefine.getJSONObject("service"), fitServer);
+            }
 
-        if (StrUtil.isBlank(serviceDir)) {
-            serviceDir = nodeJsonDefine.getString("serviceDir");
-        }
+            serviceList.add(serviceDefine);
 
-        if (StrUtil.isNotBlank(serviceDir)) {
-            File serverDir = new File(serviceDir);
-            if (serverDir.exists()) {
-                try {
-                    List<JSONObject> serviceListInServerNode = loadServiceDir(serviceDir, serverDir, fitServer);
-                    serviceList.addAll(serviceListInServerNode);
-                } catch (Exception e) {
-                    System.out.println("loadServiceDir error: " + e);
+            if (StrUtil.isBlank(serviceDir)) {
+                serviceDir = getServerFileDir();
+            }
+
+            if (StrUtil.isBlank(serviceDir)) {
+                serviceDir = nodeJsonDefine.getString("serviceDir");
+            }
+
+            if (StrUtil.isNotBlank(serviceDir)) {
+                File serverDir = new File(serviceDir);
+                if (serverDir.exists()) {
+                    try {
+                        List<JSONObject> serviceListInServerNode = loadServiceDir(serviceDir, serverDir, fitServer);
+                        serviceList.addAll(serviceListInServerNode);
+                    } catch (Exception e) {
+                        System.out.println("loadServiceDir error: " + e);
+                    }
                 }
             }
+
+            removeStaleRoutes(fitServer);
+        }
+
+        if (Boolean.TRUE.equals(nodeJsonDefine.getBoolean("watch")) && StrUtil.isNotBlank(serviceDir) && new File(serviceDir).isDirectory()) {
+            watchServiceDir(fitServer, serviceDir);
         }
 
         //添加默认的根路径
@@ -274,14 +304,20 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     private JSONObject addApiMenuService(FitServerInstance fitServerInstance, String routePath) {
 
-        clearContext(fitServerInstance.getSimpleServer(), routePath);
-        fitServerInstance.getSimpleServer().addAction(routePath, new Action() {
+        Action action = new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
                 JSONObject welcome = getWelcomeJson(fitServerInstance);
                 response.write(toJsonTextWithFormat(welcome), getDefaultContextType());
             }
-        });
+        };
+        //根路径由服务分发处理
+        if ("/".equals(routePath)) {
+            fitServerInstance.setRootAction(action);
+        } else {
+            clearContext(fitServerInstance, routePath);
+            fitServerInstance.getSimpleServer().addAction(routePath, action);
+        }
 
         JSONObject define = new JSONObject();
         define.put("path", routePath);
@@ -291,7 +327,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     private JSONObject addRawContentService(FitServerInstance fitServerInstance, String routePath) {
 
-        clearContext(fitServerInstance.getSimpleServer(), routePath);
+        clearContext(fitServerInstance, routePath);
         fitServerInstance.getSimpleServer().addAction(routePath, new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
@@ -349,7 +385,11 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     JSONArray getServicesDisplay(FitServerInstance fitServerInstance) {
         JSONArray display = new JSONArray();
-        for (Object define : fitServerInstance.getServiceList()) {
+        JSONArray serviceList;
+        synchronized (fitServerInstance.getServiceList()) {
+            serviceList = new JSONArray(fitServerInstance.getServiceList());
+        }
+        for (Object define : serviceList) {
             if (define == null) {
                 continue;
             }
@@ -398,7 +438,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     static JSONObject addShutdownService(FitServerInstance fitServer) {
         String path = "/_shutdown";
-        clearContext(fitServer.getSimpleServer(), path);
+        clearContext(fitServer, path);
         fitServer.getSimpleServer().addAction(path, new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
@@ -429,7 +469,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     static JSONObject addStopService(FitServerInstance fitServer) {
         String path = "/_stop";
-        clearContext(fitServer.getSimpleServer(), path);
+        clearContext(fitServer, path);
         fitServer.getSimpleServer().addAction(path, new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
@@ -457,7 +497,13 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
                 }
                 responseWriteText(request, response, "{\"message\":\"stop " + stopPort + " OK!\"}", getDefaultContextType());
                 server.getSimpleServer().getRawServer().stop(1);
+                if (server.getExecutor() != null) {
+                    server.getExecutor().shutdown();
+                }
                 serverMap.remove(stopPort);
+                if (server.getWatcher() != null) {
+                    server.getWatcher().stop();
+                }
                 fitServer.setRunning(false);
             }
         });
@@ -478,14 +524,14 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
             return null;
         }
 
-        String output = ExecuteJsonNodeUtil.executeCode(define);
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(define);
         System.out.println("default init node result: " + output);
-        return JSONObject.parse(output);
+        return output;
     }
 
     static JSONObject addIpService(FitServerInstance fitServer) {
         String path = "/_ip";
-        clearContext(fitServer.getSimpleServer(), path);
+        clearContext(fitServer, path);
         fitServer.getSimpleServer().addAction(path, new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
@@ -504,6 +550,46 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
         return define;
     }
 
+    /**
+     * 节点指标：默认prometheus文本格式，format=json返回json
+     *
+     * @param fitServer
+     * @return
+     */
+    static JSONObject addMetricsService(FitServerInstance fitServer) {
+        String path = "/_metrics";
+        clearContext(fitServer, path);
+        fitServer.getSimpleServer().addAction(path, new Action() {
+            @Override
+            public void doAction(HttpServerRequest request, HttpServerResponse response) {
+                FitServerExecutor executor = fitServer.getExecutor();
+                if ("json".equals(request.getParam("format"))) {
+                    JSONObject metrics = NodeMetricsRegistry.toJSON();
+                    if (executor != null) {
+                        metrics.put("server", executor.getStatistics());
+                    }
+                    metrics.put("httpClient", FitHttpClientManager.getStatistics());
+                    responseWriteText(request, response, metrics.toJSONString(), getDefaultContextType());
+                } else {
+                    String text = NodeMetricsRegistry.toPrometheusText();
+                    if (executor != null) {
+                        text = text.concat(executor.toPrometheusText(fitServer.getPort()));
+                    }
+                    response.write(text, "text/plain; version=0.0.4; charset=utf-8");
+                }
+            }
+        });
+        JSONObject define = new JSONObject();
+        define.put("path", path);
+        define.put("description", "node metrics (prometheus text, format=json for json)");
+        return define;
+    }
+
+    private static void clearContext(FitServerInstance fitServer, String stopPath) {
+        fitServer.removeRoute(stopPath);
+        clearContext(fitServer.getSimpleServer(), stopPath);
+    }
+
     private static void clearContext(SimpleServer simpleServer, String stopPath) {
         try {
             simpleServer.getRawServer().removeContext(stopPath);
@@ -514,7 +600,7 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
 
     private JSONObject addReloadService(FitServerInstance fitServer) {
         String path = "/_reload";
-        clearContext(fitServer.getSimpleServer(), path);
+        clearContext(fitServer, path);
         fitServer.getSimpleServer().addAction(path, new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
@@ -534,60 +620,158 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
     }
 
     /**
-     * 注册service
+     * 服务请求默认只记录执行时间，可以通过server或service的traceLevel, traceSampleRate, traceMaxBytes调整；
+     * service配置debug为true时记录完整出入参，_debug输出中包含nodeInputOutput
+     *
+     * @param jsonExecuteContext
+     * @param serverDefine
+     */
+    static void setRequestTraceConfig(JsonExecuteContext jsonExecuteContext, JSONObject serverDefine) {
+        jsonExecuteContext.setTraceLevel(TraceLevel.TIMING);
+        jsonExecuteContext.setTraceConfig(serverDefine);
+    }
+
+    /**
+     * 注册service：路径已注册时只替换服务定义，执行中的请求继续使用旧版本
      *
      * @param serverInstance
-     * @param servicePath
+     * @param servicePath    服务路径，支持方法前缀和路径参数，如：GET /user/{id}
      * @param serviceDefine
      */
     private void registerService(FitServerInstance serverInstance, String servicePath, JSONObject serviceDefine) {
         if (StrUtil.isBlank(servicePath) || serviceDefine == null || serviceDefine.isEmpty()) {
             return;
         }
-        SimpleServer simpleServer = serverInstance.getSimpleServer();
-        clearContext(simpleServer, servicePath);
-        simpleServer.addAction(servicePath, new Action() {
+        FitServiceRoute route = serverInstance.getRoute(servicePath);
+        if (route != null) {
+            route.setServerDefine(nodeJsonDefine);
+            route.setServiceDefine(serviceDefine);
+            return;
+        }
+        route = new FitServiceRoute(servicePath, serviceDefine);
+        route.setServerDefine(nodeJsonDefine);
+        serverInstance.putRoute(route);
+    }
+
+    /**
+     * 服务分发：所有服务共用根路径context，按路由表查找服务，没有匹配时交给rootAction
+     *
+     * @param fitServer
+     * @return
+     */
+    static Action createDispatchAction(FitServerInstance fitServer) {
+        return new Action() {
             @Override
             public void doAction(HttpServerRequest request, HttpServerResponse response) {
-                String clientIp = getHttpClientIp(request);
+                FitServiceRouter.Match match = fitServer.getRouter().match(request.getMethod(), request.getPath());
+                if (match != null && match.getRoute() != null) {
+                    executeService(fitServer, match.getRoute(), match.getPathParams(), request, response);
+                    return;
+                }
+                if (match != null && match.isMethodNotAllowed()) {
+                    response.send(405);
+                    response.write("{\"message\":\"method not allowed: " + request.getMethod() + "\"}", getDefaultContextType());
+                    return;
+                }
+                Action rootAction = fitServer.getRootAction();
+                if (rootAction != null) {
+                    try {
+                        rootAction.doAction(request, response);
+                    } catch (IOException e) {
+                        throw new IORuntimeException(e);
+                    }
+                    return;
+                }
+                response.send404("not found service: " + request.getPath());
+            }
+        };
+    }
 
-                JSONObject serviceDefineCopy = serviceDefine.clone();
-                String serverDir = serverInstance.getServerDir();
-                JSONObject contextParam = buildContextParam(serverDir, new File(joinFilePath(serverDir, servicePath)));
-                contextParam.put(REQUEST_PATH, request.getPath());
-                contextParam.put(SERVICE_PATH, servicePath);
+    static void executeService(FitServerInstance serverInstance, FitServiceRoute route, Map<String, String> pathParams, HttpServerRequest request, HttpServerResponse response) {
+        String clientIp = getHttpClientIp(request);
+        FitServerResponse serverResponse = new FitServerResponse(response);
+
+        //请求开始时读取当前版本，替换定义不影响执行中的请求
+        FitServiceRoute.Entry entry = route.getEntry();
+        JSONObject serviceFlow = entry.getServiceDefine();
+        String servicePath = route.getPath();
+        String serverDir = serverInstance.getServerDir();
+        JSONObject contextParam = buildContextParam(serverDir, new File(joinFilePath(serverDir, route.getTemplate())));
+        contextParam.put(REQUEST_PATH, request.getPath());
+        contextParam.put(SERVICE_PATH, servicePath);
+        if (!pathParams.isEmpty()) {
+            contextParam.put(PATH_PARAMS, new JSONObject(pathParams));
+        }
 
-                try {
-                    JSONObject input = buildInput(request, serviceDefineCopy);
-                    serviceDefineCopy.put("input", input);
-                    if (request.getPath().startsWith("/execute")) {
-                        serviceDefineCopy = input;
-                    }
-                    JsonExecuteContext jsonExecuteContext = new JsonExecuteContext();
-                    jsonExecuteContext.setAttribute("clientIp", clientIp);
-
-                    String output = ExecuteJsonNodeUtil.executeCode(serviceDefineCopy, contextParam, jsonExecuteContext);
-                    if (isWebNode(serviceDefineCopy)) {
-                        JSONObject header = serviceDefineCopy.getJSONObject("header");
-                        String contextType = null;
-                        if (header != null) {
-                            contextType = header.getString("contextType");
-                        }
-                        if (StrUtil.isNotBlank(contextType)) {
-                            responseWriteText(request, response, output, contextType);
-                        } else {
-                            responseWriteText(request, response, output, getDefaultContextType());
-                        }
-                    } else {//默认json类型
-                        responseWriteText(request, response, output, getDefaultContextType());
-                    }
-                } catch (Exception e) {
-                    JSONObject result = new JSONObject();
-                    result.put("message", "inner error: ".concat(e.getMessage()));
-                    response.write(result.toJSONString(), getDefaultContextType());
+        try {
+            JSONObject input = buildInput(request, serviceFlow, getMaxGzipBodySize(route.getServerDefine()));
+            input.putAll(pathParams);
+            JsonExecuteContext jsonExecuteContext = new JsonExecuteContext();
+            jsonExecuteContext.setAttribute("clientIp", clientIp);
+            setRequestTraceConfig(jsonExecuteContext, route.getServerDefine());
+            jsonExecuteContext.setAttribute(SERVER_RESPONSE, serverResponse);
+
+            JSONObject output;
+            if (route.getTemplate().startsWith("/execute")) {
+                serviceFlow = input;
+                JSONObject codeInput = serviceFlow.containsKey("input") ? serviceFlow.getJSONObject("input") : new JSONObject(0);
+                output = ExecuteJsonNodeUtil.executeFlow(codeInput, serviceFlow, contextParam, jsonExecuteContext);
+            } else {
+                //入参单独传递，保持流程定义不变，使用路由上的流程计划
+                output = ExecuteJsonNodeUtil.executeFlow(input, serviceFlow, entry.getFlowPlan(), contextParam, jsonExecuteContext);
+            }
+            //节点已直接写出响应
+            if (serverResponse.isCommitted()) {
+                return;
+            }
+            String contextType = null;
+            if (isWebNode(serviceFlow)) {
+                JSONObject header = serviceFlow.getJSONObject("header");
+                if (header != null) {
+                    contextType = header.getString("contextType");
                 }
             }
-        });
+            responseWriteOutput(request, response, serviceFlow, output, contextType);
+        } catch (FitBodyTooLargeException e) {
+            if (serverResponse.isCommitted()) {
+                response.getHttpExchange().close();
+                return;
+            }
+            JSONObject result = new JSONObject();
+            result.put("message", e.getMessage());
+            response.send(e.getStatus());
+            response.write(result.toJSONString(), getDefaultContextType());
+        } catch (Exception e) {
+            if (serverResponse.isCommitted()) {
+                //响应头已发送，只能中断连接
+                System.out.println("server response error: " + e.getMessage());
+                response.getHttpExchange().close();
+                return;
+            }
+            JSONObject result = new JSONObject();
+            result.put("message", "inner error: ".concat(e.getMessage()));
+            response.write(result.toJSONString(), getDefaultContextType());
+        }
+    }
+
+    /**
+     * 输出流程结果：直接序列化为字节写出，不生成中间字符串；需要格式化时按文本处理
+     *
+     * @param request
+     * @param response
+     * @param flow
+     * @param output
+     * @param contextType
+     */
+    private static void responseWriteOutput(HttpServerRequest request, HttpServerResponse response, JSONObject flow, JSONObject output, String contextType) {
+        if (StrUtil.isBlank(contextType)) {
+            contextType = getDefaultContextType();
+        }
+        if ("true".equals(request.getParam("_jsonFormat"))) {
+            responseWriteText(request, response, ExecuteJsonNodeUtil.toOutputText(flow, output), contextType);
+            return;
+        }
+        response.write(ExecuteJsonNodeUtil.toOutputBytes(flow, output), contextType);
     }
 
     /**
@@ -612,16 +796,18 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
         }
     }
 
-    static JSONObject buildInput(HttpServerRequest request, JSONObject serviceDefine) {
+    static JSONObject buildInput(HttpServerRequest request, JSONObject serviceDefine, long maxGzipBodySize) {
 
         JSONObject inputJson;
-        if (serviceDefine.containsKey("input")) {
-            inputJson = serviceDefine.getJSONObject("input");
+        JSONObject defineInput = serviceDefine.getJSONObject("input");
+        if (defineInput != null) {
+            //复制一份，避免请求参数写入共享的服务定义
+            inputJson = defineInput.clone();
         } else {
             inputJson = new JSONObject();
         }
 
-        String requestBody = request.getBody();
+        String requestBody = getRequestBody(request, maxGzipBodySize);
         if (isJsonObjectText(requestBody)) {
             inputJson.putAll(JSONObject.parseObject(requestBody));
         } else if (isJsonArrayText(requestBody)) {
@@ -646,6 +832,37 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
         return inputJson;
     }
 
+    /**
+     * 请求体，Content-Encoding为gzip时先解压
+     *
+     * @param request
+     * @param maxGzipBodySize 解压后最大字节数，超过时抛出FitBodyTooLargeException，0不限制
+     * @return
+     */
+    static String getRequestBody(HttpServerRequest request, long maxGzipBodySize) {
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            if ("0".equals(request.getHeader("Content-Length"))) {
+                return "";
+            }
+            byte[] bodyBytes = FitHttpBodyUtil.unGzip(request.getBodyStream(), maxGzipBodySize);
+            return StrUtil.str(bodyBytes, request.getCharset());
+        }
+        return request.getBody();
+    }
+
+    /**
+     * gzip请求体解压后的最大字节数，server节点配置maxGzipBodySize
+     *
+     * @param serverDefine
+     * @return
+     */
+    static long getMaxGzipBodySize(JSONObject serverDefine) {
+        if (serverDefine == null) {
+            return DEFAULT_MAX_GZIP_BODY_SIZE;
+        }
+        return serverDefine.getLongValue("maxGzipBodySize", DEFAULT_MAX_GZIP_BODY_SIZE);
+    }
+
     List<JSONObject> loadServiceDir(String serviceRootDir, File serviceFile, FitServerInstance serverInstance) {
 
         List<JSONObject> serviceDefineList = new ArrayList<>();
@@ -655,18 +872,135 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
                 List<JSONObject> subDefineList = loadServiceDir(serviceRootDir, subFile, serverInstance);
                 serviceDefineList.addAll(subDefineList);
             }
-        } else if (serviceFile.getName().endsWith(".fit") || serviceFile.getName().endsWith(".fit.json")) {
-            String serviceDefineText = readNodeDefineFile(serviceFile);
-            JSONObject serviceDefine = JSONObject.parseObject(serviceDefineText);
-            String servicePath = convertPath(serviceFile.getAbsolutePath().substring(serviceRootDir.length()));
-            serviceDefine.put("path", servicePath);
-            serviceDefine.put("loadType", "fileSystem");
-            registerService(serverInstance, servicePath, serviceDefine);
-            serviceDefineList.add(serviceDefine);
+        } else if (isServiceFile(serviceFile)) {
+            serviceDefineList.add(loadServiceFile(serviceRootDir, serviceFile, serverInstance));
         }
         return serviceDefineList;
     }
 
+    static boolean isServiceFile(File file) {
+        return file.getName().endsWith(".fit") || file.getName().endsWith(".fit.json");
+    }
+
+    static String buildServicePath(String serviceRootDir, File serviceFile) {
+        return convertPath(serviceFile.getAbsolutePath().substring(new File(serviceRootDir).getAbsolutePath().length()));
+    }
+
+    JSONObject loadServiceFile(String serviceRootDir, File serviceFile, FitServerInstance serverInstance) {
+        String serviceDefineText = readNodeDefineFile(serviceFile);
+        JSONObject serviceDefine = JSONObject.parseObject(serviceDefineText);
+        String servicePath = buildServicePath(serviceRootDir, serviceFile);
+        serviceDefine.put("path", servicePath);
+        serviceDefine.put("loadType", "fileSystem");
+        validateService(serviceDefine);
+        registerService(serverInstance, servicePath, serviceDefine);
+        return serviceDefine;
+    }
+
+    /**
+     * 在注册前构建一次节点树，构建失败（如未注册的uni）时抛出异常，不替换正在使用的版本；构建好的节点树归还到流程计划中复用
+     *
+     * @param serviceDefine
+     */
+    static void validateService(JSONObject serviceDefine) {
+        JsonFlowPlan flowPlan = JsonFlowPlanCache.getPlan(serviceDefine);
+        flowPlan.release(flowPlan.acquire(new JsonExecuteContext()));
+    }
+
+    /**
+     * 监听服务目录：变化的文件在监听线程中解析并构建后替换路由，解析或构建失败时保留旧版本；删除的文件或目录移除对应的服务
+     *
+     * @param fitServer
+     * @param serviceDir
+     */
+    void watchServiceDir(FitServerInstance fitServer, String serviceDir) {
+        FitServiceWatcher watcher = fitServer.getWatcher();
+        File rootDir = new File(serviceDir).getAbsoluteFile();
+        if (watcher != null) {
+            if (watcher.isRunning() && watcher.getRootDir().equals(rootDir)) {
+                return;
+            }
+            watcher.stop();
+        }
+        try {
+            fitServer.setWatcher(FitServiceWatcher.start(rootDir, nodeJsonDefine.getLongValue("watchDelayMillis", 300L), new FitServiceWatcher.Listener() {
+                @Override
+                public void onChange(File file) {
+                    if (!isServiceFile(file)) {
+                        return;
+                    }
+                    try {
+                        JSONObject serviceDefine = loadServiceFile(serviceDir, file, fitServer);
+                        replaceServiceList(fitServer, serviceDefine.getString("path"), serviceDefine);
+                        System.out.println("service reloaded: " + serviceDefine.getString("path"));
+                    } catch (Exception e) {
+                        System.out.println("service reload error, keep old version: " + e.getMessage() + ", at file: " + file);
+                    }
+                }
+
+                @Override
+                public void onDelete(File file) {
+                    String servicePath = buildServicePath(serviceDir, file);
+                    for (String routePath : new ArrayList<>(fitServer.getRouteMap().keySet())) {
+                        if (routePath.equals(servicePath) || routePath.startsWith(servicePath + "/")) {
+                            clearContext(fitServer, routePath);
+                            replaceServiceList(fitServer, routePath, null);
+                            System.out.println("service removed: " + routePath);
+                        }
+                    }
+                }
+            }));
+        } catch (Exception e) {
+            System.out.println("watch service dir error: " + e + ", at path: " + serviceDir);
+        }
+    }
+
+    /**
+     * 替换服务列表中的服务定义
+     *
+     * @param fitServer
+     * @param servicePath
+     * @param serviceDefine 为null时删除
+     */
+    static void replaceServiceList(FitServerInstance fitServer, String servicePath, JSONObject serviceDefine) {
+        JSONArray serviceList = fitServer.getServiceList();
+        synchronized (serviceList) {
+            for (int i = 0; i < serviceList.size(); i++) {
+                Object define = serviceList.get(i);
+                if (define instanceof JSONObject && servicePath.equals(((JSONObject) define).getString("path"))) {
+                    if (serviceDefine == null) {
+                        serviceList.remove(i);
+                    } else {
+                        serviceList.set(i, serviceDefine);
+                    }
+                    return;
+                }
+            }
+            if (serviceDefine != null) {
+                serviceList.add(serviceDefine);
+            }
+        }
+    }
+
+    /**
+     * 移除本次加载中没有的服务路由
+     *
+     * @param fitServer
+     */
+    static void removeStaleRoutes(FitServerInstance fitServer) {
+        Set<String> loadedPaths = new HashSet<>();
+        for (Object define : fitServer.getServiceList()) {
+            if (define instanceof JSONObject && ((JSONObject) define).containsKey("loadType")) {
+                loadedPaths.add(((JSONObject) define).getString("path"));
+            }
+        }
+        for (String routePath : new ArrayList<>(fitServer.getRouteMap().keySet())) {
+            if (!loadedPaths.contains(routePath)) {
+                clearContext(fitServer, routePath);
+            }
+        }
+    }
+
     /**
      * 是否web节点，有特殊逻辑处理
      *
@@ -678,9 +1012,27 @@ public class ServerJsonExecuteNode extends JsonExecuteNode {
     }
 
     public static FitServerInstance createFitServerInstance(int port) {
+        return createFitServerInstance(port, null);
+    }
+
+    /**
+     * 创建服务器，执行器配置只在创建时生效，reload不会修改
+     *
+     * @param port
+     * @param executorConfig
+     * @return
+     */
+    public static FitServerInstance createFitServerInstance(int port, JSONObject executorConfig) {
         FitServerInstance fitServerInstance = new FitServerInstance();
+        FitServerExecutor executor = FitServerExecutor.create(executorConfig);
         SimpleServer simpleServer = HttpUtil.createServer(port);
+        if (!executor.isDefaultExecutor()) {
+            simpleServer.setExecutor(executor);
+        }
+        simpleServer.addFilter(executor.createFilter());
+        fitServerInstance.setExecutor(executor);
         fitServerInstance.setSimpleServer(simpleServer);
+        simpleServer.addAction("/", createDispatchAction(fitServerInstance));
         serverMap.put(port, fitServerInstance);
         fitServerInstance.setRunning(true);
         fitServerInstance.setServerDir(getServerFileDir());
@@ -0,0 +1,273 @@
+package fit.lang.plugin.json.web.server;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import fit.lang.common.ExecuteNodeScheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内置http服务器的请求线程池：固定线程池或虚拟线程（JDK21），排队上限、最大并发，超出返回503
+ * <p>
+ * 配置（server节点的executor字段）：
+ * type: fixed（默认）, virtual（不支持时退化为fixed）, default（hutool全局线程池，线程数和排队不限制）;
+ * threads: 固定线程数，统计中0表示不限制; queueSize: fixed的最大排队请求数，0不限制，队列满时在分发线程中直接返回503，不进入队列;
+ * maxConcurrent: 最大并发处理请求数，0不限制;
+ * keepAlive: 是否保持连接，默认true; idleInterval: 空闲连接保持秒数; maxIdleConnections: 最大空闲连接数
+ */
+public class FitServerExecutor implements Executor {
+
+    public static final String TYPE_FIXED = "fixed";
+
+    public static final String TYPE_VIRTUAL = "virtual";
+
+    public static final String TYPE_DEFAULT = "default";
+
+    /**
+     * 当前线程处理的请求是否需要拒绝（队列已满）
+     */
+    static final ThreadLocal<Boolean> shedding = new ThreadLocal<>();
+
+    final String type;
+
+    final ExecutorService executorService;
+
+    final int threads;
+
+    final int queueSize;
+
+    final int maxConcurrent;
+
+    final boolean keepAlive;
+
+    final Semaphore concurrentPermits;
+
+    final AtomicInteger queued = new AtomicInteger();
+
+    final AtomicInteger active = new AtomicInteger();
+
+    final LongAdder acceptedCount = new LongAdder();
+
+    final LongAdder rejectedCount = new LongAdder();
+
+    FitServerExecutor(String type, ExecutorService executorService, int threads, int queueSize, int maxConcurrent, boolean keepAlive) {
+        this.type = type;
+        this.executorService = executorService;
+        this.threads = threads;
+        this.queueSize = queueSize;
+        this.maxConcurrent = maxConcurrent;
+        this.keepAlive = keepAlive;
+        this.concurrentPermits = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+    }
+
+    /**
+     * 根据配置创建，配置为空时使用固定线程池默认值
+     *
+     * @param config
+     * @return
+     */
+    public static FitServerExecutor create(JSONObject config) {
+        if (config == null) {
+            config = new JSONObject();
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        String type = config.getString("type");
+        int threads = Math.max(1, config.getIntValue("threads", Math.max(32, processors * 8)));
+        int queueSize = Math.max(0, config.getIntValue("queueSize", 1000));
+        int maxConcurrent = Math.max(0, config.getIntValue("maxConcurrent", 0));
+        boolean keepAlive = config.getBooleanValue("keepAlive", true);
+
+        setKeepAliveConfig(config);
+
+        ExecutorService executorService = null;
+        if (TYPE_VIRTUAL.equals(type)) {
+            executorService = ExecuteNodeScheduler.createVirtualThreadExecutor();
+            if (executorService == null) {
+                System.out.println("server executor warning: virtual thread is not supported, use fixed thread pool!");
+                type = TYPE_FIXED;
+            }
+        } else if (TYPE_DEFAULT.equals(type)) {
+            //使用SimpleServer创建时设置的hutool全局线程池，不限制线程数
+            return new FitServerExecutor(type, null, 0, 0, maxConcurrent, keepAlive);
+        } else {
+            type = TYPE_FIXED;
+        }
+        if (executorService == null) {
+            executorService = createFixedExecutor(threads, queueSize);
+        } else {
+            //虚拟线程不限制线程数，不排队
+            threads = 0;
+            queueSize = 0;
+        }
+        return new FitServerExecutor(type, executorService, threads, queueSize, maxConcurrent, keepAlive);
+    }
+
+    static ExecutorService createFixedExecutor(int threads, int queueSize) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        BlockingQueue<Runnable> queue = queueSize > 0 ? new ArrayBlockingQueue<>(queueSize) : new LinkedBlockingQueue<>();
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "fit-server-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * jdk http server的连接保持参数只在第一次创建服务器前读取，已设置的系统属性优先
+     *
+     * @param config
+     */
+    static void setKeepAliveConfig(JSONObject config) {
+        Integer idleInterval = config.getInteger("idleInterval");
+        if (idleInterval != null && System.getProperty("sun.net.httpserver.idleInterval") == null) {
+            System.setProperty("sun.net.httpserver.idleInterval", String.valueOf(idleInterval));
+        }
+        Integer maxIdleConnections = config.getInteger("maxIdleConnections");
+        if (maxIdleConnections != null && System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(maxIdleConnections));
+        }
+    }
+
+    /**
+     * 是否使用jdk默认执行器（在分发线程中处理）
+     *
+     * @return
+     */
+    public boolean isDefaultExecutor() {
+        return executorService == null;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queued.incrementAndGet();
+        try {
+            executorService.execute(() -> {
+                queued.decrementAndGet();
+                command.run();
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            if (executorService.isShutdown()) {
+                throw e;
+            }
+            //队列已满：在分发线程中由过滤器直接返回503
+            shedding.set(Boolean.TRUE);
+            try {
+                command.run();
+            } finally {
+                shedding.remove();
+            }
+        }
+    }
+
+    /**
+     * 请求准入过滤器：队列已满或超过最大并发时直接返回503，处理中请求不受影响
+     *
+     * @return
+     */
+    public Filter createFilter() {
+        return new Filter() {
+            @Override
+            public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+                if (Boolean.TRUE.equals(shedding.get())) {
+                    reject(exchange);
+                    return;
+                }
+                if (concurrentPermits != null && !concurrentPermits.tryAcquire()) {
+                    reject(exchange);
+                    return;
+                }
+                acceptedCount.increment();
+                active.incrementAndGet();
+                try {
+                    if (!keepAlive) {
+                        exchange.getResponseHeaders().set("Connection", "close");
+                    }
+                    chain.doFilter(exchange);
+                } finally {
+                    active.decrementAndGet();
+                    if (concurrentPermits != null) {
+                        concurrentPermits.release();
+                    }
+                }
+            }
+
+            @Override
+            public String description() {
+                return "fit server admission filter";
+            }
+        };
+    }
+
+    void reject(HttpExchange exchange) throws IOException {
+        rejectedCount.increment();
+        byte[] body = "{\"code\":503,\"message\":\"server is busy, please retry later!\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        exchange.getResponseHeaders().set("Connection", "close");
+        exchange.sendResponseHeaders(503, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public void shutdown() {
+        if (executorService != null) {
+            executorService.shutdown();
+        }
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public String toPrometheusText(int port) {
+        String label = "{port=\"" + port + "\"}";
+        return "# TYPE fit_server_active_requests gauge\n" +
+                "fit_server_active_requests" + label + " " + getActiveCount() + "\n" +
+                "# TYPE fit_server_queued_requests gauge\n" +
+                "fit_server_queued_requests" + label + " " + getQueuedCount() + "\n" +
+                "# TYPE fit_server_accepted_total counter\n" +
+                "fit_server_accepted_total" + label + " " + getAcceptedCount() + "\n" +
+                "# TYPE fit_server_rejected_total counter\n" +
+                "fit_server_rejected_total" + label + " " + getRejectedCount() + "\n";
+    }
+
+    public JSONObject getStatistics() {
+        JSONObject statistics = new JSONObject();
+        statistics.put("type", type);
+        statistics.put("threads", threads);
+        statistics.put("queueSize", queueSize);
+        statistics.put("maxConcurrent", maxConcurrent);
+        statistics.put("keepAlive", keepAlive);
+        statistics.put("activeCount", getActiveCount());
+        statistics.put("queuedCount", getQueuedCount());
+        statistics.put("acceptedCount", getAcceptedCount());
+        statistics.put("rejectedCount", getRejectedCount());
+        return statistics;
+    }
+}
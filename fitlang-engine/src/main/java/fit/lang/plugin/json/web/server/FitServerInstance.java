@@ -2,17 +2,37 @@ package fit.lang.plugin.json.web.server;
 
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.http.server.SimpleServer;
+import cn.hutool.http.server.action.Action;
 import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class FitServerInstance {
 
     String url;
 
     SimpleServer simpleServer;
 
+    FitServerExecutor executor;
+
     JSONArray serviceList = new JSONArray();
 
+    /**
+     * 已注册的服务路由，key是服务路径
+     */
+    final Map<String, FitServiceRoute> routeMap = new ConcurrentHashMap<>();
+
+    final FitServiceRouter router = new FitServiceRouter();
+
+    /**
+     * 没有匹配的服务时的处理：静态文件或接口菜单
+     */
+    volatile Action rootAction;
+
+    FitServiceWatcher watcher;
+
     private String serverDir = ".";
 
     private String serverFile;
@@ -28,6 +48,14 @@ public class FitServerInstance {
         this.simpleServer = simpleServer;
     }
 
+    public FitServerExecutor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(FitServerExecutor executor) {
+        this.executor = executor;
+    }
+
     public int getPort() {
         return simpleServer.getAddress().getPort();
     }
@@ -40,6 +68,59 @@ public class FitServerInstance {
         this.serviceList = serviceList;
     }
 
+    public FitServiceRoute getRoute(String path) {
+        return routeMap.get(path);
+    }
+
+    /**
+     * 注册路由：先添加新路由再移除旧路由，查找不加锁，替换期间不会出现找不到服务
+     *
+     * @param route
+     */
+    public void putRoute(FitServiceRoute route) {
+        synchronized (router) {
+            FitServiceRoute oldRoute = routeMap.put(route.getPath(), route);
+            router.add(route);
+            if (oldRoute != null) {
+                router.remove(oldRoute);
+            }
+        }
+    }
+
+    public FitServiceRoute removeRoute(String path) {
+        synchronized (router) {
+            FitServiceRoute route = routeMap.remove(path);
+            if (route != null) {
+                router.remove(route);
+            }
+            return route;
+        }
+    }
+
+    public FitServiceRouter getRouter() {
+        return router;
+    }
+
+    public Action getRootAction() {
+        return rootAction;
+    }
+
+    public void setRootAction(Action rootAction) {
+        this.rootAction = rootAction;
+    }
+
+    public Map<String, FitServiceRoute> getRouteMap() {
+        return routeMap;
+    }
+
+    public FitServiceWatcher getWatcher() {
+        return watcher;
+    }
+
+    public void setWatcher(FitServiceWatcher watcher) {
+        this.watcher = watcher;
+    }
+
     public String getServerDir() {
         return serverDir;
     }
@@ -81,6 +162,13 @@ public class FitServerInstance {
         info.put("serverFile", serverFile);
         info.put("url", url);
         info.put("port", getPort());
+        if (executor != null) {
+            info.put("executor", executor.getStatistics());
+        }
+        info.put("routeCount", routeMap.size());
+        if (watcher != null && watcher.isRunning()) {
+            info.put("watchDir", watcher.getRootDir().getAbsolutePath());
+        }
         return info;
     }
 
@@ -0,0 +1,86 @@
+package fit.lang.plugin.json.web.server;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.http.server.HttpServerResponse;
+import fit.lang.plugin.json.http.client.FitBodyTooLargeException;
+import fit.lang.plugin.json.http.client.FitHttpBodyUtil;
+import fit.lang.plugin.json.http.client.FitHttpResponse;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 当前请求的服务器响应，放在执行上下文中，节点可以直接写出响应（如代理大文件），写出后服务器不再输出流程结果
+ */
+public class FitServerResponse {
+
+    /**
+     * 逐跳头，不转发
+     */
+    static final Set<String> HOP_BY_HOP_HEADERS = new HashSet<>(Arrays.asList("connection", "keep-alive", "transfer-encoding", "content-length",
+            "content-encoding", "proxy-authenticate", "proxy-authorization", "te", "trailer", "upgrade"));
+
+    final HttpServerResponse response;
+
+    volatile boolean committed;
+
+    public FitServerResponse(HttpServerResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * 是否已经直接写出响应
+     *
+     * @return
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * 把上游响应的状态、响应头和响应体直接写到当前响应，响应体边读边写
+     *
+     * @param upstream
+     * @param maxBodySize 最大字节数，0不限制；响应长度已知且超过时抛出FitBodyTooLargeException，不提交响应
+     * @return 写出字节数
+     */
+    public long pipe(FitHttpResponse upstream, long maxBodySize) {
+        //客户端已解压，有Content-Encoding时长度未知，使用chunked
+        long contentLength = upstream.header("Content-Encoding") == null ? upstream.contentLength() : -1;
+        //长度已知且超过限制时不提交响应，由服务器返回502
+        if (maxBodySize > 0 && contentLength > maxBodySize) {
+            throw new FitBodyTooLargeException("http response body is too large, max size: " + maxBodySize, 502);
+        }
+        committed = true;
+        for (Map.Entry<String, List<String>> entry : upstream.headers().entrySet()) {
+            String name = entry.getKey();
+            if (name == null || name.startsWith(":") || HOP_BY_HOP_HEADERS.contains(name.toLowerCase()) || entry.getValue() == null) {
+                continue;
+            }
+            response.setHeader(name, entry.getValue());
+        }
+        long bodyLength;
+        if (contentLength > 0) {
+            bodyLength = contentLength;
+        } else if (contentLength == 0 || upstream.bodyStream() == null && upstream.body() == null) {
+            bodyLength = -1;
+        } else {
+            bodyLength = 0;
+        }
+        response.send(upstream.getStatus(), bodyLength);
+        if (bodyLength < 0) {
+            return 0;
+        }
+        //长度未知时超过限制只能中断连接，客户端收到不完整的chunked响应
+        OutputStream outputStream = response.getOut();
+        try {
+            return FitHttpBodyUtil.copy(upstream, outputStream, maxBodySize);
+        } finally {
+            IoUtil.close(outputStream);
+        }
+    }
+}
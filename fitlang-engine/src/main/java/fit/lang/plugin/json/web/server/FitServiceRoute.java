@@ -0,0 +1,162 @@
+package fit.lang.plugin.json.web.server;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.plan.JsonFlowPlan;
+import fit.lang.plugin.json.plan.JsonFlowPlanCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 服务路由：路径注册一次，服务定义可以原子替换
+ * <p>
+ * 请求开始时读取一次服务定义，替换后执行中的请求继续使用旧版本，新的请求使用新版本；
+ * 服务路径支持方法前缀和路径参数，如：GET /user/{id}
+ */
+public class FitServiceRoute {
+
+    static final Set<String> HTTP_METHODS = new HashSet<>(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS"));
+
+    /**
+     * 注册的服务路径，包含方法前缀
+     */
+    final String path;
+
+    /**
+     * 请求方法，null表示不限
+     */
+    final String method;
+
+    /**
+     * 路径模板
+     */
+    final String template;
+
+    /**
+     * 按出现顺序的路径参数名
+     */
+    final List<String> paramNames;
+
+    /**
+     * 当前版本：服务定义和对应的流程计划一起替换
+     */
+    volatile Entry entry;
+
+    /**
+     * 注册时的server节点定义，请求使用其中的跟踪配置
+     */
+    volatile JSONObject serverDefine;
+
+    final AtomicLong version = new AtomicLong(1);
+
+    volatile long updateTime = System.currentTimeMillis();
+
+    public FitServiceRoute(String path, JSONObject serviceDefine) {
+        this.path = path;
+        this.entry = new Entry(serviceDefine);
+        String routePath = path.trim();
+        int index = routePath.indexOf(' ');
+        if (index > 0 && HTTP_METHODS.contains(routePath.substring(0, index).toUpperCase())) {
+            method = routePath.substring(0, index).toUpperCase();
+            routePath = routePath.substring(index + 1).trim();
+        } else {
+            method = null;
+        }
+        template = routePath;
+        List<String> names = new ArrayList<>(0);
+        for (String segment : FitServiceRouter.splitPath(template)) {
+            if (isParamSegment(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+        paramNames = names.isEmpty() ? Collections.emptyList() : names;
+    }
+
+    static boolean isParamSegment(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public List<String> getParamNames() {
+        return paramNames;
+    }
+
+    public JSONObject getServiceDefine() {
+        return entry.serviceDefine;
+    }
+
+    /**
+     * 当前版本，请求开始时读取一次
+     *
+     * @return
+     */
+    public Entry getEntry() {
+        return entry;
+    }
+
+    /**
+     * 替换服务定义
+     *
+     * @param serviceDefine
+     */
+    public void setServiceDefine(JSONObject serviceDefine) {
+        this.entry = new Entry(serviceDefine);
+        version.incrementAndGet();
+        updateTime = System.currentTimeMillis();
+    }
+
+    public JSONObject getServerDefine() {
+        return serverDefine;
+    }
+
+    public void setServerDefine(JSONObject serverDefine) {
+        this.serverDefine = serverDefine;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+
+    public static class Entry {
+
+        final JSONObject serviceDefine;
+
+        /**
+         * 服务定义对应的流程计划，注册时获取，请求时不再计算流程定义的hash
+         */
+        final JsonFlowPlan flowPlan;
+
+        Entry(JSONObject serviceDefine) {
+            this.serviceDefine = serviceDefine;
+            this.flowPlan = JsonFlowPlanCache.getPlan(serviceDefine);
+        }
+
+        public JSONObject getServiceDefine() {
+            return serviceDefine;
+        }
+
+        public JsonFlowPlan getFlowPlan() {
+            return flowPlan;
+        }
+    }
+}
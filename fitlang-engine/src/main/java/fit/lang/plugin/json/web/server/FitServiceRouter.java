@@ -0,0 +1,231 @@
+package fit.lang.plugin.json.web.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务路由表：按路径分段的前缀树，查找时间与路径长度成正比
+ * <p>
+ * 优先级：常量段优先于参数段({id})；没有完全匹配时使用最长的常量前缀，前缀按整段匹配（/api不匹配/apiv2，原来每个服务一个context时按字符前缀匹配）；
+ * 同一路径可以按请求方法注册不同的服务，没有方法前缀的服务匹配所有方法，HEAD请求可以使用GET的服务；
+ * 方法不匹配的节点不算匹配，继续查找其他分支和前缀，都没有时才返回方法不允许
+ */
+public class FitServiceRouter {
+
+    static final String ANY_METHOD = "*";
+
+    final Node root = new Node();
+
+    /**
+     * 匹配结果
+     */
+    public static class Match {
+
+        final FitServiceRoute route;
+
+        final Map<String, String> pathParams;
+
+        /**
+         * 路径匹配但方法不匹配
+         */
+        final boolean methodNotAllowed;
+
+        Match(FitServiceRoute route, Map<String, String> pathParams, boolean methodNotAllowed) {
+            this.route = route;
+            this.pathParams = pathParams;
+            this.methodNotAllowed = methodNotAllowed;
+        }
+
+        public FitServiceRoute getRoute() {
+            return route;
+        }
+
+        public Map<String, String> getPathParams() {
+            return pathParams;
+        }
+
+        public boolean isMethodNotAllowed() {
+            return methodNotAllowed;
+        }
+    }
+
+    static class Node {
+
+        final Map<String, Node> children = new ConcurrentHashMap<>();
+
+        volatile Node paramChild;
+
+        /**
+         * 请求方法：路由
+         */
+        final Map<String, FitServiceRoute> routes = new ConcurrentHashMap<>();
+    }
+
+    public synchronized void add(FitServiceRoute route) {
+        Node node = root;
+        for (String segment : splitPath(route.getTemplate())) {
+            if (FitServiceRoute.isParamSegment(segment)) {
+                if (node.paramChild == null) {
+                    node.paramChild = new Node();
+                }
+                node = node.paramChild;
+            } else {
+                node = node.children.computeIfAbsent(segment, key -> new Node());
+            }
+        }
+        node.routes.put(route.getMethod() == null ? ANY_METHOD : route.getMethod(), route);
+    }
+
+    /**
+     * 移除路由，空节点保留，重新注册时复用
+     *
+     * @param route
+     */
+    public synchronized void remove(FitServiceRoute route) {
+        Node node = root;
+        for (String segment : splitPath(route.getTemplate())) {
+            node = FitServiceRoute.isParamSegment(segment) ? node.paramChild : node.children.get(segment);
+            if (node == null) {
+                return;
+            }
+        }
+        node.routes.remove(route.getMethod() == null ? ANY_METHOD : route.getMethod(), route);
+    }
+
+    /**
+     * 查找路由：按方法匹配节点，节点没有该方法的服务时继续查找其他分支
+     *
+     * @param method
+     * @param path
+     * @return 没有匹配时返回null；只有其他方法的服务匹配路径时返回methodNotAllowed
+     */
+    public Match match(String method, String path) {
+        String requestMethod = method == null ? null : method.toUpperCase();
+        List<String> segments = splitPath(path);
+        List<String> paramValues = new ArrayList<>(0);
+        boolean[] pathMatched = new boolean[1];
+        FitServiceRoute route = find(root, segments, 0, requestMethod, paramValues, pathMatched);
+        if (route != null) {
+            return new Match(route, buildPathParams(route, paramValues), false);
+        }
+        route = findPrefix(segments, requestMethod);
+        if (route != null) {
+            return new Match(route, Collections.emptyMap(), false);
+        }
+        if (pathMatched[0]) {
+            return new Match(null, Collections.emptyMap(), true);
+        }
+        return null;
+    }
+
+    /**
+     * 完全匹配：常量段优先，失败时回溯尝试参数段
+     *
+     * @param pathMatched 记录是否有其他方法的服务匹配路径
+     */
+    FitServiceRoute find(Node node, List<String> segments, int index, String method, List<String> paramValues, boolean[] pathMatched) {
+        if (index == segments.size()) {
+            if (node.routes.isEmpty()) {
+                return null;
+            }
+            FitServiceRoute route = getRoute(node, method);
+            if (route == null) {
+                pathMatched[0] = true;
+            }
+            return route;
+        }
+        String segment = segments.get(index);
+        Node child = node.children.get(segment);
+        if (child != null) {
+            FitServiceRoute route = find(child, segments, index + 1, method, paramValues, pathMatched);
+            if (route != null) {
+                return route;
+            }
+        }
+        Node paramChild = node.paramChild;
+        if (paramChild != null) {
+            paramValues.add(segment);
+            FitServiceRoute route = find(paramChild, segments, index + 1, method, paramValues, pathMatched);
+            if (route != null) {
+                return route;
+            }
+            paramValues.remove(paramValues.size() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * 最长常量前缀匹配，只匹配该方法可用的服务
+     */
+    FitServiceRoute findPrefix(List<String> segments, String method) {
+        Node node = root;
+        FitServiceRoute matched = getRoute(root, method);
+        for (String segment : segments) {
+            node = node.children.get(segment);
+            if (node == null) {
+                break;
+            }
+            FitServiceRoute route = getRoute(node, method);
+            if (route != null) {
+                matched = route;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 节点上该方法的服务：HEAD使用GET的服务，最后使用不限方法的服务
+     */
+    static FitServiceRoute getRoute(Node node, String method) {
+        if (node.routes.isEmpty()) {
+            return null;
+        }
+        if (method != null) {
+            FitServiceRoute route = node.routes.get(method);
+            if (route == null && "HEAD".equals(method)) {
+                route = node.routes.get("GET");
+            }
+            if (route != null) {
+                return route;
+            }
+        }
+        return node.routes.get(ANY_METHOD);
+    }
+
+    static Map<String, String> buildPathParams(FitServiceRoute route, List<String> paramValues) {
+        List<String> paramNames = route.getParamNames();
+        if (paramNames.isEmpty() || paramValues.size() != paramNames.size()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> pathParams = new HashMap<>(paramNames.size() * 2);
+        for (int i = 0; i < paramNames.size(); i++) {
+            pathParams.put(paramNames.get(i), paramValues.get(i));
+        }
+        return pathParams;
+    }
+
+    /**
+     * 按/分段，忽略空段
+     *
+     * @param path
+     * @return
+     */
+    static List<String> splitPath(String path) {
+        List<String> segments = new ArrayList<>(4);
+        int length = path.length();
+        int begin = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > begin) {
+                    segments.add(path.substring(begin, i));
+                }
+                begin = i + 1;
+            }
+        }
+        return segments;
+    }
+}
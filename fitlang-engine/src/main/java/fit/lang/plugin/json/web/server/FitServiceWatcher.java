@@ -0,0 +1,184 @@
+package fit.lang.plugin.json.web.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * 服务目录监听：基于WatchService，只通知变化的文件
+ * <p>
+ * 事件在delayMillis内合并（编辑器保存通常产生多个事件），在监听线程中回调，不占用请求线程；
+ * 新建的子目录自动监听，其中已有的文件按变化通知；删除的目录按删除通知，由回调处理目录下的服务
+ */
+public class FitServiceWatcher {
+
+    public interface Listener {
+
+        /**
+         * 文件新建或修改
+         *
+         * @param file
+         */
+        void onChange(File file);
+
+        /**
+         * 文件或目录删除
+         *
+         * @param file
+         */
+        void onDelete(File file);
+    }
+
+    final File rootDir;
+
+    final long delayMillis;
+
+    final Listener listener;
+
+    final WatchService watchService;
+
+    final Map<WatchKey, Path> keyMap = new ConcurrentHashMap<>();
+
+    Thread thread;
+
+    volatile boolean running;
+
+    FitServiceWatcher(File rootDir, long delayMillis, Listener listener) throws IOException {
+        this.rootDir = rootDir.getAbsoluteFile();
+        this.delayMillis = delayMillis;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * 开始监听目录及其子目录
+     *
+     * @param rootDir
+     * @param delayMillis 事件合并时间
+     * @param listener
+     * @return
+     * @throws IOException
+     */
+    public static FitServiceWatcher start(File rootDir, long delayMillis, Listener listener) throws IOException {
+        FitServiceWatcher watcher = new FitServiceWatcher(rootDir, delayMillis, listener);
+        watcher.registerAll(watcher.rootDir.toPath(), null);
+        watcher.running = true;
+        watcher.thread = new Thread(watcher::watch, "fit-service-watcher");
+        watcher.thread.setDaemon(true);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    public File getRootDir() {
+        return rootDir;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            //ignore
+        }
+    }
+
+    /**
+     * 注册目录及子目录
+     *
+     * @param dir
+     * @param changed 不为null时收集目录中已有的文件
+     * @throws IOException
+     */
+    void registerAll(Path dir, Map<File, Boolean> changed) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                keyMap.put(subDir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), subDir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (changed != null) {
+                    changed.put(file.toFile(), Boolean.TRUE);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    void watch() {
+        while (running) {
+            try {
+                WatchKey key = watchService.take();
+                //文件值：true变化，false删除，按最后一次事件处理
+                Map<File, Boolean> changed = new LinkedHashMap<>();
+                collect(key, changed);
+                long deadline = System.currentTimeMillis() + delayMillis;
+                long waitMillis;
+                while ((waitMillis = deadline - System.currentTimeMillis()) > 0) {
+                    key = watchService.poll(waitMillis, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        collect(key, changed);
+                    }
+                }
+                fireChanged(changed);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                System.out.println("fit service watcher error: " + e);
+            }
+        }
+        running = false;
+    }
+
+    void collect(WatchKey key, Map<File, Boolean> changed) throws IOException {
+        Path dir = keyMap.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == OVERFLOW) {
+                //事件丢失时按整个目录变化处理
+                registerAll(rootDir.toPath(), changed);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            File file = path.toFile();
+            if (event.kind() == ENTRY_DELETE) {
+                changed.remove(file);
+                changed.put(file, Boolean.FALSE);
+            } else if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                registerAll(path, changed);
+            } else if (!Files.isDirectory(path)) {
+                changed.remove(file);
+                changed.put(file, Boolean.TRUE);
+            }
+        }
+        if (!key.reset()) {
+            keyMap.remove(key);
+        }
+    }
+
+    void fireChanged(Map<File, Boolean> changed) {
+        for (Map.Entry<File, Boolean> entry : changed.entrySet()) {
+            try {
+                if (entry.getValue() && entry.getKey().isFile()) {
+                    listener.onChange(entry.getKey());
+                } else if (!entry.getValue()) {
+                    listener.onDelete(entry.getKey());
+                }
+            } catch (Exception e) {
+                System.out.println("fit service watcher notify error: " + e + ", at file: " + entry.getKey());
+            }
+        }
+    }
+}
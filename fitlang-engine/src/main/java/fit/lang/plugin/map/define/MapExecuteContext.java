@@ -7,4 +7,9 @@ import fit.lang.common.AbstractExecuteContext;
  */
 public class MapExecuteContext extends AbstractExecuteContext {
 
+    @Override
+    protected MapExecuteContext newContext() {
+        return new MapExecuteContext();
+    }
+
 }
@@ -1,5 +1,6 @@
 package fit.lang.plugin.map.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeInput;
 
@@ -41,6 +42,11 @@ public class MapExecuteNodeInput implements ExecuteNodeInput {
         return new MapExecuteNodeInput(this.nodeContext);
     }
 
+    @Override
+    public ExecuteNodeInput createInput(ExecuteContext nodeContext) {
+        return new MapExecuteNodeInput((MapExecuteContext) nodeContext);
+    }
+
     public void setNodeData(MapExecuteNodeData nodeData) {
         this.nodeData = nodeData;
     }
@@ -1,5 +1,6 @@
 package fit.lang.plugin.map.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeOutput;
 
@@ -41,6 +42,11 @@ public class MapExecuteNodeOutput implements ExecuteNodeOutput {
         return new MapExecuteNodeOutput(this.nodeContext);
     }
 
+    @Override
+    public ExecuteNodeOutput createOutput(ExecuteContext nodeContext) {
+        return new MapExecuteNodeOutput((MapExecuteContext) nodeContext);
+    }
+
     public void setNodeData(MapExecuteNodeData nodeData) {
         this.nodeData = nodeData;
     }
@@ -7,4 +7,9 @@ import fit.lang.common.AbstractExecuteContext;
  */
 public class ObjectExecuteContext extends AbstractExecuteContext {
 
+    @Override
+    protected ObjectExecuteContext newContext() {
+        return new ObjectExecuteContext();
+    }
+
 }
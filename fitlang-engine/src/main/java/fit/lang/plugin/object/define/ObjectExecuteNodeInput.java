@@ -1,5 +1,6 @@
 package fit.lang.plugin.object.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeInput;
 
@@ -37,4 +38,9 @@ public class ObjectExecuteNodeInput implements ExecuteNodeInput {
     public ExecuteNodeInput createInput() {
         return new ObjectExecuteNodeInput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeInput createInput(ExecuteContext nodeContext) {
+        return new ObjectExecuteNodeInput((ObjectExecuteContext) nodeContext);
+    }
 }
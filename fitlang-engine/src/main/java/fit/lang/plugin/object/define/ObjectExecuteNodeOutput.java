@@ -1,5 +1,6 @@
 package fit.lang.plugin.object.define;
 
+import fit.lang.define.ExecuteContext;
 import fit.lang.define.ExecuteNodeData;
 import fit.lang.define.ExecuteNodeOutput;
 
@@ -38,4 +39,9 @@ public class ObjectExecuteNodeOutput implements ExecuteNodeOutput {
     public ExecuteNodeOutput createOutput() {
         return new ObjectExecuteNodeOutput(this.nodeContext);
     }
+
+    @Override
+    public ExecuteNodeOutput createOutput(ExecuteContext nodeContext) {
+        return new ObjectExecuteNodeOutput((ObjectExecuteContext) nodeContext);
+    }
 }
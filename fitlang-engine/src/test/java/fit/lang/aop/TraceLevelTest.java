@@ -0,0 +1,90 @@
+package fit.lang.aop;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.Map;
+
+public class TraceLevelTest extends TestCase {
+
+    static final String FLOW = "{" +//
+            "   'uni': 'pipe'," +
+            "   'child': [{'uni':'hello'},{'uni':'mix','json':{'trace':true}}]" +
+            "}";
+
+    public void testFull() {
+        JsonExecuteContext context = execute(FLOW);
+        Assert.assertFalse(getNodeInputOutput(context).isEmpty());
+    }
+
+    public void testOff() {
+        JSONObject flow = JSONObject.parseObject(FLOW);
+        flow.put("traceLevel", "off");
+        JsonExecuteContext context = execute(flow.toJSONString());
+
+        Assert.assertEquals(TraceLevel.OFF, context.getTraceLevel());
+        Assert.assertTrue(getNodeInputOutput(context).isEmpty());
+    }
+
+    public void testTiming() {
+        JSONObject flow = JSONObject.parseObject(FLOW);
+        flow.put("traceLevel", "timing");
+        JsonExecuteContext context = execute(flow.toJSONString());
+
+        Assert.assertTrue(getNodeInputOutput(context).isEmpty());
+    }
+
+    public void testSampled() {
+        JSONObject flow = JSONObject.parseObject(FLOW);
+        flow.put("traceLevel", "sampled");
+        flow.put("traceSampleRate", 1);
+        JsonExecuteContext context = execute(flow.toJSONString());
+
+        Assert.assertEquals(TraceLevel.FULL, context.getTraceLevel());
+        Assert.assertFalse(getNodeInputOutput(context).isEmpty());
+    }
+
+    public void testMaxBytes() {
+        JSONObject flow = JSONObject.parseObject(FLOW);
+        flow.put("traceMaxBytes", 30);
+        JsonExecuteContext context = execute(flow.toJSONString());
+
+        System.out.println(context.getTraceRetainedBytes() + ", " + context.getTraceDroppedCount());
+
+        Assert.assertTrue(context.getTraceRetainedBytes() <= 30);
+        Assert.assertTrue(context.getTraceDroppedCount() > 0);
+    }
+
+    public void testDebug() {
+        //服务请求默认timing，debug时记录出入参
+        JSONObject flow = JSONObject.parseObject(FLOW);
+        flow.put("debug", true);
+        JsonExecuteContext context = new JsonExecuteContext();
+        context.setTraceLevel(TraceLevel.TIMING);
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow, new JSONObject(), context);
+
+        System.out.println(output);
+        Assert.assertEquals(TraceLevel.FULL, context.getTraceLevel());
+        Assert.assertFalse(output.getJSONObject("_debug").getJSONObject("nodeInputOutput").isEmpty());
+
+        //配置traceLevel时使用配置
+        flow.put("traceLevel", "timing");
+        context = new JsonExecuteContext();
+        ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow, new JSONObject(), context);
+        Assert.assertTrue(getNodeInputOutput(context).isEmpty());
+    }
+
+    static JsonExecuteContext execute(String flow) {
+        JsonExecuteContext context = new JsonExecuteContext();
+        String output = ExecuteJsonNodeUtil.executeCode(JSONObject.parseObject("{'who':'trace'}"), JSONObject.parseObject(flow), new JSONObject(), context);
+        Assert.assertEquals("{\"message\":\"hello, trace!\",\"trace\":true}", output);
+        return context;
+    }
+
+    static Map<?, ?> getNodeInputOutput(JsonExecuteContext context) {
+        return (Map<?, ?>) context.getAttribute("nodeInputOutput");
+    }
+}
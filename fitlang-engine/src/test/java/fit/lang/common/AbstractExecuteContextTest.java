@@ -0,0 +1,46 @@
+package fit.lang.common;
+
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class AbstractExecuteContextTest extends TestCase {
+
+    public void testForkNodeId() {
+        JsonExecuteContext context = new JsonExecuteContext();
+        AbstractExecuteContext child = context.fork();
+
+        String parentId = context.buildNextNodeId("mix");
+        String childId = child.buildNextNodeId("mix");
+        System.out.println(parentId + " " + childId);
+        Assert.assertNotEquals(parentId, childId);
+    }
+
+    public void testForkRemoveAttribute() {
+        JsonExecuteContext context = new JsonExecuteContext();
+        context.setAttribute("a", 1);
+        context.setAttribute("b", 2);
+        AbstractExecuteContext child = context.fork();
+
+        //删除父级属性后不再可见
+        Assert.assertEquals(1, child.getAllAttribute().remove("a"));
+        Assert.assertNull(child.getAttribute("a"));
+        Assert.assertNull(child.getAllAttribute().get("a"));
+        Assert.assertFalse(child.getAllAttribute().containsKey("a"));
+        Assert.assertFalse(child.getAllAttribute().keySet().contains("a"));
+        Assert.assertEquals(1, context.getAttribute("a"));
+
+        //重新设置后可见
+        child.getAllAttribute().put("b", 3);
+        child.getAllAttribute().remove("b");
+        Assert.assertNull(child.getAttribute("b"));
+        child.setAttribute("b", 4);
+        Assert.assertEquals(4, child.getAttribute("b"));
+
+        //合并时父级同步删除
+        context.merge(child);
+        System.out.println(context.getAllAttribute());
+        Assert.assertNull(context.getAttribute("a"));
+        Assert.assertEquals(4, context.getAttribute("b"));
+    }
+}
@@ -0,0 +1,77 @@
+package fit.lang.common;
+
+import fit.lang.ExecuteNodeException;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ExecuteNodeSchedulerTest extends TestCase {
+
+    public void testParallelismLimit() {
+        ExecuteNodeScheduler scheduler = ExecuteNodeScheduler.create(false);
+        ExecuteNodeScheduler.Batch<Integer> batch = scheduler.newBatch(3);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            int index = i;
+            batch.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return index;
+            });
+        }
+        List<Integer> result = batch.join();
+
+        System.out.println(scheduler.getStatistics());
+
+        Assert.assertEquals(20, result.size());
+        Assert.assertEquals(Integer.valueOf(19), result.get(19));
+        Assert.assertTrue(maxRunning.get() <= 3);
+    }
+
+    public void testCancelOnFailure() {
+        ExecuteNodeScheduler scheduler = ExecuteNodeScheduler.create(false);
+        ExecuteNodeScheduler.Batch<Integer> batch = scheduler.newBatch(2);
+
+        AtomicInteger executed = new AtomicInteger();
+        for (int i = 0; !batch.isFailed() && i < 100; i++) {
+            int index = i;
+            batch.submit(() -> {
+                executed.incrementAndGet();
+                if (index == 3) {
+                    throw new RuntimeException("error at 3");
+                }
+                Thread.sleep(5);
+                return index;
+            });
+        }
+        try {
+            batch.join();
+            Assert.fail();
+        } catch (ExecuteNodeException e) {
+            System.out.println(e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("error at 3"));
+        }
+        Assert.assertTrue(executed.get() < 100);
+    }
+
+    public void testNested() {
+        ExecuteNodeScheduler scheduler = new ExecuteNodeScheduler(ExecuteNodeScheduler.createPlatformExecutor(1, 2), ExecuteNodeScheduler.MODE_PLATFORM, 8);
+        ExecuteNodeScheduler.Batch<Integer> batch = scheduler.newBatch(4);
+        for (int i = 0; i < 4; i++) {
+            batch.submit(() -> {
+                ExecuteNodeScheduler.Batch<Integer> subBatch = scheduler.newBatch(4);
+                for (int j = 0; j < 4; j++) {
+                    int index = j;
+                    subBatch.submit(() -> index);
+                }
+                return subBatch.join().size();
+            });
+        }
+        Assert.assertEquals(Integer.valueOf(4), batch.join().get(3));
+    }
+}
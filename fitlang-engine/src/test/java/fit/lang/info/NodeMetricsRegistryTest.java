@@ -0,0 +1,107 @@
+package fit.lang.info;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class NodeMetricsRegistryTest extends TestCase {
+
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        System.out.println(histogram.toJSON());
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertTrue(Math.abs(histogram.getPercentile(50) - 500) <= 500 / 16);
+        Assert.assertTrue(Math.abs(histogram.getPercentile(99) - 990) <= 990 / 16);
+    }
+
+    public void testStableNodeId() {
+        Assert.assertEquals("mix-101", NodeMetricsRegistry.getStableNodeId("I-1700000000000-mix-101"));
+        Assert.assertEquals("myNode", NodeMetricsRegistry.getStableNodeId("myNode"));
+    }
+
+    public void testRecord() {
+        NodeMetricsRegistry.clear();
+
+        String flow = "{" +//
+                "   'uni': 'mix'," +
+                "   'id': 'metricsNode'," +
+                "   'json':{" +
+                "       'a':1" +
+                "   }" +
+                "}";
+        JSONObject contextParam = new JSONObject();
+        contextParam.put("servicePath", "/metrics/test");
+        for (int i = 0; i < 10; i++) {
+            ExecuteJsonNodeUtil.executeCode("{}", flow, contextParam.clone());
+        }
+
+        JSONObject metrics = NodeMetricsRegistry.toJSON();
+        System.out.println(metrics);
+
+        String text = NodeMetricsRegistry.toPrometheusText();
+        System.out.println(text);
+
+        NodeMetrics nodeMetrics = NodeMetricsRegistry.getMetrics("/metrics/test", "metricsNode", "mix");
+        Assert.assertEquals(10, nodeMetrics.getCount());
+        Assert.assertEquals(0, nodeMetrics.getErrorCount());
+        Assert.assertEquals(1, nodeMetrics.getPayloadSampleCount());
+        Assert.assertTrue(text.contains("fit_node_executions_total{flow=\"/metrics/test\",node=\"metricsNode\",uni=\"mix\"} 10"));
+    }
+
+    public void testPayloadSampleInterval() {
+        NodeMetricsRegistry.clear();
+        try {
+            //间隔为1时每次都抽样
+            NodeMetricsRegistry.setPayloadSampleInterval(1);
+            NodeMetrics nodeMetrics = NodeMetricsRegistry.getMetrics("/metrics/sample", "sampleNode", "mix");
+            for (int i = 0; i < 5; i++) {
+                NodeMetricsRegistry.record(nodeMetrics, 1000, false, "abc");
+            }
+            Assert.assertEquals(5, nodeMetrics.getPayloadSampleCount());
+            Assert.assertEquals(15, nodeMetrics.getPayloadBytes());
+
+            //间隔为2时第1、3、5次抽样
+            NodeMetricsRegistry.setPayloadSampleInterval(2);
+            nodeMetrics = NodeMetricsRegistry.getMetrics("/metrics/sample", "sampleNode2", "mix");
+            for (int i = 0; i < 5; i++) {
+                NodeMetricsRegistry.record(nodeMetrics, 1000, false, "abc");
+            }
+            Assert.assertEquals(3, nodeMetrics.getPayloadSampleCount());
+        } finally {
+            NodeMetricsRegistry.setPayloadSampleInterval(16);
+        }
+    }
+
+    public void testError() {
+        NodeMetricsRegistry.clear();
+
+        String flow = "{" +//
+                "   'uni': 'sequence'," +
+                "   'id': 'errorSequence'," +
+                "   'child':[{" +
+                "       'uni':'mix'," +
+                "       'id': 'errorNode'," +
+                "       'json':{" +
+                "           'a':'${notExistVar.length()}'" +
+                "       }" +
+                "   }]" +
+                "}";
+        JSONObject contextParam = new JSONObject();
+        contextParam.put("servicePath", "/metrics/error");
+        try {
+            ExecuteJsonNodeUtil.executeCode("{}", flow, contextParam);
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+        System.out.println(NodeMetricsRegistry.toJSON());
+
+        Assert.assertEquals(1, NodeMetricsRegistry.getMetrics("/metrics/error", "errorNode", "mix").getErrorCount());
+        Assert.assertEquals(1, NodeMetricsRegistry.getMetrics("/metrics/error", "errorSequence", "sequence").getErrorCount());
+    }
+}
@@ -923,4 +923,56 @@ public class CompareUtilsTest extends TestCase {
             assertEquals(newKey, expected[i]);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIgnorePathPrefix() {
+        JSONObject json1 = JSONObject.parseObject("{'a':{'b':1},'ab':1}");
+        JSONObject json2 = JSONObject.parseObject("{'ab':2}");
+        JSONArray list = CompareUtils.diffToArray(json1, json2);
+        System.out.println(list);
+        //删除的a对象不影响ab字段的比较
+        assertEquals(2, list.size());
+        assertEquals("ab", list.getJSONObject(1).getString("path"));
+        assertEquals("MODIFY", list.getJSONObject(1).getString("diffType"));
+    }
+
+    @Test
+    public void testAlignArray() {
+        JSONObject json1 = JSONObject.parseObject("{'list':[{'id':1,'name':'a'},{'id':2,'name':'b'},{'id':3,'name':'c'}],'tags':['x','y']}");
+        JSONObject json2 = JSONObject.parseObject("{'list':[{'id':3,'name':'c'},{'id':4,'name':'d'},{'id':1,'name':'a'}],'tags':['y','x']}");
+
+        assertFalse(CompareUtils.equals(json1, json2));
+
+        JSONObject alignJson2 = CompareUtils.alignArray(json1, json2, CompareUtils.ARRAY_ALIGN_OF_KEY, "id");
+        System.out.println(alignJson2);
+        assertEquals("{\"list\":[{\"id\":1,\"name\":\"a\"},{\"id\":4,\"name\":\"d\"},{\"id\":3,\"name\":\"c\"}],\"tags\":[\"y\",\"x\"]}", alignJson2.toJSONString());
+        //id为2和4的元素、tags两个元素不同
+        assertEquals(4, CompareUtils.diffToArray(json1, alignJson2).size());
+        //原json不变
+        assertEquals(3, json2.getJSONArray("list").getJSONObject(0).getIntValue("id"));
+
+        alignJson2 = CompareUtils.alignArray(json1, json2, CompareUtils.ARRAY_ALIGN_OF_VALUE, null);
+        System.out.println(alignJson2);
+        assertEquals("[\"x\",\"y\"]", alignJson2.getJSONArray("tags").toJSONString());
+    }
+
+    @Test
+    public void testLargeCompare() {
+        JSONArray list1 = new JSONArray();
+        JSONArray list2 = new JSONArray();
+        for (int i = 0; i < 50000; i++) {
+            list1.add(JSONObject.of("id", i, "name", "item" + i));
+            list2.add(JSONObject.of("id", i, "name", "item" + (i == 49999 ? "x" : i)));
+        }
+        JSONObject json1 = JSONObject.of("list", list1);
+        JSONObject json2 = JSONObject.of("list", list2);
+
+        long beginTime = System.currentTimeMillis();
+        JSONArray diff = CompareUtils.diffToArray(json1, json2);
+        System.out.println("compare 100000 path cost: " + (System.currentTimeMillis() - beginTime) + "ms");
+
+        assertEquals(1, diff.size());
+        assertEquals("list[49999].name", diff.getJSONObject(0).getString("path"));
+        assertFalse(CompareUtils.equals(json1, json2));
+    }
+}
@@ -1,9 +1,13 @@
 package fit.lang.plugin.json;
 
 import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.define.JsonExecuteContext;
 import junit.framework.TestCase;
 import org.junit.Assert;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import static fit.lang.plugin.json.ExecuteJsonNodeUtil.covertToLong;
 
 public class ExecuteJsonNodeUtilTest extends TestCase {
@@ -62,4 +66,48 @@ public class ExecuteJsonNodeUtilTest extends TestCase {
         Assert.assertEquals(Long.valueOf(1), item.getLong("a"));
     }
 
-}
\ No newline at end of file
+    public void testExecuteJson() {
+        JSONObject flow = JSONObject.parseObject("{'uni':'mix','json':{'b':'${a + 1}'}}");
+        JSONObject input = new JSONObject();
+        input.put("a", 1);
+
+        JSONObject result = ExecuteJsonNodeUtil.executeJson(input, flow);
+        System.out.println(result);
+        Assert.assertEquals(2, result.getIntValue("b"));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExecuteJsonNodeUtil.writeOutput(flow, result, outputStream);
+        Assert.assertEquals(ExecuteJsonNodeUtil.executeCode(input, flow), new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    public void testExecuteJsonOutputRawField() {
+        JSONObject flow = JSONObject.parseObject("{'uni':'mix','outputRawField':'text','json':{'text':'hello'}}");
+
+        Assert.assertEquals("hello", ExecuteJsonNodeUtil.executeCode(new JSONObject(), flow));
+        Assert.assertEquals("hello", new String(ExecuteJsonNodeUtil.toOutputBytes(flow, ExecuteJsonNodeUtil.executeFlow(new JSONObject(), flow, null, new JsonExecuteContext())), StandardCharsets.UTF_8));
+    }
+
+    public void testExecuteJsonCopy() {
+        JSONObject flow = JSONObject.parseObject("{'uni':'mix','json':{'a':'${obj}'}}");
+        JSONObject contextParam = JSONObject.parseObject("{'obj':{'b':1}}");
+
+        //出参是副本，修改不影响调用方传入的对象
+        JSONObject result = ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow, contextParam, new JsonExecuteContext());
+        System.out.println(result);
+        result.getJSONObject("a").put("b", 2);
+        Assert.assertEquals(1, contextParam.getJSONObject("obj").getIntValue("b"));
+    }
+
+    public void testExecuteJsonOutputRawText() {
+        JSONObject flow = JSONObject.parseObject("{'uni':'mix','outputRawField':'text','json':{'text':'hello'}}");
+        JSONObject result = ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow);
+        System.out.println(result);
+        Assert.assertEquals("hello", result.getString("_raw"));
+
+        flow = JSONObject.parseObject("{'uni':'mix','outputRawField':'text','json':{'text':'[1,2]'}}");
+        Assert.assertEquals(2, ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow).getJSONArray("list").size());
+
+        flow = JSONObject.parseObject("{'uni':'mix','outputRawField':'text','json':{'text':{'a':1}}}");
+        Assert.assertEquals(1, ExecuteJsonNodeUtil.executeJson(new JSONObject(), flow).getIntValue("a"));
+    }
+}
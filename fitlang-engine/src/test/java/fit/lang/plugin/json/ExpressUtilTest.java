@@ -2,6 +2,7 @@ package fit.lang.plugin.json;
 
 import com.alibaba.fastjson2.JSONObject;
 import junit.framework.TestCase;
+import org.junit.Assert;
 
 public class ExpressUtilTest extends TestCase {
 
@@ -20,4 +21,28 @@ public class ExpressUtilTest extends TestCase {
         Object result = ExpressUtil.eval(express, param);
         System.out.println(result);
     }
-}
\ No newline at end of file
+
+    public void testEvalFieldPath() {
+        JSONObject param = JSONObject.parseObject("{'a':{'b':{'c':1}},'n':null}");
+        Assert.assertEquals(1, ExpressUtil.eval("${a.b.c}", param));
+        Assert.assertEquals(param.getJSONObject("a"), ExpressUtil.eval("${ a }", param));
+        Assert.assertNull(ExpressUtil.eval("${n}", param));
+        try {
+            ExpressUtil.eval("${a.x}", param);
+            Assert.fail();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    public void testEvalCompiledCache() {
+        JSONObject param = new JSONObject();
+        long hitCount = ExpressUtil.getExpressCacheStatistics().getLongValue("hitCount");
+        for (int i = 0; i < 3; i++) {
+            param.put("i", i);
+            Assert.assertEquals(i + 1, ExpressUtil.eval("${i + 1}", param));
+        }
+        Assert.assertTrue(ExpressUtil.getExpressCacheStatistics().getLongValue("hitCount") - hitCount >= 2);
+        Assert.assertFalse(param.containsKey("FitLang"));
+    }
+}
@@ -0,0 +1,52 @@
+package fit.lang.plugin.json;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.define.ExecuteNode;
+import fit.lang.plugin.json.util.HelloJsonExecuteNode;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class JsonExecuteNodeRegistryTest extends TestCase {
+
+    /**
+     * 索引中的类名都能加载
+     */
+    public void testIndexLoadable() {
+        for (String[] item : JsonExecuteNodeRegistry.BUILTIN_INDEX) {
+            Class<? extends ExecuteNode> executeNodeClass = JsonExecuteNodeRegistry.getExecuteNodeClass(item[0]);
+            Assert.assertNotNull(item[0], executeNodeClass);
+            Assert.assertEquals(item[1], executeNodeClass.getName());
+        }
+        JSONObject report = JsonExecuteNodeRegistry.getReport();
+        System.out.println(report.getIntValue("loadedCount") + " " + report.getDoubleValue("loadMillis") + "ms");
+        Assert.assertTrue(report.getIntValue("loadedCount") > 0);
+    }
+
+    public void testProtocol() {
+        Assert.assertEquals(HelloJsonExecuteNode.class, JsonExecuteNodeRegistry.getExecuteNodeClass("hello:world"));
+        Assert.assertEquals(HelloJsonExecuteNode.class, JsonExecuteNodeRegistry.getExecuteNodeClass("hello:world"));
+        Assert.assertNull(JsonExecuteNodeRegistry.getExecuteNodeClass("notExist:world"));
+        Assert.assertNull(JsonExecuteNodeRegistry.getExecuteNodeClass("notExist"));
+    }
+
+    public void testRegisterByName() {
+        JsonExecuteNodeRegistry.register("helloByName", HelloJsonExecuteNode.class.getName());
+        Assert.assertEquals(HelloJsonExecuteNode.class, JsonExecuteNodeRegistry.getExecuteNodeClass("helloByName:x"));
+
+        //卸载后带协议的uni也找不到
+        JsonExecuteNodeRegistry.unregister("helloByName");
+        Assert.assertNull(JsonExecuteNodeRegistry.getExecuteNodeClass("helloByName:x"));
+
+        JsonExecuteNodeRegistry.register("errorClass", "fit.lang.NotExistNode");
+        try {
+            JsonExecuteNodeRegistry.getExecuteNodeClass("errorClass");
+            Assert.fail();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            //保留加载失败的原因
+            Assert.assertTrue(e.getCause() instanceof ClassNotFoundException);
+        } finally {
+            JsonExecuteNodeRegistry.unregister("errorClass");
+        }
+    }
+}
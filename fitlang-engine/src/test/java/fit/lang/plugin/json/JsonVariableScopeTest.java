@@ -0,0 +1,49 @@
+package fit.lang.plugin.json;
+
+import com.alibaba.fastjson2.JSONObject;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class JsonVariableScopeTest extends TestCase {
+
+    public void testGet() {
+        JSONObject input = JSONObject.parseObject("{'a':1,'b':null}");
+        Map<String, Object> attribute = new HashMap<>();
+        attribute.put("a", 2);
+        attribute.put("b", 3);
+        JSONObject nodeDefine = JSONObject.parseObject("{'b':4,'c':5}");
+
+        JsonVariableScope scope = new JsonVariableScope(input, attribute, nodeDefine);
+
+        Assert.assertEquals(1, scope.get("a"));
+        Assert.assertEquals(3, scope.get("b"));
+        Assert.assertEquals(5, scope.get("c"));
+        Assert.assertSame(attribute, scope.get("context"));
+        Assert.assertEquals(scope.toJSONObject().get("b"), scope.get("b"));
+    }
+
+    public void testEval() {
+        JSONObject input = JSONObject.parseObject("{'a':{'b':1},'who':'world'}");
+        Map<String, Object> attribute = new HashMap<>();
+        attribute.put("clientIp", "127.0.0.1");
+
+        JsonVariableScope scope = new JsonVariableScope(input, attribute);
+
+        Assert.assertEquals(1, ExpressUtil.eval("${a.b}", scope));
+        Assert.assertEquals(2, ExpressUtil.eval("${a.b + 1}", scope));
+        Assert.assertEquals("hello, world@127.0.0.1", ExpressUtil.eval("${'hello, ' + who + '@' + context.clientIp}", scope));
+        Assert.assertEquals("616263", ExpressUtil.eval("${FitLang.encodeHex('abc')}", scope));
+    }
+
+    public void testCopyOnWrite() {
+        JSONObject input = JSONObject.parseObject("{'x':1}");
+        JsonVariableScope scope = new JsonVariableScope(input, new HashMap<>());
+
+        Assert.assertEquals(2, ExpressUtil.eval("${x = x + 1; x}", scope));
+        Assert.assertEquals(2, scope.get("x"));
+        Assert.assertEquals(1, input.get("x"));
+    }
+}
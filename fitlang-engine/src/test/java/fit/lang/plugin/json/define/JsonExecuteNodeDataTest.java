@@ -0,0 +1,64 @@
+package fit.lang.plugin.json.define;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.JsonDynamicFlowExecuteEngine;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class JsonExecuteNodeDataTest extends TestCase {
+
+    public void testCloneShare() {
+        JSONObject source = JSONObject.parseObject("{'a':{'b':1,'c':{'d':2}},'e':{'f':3},'list':[1,2]}");
+        JsonExecuteNodeData data = new JsonExecuteNodeData(source);
+        JsonExecuteNodeData clone = (JsonExecuteNodeData) data.cloneThis();
+
+        //只读不复制
+        Assert.assertSame(source, clone.getReadOnlyData());
+        Assert.assertEquals(1, clone.getJsonObject("a").getIntValue("b"));
+
+        //写入时复制路径上的对象，其他对象继续共享
+        clone.set("a.c.d", 20);
+        System.out.println(source);
+        System.out.println(clone.getReadOnlyData());
+
+        Assert.assertEquals(2, source.getJSONObject("a").getJSONObject("c").getIntValue("d"));
+        Assert.assertEquals(20, clone.getReadOnlyData().getJSONObject("a").getJSONObject("c").getIntValue("d"));
+        Assert.assertNotSame(source, clone.getReadOnlyData());
+        Assert.assertNotSame(source.get("a"), clone.getReadOnlyData().get("a"));
+        Assert.assertSame(source.get("e"), clone.getReadOnlyData().get("e"));
+        Assert.assertSame(source.get("list"), clone.getReadOnlyData().get("list"));
+
+        //原数据写入也不影响副本
+        data.remove("e");
+        Assert.assertFalse(data.containsKey("e"));
+        Assert.assertTrue(clone.containsKey("e"));
+    }
+
+    public void testGetDataCopy() {
+        JSONObject source = JSONObject.parseObject("{'a':1}");
+        JsonExecuteNodeData data = new JsonExecuteNodeData(source);
+        JsonExecuteNodeData clone = (JsonExecuteNodeData) data.cloneThis();
+
+        clone.getData().put("b", 2);
+
+        Assert.assertFalse(source.containsKey("b"));
+        Assert.assertEquals(2, clone.getReadOnlyData().getIntValue("b"));
+        //复制后再次获取不再复制
+        Assert.assertSame(clone.getData(), clone.getData());
+    }
+
+    public void testPipeNextNotChangePreviousOutput() {
+        JSONObject nodeDefine = JSONObject.parseObject("{'uni':'set','path':'user.age','value':2}");
+        JsonExecuteNodeData previousOutput = new JsonExecuteNodeData(JSONObject.parseObject("{'user':{'name':'a','age':1}}"));
+
+        JsonExecuteContext nodeContext = new JsonExecuteContext();
+        JsonExecuteNodeInput input = new JsonExecuteNodeInput((JsonExecuteNodeData) previousOutput.cloneThis(), nodeContext);
+        JsonExecuteNodeOutput output = new JsonExecuteNodeOutput(nodeContext);
+        new JsonDynamicFlowExecuteEngine(nodeDefine).execute(input, output);
+        System.out.println(output.getData());
+
+        Assert.assertEquals(2, output.getJsonObject("user").getIntValue("age"));
+        Assert.assertEquals("a", output.getJsonObject("user").getString("name"));
+        Assert.assertEquals(1, previousOutput.getJsonObject("user").getIntValue("age"));
+    }
+}
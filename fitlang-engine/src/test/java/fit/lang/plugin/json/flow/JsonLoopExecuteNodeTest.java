@@ -1,5 +1,6 @@
 package fit.lang.plugin.json.flow;
 
+import cn.hutool.core.exceptions.ExceptionUtil;
 import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import junit.framework.TestCase;
@@ -109,4 +110,25 @@ public class JsonLoopExecuteNodeTest extends TestCase {
         Assert.assertEquals("{\"list\":[{\"times\":1},{\"times\":3},{\"times\":5},{\"times\":7},{\"times\":9}]}", output);
     }
 
-}
\ No newline at end of file
+    public void testBagsStepInvalid() {
+        for (int bagsStep : new int[]{0, -1}) {
+            String flow = "{" +//
+                    "   'uni': 'loop'," +
+                    "   'loopTimes': 3," +
+                    "   'isBagsMode': true," +
+                    "   'bagsStep': " + bagsStep + "," +
+                    "   'child': {" +
+                    "       'uni':'mix'," +
+                    "       'json':{}" +
+                    "   }" +
+                    "}";
+            try {
+                ExecuteJsonNodeUtil.executeCode("{}", flow);
+                Assert.fail("bagsStep must be greater than 0");
+            } catch (Exception e) {
+                System.out.println(e);
+                Assert.assertTrue(ExceptionUtil.getRootCauseMessage(e).contains("bagsStep"));
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package fit.lang.plugin.json.flow;
+
+import cn.hutool.http.server.SimpleServer;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.ExecuteNodeException;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import fit.lang.plugin.json.web.server.FitServerInstance;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class JsonParallelExecuteNodeTest extends TestCase {
+
+    public void testExecute() {
+        String flow = "{" +
+                "    'uni': 'parallel'," +
+                "    'child': [" +
+                "       {" +
+                "           'uni': 'sleep'," +
+                "           'second': 0.5" +
+                "        }," +
+                "        {'uni': 'sleep', 'second': 0.5}," +
+                "        {" +
+                "            'uni': 'sequence'," +
+                "            'child': [" +
+                "                {'uni': 'sleep', 'second': 0.5}," +
+                "                {'uni': 'mix', 'json': {'hello': 'world'}}" +
+                "            ]" +
+                "        }" +
+                "     ]" +
+                "}";
+
+        long beginTime = System.currentTimeMillis();
+        String output = ExecuteJsonNodeUtil.executeCode("{\"a\":1}", flow);
+        long cost = System.currentTimeMillis() - beginTime;
+
+        System.out.println(output + " cost: " + cost);
+        Assert.assertEquals("{\"list\":[{\"a\":1},{\"a\":1},{\"a\":1,\"hello\":\"world\"}]}", output);
+        Assert.assertTrue(cost < 1500);
+    }
+
+    public void testExecuteTimeout() {
+        String flow = "{" +
+                "    'uni': 'all'," +
+                "    'bagsName': 'results'," +
+                "    'timeout': 200," +
+                "    'ignoreError': true," +
+                "    'child': [" +
+                "        {'uni': 'mix', 'json': {'fast': true}}," +
+                "        {'uni': 'sleep', 'second': 2}" +
+                "     ]" +
+                "}";
+
+        long beginTime = System.currentTimeMillis();
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(JSONObject.parseObject("{}"), JSONObject.parseObject(flow));
+        long cost = System.currentTimeMillis() - beginTime;
+
+        System.out.println(output + " cost: " + cost);
+        Assert.assertEquals(true, output.getJSONArray("results").getJSONObject(0).get("fast"));
+        Assert.assertEquals("timeout: 200ms", output.getJSONArray("results").getJSONObject(1).get("error"));
+        Assert.assertTrue(cost < 1500);
+    }
+
+    public void testExecuteError() {
+        String flow = "{" +
+                "    'uni': 'parallel'," +
+                "    'ignoreError': true," +
+                "    'child': [" +
+                "        {'uni': 'mix', 'json': {'ok': true}}," +
+                "        {'uni': 'mix', 'json': {'b': '${notExistVar.length()}'}}" +
+                "     ]" +
+                "}";
+
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(JSONObject.parseObject("{\"a\":1}"), JSONObject.parseObject(flow));
+
+        System.out.println(output);
+        Assert.assertEquals(true, output.getJSONArray("list").getJSONObject(0).get("ok"));
+        Assert.assertNotNull(output.getJSONArray("list").getJSONObject(1).get("error"));
+    }
+
+    public void testExecuteErrorNotMerged() {
+        String flow = "{" +
+                "    'uni': 'parallel'," +
+                "    'ignoreError': true," +
+                "    'child': [" +
+                "        {'uni': 'setGlobal', 'key': 'ok', 'value': true}," +
+                "        {'uni': 'pipe', 'child': [{'uni': 'setGlobal', 'key': 'partial', 'value': true}, {'uni': 'mix', 'json': {'b': '${notExistVar.length()}'}}]}" +
+                "     ]" +
+                "}";
+
+        JsonExecuteContext nodeContext = new JsonExecuteContext();
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow), new JSONObject(), nodeContext);
+
+        System.out.println(output);
+        Assert.assertNotNull(output.getJSONArray("list").getJSONObject(1).get("error"));
+        //异常的子节点上下文不合并
+        Assert.assertEquals(true, nodeContext.getAttribute("ok"));
+        Assert.assertNull(nodeContext.getAttribute("partial"));
+    }
+
+    public void testAsyncName() {
+        JsonExecuteContext nodeContext = new JsonExecuteContext();
+        //没有名称时按默认名称生成不重复的名称
+        Assert.assertEquals("http-1", AsyncExecuteHandle.submit(nodeContext, null, "http-1", null, JSONObject::new).getName());
+        Assert.assertEquals("http-1-1", AsyncExecuteHandle.submit(nodeContext, null, "http-1", null, JSONObject::new).getName());
+        Assert.assertEquals("async", AsyncExecuteHandle.submit(nodeContext, "", null, null, JSONObject::new).getName());
+
+        //指定的名称重复时报错
+        AsyncExecuteHandle.submit(nodeContext, "user", null, null, JSONObject::new);
+        try {
+            AsyncExecuteHandle.submit(nodeContext, "user", null, null, JSONObject::new);
+            Assert.fail("async name should be unique");
+        } catch (ExecuteNodeException e) {
+            System.out.println(e.getMessage());
+        }
+        Assert.assertEquals(4, AsyncExecuteHandle.getHandles(nodeContext, false).size());
+    }
+
+    public void testAwait() {
+        int port = 11192;
+        FitServerInstance fitServer = ServerJsonExecuteNode.createFitServerInstance(port, null);
+        SimpleServer simpleServer = fitServer.getSimpleServer();
+        simpleServer.addAction("/slow", (request, response) -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                //ignore
+            }
+            response.write("{\"slow\":true}", "application/json");
+        });
+        simpleServer.start();
+
+        String flow = "{" +
+                "    'uni': 'sequence'," +
+                "    'child': [" +
+                "        {'uni': 'http', 'async': true, 'asyncName': 'first', 'url': 'http://127.0.0.1:11192/slow'}," +
+                "        {'uni': 'http', 'async': true, 'asyncName': 'second', 'url': 'http://127.0.0.1:11192/slow'}," +
+                "        {'uni': 'http', 'async': true, 'asyncName': 'third', 'url': 'http://127.0.0.1:11192/slow'}," +
+                "        {'uni': 'await', 'timeout': 3000}" +
+                "     ]" +
+                "}";
+
+        try {
+            //预热http客户端
+            ExecuteJsonNodeUtil.executeJson(JSONObject.parseObject("{}"), JSONObject.parseObject("{'uni':'http','url':'http://127.0.0.1:11192/slow'}"));
+
+            long beginTime = System.currentTimeMillis();
+            JSONObject output = ExecuteJsonNodeUtil.executeJson(JSONObject.parseObject("{\"a\":1}"), JSONObject.parseObject(flow));
+            long cost = System.currentTimeMillis() - beginTime;
+
+            System.out.println(output + " cost: " + cost);
+            Assert.assertEquals(1, output.get("a"));
+            Assert.assertEquals(true, output.getJSONObject("first").get("slow"));
+            Assert.assertEquals(true, output.getJSONObject("second").get("slow"));
+            Assert.assertEquals(true, output.getJSONObject("third").get("slow"));
+            Assert.assertTrue(cost < 1200);
+        } finally {
+            simpleServer.getRawServer().stop(0);
+            fitServer.getExecutor().shutdown();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package fit.lang.plugin.json.flow;
 
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import junit.framework.TestCase;
 import org.junit.Assert;
@@ -48,4 +50,34 @@ public class JsonParallelForeachExecuteNodeTest extends TestCase {
         Assert.assertEquals("{\"list\":[{\"value\":\"a\",\"times\":0,\"message\":\"mix\"}]}", output);
     }
 
-}
\ No newline at end of file
+    public void testExecuteIsolated() {
+        String flow = "{" +//
+                "   'uni': 'foreach'," +
+                "   'parallelism': 8," +
+                "   'foreachField': 'list'," +
+                "   'child': {" +
+                "       'uni':'mix'," +
+                "       'json':{" +
+                "           'index':'${foreachIndex}'" +
+                "       }" +
+                "   }" +
+                "}";
+
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < 50; i++) {
+            list.add(i);
+        }
+        JSONObject input = new JSONObject();
+        input.put("list", list);
+
+        String output = ExecuteJsonNodeUtil.executeCode(input.toJSONString(), flow);
+
+        System.out.println(output);
+
+        JSONArray result = JSONObject.parseObject(output).getJSONArray("list");
+        Assert.assertEquals(50, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Assert.assertEquals(result.getJSONObject(i).getIntValue("value"), result.getJSONObject(i).getIntValue("index"));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package fit.lang.plugin.json.flow;
 
+import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import junit.framework.TestCase;
@@ -50,6 +51,31 @@ public class JsonParallelLoopExecuteNodeTest extends TestCase {
 
     }
 
+    public void testExecuteIsolated() {
+        String flow = "{" +//
+                "   'uni': 'loop'," +
+                "   'isBagsMode': true," +
+                "   'parallelism': 8," +
+                "   'loopTimes': 50," +
+                "   'child': {" +
+                "       'uni':'mix'," +
+                "       'json':{" +
+                "           'index':'${loopIndex}'" +
+                "       }" +
+                "   }" +
+                "}";
+
+        String output = ExecuteJsonNodeUtil.executeCode("{'times':0}", flow);
+
+        System.out.println(output);
+
+        JSONArray list = JSONObject.parseObject(output).getJSONArray("list");
+        Assert.assertEquals(50, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            Assert.assertEquals(i, list.getJSONObject(i).getIntValue("index"));
+        }
+    }
+
     public void testExecuteHttp() {
         int loopTimes = 10;
         String flow = "{" +//
@@ -0,0 +1,111 @@
+package fit.lang.plugin.json.flow;
+
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.File;
+
+public class JsonStreamForeachExecuteNodeTest extends TestCase {
+
+    public void testExecuteList() {
+        String flow = "{" +//
+                "   'uni': 'foreachStream'," +
+                "   'parallelism': 4," +
+                "   'window': 8," +
+                "   'child': {" +
+                "       'uni':'mix'," +
+                "       'json':{" +
+                "           'index':'${foreachIndex}'" +
+                "       }" +
+                "   }" +
+                "}";
+
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        JSONObject input = new JSONObject();
+        input.put("list", list);
+
+        String output = ExecuteJsonNodeUtil.executeCode(input.toJSONString(), flow);
+
+        System.out.println(output);
+
+        JSONObject result = JSONObject.parseObject(output);
+        Assert.assertEquals(100, result.getIntValue("total"));
+        JSONArray resultList = result.getJSONArray("list");
+        for (int i = 0; i < resultList.size(); i++) {
+            Assert.assertEquals(i, resultList.getJSONObject(i).getIntValue("value"));
+            Assert.assertEquals(i, resultList.getJSONObject(i).getIntValue("index"));
+        }
+    }
+
+    public void testExecuteJsonLinesWithSink() {
+        File file = new File(FileUtil.getTmpDirPath(), "fit-stream-foreach-test.jsonl");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            content.append("{\"id\":").append(i).append("}\n");
+        }
+        FileUtil.writeUtf8String(content.toString(), file);
+
+        String flow = "{" +//
+                "   'uni': 'foreachStream'," +
+                "   'parallelism': 2," +
+                "   'sinkBatchSize': 100," +
+                "   'source': {" +
+                "       'type':'jsonLines'," +
+                "       'filePath':'" + file.getAbsolutePath().replace("\\", "/") + "'" +
+                "   }," +
+                "   'child': {" +
+                "       'uni':'mix'," +
+                "       'json':{" +
+                "           'done':true" +
+                "       }" +
+                "   }," +
+                "   'sink': {" +
+                "       'uni':'echo'" +
+                "   }" +
+                "}";
+
+        try {
+            String output = ExecuteJsonNodeUtil.executeCode("{}", flow);
+
+            System.out.println(output);
+
+            Assert.assertEquals("{\"total\":250,\"sinkBatchCount\":3}", output);
+        } finally {
+            FileUtil.del(file);
+        }
+    }
+
+    public void testExecuteGenerator() {
+        String flow = "{" +//
+                "   'uni': 'foreachStream'," +
+                "   'source': {" +
+                "       'type':'generator'," +
+                "       'pageSize':2," +
+                "       'node':{" +
+                "           'uni':'mix'," +
+                "           'json':{" +
+                "               'list':'${page < 3 ? [page * 10, page * 10 + 1] : []}'" +
+                "           }" +
+                "       }" +
+                "   }," +
+                "   'child': {" +
+                "       'uni':'echo'" +
+                "   }" +
+                "}";
+
+        String output = ExecuteJsonNodeUtil.executeCode("{}", flow);
+
+        System.out.println(output);
+
+        JSONObject result = JSONObject.parseObject(output);
+        Assert.assertEquals(4, result.getIntValue("total"));
+        Assert.assertEquals(21, result.getJSONArray("list").getJSONObject(3).getIntValue("value"));
+    }
+}
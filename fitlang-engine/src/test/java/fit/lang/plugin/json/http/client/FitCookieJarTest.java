@@ -0,0 +1,62 @@
+package fit.lang.plugin.json.http.client;
+
+import com.alibaba.fastjson2.JSONObject;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.net.HttpCookie;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FitCookieJarTest extends TestCase {
+
+    public void testExpire() throws InterruptedException {
+        FitCookieJar cookieJar = new FitCookieJar();
+        cookieJar.add("fit.321zou.com", HttpCookie.parse("Set-Cookie: token=abc; Max-Age=1").get(0));
+        cookieJar.add("fit.321zou.com", HttpCookie.parse("Set-Cookie: user=fit").get(0));
+        cookieJar.add("fit.321zou.com", HttpCookie.parse("Set-Cookie: old=1; Expires=Thu, 01 Jan 2015 00:00:00 GMT").get(0));
+
+        JSONObject cookie = cookieJar.get("fit.321zou.com");
+        System.out.println(cookie);
+        Assert.assertEquals("{\"token\":\"abc\",\"user\":\"fit\"}", cookie.toJSONString());
+
+        Thread.sleep(1100);
+        Assert.assertEquals("{\"user\":\"fit\"}", cookieJar.get("fit.321zou.com").toJSONString());
+
+        cookieJar.add("fit.321zou.com", HttpCookie.parse("Set-Cookie: user=; Max-Age=0").get(0));
+        Assert.assertNull(cookieJar.get("fit.321zou.com"));
+        Assert.assertEquals(0, cookieJar.getDomainCount());
+    }
+
+    public void testDomain() {
+        FitCookieJar cookieJar = new FitCookieJar();
+        cookieJar.add("www.321zou.com", HttpCookie.parse("Set-Cookie: sid=1; Domain=.321zou.com").get(0));
+        cookieJar.put("www.321zou.com", "local", "2");
+
+        Assert.assertEquals("{\"local\":\"2\",\"sid\":\"1\"}", cookieJar.get("www.321zou.com").toJSONString());
+        Assert.assertEquals("{\"sid\":\"1\"}", cookieJar.get("fit.321zou.com").toJSONString());
+        Assert.assertNull(cookieJar.get("321zou.org"));
+    }
+
+    public void testLimit() throws InterruptedException {
+        FitCookieJar cookieJar = new FitCookieJar(10, 3);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int threadIndex = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    cookieJar.put("host" + (i % 100) + ".com", "c" + threadIndex + "_" + i, "v");
+                    cookieJar.get("host" + (i % 50) + ".com");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        System.out.println(cookieJar.getDomainCount() + ", " + cookieJar.getCookieCount());
+        Assert.assertTrue(cookieJar.getDomainCount() <= 10);
+        Assert.assertTrue(cookieJar.getCookieCount() <= 30);
+    }
+}
@@ -0,0 +1,122 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpUtil;
+import cn.hutool.http.server.SimpleServer;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import fit.lang.plugin.json.web.server.FitServerResponse;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.File;
+
+public class FitHttpBodyUtilTest extends TestCase {
+
+    static final int PORT = 11193;
+
+    static SimpleServer server;
+
+    static String bigJson;
+
+    @Override
+    protected void setUp() {
+        if (server != null) {
+            return;
+        }
+        JSONArray list = new JSONArray();
+        for (int i = 0; i < 10000; i++) {
+            JSONObject item = new JSONObject();
+            item.put("index", i);
+            item.put("name", "item-" + i);
+            list.add(item);
+        }
+        JSONObject big = new JSONObject();
+        big.put("list", list);
+        bigJson = big.toJSONString();
+
+        server = HttpUtil.createServer(PORT);
+        server.addAction("/big", (request, response) -> response.write(bigJson, "application/json"));
+        server.addAction("/array", (request, response) -> response.write(" [1,2,3]", "application/json"));
+        server.addAction("/text", (request, response) -> response.write("hello world", "text/plain"));
+        server.addAction("/pipe", (request, response) -> {
+            JsonExecuteContext context = new JsonExecuteContext();
+            context.setAttribute(ServerJsonExecuteNode.SERVER_RESPONSE, new FitServerResponse(response));
+            JSONObject flow = JSONObject.parseObject("{'uni':'proxy','stream':true,'url':'http://127.0.0.1:" + PORT + "/big'}");
+            ExecuteJsonNodeUtil.executeFlow(new JSONObject(), flow, null, context);
+        });
+        server.start();
+    }
+
+    public void testStreamParse() {
+        for (String client : new String[]{"jdk", "hutool"}) {
+            String flow = "{'uni':'http','method':'GET','stream':true,'client':'" + client + "','url':'http://127.0.0.1:" + PORT + "/big'}";
+            JSONObject output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow));
+            Assert.assertEquals(10000, output.getJSONArray("list").size());
+
+            flow = "{'uni':'http','method':'GET','stream':true,'client':'" + client + "','url':'http://127.0.0.1:" + PORT + "/array'}";
+            output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow));
+            System.out.println(output);
+            Assert.assertEquals("{\"list\":[1,2,3]}", output.toJSONString());
+
+            flow = "{'uni':'http','method':'GET','stream':true,'onlyBody':false,'client':'" + client + "','url':'http://127.0.0.1:" + PORT + "/text'}";
+            output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow));
+            System.out.println(output);
+            Assert.assertEquals("hello world", output.getJSONObject("body").getString("_raw"));
+            Assert.assertEquals(11, output.getJSONObject("sizeInfo").getIntValue("body"));
+        }
+    }
+
+    public void testMaxBodySize() {
+        String flow = "{'uni':'http','method':'GET','maxBodySize':1024,'url':'http://127.0.0.1:" + PORT + "/big'}";
+        try {
+            ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow));
+            Assert.fail("body size should be limited");
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("too large"));
+        }
+        Assert.assertEquals(0, FitHttpClientManager.getHostPool("http://127.0.0.1:" + PORT).active.get());
+    }
+
+    public void testSaveFile() {
+        File file = FileUtil.file(FileUtil.getTmpDir(), "fit_http_body_test.json");
+        FileUtil.del(file);
+        String flow = "{'uni':'http','method':'GET','saveFile':'" + file.getAbsolutePath().replace("\\", "/") + "','url':'http://127.0.0.1:" + PORT + "/big'}";
+
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(new JSONObject(), JSONObject.parseObject(flow));
+        System.out.println(output);
+
+        Assert.assertEquals(bigJson.length(), output.getLongValue("size"));
+        Assert.assertEquals(bigJson, FileUtil.readUtf8String(file));
+        FileUtil.del(file);
+    }
+
+    public void testProxyPipe() {
+        String body = HttpRequest.get("http://127.0.0.1:" + PORT + "/pipe").execute().body();
+        Assert.assertEquals(bigJson, body);
+    }
+
+    public void testProxyPipeMaxBodySize() {
+        String url = "http://127.0.0.1:11306";
+        String flow = "{'uni':'server','port':11306,'service':{" +
+                "'/proxy':{'uni':'proxy','stream':true,'maxBodySize':1024,'url':'http://127.0.0.1:" + PORT + "/big'}}}";
+        try {
+            System.out.println(ExecuteJsonNodeUtil.executeCode("{}", flow));
+
+            //上游长度超过限制，不输出截断的200响应
+            HttpResponse response = HttpRequest.get(url + "/proxy").execute();
+            System.out.println(response.body());
+            Assert.assertEquals(502, response.getStatus());
+            Assert.assertTrue(response.body().contains("too large"));
+        } finally {
+            HttpUtil.get(url + "/_stop");
+            ServerJsonExecuteNode.setCurrentServerFilePath(null);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package fit.lang.plugin.json.http.client;
+
+import cn.hutool.http.HttpUtil;
+import cn.hutool.http.server.SimpleServer;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class FitHttpClientManagerTest extends TestCase {
+
+    static final int PORT = 11191;
+
+    static SimpleServer server;
+
+    @Override
+    protected void setUp() {
+        if (server != null) {
+            return;
+        }
+        server = HttpUtil.createServer(PORT);
+        server.addAction("/echo", (request, response) -> {
+            JSONObject result = new JSONObject();
+            result.put("method", request.getMethod());
+            result.put("name", request.getParam("name"));
+            result.put("contentType", request.getHeader("Content-Type"));
+            result.put("acceptEncoding", request.getHeader("Accept-Encoding"));
+            result.put("host", request.getHeader("Host"));
+            result.put("body", request.getBody());
+            response.write(result.toJSONString(), "application/json");
+        });
+        server.start();
+    }
+
+    public void testJdkClient() {
+        if (!JdkFitHttpClient.isSupported()) {
+            return;
+        }
+        String flow = "{" +//
+                "   'uni': 'http'," +
+                "   'client': 'jdk'," +
+                "   'readTimeout': 5000," +
+                "   'url': 'http://127.0.0.1:" + PORT + "/echo'," +
+                "   'param': {" +
+                "       'a': 1" +
+                "   }" +
+                "}";
+
+        for (int i = 0; i < 3; i++) {
+            String output = ExecuteJsonNodeUtil.executeCode("{}", flow);
+            System.out.println(output);
+
+            JSONObject result = JSONObject.parseObject(output);
+            Assert.assertEquals("POST", result.getString("method"));
+            Assert.assertEquals("{\"a\":1}", result.getString("body"));
+            Assert.assertTrue(result.getString("contentType").startsWith("application/json"));
+        }
+
+        JSONObject statistics = FitHttpClientManager.getStatistics();
+        System.out.println(statistics);
+        JSONObject hostStatistics = statistics.getJSONObject("hosts").getJSONObject("http://127.0.0.1:" + PORT);
+        Assert.assertTrue(hostStatistics.getJSONObject("client").getLongValue("jdk") >= 3);
+        Assert.assertEquals(0, hostStatistics.getIntValue("active"));
+    }
+
+    public void testGetForm() {
+        for (String client : new String[]{"jdk", "hutool"}) {
+            FitHttpRequest request = new FitHttpRequest("GET", "http://127.0.0.1:" + PORT + "/echo");
+            request.setClientType(client);
+            JSONObject form = new JSONObject();
+            form.put("name", "fit lang");
+            request.setForm(form);
+
+            FitHttpResponse response = FitHttpClientManager.execute(request);
+            System.out.println(response.body());
+
+            Assert.assertEquals(200, response.getStatus());
+            Assert.assertEquals("fit lang", JSONObject.parseObject(response.body()).getString("name"));
+        }
+    }
+
+    public void testDefaultClient() {
+        Assert.assertEquals(HutoolFitHttpClient.TYPE, FitHttpClientManager.getDefaultClientType());
+        FitHttpRequest request = new FitHttpRequest("GET", "http://127.0.0.1:" + PORT + "/echo");
+        Assert.assertEquals(HutoolFitHttpClient.TYPE, FitHttpClientManager.selectClient(request).getType());
+    }
+
+    public void testJdkClientHeader() {
+        if (!JdkFitHttpClient.isSupported()) {
+            return;
+        }
+        FitHttpRequest request = new FitHttpRequest("GET", "http://127.0.0.1:" + PORT + "/echo");
+        request.setClientType(JdkFitHttpClient.TYPE);
+        FitHttpResponse response = FitHttpClientManager.execute(request);
+        //默认请求头和响应头名称与hutool一致
+        Assert.assertNotNull(JSONObject.parseObject(response.body()).getString("acceptEncoding"));
+        Assert.assertTrue(response.headers().containsKey("Content-Type"));
+
+        //jdk不允许的请求头交给hutool
+        request.getHeaders().put("Host", "fit.test");
+        Assert.assertEquals(HutoolFitHttpClient.TYPE, FitHttpClientManager.selectClient(request).getType());
+        response = FitHttpClientManager.execute(request);
+        Assert.assertEquals("fit.test", JSONObject.parseObject(response.body()).getString("host"));
+    }
+
+    public void testClearStatistics() {
+        String url = "http://127.0.0.1:" + PORT + "/echo";
+        FitHttpClientManager.execute(new FitHttpRequest("GET", url));
+        FitHttpClientManager.HostPool hostPool = FitHttpClientManager.getHostPool(url);
+
+        FitHttpClientManager.clearStatistics();
+        Assert.assertSame(hostPool, FitHttpClientManager.getHostPool(url));
+        Assert.assertEquals(0, hostPool.requestCount.sum());
+    }
+
+    public void testEvictIdleHostPool() {
+        int maxHostCount = FitHttpClientManager.maxHostCount;
+        try {
+            FitHttpClientManager.maxHostCount = 2;
+            FitHttpClientManager.HostPool busy = FitHttpClientManager.getHostPool("http://busy.test");
+            busy.acquire();
+            for (int i = 0; i < 10; i++) {
+                FitHttpClientManager.getHostPool("http://idle" + i + ".test");
+            }
+            System.out.println(FitHttpClientManager.hostPoolMap.keySet());
+            Assert.assertTrue(FitHttpClientManager.hostPoolMap.size() <= 2);
+            Assert.assertSame(busy, FitHttpClientManager.getHostPool("http://busy.test"));
+            busy.release();
+        } finally {
+            FitHttpClientManager.maxHostCount = maxHostCount;
+        }
+    }
+}
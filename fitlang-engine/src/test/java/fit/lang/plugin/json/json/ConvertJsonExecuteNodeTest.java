@@ -1,6 +1,7 @@
 package fit.lang.plugin.json.json;
 
 import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import fit.lang.plugin.json.define.JsonExecuteContext;
@@ -114,4 +115,60 @@ public class ConvertJsonExecuteNodeTest extends TestCase {
         System.out.println(output);
         Assert.assertEquals("{\"a\":1}", output);
     }
-}
\ No newline at end of file
+
+    public void testExecuteNestedArray() {
+        String flow = "{" +//
+                "   'uni': 'convert'," +
+                "   'express': {'m[]':'${matrix[][]}','first[]':'${matrix[][0]}','empty[].a':'${none[].a}'}," +
+                "}";
+
+        String output = ExecuteJsonNodeUtil.executeCode("{'matrix':[[1,2],[3],[]],'none':[]}", flow);
+
+        System.out.println(output);
+        Assert.assertEquals("{\"m\":[2,3],\"first\":[1,3,null]}", output);
+    }
+
+    public void testExecuteLargeArray() {
+        String flow = "{" +//
+                "   'uni': 'convert'," +
+                "   'express': {'list[].id':'${data.items[].code}','list[].tags[].name':'${data.items[].tags[].text}'}," +
+                "}";
+
+        int size = 100000;
+        JSONArray items = new JSONArray(size);
+        for (int i = 0; i < size; i++) {
+            JSONObject item = new JSONObject();
+            item.put("code", i);
+            item.put("tags", JSON.parseArray("[{'text':'t" + i + "'},{'text':'x'}]"));
+            items.add(item);
+        }
+        JSONObject input = new JSONObject();
+        input.put("data", JSONObject.of("items", items));
+
+        long beginTime = System.currentTimeMillis();
+        JSONObject output = ExecuteJsonNodeUtil.executeJson(input, JSON.parseObject(flow));
+        long cost = System.currentTimeMillis() - beginTime;
+
+        System.out.println("convert " + size + " cost: " + cost);
+        JSONArray list = output.getJSONArray("list");
+        Assert.assertEquals(size, list.size());
+        Assert.assertEquals(99999, list.getJSONObject(99999).get("id"));
+        Assert.assertEquals("t99999", list.getJSONObject(99999).getJSONArray("tags").getJSONObject(0).get("name"));
+        Assert.assertEquals("x", list.getJSONObject(5).getJSONArray("tags").getJSONObject(1).get("name"));
+    }
+
+    public void testExecuteLevelNotMatch() {
+        String flow = "{" +//
+                "   'uni': 'convert'," +
+                "   'express': {'a[].b[].c':'${a[].c}'}," +
+                "}";
+
+        try {
+            ExecuteJsonNodeUtil.executeCode("{'a':[{'c':1}]}", flow);
+            Assert.fail();
+        } catch (Exception e) {
+            System.out.println(e.getMessage());
+            Assert.assertTrue(e.getMessage().contains("convert express array level not match"));
+        }
+    }
+}
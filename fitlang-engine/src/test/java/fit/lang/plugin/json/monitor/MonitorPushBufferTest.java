@@ -0,0 +1,161 @@
+package fit.lang.plugin.json.monitor;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ZipUtil;
+import cn.hutool.http.HttpUtil;
+import cn.hutool.http.server.SimpleServer;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class MonitorPushBufferTest extends TestCase {
+
+    static final int PORT = 11197;
+
+    static final int SERVER_PORT = 11198;
+
+    static SimpleServer server;
+
+    static final List<JSONObject> received = new CopyOnWriteArrayList<>();
+
+    static volatile boolean fail;
+
+    File spillDir;
+
+    @Override
+    protected void setUp() {
+        received.clear();
+        fail = false;
+        spillDir = FileUtil.file(FileUtil.getTmpDir(), "fit-monitor-push-test-" + System.nanoTime());
+        if (server != null) {
+            return;
+        }
+        server = HttpUtil.createServer(PORT);
+        server.addAction("/receive", (request, response) -> {
+            if (fail) {
+                response.send(500);
+                response.close();
+                return;
+            }
+            byte[] body = request.getBodyBytes();
+            if ("gzip".equals(request.getHeader("Content-Encoding"))) {
+                body = ZipUtil.unGzip(body);
+            }
+            received.add(JSONObject.parseObject(new String(body, StandardCharsets.UTF_8)));
+            response.write("{\"message\":\"ok\"}", "application/json");
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        FileUtil.del(spillDir);
+    }
+
+    JSONObject buildConfig(int batchSize) {
+        JSONObject config = new JSONObject();
+        config.put("pushBatchSize", batchSize);
+        config.put("pushMaxRetry", 1);
+        config.put("pushRetryMillis", 10);
+        config.put("pushSpillPath", spillDir.getAbsolutePath());
+        return config;
+    }
+
+    static JSONObject buildPoint(long timestamp, double used) {
+        JSONObject point = new JSONObject();
+        point.put("used", used);
+        point.put("timestamp", timestamp);
+        return point;
+    }
+
+    public void testBatch() {
+        String url = "http://127.0.0.1:" + PORT + "/receive?batch";
+        MonitorPushBuffer buffer = MonitorPushBuffer.get(url, buildConfig(3), 1);
+        JSONObject header = new JSONObject();
+        header.put("clientId", "test");
+
+        for (int i = 1; i <= 2; i++) {
+            JSONObject result = buffer.add(header, buildPoint(i, i), buildPoint(i, i), false);
+            Assert.assertEquals("buffered", result.getString("message"));
+        }
+        Assert.assertEquals(0, received.size());
+
+        JSONObject result = buffer.add(header, buildPoint(3, 3), buildPoint(3, 3), false);
+        System.out.println(received);
+
+        Assert.assertEquals("ok", result.getString("message"));
+        Assert.assertEquals(1, received.size());
+        Assert.assertEquals("test", received.get(0).getString("clientId"));
+        Assert.assertEquals(3, received.get(0).getJSONArray("points").size());
+        Assert.assertEquals(3, received.get(0).getJSONObject("cpuPoint").getIntValue("used"));
+        Assert.assertEquals(0, buffer.getBufferSize());
+    }
+
+    public void testSpillAndResend() {
+        String url = "http://127.0.0.1:" + PORT + "/receive?spill";
+        MonitorPushBuffer buffer = MonitorPushBuffer.get(url, buildConfig(2), 1);
+        JSONObject header = new JSONObject();
+        header.put("clientId", "test");
+
+        fail = true;
+        for (int i = 1; i <= 4; i++) {
+            buffer.add(header, buildPoint(i, i), buildPoint(i, i), false);
+        }
+        System.out.println(buffer.getStatistics());
+        Assert.assertEquals(0, received.size());
+        Assert.assertTrue(buffer.getSpillFile().isFile());
+        Assert.assertEquals(2, FileUtil.readUtf8Lines(buffer.getSpillFile()).size());
+
+        //恢复后先合并补发溢出的数据，再推送新的数据
+        fail = false;
+        buffer.add(header, buildPoint(5, 5), buildPoint(5, 5), false);
+        buffer.add(header, buildPoint(6, 6), buildPoint(6, 6), false);
+        System.out.println(received);
+
+        Assert.assertEquals(2, received.size());
+        JSONArray resendPoints = received.get(0).getJSONArray("points");
+        Assert.assertEquals(4, resendPoints.size());
+        Assert.assertEquals(1, resendPoints.getJSONObject(0).getJSONObject("cpuPoint").getIntValue("timestamp"));
+        Assert.assertEquals(5, received.get(1).getJSONArray("points").getJSONObject(0).getJSONObject("cpuPoint").getIntValue("timestamp"));
+        Assert.assertFalse(buffer.getSpillFile().exists());
+    }
+
+    public void testReceiveBatch() {
+        String flow = "{" +//
+                "   'uni': 'server'," +
+                "   'port': " + SERVER_PORT + "," +
+                "   'service':{" +
+                "       '/receive':{" +
+                "           'uni':'receiveClientMonitorData'" +
+                "       }" +
+                "   }" +
+                "}";
+        ExecuteJsonNodeUtil.executeCode("{}", flow);
+
+        String url = "http://127.0.0.1:" + SERVER_PORT + "/receive";
+        MonitorPushBuffer buffer = MonitorPushBuffer.get(url, buildConfig(5), 1);
+        JSONObject header = new JSONObject();
+        header.put("clientId", "batch-client");
+        header.put("clientIp", "127.0.0.1");
+        header.put("cpuCount", 4);
+        header.put("memoryG", 8);
+        JSONObject result = null;
+        for (int i = 1; i <= 5; i++) {
+            result = buffer.add(header, buildPoint(i * 1000L, i), buildPoint(i * 1000L, i), false);
+        }
+        System.out.println(result);
+
+        //gzip压缩的批量数据一次接收
+        Assert.assertEquals(5, result.getIntValue("receiveCount"));
+        MonitorTimeSeries series = ReceiveClientMonitorDataJsonExecuteNode.getCpuSeries(result.getString("innerClientId"));
+        Assert.assertEquals(5, series.size());
+        Assert.assertEquals(5000L, series.getLastTimestamp());
+    }
+}
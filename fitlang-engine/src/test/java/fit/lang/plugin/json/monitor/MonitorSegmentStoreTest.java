@@ -0,0 +1,123 @@
+package fit.lang.plugin.json.monitor;
+
+import cn.hutool.core.io.FileUtil;
+import com.alibaba.fastjson2.JSONObject;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+public class MonitorSegmentStoreTest extends TestCase {
+
+    static final String[] FIELDS = new String[]{"used"};
+
+    File root;
+
+    @Override
+    protected void setUp() {
+        root = FileUtil.file(FileUtil.getTmpDir(), "fit-monitor-store-" + System.nanoTime());
+    }
+
+    @Override
+    protected void tearDown() {
+        FileUtil.del(root);
+    }
+
+    public void testAppendAndReopen() {
+        MonitorSegmentStore store = MonitorSegmentStore.open(root.getAbsolutePath(), null);
+        for (int i = 1; i <= 100; i++) {
+            store.append("client-1", "cpu", FIELDS, i * 1000L, new double[]{i});
+        }
+        store.close();
+
+        //重启后读取历史数据，并继续写入同一分段
+        store = MonitorSegmentStore.open(root.getAbsolutePath(), null);
+        for (int i = 101; i <= 120; i++) {
+            store.append("client-1", "cpu", FIELDS, i * 1000L, new double[]{i});
+        }
+
+        List<JSONObject> points = store.query("client-1", "cpu", FIELDS, 0, Long.MAX_VALUE, 0, null);
+        System.out.println(points.size());
+
+        Assert.assertEquals(120, points.size());
+        Assert.assertEquals(1.0, points.get(0).get("used"));
+        Assert.assertEquals(120000L, points.get(119).get("timestamp"));
+        Assert.assertEquals(1, new File(root, "client-1/cpu").list().length);
+        Assert.assertTrue(store.hasPartition("client-1"));
+        Assert.assertFalse(store.hasPartition("client-2"));
+
+        store.close();
+    }
+
+    public void testQueryRangeAndDownsample() {
+        JSONObject config = new JSONObject();
+        config.put("segmentHour", 1);
+        MonitorSegmentStore store = MonitorSegmentStore.open(root.getAbsolutePath(), config);
+        //每小时一个分段，共4个分段
+        for (int i = 1; i <= 3 * 3600; i++) {
+            store.append("_local", "cpu", FIELDS, i * 1000L, new double[]{i});
+        }
+        Assert.assertEquals(4, new File(root, "_local/cpu").list().length);
+
+        //不包含开始时间，包含结束时间
+        List<JSONObject> points = store.query("_local", "cpu", FIELDS, 3590000, 3610000, 0, null);
+        Assert.assertEquals(20, points.size());
+        Assert.assertEquals(3591.0, points.get(0).get("used"));
+        Assert.assertEquals(3610.0, points.get(19).get("used"));
+
+        points = store.query("_local", "cpu", FIELDS, 0, Long.MAX_VALUE, 10, "max");
+        System.out.println(points.get(0));
+        Assert.assertEquals(10, points.size());
+        Assert.assertEquals(1080.0, points.get(0).get("used"));
+        Assert.assertEquals(10800L, (long) points.get(9).getLong("timestamp") / 1000);
+
+        JSONObject sum = store.sum("_local", "cpu", FIELDS, 10000, Arrays.asList("used"));
+        //第一个点的值加上之后每秒的值
+        Assert.assertEquals(10800 * 10801 / 2.0 - 55, sum.getDoubleValue("used"), 0.001);
+
+        store.close();
+    }
+
+    public void testCompact() {
+        MonitorSegmentStore store = MonitorSegmentStore.open(root.getAbsolutePath(), null);
+        long day = 24 * 3600 * 1000L;
+        //第一天每秒一个点
+        for (int i = 0; i < 3600; i++) {
+            store.append("client-1", "memory", FIELDS, i * 1000L, new double[]{i % 300});
+        }
+        //第二天开始新的分段
+        store.append("client-1", "memory", FIELDS, day, new double[]{1});
+
+        //7天后原始数据压缩为5分钟平均值
+        store.compact(day * 8);
+        List<JSONObject> points = store.query("client-1", "memory", FIELDS, -1, Long.MAX_VALUE, 0, null);
+        System.out.println(points.get(0));
+        Assert.assertEquals(13, points.size());
+        Assert.assertEquals(149.5, points.get(0).get("used"));
+        Assert.assertEquals(299000L, points.get(0).get("timestamp"));
+        Assert.assertEquals(day, points.get(12).get("timestamp"));
+        store.close();
+
+        //重启后压缩数据仍然可以读取，超过90天全部删除
+        store = MonitorSegmentStore.open(root.getAbsolutePath(), null);
+        Assert.assertEquals(13, store.query("client-1", "memory", FIELDS, -1, Long.MAX_VALUE, 0, null).size());
+        store.compact(day * 100);
+        Assert.assertEquals(0, store.query("client-1", "memory", FIELDS, -1, Long.MAX_VALUE, 0, null).size());
+        store.close();
+    }
+
+    public void testClientInfo() {
+        MonitorSegmentStore store = MonitorSegmentStore.open(root.getAbsolutePath(), null);
+        JSONObject client = new JSONObject();
+        client.put("innerClientId", "a:b/c");
+        client.put("cpuCount", "8");
+        store.saveClientInfo("a:b/c", client);
+
+        Assert.assertEquals("8", store.loadClientInfo("a:b/c").getString("cpuCount"));
+        Assert.assertEquals(1, store.loadClientInfoList().size());
+        Assert.assertNull(store.loadClientInfo("other"));
+        store.close();
+    }
+}
@@ -0,0 +1,110 @@
+package fit.lang.plugin.json.monitor;
+
+import com.alibaba.fastjson2.JSONObject;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MonitorTimeSeriesTest extends TestCase {
+
+    public void testAppendAndOverwrite() {
+        MonitorTimeSeries series = new MonitorTimeSeries(new String[]{"used"}, 5);
+        for (int i = 1; i <= 8; i++) {
+            series.append(i * 1000L, new double[]{i});
+        }
+
+        List<JSONObject> points = series.query(0, Long.MAX_VALUE, 0, null);
+        System.out.println(points);
+
+        Assert.assertEquals(5, series.size());
+        Assert.assertEquals(5, points.size());
+        Assert.assertEquals(4000L, points.get(0).get("timestamp"));
+        Assert.assertEquals(8.0, points.get(4).get("used"));
+        Assert.assertEquals(4000L, series.getFirstTimestamp());
+        Assert.assertEquals(8000L, series.getLastTimestamp());
+    }
+
+    public void testQueryRange() {
+        MonitorTimeSeries series = new MonitorTimeSeries(new String[]{"used"}, 100);
+        for (int i = 1; i <= 150; i++) {
+            series.append(i * 1000L, new double[]{i});
+        }
+
+        //不包含开始时间，包含结束时间
+        List<JSONObject> points = series.query(60000, 70000, 0, null);
+        Assert.assertEquals(10, points.size());
+        Assert.assertEquals(61.0, points.get(0).get("used"));
+        Assert.assertEquals(70.0, points.get(9).get("used"));
+        Assert.assertEquals(10, series.count(60000, 70000));
+
+        //已覆盖的数据查不到
+        Assert.assertEquals(0, series.query(0, 50000, 0, null).size());
+        Assert.assertEquals(0, series.query(200000, Long.MAX_VALUE, 0, null).size());
+    }
+
+    public void testDownsample() {
+        MonitorTimeSeries series = new MonitorTimeSeries(new String[]{"used"}, 100);
+        for (int i = 1; i <= 100; i++) {
+            series.append(i * 1000L, new double[]{i});
+        }
+
+        List<JSONObject> avg = series.query(0, Long.MAX_VALUE, 10, MonitorTimeSeries.DOWNSAMPLE_AVG);
+        List<JSONObject> min = series.query(0, Long.MAX_VALUE, 10, MonitorTimeSeries.DOWNSAMPLE_MIN);
+        List<JSONObject> max = series.query(0, Long.MAX_VALUE, 10, MonitorTimeSeries.DOWNSAMPLE_MAX);
+        System.out.println(avg);
+
+        Assert.assertEquals(10, avg.size());
+        Assert.assertEquals(5.5, avg.get(0).get("used"));
+        Assert.assertEquals(10000L, avg.get(0).get("timestamp"));
+        Assert.assertEquals(91.0, min.get(9).get("used"));
+        Assert.assertEquals(100.0, max.get(9).get("used"));
+    }
+
+    public void testSumSameAsList() {
+        long now = System.currentTimeMillis();
+        MonitorTimeSeries series = new MonitorTimeSeries(new String[]{"free", "used"}, 10);
+        List<JSONObject> list = new ArrayList<>();
+        double[][] values = {{0.9, 0.1}, {0.8, 0.2}, {0.5, 0.5}};
+        for (int i = 0; i < values.length; i++) {
+            JSONObject point = new JSONObject();
+            point.put("timestamp", now - (2 - i) * 1000L);
+            point.put("free", values[i][0]);
+            point.put("used", values[i][1]);
+            list.add(point);
+            series.append(point);
+        }
+
+        List<String> sumFields = Arrays.asList("free", "used");
+        JSONObject result = series.sumInLastSecond(100, sumFields);
+        System.out.println(result);
+
+        Assert.assertEquals(JsonExecuteNodeMonitorUtil.sumDataInLastSecond(list, 100, sumFields), result);
+        Assert.assertEquals(JsonExecuteNodeMonitorUtil.sumCpuDataInLastSecond(list, 100, 4), JsonExecuteNodeMonitorUtil.sumCpuDataInLastSecond(series, 100, 4));
+    }
+
+    public void testConcurrentAppend() throws InterruptedException {
+        MonitorTimeSeries series = new MonitorTimeSeries(new String[]{"used"}, 1000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    series.append(System.currentTimeMillis(), new double[]{i});
+                    series.query(0, Long.MAX_VALUE, 16, null);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<JSONObject> points = series.query(0, Long.MAX_VALUE, 0, null);
+        Assert.assertEquals(1000, points.size());
+        for (int i = 1; i < points.size(); i++) {
+            Assert.assertTrue(points.get(i).getLongValue("timestamp") >= points.get(i - 1).getLongValue("timestamp"));
+        }
+    }
+}
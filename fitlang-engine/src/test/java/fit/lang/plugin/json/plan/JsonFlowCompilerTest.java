@@ -0,0 +1,144 @@
+package fit.lang.plugin.json.plan;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.info.NodeMetrics;
+import fit.lang.info.NodeMetricsRegistry;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.define.JsonExecuteContext;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class JsonFlowCompilerTest extends TestCase {
+
+    static final String FLOW = "{" +//
+            "   'uni': 'pipe'," +
+            "   'traceLevel': 'off'," +
+            "   'child': [" +
+            "       {'uni':'mix','json':{'total':'${price * count}','user':{'name':'${user.name}','tags':['${user.name}','fixed']}}}," +
+            "       {'uni':'set','path':'user.level','value':'${total > 10 ? \"high\" : \"low\"}'," +
+            "           'next':{'uni':'convert','express':{'name':'${user.name}','level':'${user.level}','total':'${total}'}}}," +
+            "       {'uni':'switch','switchField':'level','child':[" +
+            "           {'case':'high','uni':'mix','json':{'discount':0.8}}," +
+            "           {'case':'low','uni':'mix','json':{'discount':1}}" +
+            "       ]}," +
+            "       {'uni':'sequence','child':[{'uni':'get','path':'name'},{'uni':'mix','json':{'step':'${discount}'}}]}" +
+            "   ]" +
+            "}";
+
+    @Override
+    protected void tearDown() {
+        JsonFlowPlanCache.setCompileThreshold(JsonFlowPlanCache.DEFAULT_COMPILE_THRESHOLD);
+    }
+
+    public void testCompiledSameAsInterpreted() {
+        JsonFlowPlanCache.setCompileThreshold(0);
+        String[] inputs = new String[]{
+                "{'price':3,'count':5,'user':{'name':'fit'}}",
+                "{'price':1,'count':2,'user':{'name':'lang'}}",
+        };
+        String[] expected = new String[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            expected[i] = ExecuteJsonNodeUtil.executeCode(inputs[i], FLOW);
+        }
+
+        JsonFlowPlanCache.setCompileThreshold(2);
+        JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(FLOW));
+        for (int times = 0; times < 3; times++) {
+            for (int i = 0; i < inputs.length; i++) {
+                String output = ExecuteJsonNodeUtil.executeCode(inputs[i], FLOW);
+                System.out.println(output);
+                Assert.assertEquals(expected[i], output);
+            }
+        }
+        Assert.assertTrue(plan.isCompiled());
+    }
+
+    public void testNotCompileReturn() {
+        String flow = "{'uni':'pipe','traceLevel':'off','child':[{'uni':'return'},{'uni':'hello'}]}";
+        JsonFlowPlanCache.setCompileThreshold(0);
+        String expected = ExecuteJsonNodeUtil.executeCode("{'who':'fit'}", flow);
+
+        JsonFlowPlanCache.setCompileThreshold(1);
+        JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow));
+        String output = ExecuteJsonNodeUtil.executeCode("{'who':'fit'}", flow);
+        System.out.println(output);
+
+        Assert.assertEquals(expected, output);
+        Assert.assertFalse(plan.isCompiled());
+    }
+
+    public void testTimingCompiled() {
+        String flow = "{'uni':'pipe','traceLevel':'timing','child':[" +
+                "{'uni':'mix','json':{'a':'${x}'}}," +
+                "{'uni':'get','path':'tenant'}" +
+                "]}";
+        boolean enabled = NodeMetricsRegistry.isEnabled();
+        NodeMetricsRegistry.setEnabled(true);
+        try {
+            JsonFlowPlanCache.setCompileThreshold(0);
+            NodeMetricsRegistry.clear();
+            JSONObject expected = executeWithTenant(flow);
+            Set<String> interpretedNodeIds = getMetricsNodeIds();
+
+            JsonFlowPlanCache.setCompileThreshold(1);
+            JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow));
+            NodeMetricsRegistry.clear();
+            //get节点通过入参读取请求上下文
+            JSONObject output = executeWithTenant(flow);
+            System.out.println(output + ", " + getMetricsNodeIds());
+
+            Assert.assertTrue(plan.isCompiled());
+            Assert.assertEquals(expected, output);
+            Assert.assertEquals("t1", output.getString("name"));
+            Assert.assertEquals(interpretedNodeIds, getMetricsNodeIds());
+        } finally {
+            NodeMetricsRegistry.setEnabled(enabled);
+            NodeMetricsRegistry.clear();
+        }
+    }
+
+    static JSONObject executeWithTenant(String flow) {
+        JSONObject contextParam = new JSONObject();
+        contextParam.put("tenant", JSONObject.parseObject("{'name':'t1'}"));
+        return ExecuteJsonNodeUtil.executeFlow(JSONObject.parseObject("{'x':1}"), JSONObject.parseObject(flow), contextParam, new JsonExecuteContext());
+    }
+
+    static Set<String> getMetricsNodeIds() {
+        Set<String> nodeIds = new TreeSet<>();
+        for (NodeMetrics metrics : NodeMetricsRegistry.getMetricsList()) {
+            nodeIds.add(metrics.getNodeId());
+        }
+        return nodeIds;
+    }
+
+    public void testPerformance() {
+        String flow = "{'uni':'pipe','traceLevel':'off','child':[" +
+                "{'uni':'mix','json':{'a':'${x}','b':'${y.z}','c':'const'}}," +
+                "{'uni':'convert','express':{'x':'${a}','y.z':'${b}'}}" +
+                "]}";
+        String input = "{'x':1,'y':{'z':2}}";
+        int times = 20000;
+
+        JsonFlowPlanCache.setCompileThreshold(0);
+        long interpretTime = run(input, flow, times);
+        JsonFlowPlanCache.setCompileThreshold(1);
+        long compileTime = run(input, flow, times);
+
+        System.out.println("interpret: " + interpretTime + "ms, compiled: " + compileTime + "ms");
+        Assert.assertEquals("{\"x\":1,\"y\":{\"z\":2}}", ExecuteJsonNodeUtil.executeCode(input, flow));
+    }
+
+    static long run(String input, String flow, int times) {
+        for (int i = 0; i < 2000; i++) {
+            ExecuteJsonNodeUtil.executeCode(input, flow);
+        }
+        long beginTime = System.currentTimeMillis();
+        for (int i = 0; i < times; i++) {
+            ExecuteJsonNodeUtil.executeCode(input, flow);
+        }
+        return System.currentTimeMillis() - beginTime;
+    }
+}
@@ -0,0 +1,86 @@
+package fit.lang.plugin.json.plan;
+
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+public class JsonFlowPlanCacheTest extends TestCase {
+
+    public void testReuse() {
+        String flow = "{" +//
+                "   'uni': 'pipe'," +
+                "   'child': [{'uni':'hello'},{'uni':'mix','json':{'plan':'cache'}}]" +
+                "}";
+
+        JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow));
+        long buildCount = plan.getBuildCount();
+        long reuseCount = plan.getReuseCount();
+
+        String output1 = ExecuteJsonNodeUtil.executeCode("{'who':'world'}", flow);
+        String output2 = ExecuteJsonNodeUtil.executeCode("{'who':'fit'}", flow);
+
+        System.out.println(output1);
+        System.out.println(output2);
+
+        Assert.assertEquals("{\"message\":\"hello, world!\",\"plan\":\"cache\"}", output1);
+        Assert.assertEquals("{\"message\":\"hello, fit!\",\"plan\":\"cache\"}", output2);
+
+        Assert.assertSame(plan, JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow)));
+        Assert.assertTrue(plan.getBuildCount() - buildCount <= 1);
+        Assert.assertTrue(plan.getReuseCount() - reuseCount >= 1);
+    }
+
+    public void testLoopTimesNotKept() {
+        String flow = "{" +//
+                "   'uni': 'loop'," +
+                "   'isBagsMode': true," +
+                "   'child': {'uni':'echo'}" +
+                "}";
+
+        String output1 = ExecuteJsonNodeUtil.executeCode("{'loopTimes':3}", flow);
+        String output2 = ExecuteJsonNodeUtil.executeCode("{}", flow);
+
+        Assert.assertEquals(3, JSONObject.parseObject(output1).getJSONArray("list").size());
+        Assert.assertEquals(1, JSONObject.parseObject(output2).getJSONArray("list").size());
+    }
+
+    public void testNotPoolableNode() {
+        //removeField节点在字段中保存字段名，不在可复用列表中，每次重新构建
+        String flow = "{'uni':'pipe','child':[{'uni':'removeField','fieldNames':['a']},{'uni':'mix','json':{'pool':false}}]}";
+
+        JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow));
+        long reuseCount = plan.getReuseCount();
+        ExecuteJsonNodeUtil.executeCode("{'a':1,'b':2}", flow);
+        String output = ExecuteJsonNodeUtil.executeCode("{'a':1,'b':2}", flow);
+        System.out.println(output);
+
+        Assert.assertEquals(reuseCount, plan.getReuseCount());
+        Assert.assertEquals(0, plan.getIdleSize());
+    }
+
+    public void testModifyDefine() {
+        JSONObject flow = JSONObject.parseObject("{'uni':'mix','json':{'value':1}}");
+        JsonFlowPlan plan = JsonFlowPlanCache.getPlan(flow);
+        Assert.assertSame(plan, JsonFlowPlanCache.getPlan(flow));
+
+        //修改定义后使用新的计划
+        flow.getJSONObject("json").put("value", 2);
+        JsonFlowPlan newPlan = JsonFlowPlanCache.getPlan(flow);
+        Assert.assertNotSame(plan, newPlan);
+        Assert.assertEquals(2, newPlan.getFlowDefine().getJSONObject("json").getIntValue("value"));
+        Assert.assertEquals(1, plan.getFlowDefine().getJSONObject("json").getIntValue("value"));
+    }
+
+    public void testDisabled() {
+        String flow = "{'uni':'hello'}";
+        try {
+            JsonFlowPlanCache.setEnabled(false);
+            JsonFlowPlan plan = JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow));
+            Assert.assertNotSame(plan, JsonFlowPlanCache.getPlan(JSONObject.parseObject(flow)));
+            Assert.assertEquals("{\"message\":\"hello, world!\"}", ExecuteJsonNodeUtil.executeCode("{'who':'world'}", flow));
+        } finally {
+            JsonFlowPlanCache.setEnabled(true);
+        }
+    }
+}
@@ -1,8 +1,17 @@
 package fit.lang.plugin.json.web;
 
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.core.util.ZipUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.fastjson2.JSONObject;
 import fit.lang.plugin.json.ExecuteJsonNodeUtil;
 import fit.lang.plugin.json.web.ServerJsonExecuteNode;
 import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.nio.charset.StandardCharsets;
 
 public class ServerJsonExecuteNodeTest extends TestCase {
 
@@ -62,4 +71,37 @@ public class ServerJsonExecuteNodeTest extends TestCase {
 //        Thread.sleep(1000 * 1000);
     }
 
-}
\ No newline at end of file
+    public void testGzipBodyLimit() {
+        String url = "http://127.0.0.1:11304";
+        String flow = "{" +//
+                "   'uni': 'server'," +
+                "   'port': 11304," +
+                "   'maxGzipBodySize': 1024," +
+                "   'service':{" +
+                "       '/echo':{" +
+                "           'uni':'mix'," +
+                "           'json':{'size':'${name.length()}'}" +
+                "       }" +
+                "   }" +
+                "}";
+        try {
+            System.out.println(ExecuteJsonNodeUtil.executeCode("{}", flow));
+
+            byte[] small = ZipUtil.gzip("{\"name\":\"fit\"}".getBytes(StandardCharsets.UTF_8));
+            HttpResponse response = HttpRequest.post(url + "/echo").header("Content-Encoding", "gzip").body(small).execute();
+            System.out.println(response.body());
+            Assert.assertEquals(200, response.getStatus());
+            Assert.assertEquals(3, JSONObject.parseObject(response.body()).getIntValue("size"));
+
+            //解压后超过限制
+            String name = StrUtil.repeat('a', 100 * 1024);
+            byte[] large = ZipUtil.gzip(("{\"name\":\"" + name + "\"}").getBytes(StandardCharsets.UTF_8));
+            Assert.assertTrue(large.length < 1024);
+            response = HttpRequest.post(url + "/echo").header("Content-Encoding", "gzip").body(large).execute();
+            System.out.println(response.body());
+            Assert.assertEquals(413, response.getStatus());
+        } finally {
+            HttpUtil.get(url + "/_stop");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package fit.lang.plugin.json.web.server;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.server.SimpleServer;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class FitServerExecutorTest extends TestCase {
+
+    public void testMaxConcurrent() throws Exception {
+        JSONObject config = new JSONObject();
+        config.put("threads", 4);
+        config.put("maxConcurrent", 1);
+
+        int port = 11190;
+        FitServerInstance fitServer = ServerJsonExecuteNode.createFitServerInstance(port, config);
+        SimpleServer simpleServer = fitServer.getSimpleServer();
+        simpleServer.addAction("/slow", (request, response) -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                //ignore
+            }
+            response.write("{\"ok\":true}");
+        });
+        simpleServer.start();
+
+        ExecutorService client = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                futures.add(client.submit(() -> HttpRequest.get("http://127.0.0.1:" + port + "/slow").execute().getStatus()));
+            }
+            List<Integer> statusList = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                statusList.add(future.get());
+            }
+
+            System.out.println(statusList);
+            System.out.println(fitServer.getExecutor().getStatistics());
+
+            Assert.assertTrue(statusList.contains(200));
+            Assert.assertTrue(statusList.contains(503));
+            Assert.assertEquals(3, fitServer.getExecutor().getRejectedCount() + fitServer.getExecutor().getAcceptedCount());
+        } finally {
+            client.shutdown();
+            simpleServer.getRawServer().stop(0);
+            fitServer.getExecutor().shutdown();
+        }
+    }
+
+    public void testQueueFull() throws Exception {
+        JSONObject config = new JSONObject();
+        config.put("threads", 1);
+        config.put("queueSize", 1);
+
+        int port = 11305;
+        FitServerInstance fitServer = ServerJsonExecuteNode.createFitServerInstance(port, config);
+        SimpleServer simpleServer = fitServer.getSimpleServer();
+        simpleServer.addAction("/slow", (request, response) -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                //ignore
+            }
+            response.write("{\"ok\":true}");
+        });
+        simpleServer.start();
+
+        ExecutorService client = Executors.newFixedThreadPool(2);
+        try {
+            //一个处理中，一个排队
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(client.submit(() -> HttpRequest.get("http://127.0.0.1:" + port + "/slow").execute().getStatus()));
+                Thread.sleep(100);
+            }
+            //队列已满，不等待直接拒绝
+            long beginTime = System.currentTimeMillis();
+            int status = HttpRequest.get("http://127.0.0.1:" + port + "/slow").execute().getStatus();
+            long costTime = System.currentTimeMillis() - beginTime;
+            System.out.println(status + ", " + costTime + "ms, " + fitServer.getExecutor().getStatistics());
+
+            Assert.assertEquals(503, status);
+            Assert.assertTrue(costTime < 800);
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(200, future.get().intValue());
+            }
+        } finally {
+            client.shutdown();
+            simpleServer.getRawServer().stop(0);
+            fitServer.getExecutor().shutdown();
+        }
+    }
+
+    public void testDefaultStatistics() {
+        JSONObject config = new JSONObject();
+        config.put("type", FitServerExecutor.TYPE_DEFAULT);
+        JSONObject statistics = FitServerExecutor.create(config).getStatistics();
+        System.out.println(statistics);
+        Assert.assertEquals(0, statistics.getIntValue("threads"));
+        Assert.assertEquals(0, statistics.getIntValue("queueSize"));
+    }
+}
@@ -0,0 +1,145 @@
+package fit.lang.plugin.json.web.server;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FitServiceRouterTest extends TestCase {
+
+    static final int PORT = 11303;
+
+    static FitServiceRoute route(String path) {
+        return new FitServiceRoute(path, JSONObject.parseObject("{'uni':'mix','json':{'path':'" + path + "'}}"));
+    }
+
+    public void testMatch() {
+        FitServiceRouter router = new FitServiceRouter();
+        router.add(route("/user/{id}"));
+        router.add(route("/user/list"));
+        router.add(route("/user/{id}/order/{orderId}"));
+        router.add(route("GET /item/{id}"));
+        router.add(route("/file"));
+
+        //常量段优先
+        FitServiceRouter.Match match = router.match("GET", "/user/list");
+        Assert.assertEquals("/user/list", match.getRoute().getPath());
+        Assert.assertTrue(match.getPathParams().isEmpty());
+
+        match = router.match("POST", "/user/12");
+        Assert.assertEquals("/user/{id}", match.getRoute().getPath());
+        Assert.assertEquals("12", match.getPathParams().get("id"));
+
+        match = router.match("GET", "/user/12/order/3");
+        System.out.println(match.getPathParams());
+        Assert.assertEquals("12", match.getPathParams().get("id"));
+        Assert.assertEquals("3", match.getPathParams().get("orderId"));
+
+        //方法不匹配
+        Assert.assertEquals("/item/{id}", router.match("get", "/item/1").getRoute().getTemplate());
+        match = router.match("POST", "/item/1");
+        Assert.assertNull(match.getRoute());
+        Assert.assertTrue(match.isMethodNotAllowed());
+
+        //最长常量前缀匹配（按整段）
+        Assert.assertEquals("/file", router.match("GET", "/file/a/b.txt").getRoute().getPath());
+        Assert.assertNull(router.match("GET", "/other"));
+
+        router.remove(router.match("GET", "/user/list").getRoute());
+        Assert.assertEquals("/user/{id}", router.match("GET", "/user/list").getRoute().getPath());
+    }
+
+    public void testMatchPrefixSegment() {
+        FitServiceRouter router = new FitServiceRouter();
+        router.add(route("/api"));
+
+        //前缀按整段匹配：/api不处理/apiv2（原来按context字符前缀匹配时会处理）
+        Assert.assertEquals("/api", router.match("GET", "/api").getRoute().getPath());
+        Assert.assertEquals("/api", router.match("GET", "/api/x").getRoute().getPath());
+        Assert.assertNull(router.match("GET", "/apiv2"));
+        Assert.assertNull(router.match("GET", "/apiv2/x"));
+    }
+
+    public void testMatchMethodBacktrack() {
+        FitServiceRouter router = new FitServiceRouter();
+        router.add(route("POST /user/me"));
+        router.add(route("GET /user/{id}"));
+        router.add(route("POST /api"));
+
+        //常量段只有其他方法的服务时使用参数段
+        FitServiceRouter.Match match = router.match("GET", "/user/me");
+        Assert.assertEquals("GET /user/{id}", match.getRoute().getPath());
+        Assert.assertEquals("me", match.getPathParams().get("id"));
+        Assert.assertEquals("POST /user/me", router.match("POST", "/user/me").getRoute().getPath());
+        Assert.assertTrue(router.match("DELETE", "/user/me").isMethodNotAllowed());
+
+        //前缀只有其他方法的服务时不匹配，交给rootAction
+        Assert.assertNull(router.match("GET", "/api/x.html"));
+        Assert.assertEquals("POST /api", router.match("POST", "/api/x").getRoute().getPath());
+
+        //HEAD使用GET的服务
+        match = router.match("HEAD", "/user/12");
+        Assert.assertEquals("GET /user/{id}", match.getRoute().getPath());
+        Assert.assertEquals("12", match.getPathParams().get("id"));
+    }
+
+    public void testPutRouteReplace() throws InterruptedException {
+        FitServerInstance serverInstance = new FitServerInstance();
+        serverInstance.putRoute(route("/user/{id}"));
+
+        //替换期间并发查找，始终能找到服务
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger missCount = new AtomicInteger();
+        Thread thread = new Thread(() -> {
+            while (running.get()) {
+                FitServiceRouter.Match match = serverInstance.getRouter().match("GET", "/user/1");
+                if (match == null || match.getRoute() == null) {
+                    missCount.incrementAndGet();
+                }
+            }
+        });
+        thread.start();
+        for (int i = 0; i < 10000; i++) {
+            serverInstance.putRoute(route("/user/{id}"));
+        }
+        running.set(false);
+        thread.join();
+
+        System.out.println("miss: " + missCount.get());
+        Assert.assertEquals(0, missCount.get());
+        Assert.assertSame(serverInstance.getRoute("/user/{id}"), serverInstance.getRouter().match("GET", "/user/1").getRoute());
+    }
+
+    public void testServerPathParam() {
+        String url = "http://127.0.0.1:" + PORT;
+        try {
+            String flow = "{'uni':'server','port':" + PORT + ",'service':{" +
+                    "'GET /user/{id}':{'uni':'mix','json':{'id':'${id}','method':'get'}}," +
+                    "'POST /user/{id}':{'uni':'mix','json':{'id':'${id}','method':'post'}}," +
+                    "'/user/list':{'uni':'mix','json':{'list':true}}}}";
+            System.out.println(ExecuteJsonNodeUtil.executeCode("{}", flow));
+
+            JSONObject result = JSONObject.parseObject(HttpUtil.get(url + "/user/12"));
+            System.out.println(result);
+            Assert.assertEquals("12", result.getString("id"));
+            Assert.assertEquals("get", result.getString("method"));
+
+            result = JSONObject.parseObject(HttpRequest.post(url + "/user/13").body("{}").execute().body());
+            Assert.assertEquals("13", result.getString("id"));
+            Assert.assertEquals("post", result.getString("method"));
+
+            Assert.assertTrue(JSONObject.parseObject(HttpUtil.get(url + "/user/list")).getBooleanValue("list"));
+            Assert.assertEquals(405, HttpRequest.put(url + "/user/12").execute().getStatus());
+            Assert.assertEquals(200, HttpRequest.head(url + "/user/12").execute().getStatus());
+        } finally {
+            HttpUtil.get(url + "/_stop");
+            ServerJsonExecuteNode.setCurrentServerFilePath(null);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package fit.lang.plugin.json.web.server;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.http.HttpUtil;
+import com.alibaba.fastjson2.JSONObject;
+import fit.lang.plugin.json.ExecuteJsonNodeUtil;
+import fit.lang.plugin.json.web.ServerJsonExecuteNode;
+import junit.framework.TestCase;
+import org.junit.Assert;
+
+import java.io.File;
+import java.util.function.BooleanSupplier;
+
+public class FitServiceWatcherTest extends TestCase {
+
+    static final int PORT = 11302;
+
+    public void testWatchServiceDir() throws Exception {
+        File serviceDir = FileUtil.mkdir(FileUtil.file(FileUtil.getTmpDir(), "fit-service-watch-" + System.nanoTime()));
+        FileUtil.writeUtf8String("{'uni':'mix','json':{'version':1}}", FileUtil.file(serviceDir, "a.fit"));
+        String url = "http://127.0.0.1:" + PORT;
+
+        FitServerInstance fitServer = null;
+        try {
+            ServerJsonExecuteNode.setCurrentServerFilePath(serviceDir.getAbsolutePath() + "/server.fit");
+            String flow = "{'uni':'server','port':" + PORT + ",'watch':true,'watchDelayMillis':50}";
+            System.out.println(ExecuteJsonNodeUtil.executeCode("{}", flow));
+            fitServer = ServerJsonExecuteNode.getFitServerInstance(PORT);
+            Assert.assertEquals(1, JSONObject.parseObject(HttpUtil.get(url + "/a.fit")).getIntValue("version"));
+            FitServiceRoute route = fitServer.getRoute("/a.fit");
+
+            //修改：只替换路由中的服务定义
+            FileUtil.writeUtf8String("{'uni':'mix','json':{'version':2}}", FileUtil.file(serviceDir, "a.fit"));
+            waitFor(() -> JSONObject.parseObject(HttpUtil.get(url + "/a.fit")).getIntValue("version") == 2);
+            Assert.assertSame(route, ServerJsonExecuteNode.getFitServerInstance(PORT).getRoute("/a.fit"));
+            Assert.assertTrue(route.getVersion() > 1);
+
+            //解析失败保留旧版本
+            FileUtil.writeUtf8String("{'uni':'mix',", FileUtil.file(serviceDir, "a.fit"));
+            Thread.sleep(500);
+            Assert.assertEquals(2, JSONObject.parseObject(HttpUtil.get(url + "/a.fit")).getIntValue("version"));
+
+            //构建失败（未注册的uni）保留旧版本
+            FileUtil.writeUtf8String("{'uni':'notExistUni','json':{'version':3}}", FileUtil.file(serviceDir, "a.fit"));
+            Thread.sleep(500);
+            Assert.assertEquals(2, JSONObject.parseObject(HttpUtil.get(url + "/a.fit")).getIntValue("version"));
+            Assert.assertEquals(2, route.getVersion());
+
+            //新建目录和文件
+            File subDir = FileUtil.mkdir(FileUtil.file(serviceDir, "sub"));
+            FileUtil.writeUtf8String("{'uni':'mix','json':{'name':'b'}}", FileUtil.file(subDir, "b.fit"));
+            FitServerInstance server = fitServer;
+            waitFor(() -> server.getRoute("/sub/b.fit") != null);
+            Assert.assertEquals("b", JSONObject.parseObject(HttpUtil.get(url + "/sub/b.fit")).getString("name"));
+
+            //删除
+            FileUtil.del(FileUtil.file(serviceDir, "a.fit"));
+            waitFor(() -> server.getRoute("/a.fit") == null);
+            Assert.assertNotNull(fitServer.getRoute("/sub/b.fit"));
+        } finally {
+            if (fitServer != null) {
+                fitServer.getWatcher().stop();
+                HttpUtil.get(url + "/_stop");
+            }
+            ServerJsonExecuteNode.setCurrentServerFilePath(null);
+            FileUtil.del(serviceDir);
+        }
+    }
+
+    static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        Assert.fail("wait timeout");
+    }
+}